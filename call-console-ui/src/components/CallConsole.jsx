@@ -17,9 +17,9 @@ const CallConsole = ({ onLogout }) => {
     const localVideoRef = useRef(null);
     const remoteVideoRef = useRef(null); 
     const transcriptRef = useRef(null);
+    const callIdRef = useRef(null); // Server-issued id of the current call
 
     const currentUser = JSON.parse(localStorage.getItem('user'))?.username || 'Guest';
-    const mockCallId = 1001; 
 
     // ----------------------------------------------------
     // 3. HELPER FUNCTIONS
@@ -36,6 +36,7 @@ const CallConsole = ({ onLogout }) => {
     if (message.type === 'CALL') {
         switch (message.action) {
             case 'RING':
+                callIdRef.current = message.callId;
                 incomingCallerRef.current = message.sender;
                 setIncomingCaller(message.sender);
                 setCallStatus('Ringing');
@@ -58,12 +59,15 @@ const CallConsole = ({ onLogout }) => {
             case 'HANGUP':
                 // This triggers for User B when User A clicks Hang Up
                 WebRTCSignalingService.stopAudioStreaming();
+                callIdRef.current = null;
                 setCallStatus('Idle');
                 setIncomingCaller(null);
                 incomingCallerRef.current = null;
                 setTargetUser('');
                 if (remoteVideoRef.current) remoteVideoRef.current.srcObject = null;
-                setMessage("The other user ended the call.");
+                setMessage(message.reason === 'NO_ANSWER' ? "No answer."
+                    : message.reason === 'ANSWERED_ELSEWHERE' ? "Answered on another device."
+                    : "The other user ended the call.");
                 break;
                 
             default:
@@ -71,6 +75,9 @@ const CallConsole = ({ onLogout }) => {
         }
     } else if (message.type === 'TRANSCRIPT') {
         setTranscript(prev => prev + "\n" + message.text);
+    } else if (message.type === 'INTENT') {
+        // First mention of an intent in this call, e.g. [REFUND] bob: "refund"
+        setTranscript(prev => prev + `\n[${message.intent}] ${message.speaker}: "${message.phrase}"`);
     }
 }, []);
 
@@ -107,7 +114,8 @@ const CallConsole = ({ onLogout }) => {
                     setMessage("Please enter a valid username to call.");
                     return;
                 }
-                await CallService.initiateCall(targetUser); 
+                const response = await CallService.initiateCall(targetUser);
+                callIdRef.current = response.data.callId;
                 setCallStatus('Ringing');
                 setMessage(`Calling ${targetUser}... Check Receiver's Browser!`);
             } 
@@ -120,7 +128,7 @@ const CallConsole = ({ onLogout }) => {
                     return;
                 }
 
-                await CallService.answerCall(mockCallId, caller);
+                await CallService.answerCall(callIdRef.current, caller);
                 
                 setCallStatus('Active');
                 setMessage(`Call Answered. Connected to ${caller}.`);
@@ -135,7 +143,8 @@ const CallConsole = ({ onLogout }) => {
             else if (action === 'HANGUP') {
                 const peerToNotify = incomingCallerRef.current || targetUser;
 
-                await CallService.hangupCall(mockCallId, peerToNotify);
+                await CallService.hangupCall(callIdRef.current, peerToNotify);
+                callIdRef.current = null;
                 
                 // --- NEW: STOP AI RECORDING ---
                 WebRTCSignalingService.stopAudioStreaming();
@@ -1,6 +1,7 @@
 // src/services/CallService.js
 import axios from 'axios';
 import AuthService from './AuthService'; 
+import WebRTCSignalingService from './WebRTCSignalingService';
 
 const API_URL = 'http://localhost:8080/call';
 
@@ -11,7 +12,7 @@ const getConfig = () => {
 
 const initiateCall = (receiver) => {
     return axios.post(`${API_URL}/ring`, null, { 
-        params: { receiver },
+        params: { receiver, device: WebRTCSignalingService.getDeviceId() },
         ...getConfig() 
     });
 };
@@ -29,7 +30,8 @@ const answerCall = (callId, callerUsername) => {
     return axios.post(`${API_URL}/answer`, null, { 
         params: { 
             callId: callId,
-            caller: callerUsername 
+            caller: callerUsername,
+            device: WebRTCSignalingService.getDeviceId()
         },
         ...getConfig() 
     });
@@ -2,8 +2,19 @@ import AuthService from './AuthService';
 
 const WS_URL = 'ws://localhost:8080/websocket-signaling';
 const AUDIO_API_URL = 'http://localhost:8080/api/audio/transcribe'; 
+const SDP_DICTIONARY_URL = 'http://localhost:8080/api/signaling/sdp-dictionary';
 
 let ws = null;
+// One id per tab, so the server can tell this device apart from the user's others (and pin calls to it)
+const DEVICE_KEY = 'deviceId';
+const getDeviceId = () => {
+    let id = sessionStorage.getItem(DEVICE_KEY);
+    if (!id) {
+        id = crypto.randomUUID();
+        sessionStorage.setItem(DEVICE_KEY, id);
+    }
+    return id;
+};
 let localStream = null;
 let isAiStreaming = false; 
 
@@ -18,20 +29,51 @@ const MAX_CHUNK_TIME = 8000;  // Increased max length to 8s (better context)
 const SILENCE_THRESHOLD = 1500; // Wait 1.5s of silence before cutting (prevents chopping)
 const VOLUME_THRESHOLD = 10;   // Lowered from 20 to 10 (picks up quiet speech better)
 
+// SDP dictionary (see SdpDictionary on the server); when loaded, SDP is sent to us in its compact form
+let sdpDictionary = null;
+const CODES = '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz';
+
+const loadSdpDictionary = async () => {
+    try {
+        const response = await fetch(SDP_DICTIONARY_URL, { headers: AuthService.getAuthHeader() });
+        if (response.ok) sdpDictionary = await response.json();
+    } catch (error) { }
+};
+
+// ~c dictionary line, ^c prefix + rest, !literal; lines joined with \n, SDP uses CRLF
+const decodeSdp = (compact) => compact.split('\n').map(line => {
+    if (line.startsWith('~')) return sdpDictionary.lines[CODES.indexOf(line[1])];
+    if (line.startsWith('^')) return sdpDictionary.prefixes[CODES.indexOf(line[1])] + line.slice(2);
+    if (line.startsWith('!')) return line.slice(1);
+    return line;
+}).join('\r\n') + '\r\n';
+
+const expandSdp = (message) => {
+    if (!sdpDictionary || message.sdpEncoding !== sdpDictionary.version) return message;
+    if (typeof message.sdp === 'string') message.sdp = decodeSdp(message.sdp);
+    else if (message.sdp && typeof message.sdp.sdp === 'string') message.sdp.sdp = decodeSdp(message.sdp.sdp);
+    delete message.sdpEncoding;
+    return message;
+};
+
 const connect = (username, onMessageReceived, onLocalStream) => {
     if (ws && ws.readyState === WebSocket.OPEN) return;
 
     navigator.mediaDevices.getUserMedia({ video: true, audio: true })
-        .then(stream => {
+        .then(async stream => {
             localStream = stream;
             onLocalStream(stream);
+            await loadSdpDictionary();
 
-            ws = new WebSocket(WS_URL);
+            // The server authenticates the socket (and takes the tenant) from the login token
+            ws = new WebSocket(`${WS_URL}?token=${encodeURIComponent(AuthService.getCurrentUserToken())}`);
             ws.onopen = () => { 
-                ws.send(JSON.stringify({ type: 'REGISTER', username: username }));
+                const register = { type: 'REGISTER', username: username, device: getDeviceId() };
+                if (sdpDictionary) register.sdpEncoding = sdpDictionary.version;
+                ws.send(JSON.stringify(register));
             };
             ws.onmessage = (event) => {
-                onMessageReceived(JSON.parse(event.data));
+                onMessageReceived(expandSdp(JSON.parse(event.data)));
             };
         })
         .catch(error => console.error("Media Error: ", error));
@@ -180,9 +222,6 @@ const stopAudioStreaming = () => {
 const sendAudioToBackend = async (audioBlob) => {
     const formData = new FormData();
     formData.append('audio', audioBlob, 'chunk.webm');
-    
-    const username = JSON.parse(localStorage.getItem('user'))?.username;
-    formData.append('user', username);
 
     const headers = AuthService.getAuthHeader();
     
@@ -207,7 +246,8 @@ const WebRTCSignalingService = {
     connect,
     disconnect,
     startAudioStreaming,
-    stopAudioStreaming
+    stopAudioStreaming,
+    getDeviceId
 };
 
 export default WebRTCSignalingService;
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.webrtc;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.Bean;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-@SpringBootApplication 
+@SpringBootApplication
+@EnableScheduling
 public class SignalingServerApplication {
 
 	public static void main(String[] args) {
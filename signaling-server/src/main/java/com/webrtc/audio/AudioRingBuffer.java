@@ -0,0 +1,126 @@
+package com.webrtc.audio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring of 16-bit mono PCM for one audio stream.
+ *
+ * The WebSocket thread appends frames; the transcription side takes windows that point
+ * straight into the backing array. When the ring is full the oldest audio not yet taken is
+ * overwritten, so captions keep up with the speaker. A window still being sent upstream is
+ * never overwritten: while one is out, audio that doesn't fit is dropped instead of corrupting
+ * the in-flight request.
+ */
+public class AudioRingBuffer {
+
+    private final byte[] buffer;
+    private final int sampleRate;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Absolute byte positions; index into buffer is position % capacity. readPosition is the first
+    // byte not yet taken; an outstanding window covers [windowStart, its end)
+    private long writePosition;
+    private long readPosition;
+    private long windowStart;
+    private boolean windowOutstanding;
+    private long droppedBytes;
+
+    public AudioRingBuffer(int sampleRate, int capacitySeconds) {
+        this.sampleRate = sampleRate;
+        this.buffer = new byte[Math.multiplyExact(Math.multiplyExact(sampleRate, 2), capacitySeconds)];
+    }
+
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Appends PCM from the frame. Returns the number of bytes lost because the ring was full:
+     * older audio overwritten, plus any of the frame that didn't fit.
+     */
+    public int write(ByteBuffer frame) {
+        lock.lock();
+        try {
+            int remaining = frame.remaining();
+            int length = remaining & ~1; // keep whole 16-bit samples
+            // A frame longer than the ring only keeps its newest part
+            int skipped = Math.max(0, length - buffer.length);
+            frame.position(frame.position() + skipped);
+            length -= skipped;
+
+            long oldest = windowOutstanding ? windowStart : readPosition;
+            int free = buffer.length - (int) (writePosition - oldest);
+            int evicted = 0;
+            if (length > free && !windowOutstanding) {
+                evicted = length - free;
+                readPosition += evicted;
+                free = length;
+            }
+            int accepted = Math.min(length, free);
+            int dropped = remaining - accepted + evicted;
+
+            int index = (int) (writePosition % buffer.length);
+            int firstPart = Math.min(accepted, buffer.length - index);
+            frame.get(buffer, index, firstPart);
+            frame.get(buffer, 0, accepted - firstPart);
+            frame.position(frame.limit());
+
+            writePosition += accepted;
+            droppedBytes += dropped;
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bytes written but not yet handed out as a window
+    public int available() {
+        lock.lock();
+        try {
+            return windowOutstanding ? 0 : (int) (writePosition - readPosition);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves up to maxBytes from the read position. Only one window may be outstanding,
+     * so transcripts come back in order. Returns null if nothing is available.
+     */
+    public AudioWindow takeWindow(int maxBytes) {
+        lock.lock();
+        try {
+            int length = (int) Math.min(writePosition - readPosition, maxBytes) & ~1;
+            if (windowOutstanding || length == 0) return null;
+            windowOutstanding = true;
+            windowStart = readPosition;
+            readPosition += length;
+
+            int index = (int) (windowStart % buffer.length);
+            int firstLength = Math.min(length, buffer.length - index);
+            return new AudioWindow(buffer, index, firstLength, length - firstLength, sampleRate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Frees the window's bytes for reuse by the writer
+    public void release(AudioWindow window) {
+        lock.lock();
+        try {
+            windowOutstanding = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long droppedBytes() {
+        lock.lock();
+        try {
+            return droppedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.webrtc.audio;
+
+/**
+ * A view over a contiguous stretch of PCM in an {@link AudioRingBuffer}.
+ *
+ * The bytes are not copied: when the stretch wraps around the end of the ring it is
+ * described as two segments, [firstOffset, firstOffset + firstLength) and [0, secondLength).
+ * The region stays reserved until the owner calls {@link AudioRingBuffer#release(AudioWindow)}.
+ */
+public record AudioWindow(byte[] buffer, int firstOffset, int firstLength, int secondLength, int sampleRate) {
+
+    public int length() {
+        return firstLength + secondLength;
+    }
+
+    public long durationMillis() {
+        // 16-bit mono
+        return length() * 1000L / (sampleRate * 2L);
+    }
+
+    // The bytes [from, to) of this window, still pointing into the same array
+    public AudioWindow slice(int from, int to) {
+        if (from >= firstLength) {
+            return new AudioWindow(buffer, from - firstLength, to - from, 0, sampleRate);
+        }
+        int end = Math.min(to, firstLength);
+        return new AudioWindow(buffer, firstOffset + from, end - from, Math.max(0, to - firstLength), sampleRate);
+    }
+}
@@ -0,0 +1,82 @@
+package com.webrtc.audio;
+
+/**
+ * Energy-based voice activity detection on 16-bit mono PCM.
+ *
+ * The window is cut into short frames; a frame counts as speech when its RMS level is above
+ * the threshold (in dBFS). A window with less speech than minSpeechMs is silence. Otherwise
+ * it is trimmed to the first and last speech frames, with paddingMs kept on either side so
+ * word onsets and tails aren't clipped.
+ *
+ * Stateless and allocation-free apart from the returned slice, so one instance is shared.
+ */
+public class VoiceActivityDetector {
+
+    private static final int FRAME_MS = 20;
+
+    private final double thresholdSquared;
+    private final int minSpeechFrames;
+    private final int paddingMs;
+
+    public VoiceActivityDetector(double thresholdDbfs, int minSpeechMs, int paddingMs) {
+        double threshold = 32768 * Math.pow(10, thresholdDbfs / 20);
+        this.thresholdSquared = threshold * threshold;
+        this.minSpeechFrames = Math.max(1, minSpeechMs / FRAME_MS);
+        this.paddingMs = paddingMs;
+    }
+
+    /**
+     * Returns the part of the window worth transcribing: the window itself, a trimmed slice
+     * of it, or null if it is silence.
+     */
+    public AudioWindow detect(AudioWindow window) {
+        int frameBytes = window.sampleRate() * FRAME_MS / 1000 * 2;
+        int length = window.length();
+        byte[] pcm = window.buffer();
+
+        int firstSpeech = -1;
+        int lastSpeech = -1;
+        int speechFrames = 0;
+        int frame = 0;
+        long sumSquares = 0;
+        int frameFill = 0;
+
+        // Walk both ring segments as one stream; frames may straddle the wrap
+        for (int segment = 0; segment < 2; segment++) {
+            int from = segment == 0 ? window.firstOffset() : 0;
+            int to = from + (segment == 0 ? window.firstLength() : window.secondLength());
+            for (int i = from; i + 1 < to; i += 2) {
+                int sample = (short) ((pcm[i] & 0xff) | (pcm[i + 1] << 8));
+                sumSquares += (long) sample * sample;
+                frameFill += 2;
+                if (frameFill == frameBytes) {
+                    if (sumSquares > thresholdSquared * (frameBytes / 2)) {
+                        if (firstSpeech < 0) firstSpeech = frame;
+                        lastSpeech = frame;
+                        speechFrames++;
+                    }
+                    frame++;
+                    sumSquares = 0;
+                    frameFill = 0;
+                }
+            }
+        }
+        // A trailing partial frame is judged on its own samples
+        if (frameFill > 0 && sumSquares > thresholdSquared * (frameFill / 2)) {
+            if (firstSpeech < 0) firstSpeech = frame;
+            lastSpeech = frame;
+            speechFrames++;
+        }
+
+        if (speechFrames < minSpeechFrames) {
+            return null;
+        }
+        int padBytes = (int) ((long) window.sampleRate() * paddingMs / 1000) * 2;
+        int start = Math.max(0, firstSpeech * frameBytes - padBytes);
+        int end = Math.min(length, (lastSpeech + 1) * frameBytes + padBytes);
+        if (start == 0 && end == length) {
+            return window;
+        }
+        return window.slice(start, end);
+    }
+}
@@ -0,0 +1,64 @@
+package com.webrtc.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// 44-byte RIFF/WAVE header for 16-bit mono PCM, so a raw window can be posted to STT as a .wav file,
+// and the reverse for uploaded clips
+public final class WavHeader {
+
+    public static final int LENGTH = 44;
+
+    private WavHeader() {
+    }
+
+    public static byte[] pcm16Mono(int sampleRate, int dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] { 'R', 'I', 'F', 'F' });
+        header.putInt(36 + dataLength);
+        header.put(new byte[] { 'W', 'A', 'V', 'E', 'f', 'm', 't', ' ' });
+        header.putInt(16);                 // fmt chunk size
+        header.putShort((short) 1);        // PCM
+        header.putShort((short) 1);        // mono
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * 2);     // byte rate
+        header.putShort((short) 2);        // block align
+        header.putShort((short) 16);       // bits per sample
+        header.put(new byte[] { 'd', 'a', 't', 'a' });
+        header.putInt(dataLength);
+        return header.array();
+    }
+
+    /**
+     * A window over the samples of a 16-bit mono PCM WAV file, or null if the bytes are
+     * anything else (webm/opus from MediaRecorder, stereo, float...).
+     */
+    public static AudioWindow pcm16MonoData(byte[] wav) {
+        ByteBuffer in = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+        if (wav.length < 12 || in.getInt(0) != 0x46464952 || in.getInt(8) != 0x45564157) { // "RIFF", "WAVE"
+            return null;
+        }
+        int sampleRate = -1;
+        int position = 12;
+        while (position + 8 <= wav.length) {
+            int chunkId = in.getInt(position);
+            int chunkSize = in.getInt(position + 4);
+            int body = position + 8;
+            if (chunkSize < 0) return null;
+            if (chunkId == 0x20746d66) { // "fmt "
+                if (chunkSize < 16 || body + 16 > wav.length) return null;
+                if (in.getShort(body) != 1 || in.getShort(body + 2) != 1 || in.getShort(body + 14) != 16) {
+                    return null;
+                }
+                sampleRate = in.getInt(body + 4);
+            } else if (chunkId == 0x61746164) { // "data"
+                if (sampleRate <= 0) return null;
+                int length = Math.min(chunkSize, wav.length - body) & ~1;
+                return new AudioWindow(wav, body, length, 0, sampleRate);
+            }
+            if (chunkSize > wav.length - body) return null;
+            position = body + chunkSize + (chunkSize & 1);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.webrtc.call;
+
+import com.webrtc.timer.HashedWheelTimer;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * One call between a caller and a callee. State changes are compare-and-set, so racing
+ * answer / hangup / timeout requests settle on exactly one winner without locking.
+ */
+public final class Call {
+
+    private static final AtomicReferenceFieldUpdater<Call, CallState> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Call.class, CallState.class, "state");
+
+    private final long id;
+    private final String caller;
+    private final String callee;
+    private final String tenant;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile CallState state = CallState.RINGING;
+    private volatile long answeredAt;
+    private volatile long lastActivityNanos = System.nanoTime();
+    // Ring timeout while RINGING, idle timeout while ACTIVE
+    volatile HashedWheelTimer.Timeout timeout;
+
+    Call(long id, String caller, String callee, String tenant) {
+        this.id = id;
+        this.caller = caller;
+        this.callee = callee;
+        this.tenant = tenant;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public String getCallee() {
+        return callee;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public CallState getState() {
+        return state;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getAnsweredAt() {
+        return answeredAt;
+    }
+
+    public boolean isParticipant(String username) {
+        return caller.equals(username) || callee.equals(username);
+    }
+
+    // The other side of the call, from username's point of view
+    public String peerOf(String username) {
+        return caller.equals(username) ? callee : caller;
+    }
+
+    boolean transition(CallState from, CallState to) {
+        if (!STATE.compareAndSet(this, from, to)) return false;
+        if (to == CallState.ACTIVE) answeredAt = System.currentTimeMillis();
+        return true;
+    }
+
+    // CAS to ENDED, only if the call is still in the given state (a timeout that lost a race with answer / hangup)
+    boolean end(CallState from) {
+        return STATE.compareAndSet(this, from, CallState.ENDED);
+    }
+
+    // CAS to ENDED from whatever live state the call is in
+    boolean end() {
+        CallState current;
+        while ((current = state) != CallState.ENDED) {
+            if (STATE.compareAndSet(this, current, CallState.ENDED)) return true;
+        }
+        return false;
+    }
+
+    void touch() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    long lastActivityNanos() {
+        return lastActivityNanos;
+    }
+}
@@ -0,0 +1,52 @@
+package com.webrtc.call;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style call ids: [40 bits ms since 2025-01-01][5 bits worker][8 bits sequence].
+ *
+ * 53 bits in total, so ids survive a round trip through JavaScript numbers in the browser.
+ * Ids increase monotonically per node and never repeat across nodes with distinct workers.
+ * Past 256 ids in a millisecond the generator borrows from the next millisecond instead of
+ * waiting, and it never goes backwards if the wall clock does.
+ */
+public class CallIdGenerator {
+
+    private static final long EPOCH = 1735689600000L; // 2025-01-01T00:00:00Z
+    private static final int WORKER_BITS = 5;
+    private static final int SEQUENCE_BITS = 8;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    public static final int MAX_WORKERS = 1 << WORKER_BITS;
+
+    private final long worker;
+    // Last issued (millis << SEQUENCE_BITS | sequence)
+    private final AtomicLong last = new AtomicLong();
+
+    public CallIdGenerator(int worker) {
+        if (worker < 0 || worker >= MAX_WORKERS) {
+            throw new IllegalArgumentException("worker must be in [0, " + MAX_WORKERS + "): " + worker);
+        }
+        this.worker = worker;
+    }
+
+    // Worker bits of an id, i.e. which node issued it (if workers are unique across the cluster)
+    public static int worker(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & (MAX_WORKERS - 1);
+    }
+
+    public int worker() {
+        return (int) worker;
+    }
+
+    public long next() {
+        while (true) {
+            long previous = last.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            long candidate = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, candidate)) {
+                long millis = candidate >>> SEQUENCE_BITS;
+                return (millis << (WORKER_BITS + SEQUENCE_BITS)) | (worker << SEQUENCE_BITS) | (candidate & SEQUENCE_MASK);
+            }
+        }
+    }
+}
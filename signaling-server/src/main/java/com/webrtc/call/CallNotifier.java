@@ -0,0 +1,73 @@
+package com.webrtc.call;
+
+import com.webrtc.codec.ServerEvent;
+import com.webrtc.codec.ServerEventWriter;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+// Sends the RING / ANSWERED / HANGUP call frames to participants over their signaling sockets.
+// Participants with several devices get the RING on all of them; after that, frames go to the
+// device each side is pinned to (the one they rang or answered from, when the client says which).
+@Component
+public class CallNotifier implements CallRegistry.Listener {
+
+    @Autowired
+    private ServerEventWriter eventWriter;
+
+    @Autowired
+    private SignalingHandler signalingHandler;
+
+    @Autowired
+    private CallRegistry callRegistry;
+
+    @Autowired
+    private SignalingEvents events;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        callRegistry.setListener(this);
+        Gauge.builder("calls.active", callRegistry, CallRegistry::size)
+                .description("Calls ringing or in progress on this node")
+                .register(meterRegistry);
+    }
+
+    // Tell the callee someone is calling; device (may be null) is the caller's device it was placed from
+    public void ring(Call call, String device) {
+        if (device != null) signalingHandler.pin(call.getId(), call.getCaller(), device, null);
+        TextMessage frame = eventWriter.frame(new ServerEvent.Ring(call.getId(), call.getCaller(), call.getCallee()));
+        signalingHandler.sendMessageToUser(call.getCallee(), frame, false, call.getId());
+    }
+
+    // Tell the caller the callee answered; the callee's other devices (if we know which one answered) stop ringing
+    public void answered(Call call, String device) {
+        if (device != null) {
+            TextMessage elsewhere = eventWriter.frame(new ServerEvent.Hangup(call.getId(), "ANSWERED_ELSEWHERE"));
+            signalingHandler.pin(call.getId(), call.getCallee(), device, elsewhere);
+        }
+        TextMessage frame = eventWriter.frame(new ServerEvent.Answered(call.getId(), call.getCallee()));
+        signalingHandler.sendMessageToUser(call.getCaller(), frame, false, call.getId());
+    }
+
+    // Every participant except the one who hung up gets a HANGUP
+    @Override
+    public void callEnded(Call call, String endedBy, EndReason reason) {
+        events.at(Event.CALL).addKeyValue("callId", call.getId()).addKeyValue("reason", reason).log("Ended");
+        TextMessage frame = eventWriter.frame(new ServerEvent.Hangup(call.getId(), reason.name()));
+        for (String participant : new String[] { call.getCaller(), call.getCallee() }) {
+            if (!participant.equals(endedBy)) {
+                signalingHandler.sendMessageToUser(participant, frame, false, call.getId());
+            }
+            signalingHandler.unpin(call.getId(), participant);
+        }
+    }
+}
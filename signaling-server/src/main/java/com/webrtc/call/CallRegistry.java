@@ -0,0 +1,183 @@
+package com.webrtc.call;
+
+import com.webrtc.cluster.ClusterNode;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.timer.HashedWheelTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live calls on this node, by id and by participant.
+ *
+ * Calls are not shared between nodes: a call lives on the node that rang it, and answer,
+ * hangup and both timeouts only work there. With more than one node, /call/** requests must
+ * reach the node that issued the call id (its worker bits say which, see {@link #isLocal});
+ * other nodes answer 421 rather than pretend the call doesn't exist. Signaling frames for a
+ * call are routed across nodes as usual.
+ *
+ * Both indexes are ConcurrentHashMaps, so lookups never lock and updates only contend per
+ * bin; each call's state moves RINGING -> ACTIVE -> ENDED by compare-and-set. Unanswered
+ * calls end after call.ring-timeout, and active calls with no signaling for call.idle-timeout
+ * end as IDLE; both timeouts sit on the shared {@link HashedWheelTimer}. The wheel task only
+ * claims the call (the compare-and-set); the clean-up and the listener, which sends HANGUPs
+ * and may block on the message bus, run on IoExecutors.blockingIo().
+ */
+@Component
+public class CallRegistry {
+
+    // Told about every call that ends (so the remaining participants can be notified)
+    public interface Listener {
+        void callEnded(Call call, String endedBy, EndReason reason);
+    }
+
+    private final Map<Long, Call> calls = new ConcurrentHashMap<>();
+    private final Map<String, Set<Call>> callsByUser = new ConcurrentHashMap<>();
+    private final CallIdGenerator ids;
+    private final HashedWheelTimer timer;
+    private final Executor timeouts;
+    private final long ringTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private volatile Listener listener = (call, endedBy, reason) -> { };
+
+    public CallRegistry(HashedWheelTimer timer,
+                        IoExecutors ioExecutors,
+                        ClusterNode node,
+                        @Value("${call.ring-timeout:45s}") Duration ringTimeout,
+                        @Value("${call.idle-timeout:2h}") Duration idleTimeout,
+                        @Value("${call.id.worker:-1}") int worker) {
+        this.timer = timer;
+        this.timeouts = ioExecutors.blockingIo();
+        this.ringTimeoutNanos = ringTimeout.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        // Without an explicit worker, derive one from the node id (unique enough for small clusters)
+        this.ids = new CallIdGenerator(worker >= 0 ? worker : Math.floorMod(node.id().hashCode(), CallIdGenerator.MAX_WORKERS));
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // A new call from caller to callee, RINGING until answered, ended or timed out
+    public Call ring(String caller, String callee, String tenant) {
+        Call call = new Call(ids.next(), caller, callee, tenant);
+        calls.put(call.getId(), call);
+        index(caller, call);
+        index(callee, call);
+        // Only a call still ringing times out: answer() moves it to ACTIVE before it cancels this
+        call.timeout = timer.schedule(() -> {
+            if (call.end(CallState.RINGING)) timeouts.execute(() -> ended(call, null, EndReason.NO_ANSWER));
+        }, ringTimeoutNanos, TimeUnit.NANOSECONDS);
+        return call;
+    }
+
+    public Call find(long callId) {
+        return calls.get(callId);
+    }
+
+    // False if the id was issued by another node's worker, so the call can't be found here
+    public boolean isLocal(long callId) {
+        return CallIdGenerator.worker(callId) == ids.worker();
+    }
+
+    // Calls the user is in (ringing or active)
+    public Set<Call> callsOf(String username) {
+        Set<Call> active = callsByUser.get(username);
+        return active != null ? active : Set.of();
+    }
+
+    // Id of the user's answered call, if any (what their transcripts belong to)
+    public Long activeCallId(String username) {
+        for (Call call : callsOf(username)) {
+            if (call.getState() == CallState.ACTIVE) return call.getId();
+        }
+        return null;
+    }
+
+    // RINGING -> ACTIVE; false if the call was already answered or ended
+    public boolean answer(Call call) {
+        if (!call.transition(CallState.RINGING, CallState.ACTIVE)) return false;
+        call.touch();
+        HashedWheelTimer.Timeout ringTimeout = call.timeout;
+        if (ringTimeout != null) ringTimeout.cancel();
+        scheduleIdleCheck(call, idleTimeoutNanos);
+        return true;
+    }
+
+    // Ends the call once; endedBy is null when the server ended it (timeouts). False if already ended.
+    public boolean end(Call call, String endedBy, EndReason reason) {
+        if (!call.end()) return false;
+        ended(call, endedBy, reason);
+        return true;
+    }
+
+    // Clean-up after the one transition to ENDED
+    private void ended(Call call, String endedBy, EndReason reason) {
+        HashedWheelTimer.Timeout timeout = call.timeout;
+        if (timeout != null) timeout.cancel();
+        calls.remove(call.getId(), call);
+        unindex(call.getCaller(), call);
+        unindex(call.getCallee(), call);
+        listener.callEnded(call, endedBy, reason);
+    }
+
+    // Ends every call the user is in, e.g. when their last socket closes
+    public void endAllFor(String username, EndReason reason) {
+        for (Call call : List.copyOf(callsOf(username))) {
+            end(call, username, reason);
+        }
+    }
+
+    /**
+     * Records signaling activity on the call by one of its participants; O(1), the idle check
+     * reads it lazily. Anyone else's frames don't keep the call alive.
+     *
+     * @return false if there is no such call here or the user isn't in it
+     */
+    public boolean touch(long callId, String username) {
+        Call call = calls.get(callId);
+        if (call == null || username == null || !call.isParticipant(username)) return false;
+        call.touch();
+        return true;
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    // Fires idleTimeout after the last activity: re-arms for the remainder if there was some since
+    private void scheduleIdleCheck(Call call, long delayNanos) {
+        call.timeout = timer.schedule(() -> {
+            if (call.getState() != CallState.ACTIVE) return;
+            long idleFor = System.nanoTime() - call.lastActivityNanos();
+            if (idleFor >= idleTimeoutNanos) {
+                if (call.end(CallState.ACTIVE)) timeouts.execute(() -> ended(call, null, EndReason.IDLE));
+            } else {
+                scheduleIdleCheck(call, idleTimeoutNanos - idleFor);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void index(String username, Call call) {
+        callsByUser.compute(username, (u, active) -> {
+            if (active == null) active = ConcurrentHashMap.newKeySet();
+            active.add(call);
+            return active;
+        });
+    }
+
+    private void unindex(String username, Call call) {
+        // Drop the user's set once empty; compute() keeps add / remove / drop atomic per user
+        callsByUser.computeIfPresent(username, (u, active) -> {
+            active.remove(call);
+            return active.isEmpty() ? null : active;
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package com.webrtc.call;
+
+// RINGING -> ACTIVE -> ENDED, or RINGING -> ENDED (rejected, cancelled, unanswered)
+public enum CallState {
+    RINGING,
+    ACTIVE,
+    ENDED
+}
@@ -0,0 +1,9 @@
+package com.webrtc.call;
+
+// Why a call ended; sent to the remaining participants with the HANGUP
+public enum EndReason {
+    HANGUP,
+    NO_ANSWER,
+    IDLE,
+    DISCONNECTED
+}
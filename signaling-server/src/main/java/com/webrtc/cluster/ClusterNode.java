@@ -0,0 +1,21 @@
+package com.webrtc.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// This instance's id in the session directory; random per start unless cluster.node-id is set
+@Component
+public class ClusterNode {
+
+    private final String id;
+
+    public ClusterNode(@Value("${cluster.node-id:}") String id) {
+        this.id = id.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : id;
+    }
+
+    public String id() {
+        return id;
+    }
+}
@@ -0,0 +1,27 @@
+package com.webrtc.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Directory and bus state shared by every node in this JVM that uses the same cluster name.
+ *
+ * Lets several application contexts act as separate nodes in one process (tests, benchmarks,
+ * single-box deployments). Delivery is a direct call into the target node's handler, so this
+ * measures routing overhead without a network hop.
+ */
+final class InMemoryCluster {
+
+    private static final Map<String, InMemoryCluster> CLUSTERS = new ConcurrentHashMap<>();
+
+    final Map<String, String> directory = new ConcurrentHashMap<>();
+    final Map<String, Consumer<RoutedMessage>> nodes = new ConcurrentHashMap<>();
+
+    private InMemoryCluster() {
+    }
+
+    static InMemoryCluster named(String name) {
+        return CLUSTERS.computeIfAbsent(name, n -> new InMemoryCluster());
+    }
+}
@@ -0,0 +1,48 @@
+package com.webrtc.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "cluster.bus", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryMessageBus implements MessageBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryMessageBus.class);
+
+    private final InMemoryCluster cluster;
+
+    @Autowired
+    private ClusterNode node;
+
+    public InMemoryMessageBus(@Value("${cluster.in-memory.name:default}") String clusterName) {
+        this.cluster = InMemoryCluster.named(clusterName);
+    }
+
+    @Override
+    public void send(String nodeId, RoutedMessage message) {
+        Consumer<RoutedMessage> target = cluster.nodes.get(nodeId);
+        if (target != null) {
+            target.accept(message);
+        } else {
+            log.warn("Node {} is gone, dropping message for {}", nodeId, message.receiver());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RoutedMessage> handler) {
+        cluster.nodes.put(node.id(), handler);
+    }
+
+    @PreDestroy
+    public void leave() {
+        cluster.nodes.remove(node.id());
+        cluster.directory.values().removeIf(node.id()::equals);
+    }
+}
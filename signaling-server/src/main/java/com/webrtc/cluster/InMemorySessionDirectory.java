@@ -0,0 +1,31 @@
+package com.webrtc.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "cluster.bus", havingValue = "in-memory", matchIfMissing = true)
+public class InMemorySessionDirectory implements SessionDirectory {
+
+    private final InMemoryCluster cluster;
+
+    public InMemorySessionDirectory(@Value("${cluster.in-memory.name:default}") String clusterName) {
+        this.cluster = InMemoryCluster.named(clusterName);
+    }
+
+    @Override
+    public void register(String username, String nodeId) {
+        cluster.directory.put(username, nodeId);
+    }
+
+    @Override
+    public void unregister(String username, String nodeId) {
+        cluster.directory.remove(username, nodeId);
+    }
+
+    @Override
+    public String locate(String username) {
+        return cluster.directory.get(username);
+    }
+}
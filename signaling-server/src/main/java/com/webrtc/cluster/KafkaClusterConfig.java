@@ -0,0 +1,76 @@
+package com.webrtc.cluster;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.util.Map;
+
+/**
+ * Kafka transport for the cluster (cluster.bus=kafka), using the spring.kafka.* connection settings.
+ *
+ * - signaling.sessions: compacted username -> node id topic; every node reads all of it into
+ *   a local copy of the directory
+ * - signaling.node.<id>: one topic per node, carrying the frames routed to its users
+ *
+ * Frames are opaque strings here, so this sets its own String (de)serializers rather than the
+ * JSON ones configured for application events.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.bus", havingValue = "kafka")
+public class KafkaClusterConfig {
+
+    static final String CANDIDATE_HEADER = "candidate";
+    static final String CALL_ID_HEADER = "call-id";
+
+    @Bean
+    public KafkaTemplate<String, String> clusterKafkaTemplate(KafkaProperties properties) {
+        Map<String, Object> config = properties.buildProducerProperties(null);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // Signaling is latency-bound: don't wait to fill batches
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+    }
+
+    @Bean
+    public NewTopic sessionsTopic(@Value("${cluster.kafka.sessions-topic:signaling.sessions}") String topic) {
+        return TopicBuilder.name(topic).partitions(1).compact().build();
+    }
+
+    @Bean
+    public NewTopic nodeTopic(ClusterNode node) {
+        return TopicBuilder.name(nodeTopic(node.id())).partitions(1).build();
+    }
+
+    static String nodeTopic(String nodeId) {
+        return "signaling.node." + nodeId;
+    }
+
+    // A listener container with its own consumer group, so the node sees every record on the topic
+    static KafkaMessageListenerContainer<String, String> container(KafkaProperties properties, String topic, String groupId,
+                                                                   String offsetReset, MessageListener<String, String> listener) {
+        Map<String, Object> config = properties.buildConsumerProperties(null);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, offsetReset);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setMessageListener(listener);
+        return new KafkaMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(config), containerProperties);
+    }
+}
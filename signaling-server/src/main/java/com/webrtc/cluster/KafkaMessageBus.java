@@ -0,0 +1,65 @@
+package com.webrtc.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Routes frames to the target node's own topic, keyed by receiver so one user's frames stay in order.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.bus", havingValue = "kafka")
+public class KafkaMessageBus implements MessageBus {
+
+    private static final byte[] TRUE = { 1 };
+
+    @Autowired
+    private KafkaTemplate<String, String> clusterKafkaTemplate;
+
+    @Autowired
+    private KafkaProperties kafkaProperties;
+
+    @Autowired
+    private ClusterNode node;
+
+    private KafkaMessageListenerContainer<String, String> container;
+
+    @Override
+    public void send(String nodeId, RoutedMessage message) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(KafkaClusterConfig.nodeTopic(nodeId), message.receiver(), message.payload());
+        if (message.candidate()) {
+            record.headers().add(KafkaClusterConfig.CANDIDATE_HEADER, TRUE);
+        }
+        if (message.callId() != null) {
+            record.headers().add(KafkaClusterConfig.CALL_ID_HEADER, Long.toString(message.callId()).getBytes(StandardCharsets.US_ASCII));
+        }
+        clusterKafkaTemplate.send(record);
+    }
+
+    @Override
+    public void subscribe(Consumer<RoutedMessage> handler) {
+        // Frames queued while the node was down are stale (the sockets are gone), so start at the end
+        container = KafkaClusterConfig.container(kafkaProperties, KafkaClusterConfig.nodeTopic(node.id()),
+                "signaling-node-" + node.id(), "latest", record -> {
+                    Header candidate = record.headers().lastHeader(KafkaClusterConfig.CANDIDATE_HEADER);
+                    Header callId = record.headers().lastHeader(KafkaClusterConfig.CALL_ID_HEADER);
+                    handler.accept(new RoutedMessage(record.key(), record.value(), candidate != null,
+                            callId != null ? Long.valueOf(new String(callId.value(), StandardCharsets.US_ASCII)) : null));
+                });
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) container.stop();
+    }
+}
@@ -0,0 +1,80 @@
+package com.webrtc.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session directory kept in a compacted topic. Every node replays the topic into a local map
+ * and follows it, so locate() is a map lookup; registrations made on other nodes show up after
+ * one topic round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.bus", havingValue = "kafka")
+public class KafkaSessionDirectory implements SessionDirectory {
+
+    private final Map<String, String> locations = new ConcurrentHashMap<>();
+
+    @Value("${cluster.kafka.sessions-topic:signaling.sessions}")
+    private String topic;
+
+    @Autowired
+    private KafkaTemplate<String, String> clusterKafkaTemplate;
+
+    @Autowired
+    private KafkaProperties kafkaProperties;
+
+    @Autowired
+    private ClusterNode node;
+
+    private KafkaMessageListenerContainer<String, String> container;
+
+    @PostConstruct
+    public void start() {
+        container = KafkaClusterConfig.container(kafkaProperties, topic, "signaling-directory-" + node.id(), "earliest",
+                record -> {
+                    if (record.value() == null) {
+                        locations.remove(record.key());
+                    } else {
+                        locations.put(record.key(), record.value());
+                    }
+                });
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Users of this node are gone with it
+        locations.forEach((username, nodeId) -> unregister(username, node.id()));
+        container.stop();
+    }
+
+    @Override
+    public void register(String username, String nodeId) {
+        locations.put(username, nodeId);
+        clusterKafkaTemplate.send(topic, username, nodeId);
+    }
+
+    @Override
+    public void unregister(String username, String nodeId) {
+        // Checked against the local copy; a registration elsewhere that hasn't arrived yet
+        // is re-established on that node's next REGISTER
+        if (locations.remove(username, nodeId)) {
+            clusterKafkaTemplate.send(topic, username, null);
+        }
+    }
+
+    @Override
+    public String locate(String username) {
+        return locations.get(username);
+    }
+}
@@ -0,0 +1,14 @@
+package com.webrtc.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Node-to-node delivery of signaling frames.
+ */
+public interface MessageBus {
+
+    void send(String nodeId, RoutedMessage message);
+
+    // Receives the frames other nodes send to this node; called once, by SignalingHandler
+    void subscribe(Consumer<RoutedMessage> handler);
+}
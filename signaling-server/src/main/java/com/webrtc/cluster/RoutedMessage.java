@@ -0,0 +1,5 @@
+package com.webrtc.cluster;
+
+// A signaling frame on its way to a user connected to another node; callId (may be null) picks the pinned device
+public record RoutedMessage(String receiver, String payload, boolean candidate, Long callId) {
+}
@@ -0,0 +1,15 @@
+package com.webrtc.cluster;
+
+/**
+ * Cluster-wide map of which node each user's signaling socket is connected to.
+ */
+public interface SessionDirectory {
+
+    void register(String username, String nodeId);
+
+    // Removes the entry only if it still points at nodeId (the user may have reconnected elsewhere)
+    void unregister(String username, String nodeId);
+
+    // Node the user is connected to, or null if they are offline
+    String locate(String username);
+}
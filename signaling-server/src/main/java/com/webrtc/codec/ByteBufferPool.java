@@ -0,0 +1,50 @@
+package com.webrtc.codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size buffers that outbound binary frames are encoded into, reused instead of allocated
+ * per frame. Heap buffers: Tomcat deflates straight from the backing array, a direct buffer
+ * would be copied first.
+ *
+ * Bounded: a buffer released while the pool is full, or one that was never from the pool, is
+ * left to the GC. A released buffer must no longer be referenced by its frame.
+ */
+public final class ByteBufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final AtomicLong allocated = new AtomicLong();
+
+    public ByteBufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    // A cleared buffer of bufferSize bytes; a new one when none is free
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) return buffer.clear();
+        allocated.incrementAndGet();
+        return ByteBuffer.allocate(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize) free.offer(buffer);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int available() {
+        return free.size();
+    }
+
+    // Buffers allocated because the pool was empty, over its lifetime
+    public long allocated() {
+        return allocated.get();
+    }
+}
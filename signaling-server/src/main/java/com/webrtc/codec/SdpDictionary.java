@@ -0,0 +1,216 @@
+package com.webrtc.codec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding of SDP bodies against a shared dictionary of the lines browsers repeat in
+ * every offer and answer (codec maps, feedback, header extensions, fixed session lines).
+ *
+ * Encoding "dict-1", line by line, lines joined with "\n":
+ *
+ *   ~c        a dictionary line, c its code
+ *   ^crest    a line starting with dictionary prefix c, followed by the rest of the line
+ *   !line     a literal line that starts with ~, ^ or ! (never the case in valid SDP)
+ *   line      any other line, as is
+ *
+ * Codes are single characters [0-9A-Za-z]. The decoded SDP always uses CRLF line ends, as
+ * RFC 4566 requires; only SDP in that form is encoded. Clients get the dictionary from
+ * GET /api/signaling/sdp-dictionary. Entries are only ever appended, under a new version.
+ */
+public final class SdpDictionary {
+
+    public static final String VERSION = "dict-1";
+
+    private static final String CODES = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    // Whole lines, as Chrome / Firefox / Safari emit them
+    static final List<String> LINES = List.of(
+        "v=0",
+        "s=-",
+        "t=0 0",
+        "a=extmap-allow-mixed",
+        "a=msid-semantic: WMS",
+        "a=msid-semantic:WMS *",
+        "c=IN IP4 0.0.0.0",
+        "a=rtcp:9 IN IP4 0.0.0.0",
+        "a=ice-options:trickle",
+        "a=ice-options:trickle renomination",
+        "a=setup:actpass",
+        "a=setup:active",
+        "a=setup:passive",
+        "a=sendrecv",
+        "a=sendonly",
+        "a=recvonly",
+        "a=inactive",
+        "a=rtcp-mux",
+        "a=rtcp-mux-only",
+        "a=rtcp-rsize",
+        "a=rtpmap:111 opus/48000/2",
+        "a=rtcp-fb:111 transport-cc",
+        "a=fmtp:111 minptime=10;useinbandfec=1",
+        "a=rtpmap:63 red/48000/2",
+        "a=fmtp:63 111/111",
+        "a=rtpmap:9 G722/8000",
+        "a=rtpmap:0 PCMU/8000",
+        "a=rtpmap:8 PCMA/8000",
+        "a=rtpmap:13 CN/8000",
+        "a=rtpmap:110 telephone-event/48000",
+        "a=rtpmap:126 telephone-event/8000",
+        "a=extmap:1 urn:ietf:params:rtp-hdrext:ssrc-audio-level",
+        "a=extmap:2 http://www.webrtc.org/experiments/rtp-hdrext/abs-send-time",
+        "a=extmap:3 http://www.ietf.org/id/draft-holmer-rmcat-transport-wide-cc-extensions-01",
+        "a=extmap:4 urn:ietf:params:rtp-hdrext:sdes:mid",
+        "a=extmap:9 urn:ietf:params:rtp-hdrext:sdes:rtp-stream-id",
+        "a=extmap:10 urn:ietf:params:rtp-hdrext:sdes:repaired-rtp-stream-id",
+        "a=extmap:14 urn:ietf:params:rtp-hdrext:toffset",
+        "a=extmap:13 urn:3gpp:video-orientation",
+        "a=extmap:5 http://www.webrtc.org/experiments/rtp-hdrext/playout-delay",
+        "a=extmap:6 http://www.webrtc.org/experiments/rtp-hdrext/video-content-type",
+        "a=extmap:7 http://www.webrtc.org/experiments/rtp-hdrext/video-timing",
+        "a=extmap:8 http://www.webrtc.org/experiments/rtp-hdrext/color-space",
+        "a=rtpmap:96 VP8/90000",
+        "a=rtcp-fb:96 goog-remb",
+        "a=rtcp-fb:96 transport-cc",
+        "a=rtcp-fb:96 ccm fir",
+        "a=rtcp-fb:96 nack",
+        "a=rtcp-fb:96 nack pli",
+        "a=rtpmap:97 rtx/90000",
+        "a=fmtp:97 apt=96",
+        "a=rtpmap:98 VP9/90000",
+        "a=fmtp:98 profile-id=0",
+        "a=rtpmap:99 rtx/90000",
+        "a=fmtp:99 apt=98",
+        "a=rtpmap:45 AV1/90000",
+        "a=rtpmap:102 H264/90000",
+        "a=rtpmap:127 red/90000",
+        "a=rtpmap:125 ulpfec/90000",
+        "m=application 9 UDP/DTLS/SCTP webrtc-datachannel",
+        "a=sctp-port:5000",
+        "a=max-message-size:262144"
+    );
+
+    // Line starts; the longest match wins
+    static final List<String> PREFIXES = List.of(
+        "a=candidate:",
+        "a=ssrc:",
+        "a=ssrc-group:FID ",
+        "a=fingerprint:sha-256 ",
+        "a=ice-ufrag:",
+        "a=ice-pwd:",
+        "a=mid:",
+        "a=msid:",
+        "a=group:BUNDLE ",
+        "m=audio 9 UDP/TLS/RTP/SAVPF ",
+        "m=video 9 UDP/TLS/RTP/SAVPF ",
+        "o=- ",
+        "o=mozilla...THIS_IS_SDPARTA-",
+        "a=rtpmap:",
+        "a=fmtp:",
+        "a=rtcp-fb:",
+        "a=extmap:",
+        "a=rid:",
+        "a=simulcast:",
+        "a=fmtp:102 level-asymmetry-allowed=1;packetization-mode=1;profile-level-id=",
+        "c=IN IP4 ",
+        "a=rtcp:"
+    );
+
+    private static final Map<String, Character> LINE_CODES = new HashMap<>();
+    private static final Map<String, Character> PREFIX_CODES = new HashMap<>();
+    // Prefix lookup by first 2 chars ("a=", "m=", ...) then longest first
+    private static final Map<String, List<String>> PREFIXES_BY_START = new HashMap<>();
+
+    static {
+        if (LINES.size() > CODES.length() || PREFIXES.size() > CODES.length()) {
+            throw new IllegalStateException("SDP dictionary has more entries than single-character codes");
+        }
+        for (int i = 0; i < LINES.size(); i++) {
+            LINE_CODES.put(LINES.get(i), CODES.charAt(i));
+        }
+        for (int i = 0; i < PREFIXES.size(); i++) {
+            PREFIX_CODES.put(PREFIXES.get(i), CODES.charAt(i));
+        }
+        for (String prefix : PREFIX_CODES.keySet()) {
+            PREFIXES_BY_START.computeIfAbsent(prefix.substring(0, 2), start -> new ArrayList<>()).add(prefix);
+        }
+        PREFIXES_BY_START.values().forEach(prefixes -> prefixes.sort((a, b) -> b.length() - a.length()));
+    }
+
+    private SdpDictionary() {
+    }
+
+    public static List<String> lines() {
+        return LINES;
+    }
+
+    public static List<String> prefixes() {
+        return PREFIXES;
+    }
+
+    /**
+     * The compact form of an SDP body, or null if it is not CRLF-terminated SDP (left as is).
+     */
+    public static String encode(String sdp) {
+        if (sdp.isEmpty() || !sdp.endsWith("\r\n")) return null;
+        StringBuilder out = new StringBuilder(sdp.length() / 2);
+        int start = 0;
+        while (start < sdp.length()) {
+            int end = sdp.indexOf("\r\n", start);
+            String line = sdp.substring(start, end);
+            // A bare LF inside a line means it wasn't CRLF-delimited
+            if (line.indexOf('\n') >= 0) return null;
+            if (start > 0) out.append('\n');
+            appendLine(out, line);
+            start = end + 2;
+        }
+        return out.toString();
+    }
+
+    public static String decode(String compact) {
+        StringBuilder out = new StringBuilder(compact.length() * 2);
+        int start = 0;
+        while (start <= compact.length()) {
+            int end = compact.indexOf('\n', start);
+            if (end < 0) end = compact.length();
+            String line = compact.substring(start, end);
+            if (line.isEmpty()) {
+                out.append(line);
+            } else if (line.charAt(0) == '~') {
+                out.append(LINES.get(CODES.indexOf(line.charAt(1))));
+            } else if (line.charAt(0) == '^') {
+                out.append(PREFIXES.get(CODES.indexOf(line.charAt(1)))).append(line, 2, line.length());
+            } else if (line.charAt(0) == '!') {
+                out.append(line, 1, line.length());
+            } else {
+                out.append(line);
+            }
+            out.append("\r\n");
+            start = end + 1;
+        }
+        return out.toString();
+    }
+
+    private static void appendLine(StringBuilder out, String line) {
+        Character code = LINE_CODES.get(line);
+        if (code != null) {
+            out.append('~').append(code.charValue());
+            return;
+        }
+        if (line.length() >= 2) {
+            List<String> prefixes = PREFIXES_BY_START.get(line.substring(0, 2));
+            if (prefixes != null) {
+                for (String prefix : prefixes) {
+                    if (line.startsWith(prefix)) {
+                        out.append('^').append(PREFIX_CODES.get(prefix).charValue()).append(line, prefix.length(), line.length());
+                        return;
+                    }
+                }
+            }
+        }
+        if (!line.isEmpty() && (line.charAt(0) == '~' || line.charAt(0) == '^' || line.charAt(0) == '!')) out.append('!');
+        out.append(line);
+    }
+}
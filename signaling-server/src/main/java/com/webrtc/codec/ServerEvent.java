@@ -0,0 +1,23 @@
+package com.webrtc.codec;
+
+/**
+ * Frames the server itself sends over the signaling socket, as opposed to the client frames it
+ * routes. Each has a fixed shape, written by {@link ServerEventWriter} without reflection.
+ */
+public sealed interface ServerEvent {
+
+    // Someone is calling; goes to every device of the callee
+    record Ring(long callId, String caller, String callee) implements ServerEvent {}
+
+    // The callee picked up; goes to the caller
+    record Answered(long callId, String responder) implements ServerEvent {}
+
+    // The call is over (an EndReason), or ANSWERED_ELSEWHERE for the devices that didn't pick up
+    record Hangup(long callId, String reason) implements ServerEvent {}
+
+    // A caption from the AI; speaker is null when it goes back to the speaker only
+    record Transcript(String text, String speaker) implements ServerEvent {}
+
+    // An intent detected in a transcript; callId is null when the speech belongs to no call
+    record Intent(Long callId, String speaker, String intent, String phrase) implements ServerEvent {}
+}
@@ -0,0 +1,112 @@
+package com.webrtc.codec;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * Writes {@link ServerEvent}s as JSON frames from templates: the constant parts of each shape
+ * are precomputed, and only the variable fields are escaped and appended. No map, no ObjectMapper,
+ * no reflection.
+ *
+ * Each frame gets one StringBuilder sized up front from its fields, so it only grows for text that needs escaping. It is not
+ * kept per thread: events are written from virtual threads (a new one per task), where a
+ * ThreadLocal would never be reused.
+ */
+@Component
+public class ServerEventWriter {
+
+    private static final String RING = "{\"type\":\"CALL\",\"action\":\"RING\",\"callId\":";
+    private static final String ANSWERED = "{\"type\":\"CALL\",\"action\":\"ANSWERED\",\"callId\":";
+    private static final String HANGUP = "{\"type\":\"CALL\",\"action\":\"HANGUP\",\"callId\":";
+    private static final String TRANSCRIPT = "{\"type\":\"TRANSCRIPT\",\"sender\":\"AI\",\"text\":";
+    private static final String INTENT = "{\"type\":\"INTENT\",\"callId\":";
+    private static final String SENDER = ",\"sender\":";
+    private static final String RECEIVER = ",\"receiver\":";
+    private static final String RESPONDER = ",\"responder\":";
+    private static final String REASON = ",\"reason\":";
+    private static final String SPEAKER = ",\"speaker\":";
+    private static final String INTENT_NAME = ",\"intent\":";
+    private static final String PHRASE = ",\"phrase\":";
+
+    private final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+    public TextMessage frame(ServerEvent event) {
+        return new TextMessage(json(event));
+    }
+
+    public String json(ServerEvent event) {
+        StringBuilder out = new StringBuilder(capacity(event));
+        switch (event) {
+            case ServerEvent.Ring ring -> {
+                out.append(RING).append(ring.callId());
+                field(out, SENDER, ring.caller());
+                field(out, RECEIVER, ring.callee());
+            }
+            case ServerEvent.Answered answered -> {
+                out.append(ANSWERED).append(answered.callId());
+                field(out, RESPONDER, answered.responder());
+            }
+            case ServerEvent.Hangup hangup -> {
+                out.append(HANGUP).append(hangup.callId());
+                field(out, REASON, hangup.reason());
+            }
+            case ServerEvent.Transcript transcript -> {
+                out.append(TRANSCRIPT);
+                string(out, transcript.text());
+                if (transcript.speaker() != null) field(out, SPEAKER, transcript.speaker());
+            }
+            case ServerEvent.Intent intent -> {
+                out.append(INTENT).append(intent.callId());
+                field(out, SPEAKER, intent.speaker());
+                field(out, INTENT_NAME, intent.intent());
+                field(out, PHRASE, intent.phrase());
+            }
+        }
+        out.append('}');
+        return out.toString();
+    }
+
+    // Template and ids fit in 128; strings that need escaping may still grow the builder
+    private static int capacity(ServerEvent event) {
+        return 128 + switch (event) {
+            case ServerEvent.Ring ring -> length(ring.caller()) + length(ring.callee());
+            case ServerEvent.Answered answered -> length(answered.responder());
+            case ServerEvent.Hangup hangup -> length(hangup.reason());
+            case ServerEvent.Transcript transcript -> length(transcript.text()) + length(transcript.speaker());
+            case ServerEvent.Intent intent -> length(intent.speaker()) + length(intent.intent()) + length(intent.phrase());
+        };
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private void field(StringBuilder out, String name, String value) {
+        out.append(name);
+        string(out, value);
+    }
+
+    private void string(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        // Usernames, reasons and most captions need no escaping: one bulk append
+        if (needsEscaping(value)) {
+            encoder.quoteAsString(value, out);
+        } else {
+            out.append(value);
+        }
+        out.append('"');
+    }
+
+    private static boolean needsEscaping(String value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') return true;
+        }
+        return false;
+    }
+}
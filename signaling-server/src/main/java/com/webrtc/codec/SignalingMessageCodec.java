@@ -0,0 +1,266 @@
+package com.webrtc.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.webrtc.dto.SignalingMessage;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming decoder for signaling frames.
+ *
+ * Walks the frame once with a {@link JsonParser} instead of building a Map, and
+ * resolves the small set of known "type" / "action" values to shared constants
+ * so routing a frame allocates almost nothing beyond the usernames.
+ *
+ * Frames from {@link WireFormat#CBOR} clients are the same objects in CBOR; JSON stays the
+ * form frames are routed in (and forwarded between nodes), and is converted token by token
+ * at the edges: no tree, and CBOR goes straight into the caller's buffer.
+ */
+@Component
+public class SignalingMessageCodec {
+
+    private static final String[] KNOWN_TYPES = { "REGISTER", "CALL", "ROOM" };
+    private static final String[] KNOWN_ACTIONS = {
+        "RING", "OFFER", "ANSWER", "ANSWERED", "CANDIDATE", "ICE_CANDIDATE", "HANGUP", "REJECT", "JOIN", "LEAVE"
+    };
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    // Full decode: routing header plus the raw SDP / candidate JSON
+    public SignalingMessage decode(String payload) throws IOException {
+        SignalingMessage message = new SignalingMessage();
+        decode(payload, message, true);
+        return message;
+    }
+
+    /**
+     * Decodes into a caller-owned (typically pooled) instance.
+     *
+     * @param withBodies when false the SDP / candidate values are skipped without being
+     *                   materialised, which is all the router needs to forward a frame.
+     */
+    public SignalingMessage decode(String payload, SignalingMessage into, boolean withBodies) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return decode(parser, payload, into, withBodies);
+        }
+    }
+
+    // Routing header of a CBOR frame; SDP / candidate bodies are skipped. The buffer's position is left as is
+    public SignalingMessage decode(ByteBuffer frame, SignalingMessage into) throws IOException {
+        try (JsonParser parser = cborParser(frame)) {
+            return decode(parser, null, into, false);
+        }
+    }
+
+    // payload is only read for bodies, so may be null when withBodies is false
+    private SignalingMessage decode(JsonParser parser, String payload, SignalingMessage into, boolean withBodies) throws IOException {
+        into.reset();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Signaling frame is not an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // String switch: hashCode, then equals on the matching case only
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type" -> into.setType(canonical(parser, value, KNOWN_TYPES));
+                case "action" -> into.setAction(canonical(parser, value, KNOWN_ACTIONS));
+                case "sender" -> into.setSender(text(parser, value));
+                case "receiver" -> into.setReceiver(text(parser, value));
+                case "username" -> into.setUsername(text(parser, value));
+                case "device" -> into.setDevice(text(parser, value));
+                case "sdpEncoding" -> into.setSdpEncoding(text(parser, value));
+                case "content" -> into.setContent(text(parser, value));
+                case "callId" -> into.setCallId(callId(parser, value));
+                case "room" -> into.setRoom(text(parser, value));
+                case "sdp" -> into.setSdp(withBodies ? raw(parser, value, payload) : skip(parser, value));
+                case "candidate" -> into.setCandidate(withBodies ? raw(parser, value, payload) : skip(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return into;
+    }
+
+    // A CBOR frame as the JSON it is routed as
+    public String toJson(ByteBuffer frame) throws IOException {
+        StringWriter out = new StringWriter(frame.remaining() + (frame.remaining() >> 1));
+        try (JsonParser parser = cborParser(frame);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Signaling frame is not an object");
+            }
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes a JSON frame as CBOR into the buffer, from its position, and flips it for sending.
+     * Needs at most {@link #maxCborLength} bytes; a frame that doesn't fit throws
+     * {@link java.nio.BufferOverflowException}, with the buffer partly written.
+     */
+    public ByteBuffer toCbor(String payload, ByteBuffer into) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload);
+             JsonGenerator generator = cborFactory.createGenerator(new ByteBufferBackedOutputStream(into))) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        return into.flip();
+    }
+
+    // CBOR takes at most 3 bytes per JSON char (a 3-char float like 1.5 becomes a 9-byte double)
+    public static int maxCborLength(String payload) {
+        return payload.length() * 3 + 16;
+    }
+
+    /**
+     * The frame with its SDP body (a bare "sdp" string, or the "sdp" of an RTCSessionDescription
+     * object) in {@link SdpDictionary} form and "sdpEncoding" added; null if the frame carries no
+     * SDP that can be encoded. Everything else is copied as is.
+     */
+    public String compactSdp(String payload) throws IOException {
+        // Most frames (candidates, call events) have no SDP; don't parse those
+        if (!payload.contains("\"sdp\"")) return null;
+        StringWriter out = new StringWriter(payload.length() / 2);
+        boolean compacted = false;
+        try (JsonParser parser = jsonFactory.createParser(payload);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                // Already encoded by the sender
+                if ("sdpEncoding".equals(field)) return null;
+                JsonToken value = parser.nextToken();
+                generator.writeFieldName(field);
+                if (!"sdp".equals(field)) {
+                    generator.copyCurrentStructure(parser);
+                } else if (value == JsonToken.VALUE_STRING) {
+                    compacted |= writeSdp(generator, parser.getText());
+                } else if (value == JsonToken.START_OBJECT) {
+                    generator.writeStartObject();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String inner = parser.currentName();
+                        JsonToken innerValue = parser.nextToken();
+                        generator.writeFieldName(inner);
+                        if ("sdp".equals(inner) && innerValue == JsonToken.VALUE_STRING) {
+                            compacted |= writeSdp(generator, parser.getText());
+                        } else {
+                            generator.copyCurrentStructure(parser);
+                        }
+                    }
+                    generator.writeEndObject();
+                } else {
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            if (compacted) generator.writeStringField("sdpEncoding", SdpDictionary.VERSION);
+            generator.writeEndObject();
+        }
+        return compacted ? out.toString() : null;
+    }
+
+    private static boolean writeSdp(JsonGenerator generator, String sdp) throws IOException {
+        String compact = SdpDictionary.encode(sdp);
+        generator.writeString(compact != null ? compact : sdp);
+        return compact != null;
+    }
+
+    // True for the types / actions decode() resolves to shared constants, e.g. to keep metric tags bounded
+    public static boolean isKnownType(String type) {
+        return contains(KNOWN_TYPES, type);
+    }
+
+    public static boolean isKnownAction(String action) {
+        return contains(KNOWN_ACTIONS, action);
+    }
+
+    private static boolean contains(String[] known, String value) {
+        for (String candidate : known) {
+            if (candidate.equals(value)) return true;
+        }
+        return false;
+    }
+
+    // Returns the shared constant for a known value, avoiding a String copy on the hot path
+    private static String canonical(JsonParser parser, JsonToken value, String[] known) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            return text(parser, value);
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (String candidate : known) {
+            if (equalsIgnoreCase(candidate, chars, offset, length)) {
+                return candidate;
+            }
+        }
+        return parser.getText();
+    }
+
+    private static boolean equalsIgnoreCase(String constant, char[] chars, int offset, int length) {
+        if (constant.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(chars[offset + i]) != constant.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static Long callId(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) return parser.getLongValue();
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Long.valueOf(parser.getText());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    // The value as JSON: objects are sliced from the original frame verbatim rather than re-serialized,
+    // strings are quoted again (getText() is the unescaped content), numbers and booleans are their text
+    private static String raw(JsonParser parser, JsonToken value, String payload) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value == JsonToken.VALUE_STRING) return '"' + new String(JsonStringEncoder.getInstance().quoteAsString(parser.getText())) + '"';
+        if (!value.isStructStart()) return parser.getText();
+        int start = (int) parser.currentTokenLocation().getCharOffset();
+        parser.skipChildren();
+        int end = (int) parser.currentLocation().getCharOffset();
+        return payload.substring(start, end);
+    }
+
+    // Heap frames (what Tomcat hands us) are parsed in place
+    private JsonParser cborParser(ByteBuffer frame) throws IOException {
+        if (frame.hasArray()) {
+            return cborFactory.createParser(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+        }
+        return cborFactory.createParser(new ByteBufferBackedInputStream(frame.duplicate()));
+    }
+
+    private static String skip(JsonParser parser, JsonToken value) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.webrtc.codec;
+
+/**
+ * Wire formats of the signaling socket, picked at the handshake through the WebSocket
+ * subprotocol (Sec-WebSocket-Protocol). A client that asks for none gets JSON text frames.
+ *
+ * JSON stays the server's internal form. A CALL frame from a CBOR socket reaches CBOR sockets on
+ * this node as the bytes it came in, with no JSON in between. It is still turned into JSON, once
+ * per frame however many recipients need it, when it goes to a JSON socket, to another node (the
+ * message bus carries JSON), to a socket that asked for dictionary SDP, into an away user's replay
+ * buffer, or through the candidate coalescer (trickled candidates, batched as JSON). Every other
+ * frame the server sends starts as JSON and is encoded into CBOR once per frame for CBOR sockets.
+ */
+public enum WireFormat {
+
+    JSON("signaling.json"),
+    // The same frames as JSON, as CBOR (RFC 8949) in binary frames
+    CBOR("signaling.cbor");
+
+    private final String subprotocol;
+
+    WireFormat(String subprotocol) {
+        this.subprotocol = subprotocol;
+    }
+
+    public String subprotocol() {
+        return subprotocol;
+    }
+
+    // The format for the subprotocol the handshake accepted (null if none)
+    public static WireFormat of(String acceptedProtocol) {
+        return CBOR.subprotocol.equals(acceptedProtocol) ? CBOR : JSON;
+    }
+}
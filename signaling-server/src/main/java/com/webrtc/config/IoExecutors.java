@@ -0,0 +1,64 @@
+package com.webrtc.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors for blocking I/O, following spring.threads.virtual.enabled.
+ *
+ * Spring Boot already uses that switch for Tomcat's request / WebSocket dispatch threads;
+ * these cover the outbound WebSocket senders and the STT HTTP client, so a blocked
+ * transcription parks a virtual thread instead of holding one of Tomcat's platform threads.
+ *
+ * Deliberately not exposed as Executor beans, which would replace Boot's applicationTaskExecutor.
+ */
+@Component
+public class IoExecutors {
+
+    private final boolean virtualThreads;
+    private final ExecutorService blockingIo;
+    private final ExecutorService senders;
+
+    public IoExecutors(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                       @Value("${signaling.io.platform-pool-size:200}") int platformPoolSize) {
+        this.virtualThreads = virtualThreads;
+        if (virtualThreads) {
+            this.blockingIo = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory());
+            this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-sender-", 0).factory());
+        } else {
+            // Platform mode: dispatched STT jobs run (and block on their HTTP call) on this fixed pool.
+            // The HttpClient only runs its async internals here; a blocking send stays on the caller's thread
+            this.blockingIo = Executors.newFixedThreadPool(platformPoolSize, platformFactory("io-"));
+            this.senders = Executors.newCachedThreadPool(platformFactory("ws-sender-"));
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualThreads;
+    }
+
+    // Outbound calls that block on the network (STT requests)
+    public ExecutorService blockingIo() {
+        return blockingIo;
+    }
+
+    // Per-session drain tasks of OutboundDispatcher
+    public ExecutorService senders() {
+        return senders;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        blockingIo.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private static ThreadFactory platformFactory(String prefix) {
+        return Thread.ofPlatform().name(prefix, 0).daemon(true).factory();
+    }
+}
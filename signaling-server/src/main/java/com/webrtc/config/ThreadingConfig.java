@@ -0,0 +1,52 @@
+package com.webrtc.config;
+
+import com.webrtc.timer.HashedWheelTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ThreadingConfig {
+
+    // Shared java.net.http client for the STT backend; blocking sends on it don't pin virtual threads
+    @Bean
+    public HttpClient sttHttpClient(IoExecutors ioExecutors, @Value("${openai.api.url}") String apiUrl) {
+        return newSttHttpClient(ioExecutors, apiUrl.startsWith("https:"));
+    }
+
+    @Bean
+    public RestTemplate sttRestTemplate(HttpClient sttHttpClient) {
+        return newSttRestTemplate(sttHttpClient);
+    }
+
+    // One wheel for all the server's coarse timeouts (call ring / idle timeouts), on a single thread
+    @Bean(destroyMethod = "stop")
+    public HashedWheelTimer signalingTimer(@Value("${signaling.timer.tick:100ms}") Duration tick,
+                                           @Value("${signaling.timer.wheel-size:512}") int wheelSize) {
+        return new HashedWheelTimer("signaling-timer", tick.toNanos(), TimeUnit.NANOSECONDS, wheelSize);
+    }
+
+    // HTTP/2 only over TLS: h2c upgrade attempts against plain-HTTP backends (local stubs) stall under concurrency
+    public static HttpClient newSttHttpClient(IoExecutors ioExecutors, boolean http2) {
+        return HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .executor(ioExecutors.blockingIo())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static RestTemplate newSttRestTemplate(HttpClient httpClient) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(30));
+        // Buffer the multipart body: streaming it copies from a ByteArrayInputStream under its monitor while
+        // waiting for HttpClient demand, which pins the virtual thread for the whole upload
+        return new RestTemplate(new BufferingClientHttpRequestFactory(requestFactory));
+    }
+}
@@ -0,0 +1,75 @@
+package com.webrtc.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Decides what the WebSocket handshake may negotiate for permessage-deflate (RFC 7692).
+ *
+ * Tomcat accepts the browser's permessage-deflate offer straight from the request header,
+ * whatever Spring's handshake handler says, so the offer is rewritten before the handshake:
+ * dropped when deflate is off, or given server_no_context_takeover so the server compresses
+ * each frame on its own (no 32KB window kept per socket, at some cost in ratio).
+ * Registered for the WebSocket paths only (see WebSocketConfig).
+ */
+public class WebSocketCompressionFilter extends OncePerRequestFilter {
+
+    static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+    private static final String DEFLATE = "permessage-deflate";
+    private static final String NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+
+    private final boolean deflate;
+    private final boolean contextTakeover;
+
+    public WebSocketCompressionFilter(boolean deflate, boolean contextTakeover) {
+        this.deflate = deflate;
+        this.contextTakeover = contextTakeover;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String offered = request.getHeader(EXTENSIONS_HEADER);
+        if (offered == null || (deflate && contextTakeover)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String allowed = rewrite(offered);
+        filterChain.doFilter(new HttpServletRequestWrapper(request) {
+            @Override
+            public String getHeader(String name) {
+                return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? allowed : super.getHeader(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                if (!EXTENSIONS_HEADER.equalsIgnoreCase(name)) return super.getHeaders(name);
+                return allowed != null ? Collections.enumeration(List.of(allowed)) : Collections.emptyEnumeration();
+            }
+        }, response);
+    }
+
+    // The offered extensions with deflate removed or restricted; null if nothing is left
+    String rewrite(String offered) {
+        List<String> kept = new ArrayList<>();
+        for (String offer : offered.split(",")) {
+            String trimmed = offer.trim();
+            String name = trimmed.split(";", 2)[0].trim();
+            if (name.equalsIgnoreCase(DEFLATE)) {
+                if (!deflate) continue;
+                if (!contextTakeover && !trimmed.contains(NO_CONTEXT_TAKEOVER)) trimmed = trimmed + "; " + NO_CONTEXT_TAKEOVER;
+            }
+            if (!trimmed.isEmpty()) kept.add(trimmed);
+        }
+        return kept.isEmpty() ? null : String.join(", ", kept);
+    }
+}
@@ -1,12 +1,17 @@
 package com.webrtc.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 
+import com.webrtc.handler.AudioStreamHandler;
 import com.webrtc.handler.SignalingHandler;
+import com.webrtc.security.JwtHandshakeInterceptor;
 
 @Configuration
 @EnableWebSocket 
@@ -14,10 +19,48 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
 	@Autowired
 	private SignalingHandler signalingHandler;
+
+	@Autowired
+	private AudioStreamHandler audioStreamHandler;
+
+	@Autowired
+	private JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+	@Value("${signaling.compression.deflate:true}")
+	private boolean deflate;
+
+	@Value("${signaling.compression.context-takeover:true}")
+	private boolean contextTakeover;
 	
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Authenticated with ?token=<jwt> as well; the tenant comes from the token, not from what the client sends
         registry.addHandler(signalingHandler, "/websocket-signaling")
+                .addInterceptors(jwtHandshakeInterceptor)
                 .setAllowedOrigins("*"); // Allows connections from our React server
+
+        // Binary PCM in, transcripts out; authenticated with ?token=<jwt>
+        registry.addHandler(audioStreamHandler, "/websocket-audio")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOrigins("*");
+    }
+
+    // permessage-deflate as configured on the signaling socket; never on the audio socket (PCM doesn't compress)
+    @Bean
+    public FilterRegistrationBean<WebSocketCompressionFilter> signalingCompressionFilter() {
+        FilterRegistrationBean<WebSocketCompressionFilter> registration =
+                new FilterRegistrationBean<>(new WebSocketCompressionFilter(deflate, contextTakeover));
+        registration.setName("signalingCompressionFilter");
+        registration.addUrlPatterns("/websocket-signaling", "/websocket-signaling/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<WebSocketCompressionFilter> audioCompressionFilter() {
+        FilterRegistrationBean<WebSocketCompressionFilter> registration =
+                new FilterRegistrationBean<>(new WebSocketCompressionFilter(false, false));
+        registration.setName("audioCompressionFilter");
+        registration.addUrlPatterns("/websocket-audio", "/websocket-audio/*");
+        return registration;
     }
 }
\ No newline at end of file
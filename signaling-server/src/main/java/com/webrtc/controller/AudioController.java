@@ -1,61 +1,116 @@
 package com.webrtc.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.codec.ServerEvent;
+import com.webrtc.codec.ServerEventWriter;
+import com.webrtc.entity.Transcript;
 import com.webrtc.handler.SignalingHandler; // Import this
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import com.webrtc.security.JwtAuthFilter;
 import com.webrtc.service.AiTranscriptionService;
+import com.webrtc.service.NlpService;
+import com.webrtc.service.TranscriptWriter;
+import com.webrtc.service.TranscriptionDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/audio")
 public class AudioController {
 
+    private static final Logger log = LoggerFactory.getLogger(AudioController.class);
+
     @Autowired
     private AiTranscriptionService aiService;
 
+    @Autowired
+    private TranscriptionDispatcher transcriptionDispatcher;
+
     @Autowired
     private SignalingHandler signalingHandler; // <--- NEW: To talk back to React
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ServerEventWriter eventWriter;
+
+    @Autowired
+    private SignalingEvents events;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TranscriptWriter transcriptWriter;
+
+    @Autowired
+    private CallRegistry callRegistry;
+
+    @Autowired
+    private NlpService nlpService;
+
+    private Timer captionLatency;
+
+    @PostConstruct
+    public void init() {
+        captionLatency = Timer.builder("captions.latency")
+                .description("From the last audio chunk of a window reaching the server to its caption being queued")
+                .tag("source", "upload")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @PostMapping("/transcribe")
     public ResponseEntity<String> receiveAudioChunk(
             @RequestParam("audio") MultipartFile audioFile,
-            @RequestParam("user") String username) {
+            @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
 
         if (audioFile.isEmpty()) return ResponseEntity.badRequest().body("Empty audio");
+        // The speaker is whoever the token says, never a name the client sends
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        long receivedNanos = System.nanoTime();
 
-        // 1. Get Text from AI
-        String transcript = aiService.transcribeAudio(audioFile);
+        // 1. Get Text from AI (queued behind the global STT cap, fair across tenants)
+        String transcript;
+        try {
+            transcript = transcriptionDispatcher.submit(tenant, null, () -> aiService.transcribeAudio(tenant, audioFile)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(503).header("Retry-After", "1").body("Transcription queue is full");
+            }
+            throw e;
+        }
         
-        System.out.println("AI TRANSCRIPT RESULT: " + transcript);
+        events.at(Event.TRANSCRIPT).addKeyValue("user", username).addKeyValue("text", transcript).log("AI transcript result");
 
         // 2. SEND BACK TO FRONTEND VIA WEBSOCKET
-        // We ignore "Thank you for watching" hallucinations to keep UI clean
-        if (transcript != null && !transcript.trim().isEmpty() && 
-            !transcript.contains("Thank you for watching") && 
-            !transcript.contains("Дякую")) {
-            
-            try {
-                Map<String, Object> message = new HashMap<>();
-                message.put("type", "TRANSCRIPT");
-                message.put("text", transcript);
-                message.put("sender", "AI");
+        // Hallucinations ("Thank you for watching"...) already came back empty from the filter
+        if (transcript != null && !transcript.isEmpty()) {
+            // Kept with the speaker's current call; best effort, a full store never fails the caption
+            Long callId = callRegistry.activeCallId(username);
+            transcriptWriter.submit(new Transcript(callId, tenant, username, Transcript.fitContent(transcript), Instant.now()));
+            nlpService.analyze(tenant, callId, username, transcript);
 
-                String jsonMessage = objectMapper.writeValueAsString(message);
-                
+            try {
                 // Send to the user who spoke (so they see their own text)
                 // Optionally: You could also send to the 'receiver' if you passed that info
-                signalingHandler.sendMessageToUser(username, jsonMessage);
+                signalingHandler.sendMessageToUser(username, eventWriter.frame(new ServerEvent.Transcript(transcript, null)), false, callId);
+                captionLatency.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
 
             } catch (Exception e) {
-                e.printStackTrace();
+                log.warn("Error sending transcript to {}", username, e);
             }
         }
 
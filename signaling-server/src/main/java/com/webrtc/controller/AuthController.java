@@ -48,7 +48,13 @@ public class AuthController {
             org.springframework.security.core.userdetails.UserDetails userDetails = 
                 (org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal();
             
-            String token = jwtService.generateToken(((UserDetails) authentication.getPrincipal()).getUsername());            return ResponseEntity.ok(new AuthResponse(token, authRequest.getUsername()));
+            // Tenant goes into the token so later requests can be scoped without a DB lookup
+            String tenant = userRepository.findByUsername(userDetails.getUsername())
+                    .map(User::getTenant)
+                    .map(Tenant::getName)
+                    .orElse(null);
+            String token = jwtService.generateToken(userDetails.getUsername(), tenant);
+            return ResponseEntity.ok(new AuthResponse(token, authRequest.getUsername()));
         } else {
             throw new UsernameNotFoundException("Invalid user request!");
         }
@@ -1,28 +1,82 @@
 package com.webrtc.controller;
 
+import com.webrtc.call.Call;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.entity.Transcript;
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import com.webrtc.security.JwtAuthFilter;
+import com.webrtc.service.NlpService;
+import com.webrtc.service.TranscriptWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/calls")
 public class CallMetricsController {
 
+    @Autowired
+    private SignalingEvents events;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TranscriptWriter transcriptWriter;
+
+    @Autowired
+    private NlpService nlpService;
+
+    @Autowired
+    private CallRegistry callRegistry;
+
+    private Counter transcriptChunks;
+
+    @PostConstruct
+    public void init() {
+        transcriptChunks = Counter.builder("calls.transcript.chunks")
+                .description("Transcript chunks posted by clients")
+                .register(meterRegistry);
+    }
+
     @PostMapping("/{callId}/transcript")
     public ResponseEntity<String> storeTranscript(
             @PathVariable Long callId,
-            @RequestBody Map<String, Object> transcriptData) { // Accept Map/JSON
+            @RequestBody Map<String, Object> transcriptData, // Accept Map/JSON
+            @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
         
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        String text = (String) transcriptData.get("text");
+        if (!(transcriptData.get("text") instanceof String text) || text.isBlank()) {
+            return ResponseEntity.badRequest().body("Missing transcript text.");
+        }
+        if (text.length() > Transcript.MAX_CONTENT_LENGTH) {
+            return ResponseEntity.status(413).body("Transcript text longer than " + Transcript.MAX_CONTENT_LENGTH + " characters.");
+        }
+        // Only someone in the call may speak into its transcript (and have intents pushed to its participants)
+        Call call = callRegistry.find(callId);
+        if (call == null) {
+            return callRegistry.isLocal(callId)
+                    ? ResponseEntity.status(404).body("Unknown call " + callId)
+                    : ResponseEntity.status(421).body("Call " + callId + " belongs to another node");
+        }
+        if (!call.isParticipant(username)) return ResponseEntity.status(403).body("Not in call " + callId);
         
-        System.out.println("--- TRANSCRIPTION API HIT ---");
-        System.out.println("CALL ID: " + callId);
-        System.out.println("USER: " + username);
-        System.out.println("TEXT: " + text);
-        System.out.println("-----------------------------");
-        
-        return ResponseEntity.ok("Transcription chunk saved.");
+        transcriptChunks.increment();
+        events.at(Event.TRANSCRIPT).addKeyValue("callId", callId).addKeyValue("user", username)
+                .addKeyValue("text", text).log("Transcription chunk received");
+        nlpService.analyze(tenant, callId, username, text);
+
+        // Written behind the request; a full buffer means the database is behind, so ask the client to back off
+        if (!transcriptWriter.submit(new Transcript(callId, tenant, username, text, Instant.now()))) {
+            return ResponseEntity.status(503).header("Retry-After", "1").body("Transcript store is busy.");
+        }
+        return ResponseEntity.accepted().body("Transcription chunk queued.");
     }
 }
\ No newline at end of file
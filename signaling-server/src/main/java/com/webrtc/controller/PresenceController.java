@@ -0,0 +1,72 @@
+package com.webrtc.controller;
+
+import com.webrtc.entity.User;
+import com.webrtc.presence.PresenceService;
+import com.webrtc.presence.UserTenants;
+import com.webrtc.repository.UserRepository;
+import com.webrtc.security.JwtAuthFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+
+    private static final int MAX_USERS = 5000;
+
+    @Autowired
+    private PresenceService presence;
+
+    @Autowired
+    private UserTenants userTenants;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // GET /api/presence?users=alice,bob -> {"alice":"ONLINE","bob":"AWAY"}
+    @GetMapping
+    public ResponseEntity<?> lookup(@RequestParam List<String> users,
+                                    @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
+        return statuses(users, tenant);
+    }
+
+    // Same, for rosters too long for a query string: POST ["alice","bob",...]
+    @PostMapping
+    public ResponseEntity<?> bulkLookup(@RequestBody List<String> users,
+                                        @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
+        return statuses(users, tenant);
+    }
+
+    // Users outside the caller's tenant (or unknown) are left out
+    private ResponseEntity<?> statuses(Collection<String> users, String tenant) {
+        Set<String> requested = new LinkedHashSet<>(users);
+        requested.removeIf(user -> user == null || user.isBlank());
+        if (requested.size() > MAX_USERS) return ResponseEntity.badRequest().body("At most " + MAX_USERS + " users per lookup.");
+
+        // Filtered from memory; only names never seen on this node cost a (single) query
+        Map<String, String> tenants = userTenants.tenantsOf(requested, this::loadTenants);
+        Map<String, PresenceService.Status> statuses = new LinkedHashMap<>();
+        for (String user : requested) {
+            String userTenant = tenants.get(user);
+            if (userTenant != null && (tenant == null || tenant.equals(userTenant))) statuses.put(user, presence.status(user));
+        }
+        return ResponseEntity.ok(statuses);
+    }
+
+    private Map<String, String> loadTenants(Set<String> usernames) {
+        Map<String, String> tenants = new HashMap<>();
+        for (User user : userRepository.findByUsernameIn(usernames)) {
+            if (user.getTenant() != null) tenants.put(user.getUsername(), user.getTenant().getName());
+        }
+        return tenants;
+    }
+}
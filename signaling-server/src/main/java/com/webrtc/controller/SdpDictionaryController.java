@@ -0,0 +1,24 @@
+package com.webrtc.controller;
+
+import com.webrtc.codec.SdpDictionary;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+public class SdpDictionaryController {
+
+    // What a client needs to decode SDP sent with "sdpEncoding":"dict-1"; a version never changes, so cache it
+    @GetMapping("/api/signaling/sdp-dictionary")
+    public ResponseEntity<Map<String, Object>> dictionary() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                .body(Map.of("version", SdpDictionary.VERSION,
+                        "lines", SdpDictionary.lines(),
+                        "prefixes", SdpDictionary.prefixes()));
+    }
+}
@@ -6,85 +6,87 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.webrtc.handler.SignalingHandler;
+import com.webrtc.call.Call;
+import com.webrtc.call.CallNotifier;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.call.EndReason;
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import com.webrtc.security.JwtAuthFilter;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/call")
 public class SignalingController {
-    
+
+    @Autowired
+    private CallRegistry callRegistry;
+
     @Autowired
-    private ObjectMapper objectMapper;
-    
+    private CallNotifier callNotifier;
+
     @Autowired
-    private SignalingHandler signalingHandler; 
+    private SignalingEvents events;
 
-    // 1. INITIATE CALL (Jeff calls Bob)
+    // 1. INITIATE CALL (Jeff calls Bob). device: the caller's device id, so the call's frames reach only it
     @PostMapping("/ring")
-    public ResponseEntity<String> initiateCall(@RequestParam String receiver) {
-        
+    public ResponseEntity<Map<String, Object>> initiateCall(
+            @RequestParam String receiver,
+            @RequestParam(required = false) String device,
+            @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String senderUsername = authentication.getName();
-        Long currentCallId = 1001L; 
-
-        Map<String, Object> message = new HashMap<>();
-        message.put("type", "CALL");
-        message.put("action", "RING");
-        message.put("sender", senderUsername);
-        message.put("receiver", receiver);
-        message.put("callId", currentCallId);
-
-        try {
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            // Route via WebSocket
-            signalingHandler.sendMessageToUser(receiver, jsonMessage);
-        } catch (Exception e) {
-            System.err.println("Error routing RING: " + e.getMessage());
-            return ResponseEntity.status(500).body("Error routing call.");
-        }
-        
-        System.out.println("SERVER: Calling " + receiver + " from " + senderUsername);
-        return ResponseEntity.ok("Ring sent to " + receiver);
+
+        Call call = callRegistry.ring(senderUsername, receiver, tenant);
+        // Route via WebSocket
+        callNotifier.ring(call, device);
+
+        events.at(Event.CALL).addKeyValue("callId", call.getId()).addKeyValue("from", senderUsername)
+                .addKeyValue("to", receiver).log("Ringing");
+        return ResponseEntity.ok(Map.of("callId", call.getId(), "status", call.getState().name()));
     }
 
-    // 2. ANSWER CALL (Bob answers Jeff) - NEW
+    // 2. ANSWER CALL (Bob answers Jeff). Only the callee can answer, and only while it rings.
+    // The caller param is no longer needed (the registry knows) and is ignored. device: the answering
+    // device's id; the call is pinned to it and the callee's other devices stop ringing.
     @PostMapping("/answer")
-    public ResponseEntity<String> answerCall(@RequestParam Long callId, @RequestParam String caller) {
-        System.out.println("SERVER: Call " + callId + " was ANSWERED by " + caller);
-        
-        Map<String, Object> message = new HashMap<>();
-        message.put("type", "CALL");
-        message.put("action", "ANSWERED");
-        message.put("callId", callId);
-        message.put("responder", SecurityContextHolder.getContext().getAuthentication().getName());
+    public ResponseEntity<String> answerCall(@RequestParam Long callId, @RequestParam(required = false) String caller,
+                                             @RequestParam(required = false) String device) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Call call = callRegistry.find(callId);
+        if (call == null) return unknownCall(callId);
+        if (!call.getCallee().equals(username)) return ResponseEntity.status(403).body("Not the callee of call " + callId);
+        if (!callRegistry.answer(call)) return ResponseEntity.status(409).body("Call " + callId + " is " + call.getState());
 
+        events.at(Event.CALL).addKeyValue("callId", callId).addKeyValue("user", username).log("Answered");
         // Tell the person who started the call (Jeff) that the receiver (Bob) answered
-        signalingHandler.sendMessageToUser(caller, serialize(message));
-        
+        callNotifier.answered(call, device);
+
         return ResponseEntity.ok("Call Answered on Server");
     }
 
+    // Ends the call for everyone in it; the peer param is no longer needed and is ignored
     @PostMapping("/hangup")
-    public ResponseEntity<String> hangupCall(@RequestParam Long callId, @RequestParam String peer) {
-        System.out.println("SERVER: Call " + callId + " was ENDED. Notifying " + peer);
-        
-        Map<String, Object> message = new HashMap<>();
-        message.put("type", "CALL");
-        message.put("action", "HANGUP");
-        message.put("callId", callId);
+    public ResponseEntity<String> hangupCall(@RequestParam Long callId, @RequestParam(required = false) String peer) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Call call = callRegistry.find(callId);
+        if (call == null) return unknownCall(callId);
+        if (!call.isParticipant(username)) return ResponseEntity.status(403).body("Not in call " + callId);
 
         // Notify the other participant to close their screen
-        signalingHandler.sendMessageToUser(peer, serialize(message));
-        
+        callRegistry.end(call, username, EndReason.HANGUP);
+        events.at(Event.CALL).addKeyValue("callId", callId).addKeyValue("user", username).log("Hung up");
+
         return ResponseEntity.ok("Call Ended on Server");
     }
 
-    // Helper for JSON
-    private String serialize(Object obj) {
-        try { return objectMapper.writeValueAsString(obj); } 
-        catch (Exception e) { return ""; }
+    // Calls live on the node that rang them (see CallRegistry); 421 tells a misrouted request from a stale id
+    private ResponseEntity<String> unknownCall(long callId) {
+        if (!callRegistry.isLocal(callId)) {
+            return ResponseEntity.status(421).body("Call " + callId + " belongs to another node");
+        }
+        return ResponseEntity.status(404).body("Unknown call " + callId);
     }
 }
@@ -0,0 +1,43 @@
+package com.webrtc.controller;
+
+import com.webrtc.search.SearchQuery;
+import com.webrtc.search.SearchResult;
+import com.webrtc.search.TranscriptIndex;
+import com.webrtc.security.JwtAuthFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/calls")
+public class TranscriptSearchController {
+
+    private static final int MAX_CALLS = 100;
+    private static final int MAX_SNIPPETS = 20;
+
+    @Autowired
+    private TranscriptIndex transcriptIndex;
+
+    // Calls in the caller's tenant whose transcripts match, e.g.
+    // GET /api/calls/search?q="refund request" escalate&from=2025-06-01T00:00:00Z&limit=20
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "3") int snippets,
+            @RequestAttribute(name = JwtAuthFilter.TENANT_ATTR, required = false) String tenant) {
+
+        SearchQuery query = SearchQuery.parse(q);
+        if (query.isEmpty()) return ResponseEntity.badRequest().body("Query has no words to search for.");
+        if (from != null && to != null && !from.isBefore(to)) return ResponseEntity.badRequest().body("from must be before to.");
+
+        SearchResult result = transcriptIndex.search(tenant, query, from, to,
+                Math.clamp(limit, 1, MAX_CALLS), Math.clamp(snippets, 0, MAX_SNIPPETS));
+        return ResponseEntity.ok(result);
+    }
+}
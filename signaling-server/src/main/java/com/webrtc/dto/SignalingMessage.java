@@ -7,6 +7,34 @@ public class SignalingMessage {
 	private String type;
 	private String sender;
 	private String receiver;
+	private String username;
+	// REGISTER: the client's id for this device, so its calls can be pinned to it; defaults to the socket id
+	private String device;
+	// REGISTER: SDP encoding the client can decode, e.g. "dict-1" (see SdpDictionary)
+	private String sdpEncoding;
+	private String action;
 	private String content;
 	private Long callId;
+	// Group call room; a CALL frame with a room and no receiver goes to every other member
+	private String room;
+
+	// Raw JSON of the SDP / ICE candidate, kept as-is so it can be forwarded untouched
+	private String sdp;
+	private String candidate;
+
+	// Clears every field so a pooled instance can be decoded into again
+	public void reset() {
+		type = null;
+		sender = null;
+		receiver = null;
+		username = null;
+		device = null;
+		sdpEncoding = null;
+		action = null;
+		content = null;
+		callId = null;
+		room = null;
+		sdp = null;
+		candidate = null;
+	}
 }
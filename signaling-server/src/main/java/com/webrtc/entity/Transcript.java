@@ -0,0 +1,62 @@
+package com.webrtc.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One caption chunk. Written in batches by TranscriptWriter (plain JDBC), read through TranscriptRepository.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "transcripts", indexes = {
+	@Index(name = "idx_transcripts_call", columnList = "call_id, created_at"),
+	@Index(name = "idx_transcripts_tenant", columnList = "tenant, created_at")
+})
+public class Transcript {
+
+	// Size of the content column; longer text would fail the whole JDBC batch it is written in
+	public static final int MAX_CONTENT_LENGTH = 4000;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// Null when the speaker wasn't in a registered call
+	@Column(name = "call_id")
+	private Long callId;
+
+	@Column(name = "tenant")
+	private String tenant;
+
+	@Column(name = "speaker", nullable = false)
+	private String speaker;
+
+	@Column(name = "content", nullable = false, length = MAX_CONTENT_LENGTH)
+	private String content;
+
+	@Column(name = "created_at", nullable = false)
+	private Instant createdAt;
+
+	public Transcript(Long callId, String tenant, String speaker, String content, Instant createdAt) {
+		this.callId = callId;
+		this.tenant = tenant;
+		this.speaker = speaker;
+		this.content = content;
+		this.createdAt = createdAt;
+	}
+
+	// Server-made text (STT output) cut to fit the column, never splitting a surrogate pair
+	public static String fitContent(String text) {
+		if (text.length() <= MAX_CONTENT_LENGTH) return text;
+		int end = Character.isHighSurrogate(text.charAt(MAX_CONTENT_LENGTH - 1)) ? MAX_CONTENT_LENGTH - 1 : MAX_CONTENT_LENGTH;
+		return text.substring(0, end);
+	}
+}
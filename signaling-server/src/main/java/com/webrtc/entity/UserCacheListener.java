@@ -0,0 +1,52 @@
+package com.webrtc.entity;
+
+import com.webrtc.presence.UserTenants;
+import com.webrtc.security.PrincipalCache;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// JPA listener on User: evicts the cached principal and tenant whenever the row changes or is deleted.
+// In User's package, since the username kept from load time is package-private
+@Component
+public class UserCacheListener {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserTenants userTenants;
+
+    // By @PreUpdate the entity already holds the new values, so the old username is kept from load time
+    @PostLoad
+    public void userLoaded(User user) {
+        user.setLoadedUsername(user.getUsername());
+    }
+
+    // A new user may have been looked up (and cached as unknown) before they existed
+    @PostPersist
+    public void userCreated(User user) {
+        userTenants.invalidate(user.getUsername());
+        user.setLoadedUsername(user.getUsername());
+    }
+
+    // A rename must evict the old name too, or its cached principal outlives the change
+    @PreUpdate
+    public void userChanging(User user) {
+        if (user.getLoadedUsername() == null) return;
+        principalCache.invalidate(user.getLoadedUsername());
+        userTenants.invalidate(user.getLoadedUsername());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        principalCache.invalidate(user.getUsername());
+        userTenants.invalidate(user.getUsername());
+        user.setLoadedUsername(user.getUsername());
+    }
+}
@@ -0,0 +1,287 @@
+package com.webrtc.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.audio.AudioRingBuffer;
+import com.webrtc.audio.AudioWindow;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.codec.ServerEvent;
+import com.webrtc.codec.ServerEventWriter;
+import com.webrtc.entity.Transcript;
+import com.webrtc.ratelimit.Admission;
+import com.webrtc.room.Room;
+import com.webrtc.room.RoomRegistry;
+import com.webrtc.security.JwtHandshakeInterceptor;
+import com.webrtc.service.AiTranscriptionService;
+import com.webrtc.service.NlpService;
+import com.webrtc.service.TranscriptWriter;
+import com.webrtc.service.TranscriptionDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming audio ingestion for live captions.
+ *
+ * Binary frames carry 16-bit little-endian mono PCM (sample rate from the "sampleRate" query
+ * parameter). Frames are appended to a per-stream ring buffer; every full window, or on a
+ * {"type":"FLUSH"} text frame, the window is sent to STT straight out of the ring and the
+ * transcript comes back on the same socket as a TRANSCRIPT frame. If the speaker is in group
+ * call rooms, the other members get it on their signaling sockets as well.
+ *
+ * Every frame is admitted under the AUDIO rate limit of its user and tenant, counted across
+ * all their audio sockets, so opening more sockets doesn't buy more STT.
+ */
+@Component
+public class AudioStreamHandler extends AbstractWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioStreamHandler.class);
+
+    private static final String STREAM_ATTR = "audioStream";
+
+    // Rates a client may ask for; anything else is refused rather than sizing buffers from it
+    private static final Set<Integer> SAMPLE_RATES = Set.of(8000, 16000, 48000);
+
+    @Autowired
+    private AiTranscriptionService aiService;
+
+    @Autowired
+    private OutboundDispatcher outboundDispatcher;
+
+    @Autowired
+    private TranscriptionDispatcher transcriptionDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ServerEventWriter eventWriter;
+
+    @Autowired
+    private SignalingHandler signalingHandler;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TranscriptWriter transcriptWriter;
+
+    @Autowired
+    private CallRegistry callRegistry;
+
+    @Autowired
+    private NlpService nlpService;
+
+    @Autowired
+    private Admission admission;
+
+    private Timer captionLatency;
+
+    @Value("${audio.stream.sample-rate:16000}")
+    private int defaultSampleRate;
+
+    @Value("${audio.stream.window-seconds:5}")
+    private int windowSeconds;
+
+    @Value("${audio.stream.buffer-seconds:30}")
+    private int bufferSeconds;
+
+    // Cap on one upstream request when audio piled up behind the dispatcher is sent together
+    @Value("${audio.stream.max-merged-seconds:20}")
+    private int maxMergedSeconds;
+
+    // Flushed windows shorter than this are discarded; they mostly come back as hallucinations
+    @Value("${audio.stream.min-window-ms:500}")
+    private int minWindowMs;
+
+    // Per-socket state, kept in the session attributes
+    private static final class AudioStream {
+        final String id;
+        final String username;
+        final String tenant;
+        final AudioRingBuffer ring;
+        final OutboundSession outbound;
+        final int windowBytes;
+        final int maxMergedBytes;
+        // Arrival of the latest audio frame, for chunk-to-caption latency
+        volatile long lastChunkNanos;
+        // FLUSH seen but its audio not yet taken, e.g. because a window was in flight
+        final AtomicBoolean flushRequested = new AtomicBoolean();
+
+        AudioStream(String id, String username, String tenant, AudioRingBuffer ring, OutboundSession outbound,
+                    int windowBytes, int maxMergedBytes) {
+            this.id = id;
+            this.username = username;
+            this.tenant = tenant;
+            this.ring = ring;
+            this.outbound = outbound;
+            this.windowBytes = windowBytes;
+            this.maxMergedBytes = maxMergedBytes;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        captionLatency = Timer.builder("captions.latency")
+                .description("From the last audio chunk of a window reaching the server to its caption being queued")
+                .tag("source", "stream")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String sampleRateParam = UriComponentsBuilder.fromUri(session.getUri()).build()
+                .getQueryParams().getFirst("sampleRate");
+        int sampleRate = sampleRateParam != null ? parseSampleRate(sampleRateParam) : defaultSampleRate;
+        if (!SAMPLE_RATES.contains(sampleRate)) {
+            session.close(CloseStatus.BAD_DATA.withReason("Unsupported sampleRate"));
+            return;
+        }
+
+        // Room for ~1s of 48 kHz PCM per binary frame (container default is 8 KB)
+        session.setBinaryMessageSizeLimit(128 * 1024);
+
+        String username = (String) session.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTR);
+        String tenant = (String) session.getAttributes().get(JwtHandshakeInterceptor.TENANT_ATTR);
+        AudioRingBuffer ring = new AudioRingBuffer(sampleRate, bufferSeconds);
+        session.getAttributes().put(STREAM_ATTR, new AudioStream("audio:" + session.getId(), username, tenant,
+                ring, outboundDispatcher.open(session), Math.multiplyExact(sampleRate * 2, windowSeconds),
+                Math.multiplyExact(sampleRate * 2, Math.max(windowSeconds, maxMergedSeconds))));
+        log.info("Audio stream opened for {} at {} Hz", username, sampleRate);
+    }
+
+    // -1 (refused) rather than a NumberFormatException for a non-numeric value
+    private static int parseSampleRate(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        AudioStream stream = (AudioStream) session.getAttributes().get(STREAM_ATTR);
+        if (!admit(session, stream)) return;
+        stream.lastChunkNanos = System.nanoTime();
+        if (stream.ring.write(message.getPayload()) > 0) {
+            log.warn("Audio buffer full for {}, dropping audio.", stream.username);
+        }
+        if (stream.ring.available() >= stream.windowBytes) {
+            dispatch(stream);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        AudioStream stream = (AudioStream) session.getAttributes().get(STREAM_ATTR);
+        if (!admit(session, stream)) return;
+        String type = objectMapper.readTree(message.getPayload()).path("type").asText();
+        if ("FLUSH".equalsIgnoreCase(type)) {
+            // End of an utterance on the client: send whatever is buffered. If a window is in
+            // flight this job finds nothing to take, and the flag has that window's job dispatch again
+            stream.flushRequested.set(true);
+            dispatch(stream);
+        }
+    }
+
+    // As SignalingHandler.admit: a user over their own limit is cut off, a busy tenant only loses frames
+    private boolean admit(WebSocketSession session, AudioStream stream) throws Exception {
+        Admission.Decision decision = admission.admit(Admission.Scope.AUDIO, stream.tenant,
+                stream.username != null ? stream.username : session.getId());
+        if (decision.admitted()) return true;
+        if ("user".equals(decision.limitedBy())) {
+            log.warn("Closing audio socket of {}: rate limit exceeded", stream.username != null ? stream.username : session.getId());
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Rate limit exceeded"));
+        }
+        return false;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        AudioStream stream = (AudioStream) session.getAttributes().remove(STREAM_ATTR);
+        if (stream != null) {
+            stream.outbound.close(status);
+            log.info("Audio stream closed for {}", stream.username);
+        }
+    }
+
+    /**
+     * Queues a transcription for the stream. The window is only taken from the ring when the
+     * dispatcher runs the job, so while it waits for an upstream slot more audio joins it, and
+     * repeated dispatches for the same stream coalesce into that one queued job.
+     */
+    private void dispatch(AudioStream stream) {
+        transcriptionDispatcher.submit(stream.tenant, stream.id, () -> transcribeNextWindow(stream));
+    }
+
+    // Runs on the dispatcher; one window in flight per stream keeps captions ordered. Takes everything
+    // buffered, up to maxMergedBytes, so windows that queued up behind the cap go upstream as one
+    private String transcribeNextWindow(AudioStream stream) {
+        AudioWindow window = stream.ring.takeWindow(stream.maxMergedBytes);
+        if (window == null) return "";
+        // This window carries everything buffered so far, so it answers any FLUSH seen until now
+        stream.flushRequested.set(false);
+        long audioArrivedNanos = stream.lastChunkNanos;
+
+        String transcript = "";
+        try {
+            if (window.durationMillis() >= minWindowMs) {
+                transcript = aiService.transcribeWindow(stream.tenant, window);
+                if (!transcript.isEmpty()) {
+                    sendTranscript(stream, transcript);
+                    captionLatency.record(System.nanoTime() - audioArrivedNanos, TimeUnit.NANOSECONDS);
+                    if (stream.username != null) {
+                        Long callId = callRegistry.activeCallId(stream.username);
+                        transcriptWriter.submit(new Transcript(callId, stream.tenant, stream.username, Transcript.fitContent(transcript), Instant.now()));
+                        nlpService.analyze(stream.tenant, callId, stream.username, transcript);
+                    }
+                }
+            }
+        } finally {
+            stream.ring.release(window);
+            // A full window, or a FLUSH that arrived while this one was in flight, goes out next
+            int available = stream.ring.available();
+            if (available >= stream.windowBytes || (available > 0 && stream.flushRequested.get())) {
+                dispatch(stream);
+            } else if (available == 0) {
+                stream.flushRequested.set(false);
+            }
+        }
+        return transcript;
+    }
+
+    private void sendTranscript(AudioStream stream, String transcript) {
+        try {
+            // Serialized once, shared by the speaker's socket and every room member's
+            TextMessage frame = eventWriter.frame(new ServerEvent.Transcript(transcript, stream.username));
+            stream.outbound.send(frame);
+            if (stream.username != null) {
+                for (Room room : roomRegistry.roomsOf(stream.username)) {
+                    signalingHandler.broadcast(room, frame, stream.username, false);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error sending transcript to {}: {}", stream.username, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.webrtc.handler;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges trickled ICE candidates per (sender, receiver, callId) into one frame.
+ *
+ * The first candidate of a call on a pair opens a batch that is flushed after
+ * signaling.candidates.coalesce-window; candidates arriving meanwhile join it. Any other
+ * frame of the same call on the pair (offer, answer, hangup) flushes it first, so the receiver
+ * still sees everything in the order it was sent. A batch of one is forwarded as the
+ * original frame; larger ones as
+ *
+ *   {"type":"CALL","action":"CANDIDATES","sender":..,"receiver":..,"callId":..,"candidates":[..]}
+ *
+ * with each candidate's JSON (an object, or a quoted string) copied verbatim. The sender is
+ * the user registered on the socket the candidates came in on, never what the frames claim,
+ * since the batch frame is the server's own. A window of 0 (the default) turns this off.
+ */
+@Component
+public class CandidateCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateCoalescer.class);
+
+    // Where flushed frames go (SignalingHandler's routing)
+    public interface Sink {
+        void send(String receiver, TextMessage message, boolean candidate, Long callId);
+    }
+
+    private static final class Batch {
+        final String sender;
+        final String receiver;
+        final Long callId;
+        final TextMessage first;
+        final List<String> candidates = new ArrayList<>(4);
+        boolean flushed;
+
+        Batch(String sender, String receiver, Long callId, TextMessage first) {
+            this.sender = sender;
+            this.receiver = receiver;
+            this.callId = callId;
+            this.first = first;
+        }
+    }
+
+    private final long windowNanos;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ScheduledExecutorService flusher;
+    private final Counter coalesced;
+    private final Counter batchFrames;
+    private final SignalingEvents events;
+    private volatile Sink sink;
+
+    public CandidateCoalescer(MeterRegistry meterRegistry,
+                              SignalingEvents events,
+                              @Value("${signaling.candidates.coalesce-window:0ms}") Duration window) {
+        this.events = events;
+        this.windowNanos = window.toNanos();
+        this.flusher = windowNanos > 0
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("candidate-flusher").daemon(true).factory())
+                : null;
+        this.coalesced = Counter.builder("signaling.candidates.coalesced")
+                .description("ICE candidates delivered inside a batch instead of their own frame")
+                .register(meterRegistry);
+        this.batchFrames = Counter.builder("signaling.candidates.batches")
+                .description("Batched CANDIDATES frames sent")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    // Buffers one candidate from the registered sender; the original frame is kept in case it ends up alone
+    public void add(String sender, String receiver, Long callId, String candidateJson, TextMessage original) {
+        String key = key(sender, receiver, callId);
+        while (true) {
+            Batch batch = batches.computeIfAbsent(key, k -> {
+                Batch opened = new Batch(sender, receiver, callId, original);
+                flusher.schedule(() -> flush(k, opened), windowNanos, TimeUnit.NANOSECONDS);
+                return opened;
+            });
+            synchronized (batch) {
+                if (!batch.flushed) {
+                    batch.candidates.add(candidateJson);
+                    return;
+                }
+            }
+            // Flushed between lookup and lock: it is (being) removed, open a new one
+            batches.remove(key, batch);
+        }
+    }
+
+    // Sends whatever the pair has buffered for the call, before the caller routes its next frame of it
+    public void flush(String sender, String receiver, Long callId) {
+        if (batches.isEmpty()) return;
+        String key = key(sender, receiver, callId);
+        Batch batch = batches.get(key);
+        if (batch != null) flush(key, batch);
+    }
+
+    private void flush(String key, Batch batch) {
+        // Sent under the batch lock: a concurrent flush of the pair waits until these are queued
+        synchronized (batch) {
+            if (!batch.flushed) {
+                batch.flushed = true;
+                send(batch);
+            }
+        }
+        batches.remove(key, batch);
+    }
+
+    private void send(Batch batch) {
+        int count = batch.candidates.size();
+        if (count == 1) {
+            sink.send(batch.receiver, batch.first, true, batch.callId);
+            return;
+        }
+        try {
+            sink.send(batch.receiver, new TextMessage(encode(batch)), true, batch.callId);
+            coalesced.increment(count);
+            batchFrames.increment();
+            events.at(Event.ROUTE).addKeyValue("action", "CANDIDATES").addKeyValue("from", batch.sender)
+                    .addKeyValue("to", batch.receiver).addKeyValue("candidates", count).log("Routed call message");
+        } catch (Exception e) {
+            log.warn("Error batching candidates for {}: {}", batch.receiver, e.getMessage());
+        }
+    }
+
+    private String encode(Batch batch) throws Exception {
+        StringWriter out = new StringWriter(64 + batch.candidates.size() * 160);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("type", "CALL");
+            json.writeStringField("action", "CANDIDATES");
+            json.writeStringField("sender", batch.sender);
+            json.writeStringField("receiver", batch.receiver);
+            if (batch.callId != null) json.writeNumberField("callId", batch.callId);
+            json.writeArrayFieldStart("candidates");
+            for (String candidate : batch.candidates) {
+                json.writeRawValue(candidate);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static String key(String sender, String receiver, Long callId) {
+        return sender + '\u0000' + receiver + '\u0000' + callId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) flusher.shutdownNow();
+    }
+}
@@ -0,0 +1,166 @@
+package com.webrtc.handler;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * The signaling sockets one user has open on this node (desktop, softphone, another tab), and
+ * which of them each of their calls is pinned to.
+ *
+ * Immutable: SignalingHandler swaps in a new set with ConcurrentHashMap.compute on register,
+ * disconnect and pin, so routing reads it without taking any lock. A user has a handful of
+ * devices and calls, so parallel arrays scanned linearly beat any map here. Frames about a
+ * pinned call go to that device only; everything else (a RING, room traffic) goes to all.
+ */
+final class DeviceSet {
+
+    static final DeviceSet EMPTY = new DeviceSet(new String[0], new OutboundSession[0], new long[0], new String[0]);
+
+    // Oldest pins are dropped beyond this; normally a pin is released when its call ends
+    static final int MAX_PINS = 8;
+
+    private final String[] devices;
+    private final OutboundSession[] sessions;
+    private final long[] pinnedCalls;
+    private final String[] pinnedDevices;
+
+    private DeviceSet(String[] devices, OutboundSession[] sessions, long[] pinnedCalls, String[] pinnedDevices) {
+        this.devices = devices;
+        this.sessions = sessions;
+        this.pinnedCalls = pinnedCalls;
+        this.pinnedDevices = pinnedDevices;
+    }
+
+    int size() {
+        return devices.length;
+    }
+
+    boolean isEmpty() {
+        return devices.length == 0;
+    }
+
+    // Adds the device, or points it at a new socket if it reconnected; its pins are kept, the old socket is the caller's to close
+    DeviceSet with(String device, OutboundSession session) {
+        int index = indexOf(device);
+        if (index >= 0) {
+            OutboundSession[] replaced = sessions.clone();
+            replaced[index] = session;
+            return new DeviceSet(devices, replaced, pinnedCalls, pinnedDevices);
+        }
+        String[] moreDevices = Arrays.copyOf(devices, devices.length + 1);
+        OutboundSession[] moreSessions = Arrays.copyOf(sessions, sessions.length + 1);
+        moreDevices[devices.length] = device;
+        moreSessions[sessions.length] = session;
+        return new DeviceSet(moreDevices, moreSessions, pinnedCalls, pinnedDevices);
+    }
+
+    // Removes the device on this socket; this set if the socket isn't in it (already replaced)
+    DeviceSet without(WebSocketSession socket) {
+        for (int i = 0; i < sessions.length; i++) {
+            if (sessions[i].getSession() != socket) continue;
+            String[] fewerDevices = new String[devices.length - 1];
+            OutboundSession[] fewerSessions = new OutboundSession[sessions.length - 1];
+            System.arraycopy(devices, 0, fewerDevices, 0, i);
+            System.arraycopy(devices, i + 1, fewerDevices, i, devices.length - i - 1);
+            System.arraycopy(sessions, 0, fewerSessions, 0, i);
+            System.arraycopy(sessions, i + 1, fewerSessions, i, sessions.length - i - 1);
+            return new DeviceSet(fewerDevices, fewerSessions, pinnedCalls, pinnedDevices);
+        }
+        return this;
+    }
+
+    // The socket the device is on, or null
+    OutboundSession session(String device) {
+        int index = indexOf(device);
+        return index >= 0 ? sessions[index] : null;
+    }
+
+    OutboundSession find(WebSocketSession socket) {
+        for (OutboundSession session : sessions) {
+            if (session.getSession() == socket) return session;
+        }
+        return null;
+    }
+
+    String pinned(long callId) {
+        for (int i = 0; i < pinnedCalls.length; i++) {
+            if (pinnedCalls[i] == callId) return pinnedDevices[i];
+        }
+        return null;
+    }
+
+    // Pins the call to the device, replacing any earlier pin for it
+    DeviceSet pin(long callId, String device) {
+        DeviceSet unpinned = unpin(callId);
+        int keep = Math.min(unpinned.pinnedCalls.length, MAX_PINS - 1);
+        int from = unpinned.pinnedCalls.length - keep;
+        long[] calls = new long[keep + 1];
+        String[] pinnedTo = new String[keep + 1];
+        System.arraycopy(unpinned.pinnedCalls, from, calls, 0, keep);
+        System.arraycopy(unpinned.pinnedDevices, from, pinnedTo, 0, keep);
+        calls[keep] = callId;
+        pinnedTo[keep] = device;
+        return new DeviceSet(devices, sessions, calls, pinnedTo);
+    }
+
+    DeviceSet unpin(long callId) {
+        for (int i = 0; i < pinnedCalls.length; i++) {
+            if (pinnedCalls[i] != callId) continue;
+            long[] calls = new long[pinnedCalls.length - 1];
+            String[] pinnedTo = new String[pinnedDevices.length - 1];
+            System.arraycopy(pinnedCalls, 0, calls, 0, i);
+            System.arraycopy(pinnedCalls, i + 1, calls, i, pinnedCalls.length - i - 1);
+            System.arraycopy(pinnedDevices, 0, pinnedTo, 0, i);
+            System.arraycopy(pinnedDevices, i + 1, pinnedTo, i, pinnedDevices.length - i - 1);
+            return new DeviceSet(devices, sessions, calls, pinnedTo);
+        }
+        return this;
+    }
+
+    /**
+     * Queues the frame on the device the call is pinned to, or on every device when there is
+     * no call, no pin, or the pinned device is gone. Devices that asked for compact SDP get
+     * the frame's compacted form (made once per frame, see {@link OutboundFrame}).
+     *
+     * @return the number of open devices it was queued on (dropped frames included), 0 if none is open
+     */
+    int deliver(Long callId, OutboundFrame frame, boolean candidate, UnaryOperator<TextMessage> compactSdp) {
+        if (callId != null && pinnedCalls.length > 0) {
+            int index = indexOf(pinned(callId));
+            if (index >= 0 && sessions[index].isOpen()) {
+                OutboundSession session = sessions[index];
+                session.enqueue(session.isCompactSdp() && !candidate ? frame.compactSdp(compactSdp) : frame, candidate);
+                return 1;
+            }
+        }
+        int open = 0;
+        for (OutboundSession session : sessions) {
+            if (!session.isOpen()) continue;
+            session.enqueue(session.isCompactSdp() && !candidate ? frame.compactSdp(compactSdp) : frame, candidate);
+            open++;
+        }
+        return open;
+    }
+
+    // Every open device except the given one, e.g. to tell them a call was taken elsewhere
+    int deliverToOthers(String device, TextMessage message) {
+        int sent = 0;
+        for (int i = 0; i < sessions.length; i++) {
+            if (devices[i].equals(device) || !sessions[i].isOpen()) continue;
+            sessions[i].enqueue(message, false);
+            sent++;
+        }
+        return sent;
+    }
+
+    private int indexOf(String device) {
+        if (device == null) return -1;
+        for (int i = 0; i < devices.length; i++) {
+            if (devices[i].equals(device)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,128 @@
+package com.webrtc.handler;
+
+import com.webrtc.codec.ByteBufferPool;
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.config.IoExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the per-session outbound queues and owns what they share:
+ * the sender executor, the overflow policy, the send metrics and the buffers
+ * frames for binary (CBOR) sessions are encoded into.
+ *
+ * Callers (HTTP request threads, the WebSocket dispatch thread) only enqueue,
+ * so a slow or stuck peer never blocks anyone but its own sender.
+ */
+@Component
+public class OutboundDispatcher {
+
+    public enum OverflowPolicy {
+        // Discard the oldest queued candidate or ping to make room; if there is none, disconnect
+        DROP_OLDEST,
+        // Close the session as soon as the queue is full; the client is expected to reconnect and resync
+        DISCONNECT
+    }
+
+    private final int queueCapacity;
+    private final int candidateLagThreshold;
+    private final OverflowPolicy overflowPolicy;
+
+    // A drain task per session with pending frames; virtual or platform threads per IoExecutors
+    private final ExecutorService senders;
+
+    // CBOR frames are encoded on the sender thread, right before the write, then the buffer goes back
+    final SignalingMessageCodec codec;
+    final ByteBufferPool buffers;
+
+    final AtomicLong queuedFrames = new AtomicLong();
+    final Timer sendTimer;
+    final Timer deliveryTimer;
+    final Counter sendFailures;
+    final Counter droppedStaleCandidates;
+    final Counter droppedOverflow;
+    final Counter overflowDisconnects;
+    final Counter binaryFrames;
+
+    public OutboundDispatcher(MeterRegistry meterRegistry,
+                              IoExecutors ioExecutors,
+                              SignalingMessageCodec codec,
+                              @Value("${signaling.outbound.queue-capacity:256}") int queueCapacity,
+                              @Value("${signaling.outbound.candidate-lag-threshold:64}") int candidateLagThreshold,
+                              @Value("${signaling.outbound.overflow-policy:DROP_OLDEST}") String overflowPolicy,
+                              @Value("${signaling.binary.buffer-size:16384}") int bufferSize,
+                              @Value("${signaling.binary.pooled-buffers:256}") int pooledBuffers) {
+        this.senders = ioExecutors.senders();
+        this.codec = codec;
+        this.buffers = new ByteBufferPool(bufferSize, pooledBuffers);
+        this.queueCapacity = queueCapacity;
+        this.candidateLagThreshold = Math.min(candidateLagThreshold, queueCapacity);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase().replace('-', '_'));
+
+        // Time spent inside session.sendMessage (socket write)
+        this.sendTimer = Timer.builder("signaling.outbound.send")
+                .description("Time spent writing a frame to the WebSocket")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // Enqueue to written, i.e. what the peer actually experiences
+        this.deliveryTimer = Timer.builder("signaling.outbound.delivery")
+                .description("Time from enqueue until the frame was written")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("signaling.outbound.failures").register(meterRegistry);
+        this.droppedStaleCandidates = Counter.builder("signaling.outbound.dropped")
+                .tag("reason", "stale_candidate").register(meterRegistry);
+        this.droppedOverflow = Counter.builder("signaling.outbound.dropped")
+                .tag("reason", "overflow").register(meterRegistry);
+        this.overflowDisconnects = Counter.builder("signaling.outbound.disconnects").register(meterRegistry);
+        this.binaryFrames = Counter.builder("signaling.outbound.binary")
+                .description("Frames sent to CBOR sessions")
+                .register(meterRegistry);
+        Gauge.builder("signaling.outbound.buffers.allocated", buffers, ByteBufferPool::allocated)
+                .description("Encode buffers allocated because the pool was empty")
+                .register(meterRegistry);
+        Gauge.builder("signaling.outbound.queued", queuedFrames, AtomicLong::get)
+                .description("Frames waiting in all outbound queues")
+                .register(meterRegistry);
+    }
+
+    public OutboundSession open(WebSocketSession session) {
+        return new OutboundSession(session, this);
+    }
+
+    // The frame in a form several sessions can share, each encoding made once
+    public OutboundFrame frame(TextMessage message) {
+        return new OutboundFrame(message, this);
+    }
+
+    // A frame that came in as CBOR, relayed to CBOR sessions as is; cbor is kept, so must not change afterwards
+    public OutboundFrame frame(ByteBuffer cbor) {
+        return new OutboundFrame(cbor, this);
+    }
+
+    int queueCapacity() {
+        return queueCapacity;
+    }
+
+    int candidateLagThreshold() {
+        return candidateLagThreshold;
+    }
+
+    OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    void schedule(Runnable drain) {
+        senders.execute(drain);
+    }
+}
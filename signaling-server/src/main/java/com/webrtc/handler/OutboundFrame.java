@@ -0,0 +1,86 @@
+package com.webrtc.handler;
+
+import com.webrtc.codec.SignalingMessageCodec;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A signaling frame on its way to one or more sockets, with each form a recipient may need
+ * produced at most once, on first use: the JSON text, the JSON with its SDP in dictionary form
+ * (sockets that asked for it at REGISTER) and CBOR (binary sockets).
+ *
+ * A room broadcast, or a frame for a user with several devices, shares one instance across
+ * every recipient, so the SDP is compacted and the CBOR encoded once however many there are.
+ * The forms are built by whichever thread needs them first, under the frame's lock.
+ *
+ * A frame that arrived as CBOR starts from those bytes instead: CBOR sockets get them as they
+ * came, and the JSON is only made if a recipient (or a forward to another node) needs it.
+ */
+public final class OutboundFrame {
+
+    private final OutboundDispatcher dispatcher;
+    // At least one of text and cbor is set
+    private TextMessage text;
+    private ByteBuffer cbor;
+    // this when the frame has no SDP to compact
+    private OutboundFrame compact;
+
+    OutboundFrame(TextMessage text, OutboundDispatcher dispatcher) {
+        this.text = text;
+        this.dispatcher = dispatcher;
+    }
+
+    // cbor must not change afterwards
+    OutboundFrame(ByteBuffer cbor, OutboundDispatcher dispatcher) {
+        this.cbor = cbor;
+        this.dispatcher = dispatcher;
+    }
+
+    // The JSON form; a CBOR frame was decoded when it came in, so making it only fails on a broken codec
+    public synchronized TextMessage text() {
+        if (text == null) {
+            try {
+                text = new TextMessage(dispatcher.codec.toJson(cbor.duplicate()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return text;
+    }
+
+    // The frame with dictionary SDP; compactor returns its argument when there is nothing to compact
+    synchronized OutboundFrame compactSdp(UnaryOperator<TextMessage> compactor) {
+        if (compact == null) {
+            TextMessage json = text();
+            TextMessage compacted = compactor.apply(json);
+            compact = compacted == json ? this : new OutboundFrame(compacted, dispatcher);
+        }
+        return compact;
+    }
+
+    // The CBOR form, as a view of its own each caller may consume
+    synchronized ByteBuffer cbor() throws IOException {
+        if (cbor == null) cbor = encode(text.getPayload());
+        return cbor.duplicate();
+    }
+
+    // Encoded in a pooled buffer and kept as an exact copy, since the frame may be held for a while
+    private ByteBuffer encode(String payload) throws IOException {
+        SignalingMessageCodec codec = dispatcher.codec;
+        ByteBuffer buffer = dispatcher.buffers.acquire();
+        try {
+            ByteBuffer encoded = codec.toCbor(payload, buffer);
+            return ByteBuffer.wrap(Arrays.copyOf(encoded.array(), encoded.limit()));
+        } catch (BufferOverflowException e) {
+            return codec.toCbor(payload, ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(payload)));
+        } finally {
+            dispatcher.buffers.release(buffer);
+        }
+    }
+}
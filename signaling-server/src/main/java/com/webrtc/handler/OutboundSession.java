@@ -0,0 +1,247 @@
+package com.webrtc.handler;
+
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.codec.WireFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded outbound queue for one WebSocket session.
+ *
+ * At most one drain task runs per session, so sendMessage is never called concurrently
+ * on the underlying (non thread-safe) session. When the peer falls behind, queued ICE
+ * candidates are the first thing sacrificed; after that the overflow policy applies.
+ *
+ * Frames are queued as JSON text, or as an {@link OutboundFrame} shared with other sockets.
+ * For a {@link WireFormat#CBOR} session the sender encodes a text frame into a pooled buffer
+ * right before writing it, and returns the buffer once written; a shared frame is encoded once,
+ * by the first sender that needs it.
+ */
+public class OutboundSession {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundSession.class);
+
+    // Exactly one of message and frame is set
+    private record Outbound(WebSocketMessage<?> message, OutboundFrame frame, boolean candidate, long enqueuedNanos) {}
+
+    private final WebSocketSession session;
+    private final OutboundDispatcher dispatcher;
+    private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean draining;
+    private boolean closed;
+    // The client asked for SDP in SdpDictionary form
+    private volatile boolean compactSdp;
+    private volatile WireFormat format = WireFormat.JSON;
+
+    OutboundSession(WebSocketSession session, OutboundDispatcher dispatcher) {
+        this.session = session;
+        this.dispatcher = dispatcher;
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public boolean isCompactSdp() {
+        return compactSdp;
+    }
+
+    public void setCompactSdp(boolean compactSdp) {
+        this.compactSdp = compactSdp;
+    }
+
+    public WireFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(WireFormat format) {
+        this.format = format;
+    }
+
+    public boolean isOpen() {
+        return !closed && session.isOpen();
+    }
+
+    public void send(TextMessage message) {
+        enqueue(message, false);
+    }
+
+    /**
+     * Queues a frame for delivery.
+     *
+     * @param candidate true for trickled ICE candidates, which may be dropped once the peer lags
+     * @return false if the frame was not queued (dropped or session closed)
+     */
+    public boolean enqueue(WebSocketMessage<?> message, boolean candidate) {
+        return enqueue(message, null, candidate);
+    }
+
+    // A frame shared with other sockets; sent in whichever form this session takes
+    public boolean enqueue(OutboundFrame frame, boolean candidate) {
+        return enqueue(null, frame, candidate);
+    }
+
+    private boolean enqueue(WebSocketMessage<?> message, OutboundFrame frame, boolean candidate) {
+        boolean schedule = false;
+        boolean disconnect = false;
+        lock.lock();
+        try {
+            if (closed) return false;
+
+            if (candidate && queue.size() >= dispatcher.candidateLagThreshold()) {
+                // Peer is already behind; an old candidate is worth less than the answer behind it
+                dispatcher.droppedStaleCandidates.increment();
+                return false;
+            }
+
+            // Only frames the peer can do without are ever dropped; losing an OFFER / ANSWER would
+            // break the call with no error on either side, so a peer that far behind is cut off instead
+            if (queue.size() >= dispatcher.queueCapacity()) {
+                if (dispatcher.overflowPolicy() != OutboundDispatcher.OverflowPolicy.DROP_OLDEST || !evictOldestDroppable()) {
+                    disconnect = true;
+                }
+            }
+
+            if (!disconnect) {
+                queue.add(new Outbound(message, frame, candidate, System.nanoTime()));
+                dispatcher.queuedFrames.incrementAndGet();
+                if (!draining) {
+                    draining = true;
+                    schedule = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (disconnect) {
+            dispatcher.overflowDisconnects.increment();
+            log.warn("Outbound queue full for session {}, disconnecting.", session.getId());
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+        if (schedule) {
+            dispatcher.schedule(this::drain);
+        }
+        return true;
+    }
+
+    // Drops whatever is queued but keeps the queue and its sender, e.g. for a socket that registered again
+    public void discardQueued() {
+        lock.lock();
+        try {
+            dispatcher.queuedFrames.addAndGet(-queue.size());
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops accepting frames and discards whatever is still queued
+    public void close(CloseStatus status) {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            dispatcher.queuedFrames.addAndGet(-queue.size());
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (session.isOpen()) session.close(status);
+        } catch (Exception e) {
+            log.warn("Error closing session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    // The oldest queued candidate or ping
+    private boolean evictOldestDroppable() {
+        Iterator<Outbound> it = queue.iterator();
+        while (it.hasNext()) {
+            Outbound next = it.next();
+            if (next.candidate() || next.message() instanceof PingMessage) {
+                it.remove();
+                dispatcher.queuedFrames.decrementAndGet();
+                (next.candidate() ? dispatcher.droppedStaleCandidates : dispatcher.droppedOverflow).increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            Outbound next;
+            lock.lock();
+            try {
+                next = queue.poll();
+                if (next == null) {
+                    draining = false;
+                    return;
+                }
+                dispatcher.queuedFrames.decrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+
+            if (!session.isOpen()) continue;
+            ByteBuffer buffer = null;
+            try {
+                WebSocketMessage<?> message = next.frame() != null ? formOf(next.frame()) : next.message();
+                if (format == WireFormat.CBOR && message instanceof TextMessage text) {
+                    buffer = encode(text.getPayload());
+                    message = new BinaryMessage(buffer);
+                }
+                long start = System.nanoTime();
+                session.sendMessage(message);
+                long end = System.nanoTime();
+                dispatcher.sendTimer.record(end - start, TimeUnit.NANOSECONDS);
+                dispatcher.deliveryTimer.record(end - next.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                // Only after a completed write; a failed one may have left the buffer with the container
+                if (buffer != null) {
+                    dispatcher.buffers.release(buffer);
+                    dispatcher.binaryFrames.increment();
+                }
+            } catch (Exception e) {
+                dispatcher.sendFailures.increment();
+                log.warn("Error sending message on session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private WebSocketMessage<?> formOf(OutboundFrame frame) throws IOException {
+        if (format != WireFormat.CBOR) return frame.text();
+        dispatcher.binaryFrames.increment();
+        return new BinaryMessage(frame.cbor());
+    }
+
+    // CBOR in a pooled buffer; a frame too big for one gets a buffer of its own. The pooled buffer goes back on any failure
+    private ByteBuffer encode(String payload) throws IOException {
+        ByteBuffer buffer = dispatcher.buffers.acquire();
+        try {
+            return dispatcher.codec.toCbor(payload, buffer);
+        } catch (BufferOverflowException e) {
+            dispatcher.buffers.release(buffer);
+            return dispatcher.codec.toCbor(payload, ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(payload)));
+        } catch (IOException | RuntimeException e) {
+            dispatcher.buffers.release(buffer);
+            throw e;
+        }
+    }
+}
@@ -1,82 +1,574 @@
 package com.webrtc.handler;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.call.EndReason;
+import com.webrtc.cluster.ClusterNode;
+import com.webrtc.cluster.MessageBus;
+import com.webrtc.cluster.RoutedMessage;
+import com.webrtc.cluster.SessionDirectory;
+import com.webrtc.codec.SdpDictionary;
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.codec.WireFormat;
+import com.webrtc.dto.SignalingMessage;
+import com.webrtc.logging.SignalingEvents;
+import com.webrtc.logging.SignalingEvents.Event;
+import com.webrtc.presence.PresenceService;
+import com.webrtc.presence.UserTenants;
+import com.webrtc.ratelimit.Admission;
+import com.webrtc.room.Room;
+import com.webrtc.room.RoomRegistry;
+import com.webrtc.security.JwtHandshakeInterceptor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 
  // Handles WebRTC Signaling and manages Username to Session mapping.
+ // A user may have several sockets open (desktop, softphone): a RING reaches all of them, and once
+ // a call is pinned to one device (it answered, or signaled first) that call's frames go there only.
+ // Users connected to other nodes are found in the SessionDirectory and reached over the MessageBus.
+ // Clients speak JSON text frames, or CBOR binary frames if they asked for it in the handshake (WireFormat).
  
 @Component
-public class SignalingHandler extends TextWebSocketHandler {
+public class SignalingHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
 
-    // Key=Username, Value=WebSocketSession
-    private final Map<String, WebSocketSession> userSessions = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(SignalingHandler.class);
+
+    // Session attribute: the device id the socket registered as
+    public static final String DEVICE_ATTR = "com.webrtc.device";
+
+    // Key=Username, Value=their open sockets (one per device); replaced, never mutated, so reads don't lock
+    private final Map<String, DeviceSet> userSessions = new ConcurrentHashMap<>();
     
     // Key=Session ID, Value=Username
     private final Map<String, String> sessionToUser = new ConcurrentHashMap<>(); 
+
+    // Key=Session ID, Value=its heartbeat (registered sockets only)
+    private final Map<String, PresenceService.Heartbeat> heartbeats = new ConcurrentHashMap<>();
     
+    // Scratch message a socket's frames are decoded into (see scratch()); a session attribute under this key
+    private static final String SCRATCH_ATTR = "signalingScratch";
+
+    @Autowired
+    private SignalingMessageCodec codec;
+
+    @Autowired
+    private OutboundDispatcher outboundDispatcher;
+
+    @Autowired
+    private ClusterNode node;
+
+    @Autowired
+    private SessionDirectory sessionDirectory;
+
+    @Autowired
+    private MessageBus messageBus;
+
+    @Autowired
+    private CallRegistry callRegistry;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CandidateCoalescer candidateCoalescer;
+
+    @Autowired
+    private SignalingEvents events;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Admission admission;
+
+    @Autowired
+    private PresenceService presence;
+
+    @Autowired
+    private UserTenants userTenants;
+
+    // Clients may ask for SDP in SdpDictionary form at REGISTER
+    @Value("${signaling.compression.sdp-dictionary:true}")
+    private boolean sdpDictionary;
+
+    // Clients may ask for CBOR frames with the "signaling.cbor" subprotocol
+    @Value("${signaling.binary.enabled:true}")
+    private boolean binary;
+
+    // Frames received, by type then action; unknown values share one "other" tag so cardinality stays bounded
+    private final Map<String, Map<String, Counter>> routedMessages = new ConcurrentHashMap<>();
+    private Counter undeliverable;
+    private Counter sdpBytesSaved;
+    private final UnaryOperator<TextMessage> sdpCompactor = this::compactSdp;
+
+    @PostConstruct
+    public void init() {
+        messageBus.subscribe(this::deliverRouted);
+        candidateCoalescer.setSink(this::sendMessageToUser);
+
+        Gauge.builder("signaling.sessions.active", userSessions, Map::size)
+                .description("Users with an open signaling socket on this node")
+                .register(meterRegistry);
+        undeliverable = Counter.builder("signaling.messages.undeliverable")
+                .description("Frames dropped because the recipient was not connected anywhere")
+                .tag("reason", "offline")
+                .register(meterRegistry);
+        sdpBytesSaved = Counter.builder("signaling.sdp.bytes.saved")
+                .description("Payload chars saved by sending SDP in dictionary form")
+                .register(meterRegistry);
+    }
+
+    // Picked in the client's order of preference; a client asking for neither gets JSON
+    @Override
+    public List<String> getSubProtocols() {
+        return binary ? List.of(WireFormat.CBOR.subprotocol(), WireFormat.JSON.subprotocol()) : List.of(WireFormat.JSON.subprotocol());
+    }
+
     //  Incoming Message Router
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        String payload = message.getPayload();
-        
-     
-        Map<String, String> messageMap = objectMapper.readValue(payload, Map.class);
-        String type = messageMap.get("type");
-        String sender = messageMap.get("sender");
-
-        if ("REGISTER".equalsIgnoreCase(type)) {
+        if (!admit(session)) return;
+        // Only the routing header is decoded; SDP / candidate bodies are skipped
+        SignalingMessage signal = codec.decode(message.getPayload(), scratch(session), false);
+        dispatch(session, signal, "CALL".equals(signal.getType()) ? outboundDispatcher.frame(message) : null);
+    }
+
+    // CBOR frames: the header is read from the frame itself. CALL frames are routed on as their own bytes,
+    // copied since the container may reuse its buffer; JSON is only made for recipients that need it
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        if (!binary) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Binary messages not supported"));
+            return;
+        }
+        if (!admit(session)) return;
+        ByteBuffer frame = message.getPayload();
+        SignalingMessage signal = codec.decode(frame, scratch(session));
+        if (!"CALL".equals(signal.getType())) {
+            dispatch(session, signal, null);
+            return;
+        }
+        byte[] cbor = new byte[frame.remaining()];
+        frame.duplicate().get(cbor);
+        dispatch(session, signal, outboundDispatcher.frame(ByteBuffer.wrap(cbor)));
+    }
+
+    /**
+     * One scratch message per socket rather than per thread: with virtual threads every frame is
+     * dispatched on a new thread, so a ThreadLocal would never be reused. A socket's frames are
+     * delivered one at a time and routed synchronously, so its scratch is never shared.
+     */
+    private static SignalingMessage scratch(WebSocketSession session) {
+        return (SignalingMessage) session.getAttributes().computeIfAbsent(SCRATCH_ATTR, key -> new SignalingMessage());
+    }
+
+    // From the socket's token; rooms and rate limits are per tenant
+    private static String tenantOf(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.TENANT_ATTR);
+    }
+
+    // Checked before decoding so a flood costs as little as possible; before REGISTER the socket is the key
+    private boolean admit(WebSocketSession session) throws Exception {
+        PresenceService.Heartbeat heartbeat = heartbeats.get(session.getId());
+        if (heartbeat != null) heartbeat.touch();
+
+        String registered = sessionToUser.get(session.getId());
+        Admission.Decision decision = admission.admit(Admission.Scope.SIGNALING, tenantOf(session),
+                registered != null ? registered : session.getId());
+        if (!decision.admitted()) {
+            // A user over their own limit is cut off; a busy tenant only loses frames
+            if ("user".equals(decision.limitedBy())) {
+                log.warn("Closing signaling socket of {}: rate limit exceeded", registered != null ? registered : session.getId());
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Rate limit exceeded"));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // frame is the frame as received, to be routed on as is; only set for CALL
+    private void dispatch(WebSocketSession session, SignalingMessage signal, OutboundFrame frame) throws Exception {
+        String type = signal.getType();
+        String sender = signal.getSender();
+        routedMessages(type, signal.getAction()).increment();
+
+        if ("REGISTER".equals(type)) {
             // A user is registering their session after successful login (Jeff or Bob)
-            String username = messageMap.get("username");
-            userSessions.put(username, session);
+            String username = signal.getUsername();
+            // The token says who this socket is (and so which tenant it is limited under); it can't register as someone else
+            if (!session.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTR).equals(username)) {
+                log.warn("Closing signaling socket {}: REGISTER as {} does not match its token", session.getId(), username);
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Username does not match token"));
+                return;
+            }
+            // Each socket is a device; the client may name it so calls can be pinned to it
+            String device = signal.getDevice() != null ? signal.getDevice() : session.getId();
+            session.getAttributes().put(DEVICE_ATTR, device);
+            // A socket registering again ends its previous registration; its queue and sender are reused,
+            // so there is never a second sender writing to the same socket
+            String registeredAs = sessionToUser.get(session.getId());
+            OutboundSession reused = registeredAs != null ? unregister(session, registeredAs, username) : null;
+            OutboundSession outbound = reused != null ? reused : outboundDispatcher.open(session);
+            outbound.setCompactSdp(sdpDictionary && SdpDictionary.VERSION.equals(signal.getSdpEncoding()));
+            outbound.setFormat(WireFormat.of(session.getAcceptedProtocol()));
+            // Back within the resume window: what was kept for them goes out before any new frame
+            OutboundSession[] displaced = new OutboundSession[1];
+            int replayed = presence.online(username, frame -> outbound.enqueue(frame, false),
+                    () -> userSessions.compute(username, (user, devices) -> {
+                        DeviceSet current = devices != null ? devices.without(session) : DeviceSet.EMPTY;
+                        displaced[0] = current.session(device);
+                        return current.with(device, outbound);
+                    }));
+            // The device was still open on another socket (a duplicated tab shares its id): nothing is routed there any more, so end it
+            if (displaced[0] != null) displaced[0].close(CloseStatus.NORMAL.withReason("Device registered on another socket"));
             sessionToUser.put(session.getId(), username);
-            System.out.println("SERVER: User Registered: " + username + ". Total Sessions: " + userSessions.size());
+            userTenants.remember(username, tenantOf(session));
+            sessionDirectory.register(username, node.id());
+            PresenceService.Heartbeat previous = heartbeats.put(session.getId(),
+                    presence.track(() -> outbound.enqueue(new PingMessage(), false), () -> reap(session)));
+            if (previous != null) previous.stop();
+            events.at(Event.REGISTER).addKeyValue("user", username).addKeyValue("device", device).addKeyValue("replayed", replayed)
+                    .addKeyValue("sessions", userSessions::size).log("User registered");
             
-        } else if ("CALL".equalsIgnoreCase(type)) {
+        } else if ("CALL".equals(type)) {
             // A user is trying to send a call request (Jeff calling Bob)
-            String receiver = messageMap.get("receiver");
-            String action = messageMap.get("action"); // e.g., RING, OFFER, ANSWER
+            String receiver = signal.getReceiver();
+            String action = signal.getAction(); // e.g., RING, OFFER, ANSWER
+            // Signaling on a call by one of its participants keeps it from timing out as idle, and ties
+            // the call to the device doing it
+            if (signal.getCallId() != null && callRegistry.touch(signal.getCallId(), sessionToUser.get(session.getId()))) {
+                pinIfUnpinned(session, signal.getCallId());
+            }
+
+            if (receiver == null && signal.getRoom() != null) {
+                // Group call: the same frame goes to everyone else in the room
+                Room room = roomRegistry.find(tenantOf(session), signal.getRoom());
+                String member = sessionToUser.get(session.getId());
+                if (room != null && room.contains(member)) {
+                    int sent = broadcast(room, frame, member, isCandidate(action));
+                    events.at(Event.ROUTE).addKeyValue("action", action).addKeyValue("from", member)
+                            .addKeyValue("room", room.getId()).addKeyValue("recipients", sent).log("Routed call message to room");
+                }
+                return;
+            }
+
+            boolean candidate = isCandidate(action);
+            // Batches are keyed by, and say they come from, the user registered on the socket; unregistered sockets aren't batched
+            String registered = sessionToUser.get(session.getId());
+            if (candidateCoalescer.isEnabled() && registered != null && receiver != null) {
+                if (candidate) {
+                    // Trickled candidates wait a few ms for siblings and go out as one frame
+                    TextMessage message = frame.text();
+                    SignalingMessage full = codec.decode(message.getPayload(), signal, true);
+                    if (full.getCandidate() != null) {
+                        candidateCoalescer.add(registered, receiver, full.getCallId(), full.getCandidate(), message);
+                        return;
+                    }
+                } else {
+                    // Anything else of the call on the pair (offer, answer...) must not overtake its buffered candidates
+                    candidateCoalescer.flush(registered, receiver, signal.getCallId());
+                }
+            }
 
-            // Route the message from Jeff to Bob
-            sendMessageToUser(receiver, payload);
+            // Route the original frame from Jeff to Bob without re-serializing it
+            send(receiver, frame, candidate, signal.getCallId());
             
-            System.out.println("SERVER: ROUTING CALL MESSAGE: " + action + " from " + sender + " to " + receiver);
+            events.at(Event.ROUTE).addKeyValue("action", action).addKeyValue("from", sender)
+                    .addKeyValue("to", receiver).log("Routed call message");
+
+        } else if ("ROOM".equals(type)) {
+            // Joining / leaving a group call as the user registered on this socket, among their tenant's rooms
+            String member = sessionToUser.get(session.getId());
+            String roomId = signal.getRoom();
+            if (member == null || roomId == null) return;
+            if ("JOIN".equals(signal.getAction())) {
+                Room room = roomRegistry.join(tenantOf(session), roomId, member);
+                if (room == null) {
+                    events.at(Event.ROOM).addKeyValue("room", roomId).addKeyValue("user", member).log("Room full, not admitted");
+                    return;
+                }
+                events.at(Event.ROOM).addKeyValue("room", roomId).addKeyValue("user", member)
+                        .addKeyValue("members", () -> room.members().length).log("Joined room");
+                broadcastRoster(room);
+            } else if ("LEAVE".equals(signal.getAction())) {
+                Room room = roomRegistry.leave(tenantOf(session), roomId, member);
+                if (room != null) {
+                    events.at(Event.ROOM).addKeyValue("room", roomId).addKeyValue("user", member).log("Left room");
+                    broadcastRoster(room);
+                }
+            }
         }
     }
     
+    // Browsers answer pings by themselves; a pong is all a silent client sends
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        PresenceService.Heartbeat heartbeat = heartbeats.get(session.getId());
+        if (heartbeat != null) heartbeat.touch();
+    }
+
     //  Connection Closed 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        disconnected(session, status);
+    }
+
+    // Missed heartbeats (half-open TCP, frozen client): clean up now instead of waiting for the OS to notice
+    private void reap(WebSocketSession session) {
+        log.warn("No heartbeat from signaling socket {} ({}), closing it", session.getId(), sessionToUser.get(session.getId()));
+        disconnected(session, CloseStatus.SESSION_NOT_RELIABLE);
+        try {
+            if (session.isOpen()) session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception e) {
+            log.warn("Error closing session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    // Runs once per socket: on close, or earlier when reaped
+    private void disconnected(WebSocketSession session, CloseStatus status) {
+        PresenceService.Heartbeat heartbeat = heartbeats.remove(session.getId());
+        if (heartbeat != null) heartbeat.stop();
         // Find the username associated with this session ID and remove both entries
         String username = sessionToUser.remove(session.getId());
         if (username != null) {
-            userSessions.remove(username);
-            System.out.println("SERVER: User Disconnected: " + username + ". Remaining: " + userSessions.size());
+            DeviceSet devices = userSessions.get(username);
+            OutboundSession outbound = devices != null ? devices.find(session) : null;
+            if (outbound != null) {
+                outbound.close(status);
+                if (CloseStatus.NORMAL.equalsCode(status)) {
+                    // Closed on purpose (logout): once their last device is gone, no point waiting for them
+                    if (presence.offline(username, () -> detach(username, session))) signOff(username);
+                } else {
+                    // Dropped: calls and rooms are kept, and frames buffered, until the resume window passes
+                    presence.away(username, () -> detach(username, session), () -> signOff(username));
+                }
+            }
+            events.at(Event.DISCONNECT).addKeyValue("user", username).addKeyValue("status", status.getCode())
+                    .addKeyValue("sessions", userSessions::size).log("User disconnected");
+        }
+    }
+
+    // The socket's queue, emptied, and detached from the user it was registered as if that was someone else
+    private OutboundSession unregister(WebSocketSession session, String previous, String username) {
+        DeviceSet devices = userSessions.get(previous);
+        OutboundSession outbound = devices != null ? devices.find(session) : null;
+        if (outbound == null) return null;
+        outbound.discardQueued();
+        if (!previous.equals(username) && presence.offline(previous, () -> detach(previous, session))) signOff(previous);
+        return outbound;
+    }
+
+    // Removes the socket's device; true if it was the user's last one on this node
+    private boolean detach(String username, WebSocketSession session) {
+        boolean[] last = new boolean[1];
+        userSessions.computeIfPresent(username, (user, devices) -> {
+            DeviceSet remaining = devices.without(session);
+            if (remaining == devices) return devices;
+            last[0] = remaining.isEmpty();
+            return last[0] ? null : remaining;
+        });
+        return last[0];
+    }
+
+    // Gone for good: other nodes stop routing here, their calls end (the other side gets a HANGUP), rooms are left
+    private void signOff(String username) {
+        sessionDirectory.unregister(username, node.id());
+        callRegistry.endAllFor(username, EndReason.DISCONNECTED);
+        for (Room room : roomRegistry.leaveAll(username)) {
+            broadcastRoster(room);
         }
     }
     
+    /**
+     * Ties the user's side of a call to one of their devices: frames about the call then go to
+     * that device only. The user's other devices get toOthers (may be null), e.g. to stop ringing.
+     * Unknown devices, or users not connected here, are ignored.
+     */
+    public void pin(long callId, String username, String device, TextMessage toOthers) {
+        DeviceSet devices = userSessions.computeIfPresent(username, (user, current) -> current.pin(callId, device));
+        if (devices != null && toOthers != null) devices.deliverToOthers(device, toOthers);
+    }
+
+    // The call ended; its frames no longer need steering
+    public void unpin(long callId, String username) {
+        DeviceSet devices = userSessions.get(username);
+        if (devices != null && devices.pinned(callId) != null) {
+            userSessions.computeIfPresent(username, (user, current) -> current.unpin(callId));
+        }
+    }
+
+    // First device to signal on a call gets it; only worth a write when the user has more than one
+    private void pinIfUnpinned(WebSocketSession session, long callId) {
+        String username = sessionToUser.get(session.getId());
+        DeviceSet devices = username != null ? userSessions.get(username) : null;
+        if (devices == null || devices.size() < 2 || devices.pinned(callId) != null) return;
+        String device = (String) session.getAttributes().get(DEVICE_ATTR);
+        userSessions.computeIfPresent(username, (user, current) ->
+                current.pinned(callId) != null ? current : current.pin(callId, device));
+    }
+
     //  Helper Method 
     public void sendMessageToUser(String username, String message) {
-        WebSocketSession session = userSessions.get(username);
-        if (session != null && session.isOpen()) {
-            try {
-                session.sendMessage(new TextMessage(message));
-                System.out.println("SERVER: Successfully routed message to " + username);
-            } catch (Exception e) {
-                System.err.println("Error sending message to user " + username + ": " + e.getMessage());
-            }
+        sendMessageToUser(username, new TextMessage(message));
+    }
+
+    public void sendMessageToUser(String username, TextMessage message) {
+        sendMessageToUser(username, message, false);
+    }
+
+    public void sendMessageToUser(String username, TextMessage message, boolean candidate) {
+        sendMessageToUser(username, message, candidate, null);
+    }
+
+    // Queues the frame on the user's outbound queues; the actual write happens on each session's sender.
+    // A frame about a call (callId not null) goes only to the device the call is pinned to, if any.
+    // Users on another node get the frame forwarded to that node.
+    public void sendMessageToUser(String username, TextMessage message, boolean candidate, Long callId) {
+        send(username, outboundDispatcher.frame(message), candidate, callId);
+    }
+
+    private void send(String username, OutboundFrame frame, boolean candidate, Long callId) {
+        if (username == null) {
+            undeliverable.increment();
+            events.at(Event.OFFLINE).addKeyValue("to", username).log("User not online or session closed");
+            return;
+        }
+        if (deliverLocally(username, frame, candidate, callId, true)) return;
+
+        String nodeId = sessionDirectory.locate(username);
+        if (nodeId != null && !nodeId.equals(node.id())) {
+            messageBus.send(nodeId, new RoutedMessage(username, frame.text().getPayload(), candidate, callId));
+            events.at(Event.FORWARD).addKeyValue("to", username).addKeyValue("node", nodeId).log("Forwarded message");
         } else {
-            System.out.println("SERVER: ERROR - User " + username + " not online or session closed.");
+            undeliverable.increment();
+            events.at(Event.OFFLINE).addKeyValue("to", username).log("User not online or session closed");
+        }
+    }
+
+    /**
+     * Sends one frame to every member of the room except {@code except} (may be null).
+     * One {@link OutboundFrame} is queued for every member, so the payload is built once, and
+     * its compact-SDP and CBOR forms are made at most once each, however large the room is.
+     * Returns the number of members it was sent to.
+     */
+    public int broadcast(Room room, TextMessage message, String except, boolean candidate) {
+        return broadcast(room, outboundDispatcher.frame(message), except, candidate);
+    }
+
+    private int broadcast(Room room, OutboundFrame frame, String except, boolean candidate) {
+        int sent = 0;
+        for (String member : room.members()) {
+            if (member.equals(except)) continue;
+            route(member, frame, candidate);
+            sent++;
+        }
+        return sent;
+    }
+
+    // Current member list to everyone in the room, after a join or leave
+    private void broadcastRoster(Room room) {
+        Map<String, Object> roster = new LinkedHashMap<>();
+        roster.put("type", "ROOM");
+        roster.put("action", "ROSTER");
+        roster.put("room", room.getId());
+        roster.put("members", room.members());
+        try {
+            broadcast(room, new TextMessage(objectMapper.writeValueAsString(roster)), null, false);
+        } catch (Exception e) {
+            log.warn("Error sending roster for room {}: {}", room.getId(), e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Like sendMessageToUser, without a log line per member
+    private void route(String username, OutboundFrame frame, boolean candidate) {
+        if (deliverLocally(username, frame, candidate, null, false)) return;
+        String nodeId = sessionDirectory.locate(username);
+        if (nodeId != null && !nodeId.equals(node.id())) {
+            messageBus.send(nodeId, new RoutedMessage(username, frame.text().getPayload(), candidate, null));
+        } else {
+            undeliverable.increment();
+        }
+    }
+
+    // A frame another node routed here; never forwarded again, so a stale directory entry can't loop
+    private void deliverRouted(RoutedMessage routed) {
+        OutboundFrame frame = outboundDispatcher.frame(new TextMessage(routed.payload()));
+        if (!deliverLocally(routed.receiver(), frame, routed.candidate(), routed.callId(), true)) {
+            undeliverable.increment();
+            events.at(Event.OFFLINE).addKeyValue("to", routed.receiver()).log("User not online or session closed");
+        }
+    }
+
+    private boolean deliverLocally(String username, OutboundFrame frame, boolean candidate, Long callId, boolean log) {
+        DeviceSet devices = userSessions.get(username);
+        int queued = devices != null ? devices.deliver(callId, frame, candidate, sdpCompactor) : 0;
+        if (queued == 0) {
+            // Dropped, and within the resume window: kept for replay
+            if (presence.buffer(username, frame.text())) return true;
+            // Or they may have come back just now
+            devices = userSessions.get(username);
+            queued = devices != null ? devices.deliver(callId, frame, candidate, sdpCompactor) : 0;
+            if (queued == 0) return false;
+        }
+        if (log) {
+            events.at(Event.QUEUED).addKeyValue("to", username).addKeyValue("devices", queued).log("Queued message");
+        }
+        return true;
+    }
+
+    // The frame as sent to clients that decode dictionary SDP; the same frame if it has none
+    private TextMessage compactSdp(TextMessage message) {
+        try {
+            String compact = codec.compactSdp(message.getPayload());
+            if (compact == null) return message;
+            sdpBytesSaved.increment(message.getPayload().length() - compact.length());
+            return new TextMessage(compact);
+        } catch (Exception e) {
+            log.warn("Could not compact SDP, sending it as is: {}", e.getMessage());
+            return message;
+        }
+    }
+
+    private Counter routedMessages(String type, String action) {
+        String typeTag = SignalingMessageCodec.isKnownType(type) ? type : "other";
+        String actionTag = action == null ? "none" : SignalingMessageCodec.isKnownAction(action) ? action : "other";
+        Map<String, Counter> byAction = routedMessages.get(typeTag);
+        Counter counter = byAction != null ? byAction.get(actionTag) : null;
+        if (counter != null) return counter;
+        return routedMessages.computeIfAbsent(typeTag, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(actionTag, a -> Counter.builder("signaling.messages.routed")
+                        .description("Signaling frames received, by type and action")
+                        .tag("type", typeTag)
+                        .tag("action", actionTag)
+                        .register(meterRegistry));
+    }
+
+    private static boolean isCandidate(String action) {
+        return "CANDIDATE".equals(action) || "ICE_CANDIDATE".equals(action);
+    }
+}
@@ -0,0 +1,64 @@
+package com.webrtc.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Structured log events for the signaling hot paths (routing, sessions, calls, rooms).
+ *
+ * Each event type logs to its own logger (signaling.event.route, signaling.event.queued, ...)
+ * and is written with a fraction of logging.signaling.sample-rates ("route=0.01,queued=0";
+ * unlisted events are always logged). An event that is sampled out or whose logger is off
+ * costs one branch: callers get a no-op builder, so no message or key/value is built.
+ *
+ *   events.at(Event.ROUTE).addKeyValue("action", action).addKeyValue("to", receiver).log("routed");
+ *
+ * Key/values come out as JSON fields with logging.structured.format.console (prod profile)
+ * and as key="value" pairs on the plain console.
+ */
+@Component
+public class SignalingEvents {
+
+    public enum Event {
+        REGISTER, DISCONNECT, ROUTE, QUEUED, FORWARD, OFFLINE, ROOM, CALL, TRANSCRIPT;
+
+        final String key = name().toLowerCase();
+    }
+
+    private final Logger[] loggers = new Logger[Event.values().length];
+    private final double[] rates = new double[Event.values().length];
+
+    public SignalingEvents(@Value("${logging.signaling.sample-rates:}") String sampleRates) {
+        Arrays.fill(rates, 1.0);
+        for (Event event : Event.values()) {
+            loggers[event.ordinal()] = LoggerFactory.getLogger("signaling.event." + event.key);
+        }
+        for (String entry : sampleRates.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] pair = entry.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected event=rate in logging.signaling.sample-rates: " + entry);
+            }
+            Event event = Event.valueOf(pair[0].trim().toUpperCase());
+            rates[event.ordinal()] = Math.max(0, Math.min(1, Double.parseDouble(pair[1].trim())));
+        }
+    }
+
+    // Builder for one occurrence of the event, or a no-op builder if it isn't written
+    public LoggingEventBuilder at(Event event) {
+        double rate = rates[event.ordinal()];
+        if (rate < 1 && (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        Logger logger = loggers[event.ordinal()];
+        if (!logger.isInfoEnabled()) return NOPLoggingEventBuilder.singleton();
+        return logger.atInfo().addKeyValue("event", event.key);
+    }
+}
@@ -0,0 +1,289 @@
+package com.webrtc.presence;
+
+import com.webrtc.cluster.SessionDirectory;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.timer.HashedWheelTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Who is reachable on this node, and for how long a dropped user is waited for.
+ *
+ * Heartbeats: every registered socket gets a {@link Heartbeat} on the shared timer wheel.
+ * Each beat pings the socket and re-arms itself; a socket with no frame or pong for
+ * presence.heartbeat-timeout is declared dead. Each socket is checked by its own wheel entry,
+ * so finding a dead one is O(1) and nothing ever scans all sessions.
+ *
+ * Resumption: a user whose last socket drops goes AWAY for presence.resume-window. Frames routed
+ * to them meanwhile are kept (the last presence.replay-capacity) and replayed in order when
+ * they register again; only when the window passes are they signed off (calls ended, rooms
+ * left), through the callback given to {@link #away}.
+ *
+ * The wheel's thread only decides what is due. The callbacks (queueing a ping, closing a dead
+ * socket, signing a user off) may block on sockets or the session directory, so they are handed
+ * to IoExecutors.blockingIo().
+ */
+@Component
+public class PresenceService {
+
+    public enum Status { ONLINE, AWAY, OFFLINE }
+
+    private static final class Entry {
+        Status status = Status.ONLINE;
+        ArrayDeque<TextMessage> buffered;
+        HashedWheelTimer.Timeout expiry;
+        int generation;
+        // OFFLINE, but its sign-off is still running; online/away wait for it on the entry
+        boolean signingOff;
+    }
+
+    /**
+     * Liveness of one socket. Touch it on every inbound frame or pong; stop it when the socket
+     * closes. Pings and the dead-socket report (once) run off the timer thread.
+     */
+    public final class Heartbeat {
+        private final Runnable ping;
+        private final Runnable dead;
+        private volatile long lastSeen = System.nanoTime();
+        private volatile HashedWheelTimer.Timeout next;
+        private volatile boolean stopped;
+
+        private Heartbeat(Runnable ping, Runnable dead) {
+            this.ping = ping;
+            this.dead = dead;
+        }
+
+        public void touch() {
+            lastSeen = System.nanoTime();
+        }
+
+        public void stop() {
+            stopped = true;
+            HashedWheelTimer.Timeout timeout = next;
+            if (timeout != null) timeout.cancel();
+        }
+
+        private void beat() {
+            if (stopped) return;
+            if (System.nanoTime() - lastSeen > heartbeatTimeoutNanos) {
+                stopped = true;
+                reaped.increment();
+                callbacks.execute(dead);
+                return;
+            }
+            callbacks.execute(ping);
+            next = timer.schedule(this::beat, heartbeatIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private final HashedWheelTimer timer;
+    private final Executor callbacks;
+    private final SessionDirectory sessionDirectory;
+    private final long heartbeatIntervalNanos;
+    private final long heartbeatTimeoutNanos;
+    private final long resumeWindowNanos;
+    private final int replayCapacity;
+    private final Map<String, Entry> users = new ConcurrentHashMap<>();
+    private final AtomicInteger awayCount = new AtomicInteger();
+
+    private final Counter reaped;
+    private final Counter resumed;
+    private final Counter expired;
+    private final Counter replayDropped;
+
+    public PresenceService(HashedWheelTimer timer,
+                           IoExecutors ioExecutors,
+                           SessionDirectory sessionDirectory,
+                           MeterRegistry meterRegistry,
+                           @Value("${presence.heartbeat-interval:15s}") Duration heartbeatInterval,
+                           @Value("${presence.heartbeat-timeout:45s}") Duration heartbeatTimeout,
+                           @Value("${presence.resume-window:20s}") Duration resumeWindow,
+                           @Value("${presence.replay-capacity:64}") int replayCapacity) {
+        this.timer = timer;
+        this.callbacks = ioExecutors.blockingIo();
+        this.sessionDirectory = sessionDirectory;
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        this.heartbeatTimeoutNanos = heartbeatTimeout.toNanos();
+        this.resumeWindowNanos = resumeWindow.toNanos();
+        this.replayCapacity = replayCapacity;
+
+        this.reaped = Counter.builder("presence.reaped")
+                .description("Signaling sockets closed for missing heartbeats")
+                .register(meterRegistry);
+        this.resumed = Counter.builder("presence.resumed")
+                .description("Users who reconnected within the resume window")
+                .register(meterRegistry);
+        this.expired = Counter.builder("presence.expired")
+                .description("Users signed off after the resume window passed")
+                .register(meterRegistry);
+        this.replayDropped = Counter.builder("presence.replay.dropped")
+                .description("Frames for away users dropped because their replay buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("presence.away", awayCount, AtomicInteger::get)
+                .description("Users in their resume window")
+                .register(meterRegistry);
+    }
+
+    // Starts heartbeating a socket; ping queues a ping frame, dead is run if it stops answering
+    public Heartbeat track(Runnable ping, Runnable dead) {
+        Heartbeat heartbeat = new Heartbeat(ping, dead);
+        heartbeat.next = timer.schedule(heartbeat::beat, heartbeatIntervalNanos, TimeUnit.NANOSECONDS);
+        return heartbeat;
+    }
+
+    /**
+     * Marks the user online. If they were away, what was kept for them goes to replay first, in
+     * order; attach (making the new socket routable) runs before any new frame can be kept.
+     *
+     * @return the number of frames replayed
+     */
+    public int online(String username, Consumer<TextMessage> replay, Runnable attach) {
+        while (true) {
+            Entry entry = users.computeIfAbsent(username, u -> new Entry());
+            synchronized (entry) {
+                // Removed by a concurrent sign-off; start from a fresh entry once it is done
+                if (entry.status == Status.OFFLINE) {
+                    awaitSignOff(entry);
+                    continue;
+                }
+                int replayed = 0;
+                if (entry.status == Status.AWAY) {
+                    awayCount.decrementAndGet();
+                    entry.expiry.cancel();
+                    entry.generation++;
+                    replayed = entry.buffered.size();
+                    entry.buffered.forEach(replay);
+                    entry.buffered = null;
+                    resumed.increment();
+                }
+                entry.status = Status.ONLINE;
+                attach.run();
+                return replayed;
+            }
+        }
+    }
+
+    /**
+     * One of the user's sockets dropped. detach removes it and says whether it was their last;
+     * it runs under the same lock as online's attach, so a device registering meanwhile is never
+     * missed. If it was the last, signOff runs (on the blocking I/O executor) unless they are back
+     * within the window.
+     *
+     * @return true if the user went away
+     */
+    public boolean away(String username, BooleanSupplier detach, Runnable signOff) {
+        while (true) {
+            Entry entry = users.computeIfAbsent(username, u -> new Entry());
+            synchronized (entry) {
+                if (entry.status == Status.OFFLINE) {
+                    awaitSignOff(entry);
+                    continue;
+                }
+                if (!detach.getAsBoolean()) return false;
+                if (entry.status != Status.AWAY) awayCount.incrementAndGet();
+                entry.status = Status.AWAY;
+                entry.buffered = new ArrayDeque<>();
+                int generation = ++entry.generation;
+                entry.expiry = timer.schedule(() -> callbacks.execute(() -> expire(username, entry, generation, signOff)),
+                        resumeWindowNanos, TimeUnit.NANOSECONDS);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * One of the user's sockets closed normally. Like {@link #away}, but if it was the last they
+     * are gone for good and nothing is kept for them.
+     *
+     * @return true if the user went offline (the caller signs them off)
+     */
+    public boolean offline(String username, BooleanSupplier detach) {
+        Entry entry = users.get(username);
+        // Not tracked: only the device set to update
+        if (entry == null) return detach.getAsBoolean();
+        synchronized (entry) {
+            if (!detach.getAsBoolean()) return false;
+            if (entry.status == Status.AWAY) awayCount.decrementAndGet();
+            if (entry.expiry != null) entry.expiry.cancel();
+            entry.generation++;
+            entry.status = Status.OFFLINE;
+            entry.buffered = null;
+            users.remove(username, entry);
+            return true;
+        }
+    }
+
+    /**
+     * Keeps a frame for an away user.
+     *
+     * @return false if the user is not away (online again, or gone)
+     */
+    public boolean buffer(String username, TextMessage frame) {
+        Entry entry = users.get(username);
+        if (entry == null) return false;
+        synchronized (entry) {
+            if (entry.status != Status.AWAY) return false;
+            if (entry.buffered.size() == replayCapacity) {
+                entry.buffered.poll();
+                replayDropped.increment();
+            }
+            entry.buffered.add(frame);
+            return true;
+        }
+    }
+
+    // Users connected to other nodes are ONLINE if the directory has them
+    public Status status(String username) {
+        Entry entry = users.get(username);
+        if (entry != null) return entry.status;
+        return sessionDirectory.locate(username) != null ? Status.ONLINE : Status.OFFLINE;
+    }
+
+    // signOff runs outside the entry lock; a user registering meanwhile waits on the entry until it is done
+    private void expire(String username, Entry entry, int generation, Runnable signOff) {
+        synchronized (entry) {
+            if (entry.status != Status.AWAY || entry.generation != generation) return;
+            awayCount.decrementAndGet();
+            entry.status = Status.OFFLINE;
+            entry.buffered = null;
+            entry.signingOff = true;
+            expired.increment();
+        }
+        try {
+            signOff.run();
+        } finally {
+            synchronized (entry) {
+                entry.signingOff = false;
+                users.remove(username, entry);
+                entry.notifyAll();
+            }
+        }
+    }
+
+    // Called holding the entry lock
+    private static void awaitSignOff(Entry entry) {
+        boolean interrupted = false;
+        while (entry.signingOff) {
+            try {
+                entry.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -0,0 +1,69 @@
+package com.webrtc.presence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of which tenant each username belongs to, so presence lookups can be filtered
+ * by tenant without a users query per request.
+ *
+ * Filled at REGISTER from the socket's token; names nobody has registered are loaded in one
+ * batch on first lookup, and unknown names are cached as such. Entries are dropped when the
+ * User row changes (see UserCacheListener). Hit/miss/eviction counts are published as cache.*
+ * meters with cache=user-tenants.
+ */
+@Component
+public class UserTenants {
+
+    private final Cache<String, Optional<String>> cache;
+
+    public UserTenants(MeterRegistry meterRegistry,
+                       @Value("${presence.tenant-cache.max-size:100000}") long maxSize,
+                       @Value("${presence.tenant-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-tenants");
+    }
+
+    // A token without a tenant says nothing about the user's row, so it is not cached
+    public void remember(String username, String tenant) {
+        if (tenant != null) cache.put(username, Optional.of(tenant));
+    }
+
+    /**
+     * The tenant of each known user among usernames; unknown users are left out. loader is given
+     * only the names not cached yet and returns the tenant of those it knows.
+     */
+    public Map<String, String> tenantsOf(Collection<String> usernames,
+                                         Function<Set<String>, Map<String, String>> loader) {
+        Map<String, Optional<String>> cached = cache.getAll(usernames, missing -> {
+            Map<String, String> found = loader.apply(Set.copyOf(missing));
+            Map<String, Optional<String>> loaded = new HashMap<>();
+            for (String username : missing) loaded.put(username, Optional.ofNullable(found.get(username)));
+            return loaded;
+        });
+        Map<String, String> tenants = new LinkedHashMap<>();
+        cached.forEach((username, tenant) -> tenant.ifPresent(name -> tenants.put(username, name)));
+        return tenants;
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
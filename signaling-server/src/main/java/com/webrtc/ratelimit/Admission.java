@@ -0,0 +1,117 @@
+package com.webrtc.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control: every request or frame must get a token from its user's bucket and from
+ * its tenant's bucket for the scope it falls in (ratelimit.&lt;scope&gt;.user / .tenant).
+ *
+ * The user bucket is checked first, so one noisy user runs out before they can drain the
+ * tenant's share. Throttled traffic is counted as ratelimit.throttled{scope, limit}.
+ */
+@Component
+public class Admission {
+
+    private static final Logger log = LoggerFactory.getLogger(Admission.class);
+
+    public enum Scope {
+        // /api/audio/** uploads, each one an STT request
+        TRANSCRIBE,
+        // /call/** ring / answer / hangup
+        CALL,
+        // Any other /api/** request
+        API,
+        // Frames on /websocket-signaling
+        SIGNALING,
+        // Frames on /websocket-audio; a socket's frames are what drives its STT windows
+        AUDIO;
+
+        final String key = name().toLowerCase();
+    }
+
+    /**
+     * Outcome of one admission check. limitedBy is "user" or "tenant" when refused.
+     */
+    public record Decision(boolean admitted, String limitedBy, long retryAfterNanos) {
+        static final Decision ADMITTED = new Decision(true, null, 0);
+    }
+
+    // Requests without a tenant claim share one bucket
+    private static final String NO_TENANT = "";
+
+    private final boolean enabled;
+    private final Map<Scope, RateLimiter> userLimits = new EnumMap<>(Scope.class);
+    private final Map<Scope, RateLimiter> tenantLimits = new EnumMap<>(Scope.class);
+    private final Map<Scope, Counter> userThrottled = new EnumMap<>(Scope.class);
+    private final Map<Scope, Counter> tenantThrottled = new EnumMap<>(Scope.class);
+
+    public Admission(MeterRegistry meterRegistry,
+                     @Value("${ratelimit.enabled:true}") boolean enabled,
+                     @Value("${ratelimit.max-keys:100000}") long maxKeys,
+                     @Value("${ratelimit.transcribe.user:2/s:10}") String transcribeUser,
+                     @Value("${ratelimit.transcribe.tenant:200/s:400}") String transcribeTenant,
+                     @Value("${ratelimit.call.user:2/s:10}") String callUser,
+                     @Value("${ratelimit.call.tenant:200/s:400}") String callTenant,
+                     @Value("${ratelimit.api.user:20/s:40}") String apiUser,
+                     @Value("${ratelimit.api.tenant:1000/s:2000}") String apiTenant,
+                     @Value("${ratelimit.signaling.user:100/s:300}") String signalingUser,
+                     @Value("${ratelimit.signaling.tenant:10000/s:20000}") String signalingTenant,
+                     @Value("${ratelimit.audio.user:100/s:200}") String audioUser,
+                     @Value("${ratelimit.audio.tenant:5000/s:10000}") String audioTenant) {
+        this.enabled = enabled;
+        configure(Scope.TRANSCRIBE, transcribeUser, transcribeTenant, maxKeys);
+        configure(Scope.CALL, callUser, callTenant, maxKeys);
+        configure(Scope.API, apiUser, apiTenant, maxKeys);
+        configure(Scope.SIGNALING, signalingUser, signalingTenant, maxKeys);
+        configure(Scope.AUDIO, audioUser, audioTenant, maxKeys);
+
+        for (Scope scope : Scope.values()) {
+            userThrottled.put(scope, throttledCounter(meterRegistry, scope, "user"));
+            tenantThrottled.put(scope, throttledCounter(meterRegistry, scope, "tenant"));
+            Gauge.builder("ratelimit.keys", userLimits.get(scope), RateLimiter::trackedKeys)
+                    .description("Users with live rate limit state")
+                    .tag("scope", scope.key)
+                    .register(meterRegistry);
+        }
+        log.info("Rate limits {}: user {}, tenant {}", enabled ? "on" : "off", userLimits, tenantLimits);
+    }
+
+    private void configure(Scope scope, String user, String tenant, long maxKeys) {
+        userLimits.put(scope, RateLimiter.parse(user, maxKeys));
+        tenantLimits.put(scope, RateLimiter.parse(tenant, maxKeys));
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, Scope scope, String limit) {
+        return Counter.builder("ratelimit.throttled")
+                .description("Requests and frames refused by rate limiting")
+                .tag("scope", scope.key)
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    public Decision admit(Scope scope, String tenant, String user) {
+        if (!enabled) return Decision.ADMITTED;
+        if (user != null) {
+            long wait = userLimits.get(scope).tryAcquire(user);
+            if (wait > 0) {
+                userThrottled.get(scope).increment();
+                return new Decision(false, "user", wait);
+            }
+        }
+        long wait = tenantLimits.get(scope).tryAcquire(tenant == null ? NO_TENANT : tenant);
+        if (wait > 0) {
+            tenantThrottled.get(scope).increment();
+            return new Decision(false, "tenant", wait);
+        }
+        return Decision.ADMITTED;
+    }
+}
@@ -0,0 +1,94 @@
+package com.webrtc.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets, one per key, with the whole bucket in a single AtomicLong.
+ *
+ * Uses the generic cell rate algorithm: instead of a token count and a refill time, each key
+ * stores its theoretical arrival time (TAT), the instant its bucket would be full again. A
+ * request is admitted if pushing TAT forward by one emission interval keeps it within burst
+ * intervals of now; the update is a single CAS, so there is no lock and no refill timer.
+ *
+ * A key idle for burst intervals has a full bucket, which is the same as having no state,
+ * so entries expire after that and the cache is also capped at maxKeys.
+ *
+ * Specs look like "10/s:20" (10 per second, bursts of 20), "30/m" (burst defaults to the
+ * rate) or "off".
+ */
+public final class RateLimiter {
+
+    private final String spec;
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    private RateLimiter(String spec, long emissionNanos, long toleranceNanos, long maxKeys) {
+        this.spec = spec;
+        this.emissionNanos = emissionNanos;
+        this.toleranceNanos = toleranceNanos;
+        this.buckets = emissionNanos == 0 ? null : Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + emissionNanos))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    public static RateLimiter parse(String spec, long maxKeys) {
+        String trimmed = spec.trim();
+        if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("off")) return new RateLimiter("off", 0, 0, maxKeys);
+        try {
+            int slash = trimmed.indexOf('/');
+            int colon = trimmed.indexOf(':');
+            double rate = Double.parseDouble(trimmed.substring(0, slash));
+            String unit = trimmed.substring(slash + 1, colon < 0 ? trimmed.length() : colon).trim();
+            long periodNanos = switch (unit) {
+                case "s" -> TimeUnit.SECONDS.toNanos(1);
+                case "m" -> TimeUnit.MINUTES.toNanos(1);
+                case "h" -> TimeUnit.HOURS.toNanos(1);
+                default -> throw new IllegalArgumentException("unit must be s, m or h");
+            };
+            double burst = colon < 0 ? Math.max(1, rate) : Double.parseDouble(trimmed.substring(colon + 1));
+            if (rate <= 0 || burst < 1) throw new IllegalArgumentException("rate must be > 0 and burst >= 1");
+            long emission = (long) (periodNanos / rate);
+            return new RateLimiter(trimmed, emission, (long) (emission * burst), maxKeys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Bad rate limit '" + spec + "', expected e.g. 10/s:20: " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return buckets != null;
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if admitted, otherwise how long until a token is available, in nanoseconds
+     */
+    public long tryAcquire(String key) {
+        if (buckets == null) return 0;
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + emissionNanos;
+            long over = next - now - toleranceNanos;
+            if (over > 0) return over;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    long trackedKeys() {
+        return buckets == null ? 0 : buckets.estimatedSize();
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
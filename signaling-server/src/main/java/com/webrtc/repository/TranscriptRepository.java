@@ -0,0 +1,13 @@
+package com.webrtc.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.webrtc.entity.Transcript;
+
+public interface TranscriptRepository extends JpaRepository<Transcript, Long> {
+
+	List<Transcript> findByCallIdOrderByCreatedAt(Long callId);
+
+}
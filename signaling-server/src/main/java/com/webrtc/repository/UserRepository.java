@@ -1,5 +1,7 @@
 package com.webrtc.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,5 +11,7 @@ import com.webrtc.entity.User;
 public interface UserRepository extends JpaRepository<User, Long> {
 	
 	Optional<User> findByUsername(String username);
+
+	List<User> findByUsernameIn(Collection<String> usernames);
 	
 }
@@ -0,0 +1,96 @@
+package com.webrtc.room;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A group call's membership, kept as an immutable array that is replaced on every join or
+ * leave (copy-on-write).
+ *
+ * Broadcasts iterate a snapshot without locking or copying, which is what matters: a room
+ * sees a handful of joins and leaves but every offer, roster and transcript fans out to
+ * all members. Once the last member leaves the room is closed for good, and joins go to a
+ * fresh instance (see RoomRegistry). A room belongs to the tenant of whoever opened it; only
+ * that tenant's users can join it.
+ */
+public final class Room {
+
+    private static final String[] CLOSED = new String[0];
+
+    private final String tenant;
+    private final String id;
+    private final AtomicReference<String[]> members = new AtomicReference<>(new String[0]);
+
+    Room(String tenant, String id) {
+        this.tenant = tenant;
+        this.id = id;
+    }
+
+    // Null for users without a tenant
+    public String getTenant() {
+        return tenant;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Current members; the array is shared and must not be modified
+    public String[] members() {
+        return members.get();
+    }
+
+    public boolean contains(String username) {
+        for (String member : members.get()) {
+            if (member.equals(username)) return true;
+        }
+        return false;
+    }
+
+    enum JoinResult { JOINED, ALREADY_MEMBER, FULL, CLOSED }
+
+    JoinResult join(String username, int maxMembers) {
+        while (true) {
+            String[] current = members.get();
+            if (current == CLOSED) return JoinResult.CLOSED;
+            if (contains(current, username)) return JoinResult.ALREADY_MEMBER;
+            if (current.length >= maxMembers) return JoinResult.FULL;
+            String[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = username;
+            if (members.compareAndSet(current, next)) return JoinResult.JOINED;
+        }
+    }
+
+    // False if the user wasn't a member; the room closes when its last member leaves
+    boolean leave(String username) {
+        while (true) {
+            String[] current = members.get();
+            int index = indexOf(current, username);
+            if (index < 0) return false;
+            String[] next;
+            if (current.length == 1) {
+                next = CLOSED;
+            } else {
+                next = new String[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            }
+            if (members.compareAndSet(current, next)) return true;
+        }
+    }
+
+    boolean isClosed() {
+        return members.get() == CLOSED;
+    }
+
+    private static boolean contains(String[] members, String username) {
+        return indexOf(members, username) >= 0;
+    }
+
+    private static int indexOf(String[] members, String username) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i].equals(username)) return i;
+        }
+        return -1;
+    }
+}
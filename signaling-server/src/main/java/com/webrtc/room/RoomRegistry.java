@@ -0,0 +1,101 @@
+package com.webrtc.room;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Group-call rooms on this node, by tenant and id, and by member. Rooms are created by the
+ * first join and dropped when the last member leaves. Room ids are only unique within a
+ * tenant: two tenants' "standup" are different rooms, and a user only ever reaches rooms of
+ * the tenant on their token.
+ *
+ * Membership is not shared between nodes: a room exists on the node its members joined on,
+ * so everyone in a group call has to be connected to the same node. Members are reached from
+ * there by the usual routing, e.g. on another node after a reconnect.
+ */
+@Component
+public class RoomRegistry {
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Set<Room>> roomsByUser = new ConcurrentHashMap<>();
+    private final int maxMembers;
+
+    public RoomRegistry(@Value("${room.max-participants:500}") int maxMembers) {
+        this.maxMembers = maxMembers;
+    }
+
+    public Room find(String tenant, String roomId) {
+        return rooms.get(key(tenant, roomId));
+    }
+
+    public Set<Room> roomsOf(String username) {
+        Set<Room> joined = roomsByUser.get(username);
+        return joined != null ? joined : Set.of();
+    }
+
+    // The room the user is now in, or null if it is full
+    public Room join(String tenant, String roomId, String username) {
+        String key = key(tenant, roomId);
+        while (true) {
+            Room room = rooms.computeIfAbsent(key, k -> new Room(tenant, roomId));
+            switch (room.join(username, maxMembers)) {
+                case JOINED -> {
+                    index(username, room);
+                    return room;
+                }
+                case ALREADY_MEMBER -> {
+                    return room;
+                }
+                case FULL -> {
+                    return null;
+                }
+                // The last member left while we looked it up: retire it and start a fresh one
+                case CLOSED -> rooms.remove(key, room);
+            }
+        }
+    }
+
+    // The room the user left, or null if they weren't in it
+    public Room leave(String tenant, String roomId, String username) {
+        String key = key(tenant, roomId);
+        Room room = rooms.get(key);
+        if (room == null || !room.leave(username)) return null;
+        unindex(username, room);
+        if (room.isClosed()) rooms.remove(key, room);
+        return room;
+    }
+
+    // Leaves every room the user is in, e.g. when their socket closes; returns the rooms left
+    public List<Room> leaveAll(String username) {
+        List<Room> left = new ArrayList<>();
+        for (Room room : List.copyOf(roomsOf(username))) {
+            if (leave(room.getTenant(), room.getId(), username) != null) left.add(room);
+        }
+        return left;
+    }
+
+    private static String key(String tenant, String roomId) {
+        return (tenant != null ? tenant : "") + '\u0000' + roomId;
+    }
+
+    private void index(String username, Room room) {
+        roomsByUser.compute(username, (u, joined) -> {
+            if (joined == null) joined = ConcurrentHashMap.newKeySet();
+            joined.add(room);
+            return joined;
+        });
+    }
+
+    private void unindex(String username, Room room) {
+        roomsByUser.computeIfPresent(username, (u, joined) -> {
+            joined.remove(room);
+            return joined.isEmpty() ? null : joined;
+        });
+    }
+}
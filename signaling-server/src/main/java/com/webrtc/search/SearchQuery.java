@@ -0,0 +1,58 @@
+package com.webrtc.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A parsed transcript query: every clause must occur in the chunk. A clause is one word, or a
+ * "quoted phrase" whose words must appear next to each other in that order.
+ *
+ *   refund escalate          chunks containing both words
+ *   "cancel my subscription" chunks containing the phrase
+ *   "refund request" manager the phrase and the word
+ */
+public final class SearchQuery {
+
+    private final List<String[]> clauses;
+
+    private SearchQuery(List<String[]> clauses) {
+        this.clauses = clauses;
+    }
+
+    public static SearchQuery parse(String query) {
+        List<String[]> clauses = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            int quote = query.indexOf('"', i);
+            if (quote < 0) quote = query.length();
+            // Outside quotes each word is its own clause
+            Tokenizer.tokenize(query.substring(i, quote), (term, position, start, end) -> clauses.add(new String[] { term }));
+            if (quote == query.length()) break;
+            int close = query.indexOf('"', quote + 1);
+            if (close < 0) close = query.length();
+            List<String> phrase = new ArrayList<>();
+            Tokenizer.tokenize(query.substring(quote + 1, close), (term, position, start, end) -> phrase.add(term));
+            if (!phrase.isEmpty()) clauses.add(phrase.toArray(String[]::new));
+            i = close + 1;
+        }
+        return new SearchQuery(List.copyOf(clauses));
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    List<String[]> clauses() {
+        return clauses;
+    }
+
+    Set<String> terms() {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String[] clause : clauses) {
+            terms.addAll(List.of(clause));
+        }
+        return terms;
+    }
+}
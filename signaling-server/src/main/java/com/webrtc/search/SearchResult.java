@@ -0,0 +1,21 @@
+package com.webrtc.search;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Calls whose transcripts match a query, best first.
+ *
+ * @param totalCalls matching calls, before the limit
+ * @param totalHits  matching chunks across all of them
+ */
+public record SearchResult(long tookMicros, int totalCalls, int totalHits, List<CallHits> calls) {
+
+    // One call: how many of its chunks matched, and the first few of them highlighted
+    public record CallHits(long callId, int hits, Instant firstHitAt, Instant lastHitAt, List<Snippet> snippets) {
+    }
+
+    // A matching chunk; matches are [start, end) char ranges of content to highlight
+    public record Snippet(String speaker, Instant at, String content, List<int[]> matches) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.webrtc.search;
+
+import com.webrtc.entity.Transcript;
+import com.webrtc.search.SearchResult.CallHits;
+import com.webrtc.search.SearchResult.Snippet;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over one tenant's transcript chunks.
+ *
+ * Each chunk gets a dense doc id in arrival order. Per term, the postings list is a byte array
+ * of varints: doc delta, frequency, then the term's position deltas within the chunk, so a
+ * phrase can be checked without going back to the text. Queries intersect the postings of all
+ * their words (rarest first, leapfrogging the others), then verify phrases on positions.
+ *
+ * Chunk text is kept for highlighting. The TranscriptIndex tailer is the only writer and holds
+ * the write lock per batch; searches share the read lock.
+ */
+final class TenantIndex {
+
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    // Growable varint postings for one term
+    private static final class Postings {
+        byte[] bytes = new byte[16];
+        int length;
+        int lastDoc = -1;
+        int docFreq;
+
+        // positions[0] is the count, the positions follow
+        void add(int doc, int[] positions) {
+            writeVarint(doc - lastDoc);
+            writeVarint(positions[0]);
+            int previous = 0;
+            for (int i = 1; i <= positions[0]; i++) {
+                writeVarint(positions[i] - previous);
+                previous = positions[i];
+            }
+            lastDoc = doc;
+            docFreq++;
+        }
+
+        private void writeVarint(int value) {
+            if (length + 5 > bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+
+    // Walks one term's postings; positions of the current doc are decoded into positions[0..freq)
+    private static final class Cursor {
+        final Postings postings;
+        final int end;
+        int offset;
+        int doc = -1;
+        int freq;
+        int[] positions = new int[8];
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+            this.end = postings.length;
+        }
+
+        int next() {
+            if (offset >= end) return doc = NO_MORE_DOCS;
+            doc += readVarint();
+            freq = readVarint();
+            if (freq > positions.length) positions = new int[Math.max(freq, positions.length * 2)];
+            int position = 0;
+            for (int i = 0; i < freq; i++) {
+                position += readVarint();
+                positions[i] = position;
+            }
+            return doc;
+        }
+
+        int advance(int target) {
+            while (doc < target) next();
+            return doc;
+        }
+
+        boolean hasPosition(int position) {
+            return Arrays.binarySearch(positions, 0, freq, position) >= 0;
+        }
+
+        private int readVarint() {
+            byte[] bytes = postings.bytes;
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private long[] callIds = new long[1024];
+    private long[] createdAt = new long[1024];
+    private String[] speakers = new String[1024];
+    private String[] contents = new String[1024];
+    private volatile int docCount;
+
+    // Scratch for add(): positions of each term in the chunk being indexed
+    private final Map<String, int[]> chunkTerms = new HashMap<>();
+
+    int size() {
+        return docCount;
+    }
+
+    void addAll(List<Transcript> chunks) {
+        lock.writeLock().lock();
+        try {
+            for (Transcript chunk : chunks) {
+                add(chunk);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Transcript chunk) {
+        int doc = docCount;
+        if (doc == callIds.length) {
+            int capacity = doc * 2;
+            callIds = Arrays.copyOf(callIds, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            speakers = Arrays.copyOf(speakers, capacity);
+            contents = Arrays.copyOf(contents, capacity);
+        }
+        callIds[doc] = chunk.getCallId();
+        createdAt[doc] = chunk.getCreatedAt().toEpochMilli();
+        speakers[doc] = chunk.getSpeaker();
+        contents[doc] = chunk.getContent();
+
+        // Slot 0 of each array holds the count, positions follow
+        chunkTerms.clear();
+        Tokenizer.tokenize(chunk.getContent(), (term, position, start, end) -> {
+            int[] positions = chunkTerms.computeIfAbsent(term, t -> new int[4]);
+            if (positions[0] + 1 == positions.length) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+                chunkTerms.put(term, positions);
+            }
+            positions[++positions[0]] = position;
+        });
+        for (Map.Entry<String, int[]> entry : chunkTerms.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue());
+        }
+        docCount = doc + 1;
+    }
+
+    /**
+     * Chunks created in [from, to) that match every clause, grouped by call. Calls are ranked
+     * by matching chunks, then by their latest match; each brings up to maxSnippets chunks.
+     */
+    SearchResult search(SearchQuery query, long fromMillis, long toMillis, int maxCalls, int maxSnippets) {
+        long start = System.nanoTime();
+        Map<Long, List<Integer>> hitsByCall = new LinkedHashMap<>();
+        int totalHits = 0;
+
+        lock.readLock().lock();
+        try {
+            List<Cursor> cursors = new ArrayList<>();
+            Map<String, Cursor> byTerm = new HashMap<>();
+            for (String term : query.terms()) {
+                Postings postings = terms.get(term);
+                if (postings == null) return new SearchResult(micros(start), 0, 0, List.of());
+                Cursor cursor = new Cursor(postings);
+                cursors.add(cursor);
+                byTerm.put(term, cursor);
+            }
+            // Drive from the rarest word; the others only skip forward to its docs
+            cursors.sort(Comparator.comparingInt(cursor -> cursor.postings.docFreq));
+            Cursor lead = cursors.get(0);
+
+            int doc = lead.next();
+            candidates:
+            while (doc != NO_MORE_DOCS) {
+                for (int i = 1; i < cursors.size(); i++) {
+                    int other = cursors.get(i).advance(doc);
+                    if (other > doc) {
+                        doc = lead.advance(other);
+                        continue candidates;
+                    }
+                }
+                if (createdAt[doc] >= fromMillis && createdAt[doc] < toMillis && phrasesMatch(query, byTerm)) {
+                    hitsByCall.computeIfAbsent(callIds[doc], id -> new ArrayList<>()).add(doc);
+                    totalHits++;
+                }
+                doc = lead.next();
+            }
+
+            List<Map.Entry<Long, List<Integer>>> ranked = new ArrayList<>(hitsByCall.entrySet());
+            ranked.sort(Comparator.<Map.Entry<Long, List<Integer>>>comparingInt(e -> e.getValue().size()).reversed()
+                    .thenComparing(e -> -lastAt(e.getValue())));
+
+            List<CallHits> calls = new ArrayList<>();
+            for (Map.Entry<Long, List<Integer>> entry : ranked.subList(0, Math.min(maxCalls, ranked.size()))) {
+                List<Integer> docs = entry.getValue();
+                docs.sort(Comparator.comparingLong(d -> createdAt[d]));
+                List<Snippet> snippets = new ArrayList<>();
+                for (int d : docs.subList(0, Math.min(maxSnippets, docs.size()))) {
+                    snippets.add(new Snippet(speakers[d], Instant.ofEpochMilli(createdAt[d]), contents[d],
+                            highlight(contents[d], query)));
+                }
+                calls.add(new CallHits(entry.getKey(), docs.size(), Instant.ofEpochMilli(createdAt[docs.get(0)]),
+                        Instant.ofEpochMilli(lastAt(docs)), snippets));
+            }
+            return new SearchResult(micros(start), hitsByCall.size(), totalHits, calls);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long lastAt(List<Integer> docs) {
+        long last = Long.MIN_VALUE;
+        for (int doc : docs) last = Math.max(last, createdAt[doc]);
+        return last;
+    }
+
+    // Every cursor sits on the same doc; each phrase needs its words at consecutive positions
+    private static boolean phrasesMatch(SearchQuery query, Map<String, Cursor> byTerm) {
+        for (String[] clause : query.clauses()) {
+            if (clause.length == 1) continue;
+            Cursor first = byTerm.get(clause[0]);
+            boolean found = false;
+            for (int p = 0; p < first.freq && !found; p++) {
+                found = true;
+                for (int i = 1; i < clause.length && found; i++) {
+                    found = byTerm.get(clause[i]).hasPosition(first.positions[p] + i);
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Char ranges of every clause occurrence in the text, in order
+    static List<int[]> highlight(String content, SearchQuery query) {
+        List<String> words = new ArrayList<>();
+        List<int[]> spans = new ArrayList<>();
+        Tokenizer.tokenize(content, (term, position, start, end) -> {
+            words.add(term);
+            spans.add(new int[] { start, end });
+        });
+        boolean[] marked = new boolean[words.size()];
+        for (String[] clause : query.clauses()) {
+            for (int p = 0; p + clause.length <= words.size(); p++) {
+                int i = 0;
+                while (i < clause.length && clause[i].equals(words.get(p + i))) i++;
+                if (i == clause.length) Arrays.fill(marked, p, p + clause.length, true);
+            }
+        }
+        // Adjacent marked words (a phrase) become one range
+        List<int[]> matches = new ArrayList<>();
+        for (int p = 0; p < marked.length; p++) {
+            if (!marked[p]) continue;
+            int last = p;
+            while (last + 1 < marked.length && marked[last + 1]) last++;
+            matches.add(new int[] { spans.get(p)[0], spans.get(last)[1] });
+            p = last;
+        }
+        return matches;
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000;
+    }
+}
@@ -0,0 +1,43 @@
+package com.webrtc.search;
+
+/**
+ * Splits transcript text into lowercase word tokens: runs of letters and digits, with an
+ * apostrophe kept when a letter follows it ("don't", "customer's"). Used both to index
+ * chunks and to parse queries, so they always agree on what a word is.
+ */
+final class Tokenizer {
+
+    interface Sink {
+        void token(String term, int position, int start, int end);
+    }
+
+    private Tokenizer() {
+    }
+
+    // Returns the number of tokens
+    static int tokenize(String text, Sink sink) {
+        int position = 0;
+        int length = text.length();
+        int i = 0;
+        StringBuilder term = new StringBuilder();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i == length) break;
+            int start = i;
+            term.setLength(0);
+            while (i < length) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    term.append(Character.toLowerCase(c));
+                } else if (c == '\'' && i + 1 < length && Character.isLetter(text.charAt(i + 1))) {
+                    term.append(c);
+                } else {
+                    break;
+                }
+                i++;
+            }
+            sink.token(term.toString(), position++, start, i);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,222 @@
+package com.webrtc.search;
+
+import com.webrtc.entity.Transcript;
+import com.webrtc.service.TranscriptWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over stored transcripts, one {@link TenantIndex} per tenant so a query
+ * never touches (or sees) another tenant's chunks.
+ *
+ * Fed from the transcripts table, not from this node's writer: a tailer thread reads the rows
+ * past the last id it saw every poll-interval (and right after a local batch commits), so every
+ * node indexes what every node stored. On startup it reads the table from the first row;
+ * searches during that load see partial results. Chunks without a call are read but not
+ * indexed, since results are calls.
+ *
+ * Ids are handed out before commit, so a row can appear after a higher id was already read.
+ * Ids missing below the highest one read are looked for again each poll, until the row after
+ * the gap is older than commit-lag; a gap that old is taken to be a rolled-back insert.
+ *
+ * The index is in the heap of each node and append-only: nothing is evicted, and memory grows
+ * with every stored chunk (see the transcripts.index.chunks gauge). Every node holds the full
+ * index, so this suits a transcript volume that fits in one node's heap; beyond that the search
+ * belongs in the database or a search service.
+ */
+@Component
+public class TranscriptIndex implements TranscriptWriter.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptIndex.class);
+
+    // Chunks without a tenant claim share one partition
+    private static final String NO_TENANT = "";
+    private static final int TAIL_BATCH = 1_000;
+    private static final String SELECT =
+            "select id, call_id, tenant, speaker, content, created_at from transcripts where id > ? ";
+
+    private final TranscriptWriter transcriptWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean rebuildOnStart;
+    private final long pollIntervalNanos;
+    private final long commitLagMillis;
+    private final Map<String, TenantIndex> tenants = new ConcurrentHashMap<>();
+    private final BlockingQueue<Boolean> wakeups = new ArrayBlockingQueue<>(1);
+    private Timer searches;
+    private volatile Thread tailer;
+
+    // Touched only by the tailer: every row up to indexedUpTo has been indexed (or given up on);
+    // above it, the ids already indexed up to readUpTo, with their created_at
+    private long indexedUpTo;
+    private long readUpTo;
+    private final TreeMap<Long, Long> readAbove = new TreeMap<>();
+
+    private record Row(long id, Transcript transcript) {}
+
+    public TranscriptIndex(TranscriptWriter transcriptWriter,
+                           JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${transcripts.index.rebuild-on-start:true}") boolean rebuildOnStart,
+                           @Value("${transcripts.index.poll-interval:1s}") Duration pollInterval,
+                           @Value("${transcripts.index.commit-lag:30s}") Duration commitLag) {
+        this.transcriptWriter = transcriptWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.rebuildOnStart = rebuildOnStart;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.commitLagMillis = commitLag.toMillis();
+    }
+
+    @PostConstruct
+    public void init() {
+        searches = Timer.builder("transcripts.search")
+                .description("Transcript search latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("transcripts.index.chunks", tenants, map -> map.values().stream().mapToInt(TenantIndex::size).sum())
+                .description("Transcript chunks in the search index")
+                .register(meterRegistry);
+
+        transcriptWriter.addListener(this);
+        if (!rebuildOnStart) {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from transcripts", Long.class);
+            indexedUpTo = readUpTo = maxId == null ? 0 : maxId;
+        }
+    }
+
+    // A local batch is in the table: read it now rather than at the next poll
+    @Override
+    public void written(List<Transcript> batch) {
+        wakeups.offer(Boolean.TRUE);
+    }
+
+    public SearchResult search(String tenant, SearchQuery query, Instant from, Instant to, int maxCalls, int maxSnippets) {
+        TenantIndex index = tenants.get(tenantKey(tenant));
+        if (index == null || query.isEmpty()) return new SearchResult(0, 0, 0, List.of());
+        long start = System.nanoTime();
+        SearchResult result = index.search(query,
+                from == null ? Long.MIN_VALUE : from.toEpochMilli(),
+                to == null ? Long.MAX_VALUE : to.toEpochMilli(),
+                maxCalls, maxSnippets);
+        searches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tailer = Thread.ofPlatform().name("transcript-index").daemon(true).start(this::tail);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = tailer;
+        if (thread != null) thread.interrupt();
+    }
+
+    private void tail() {
+        long start = System.nanoTime();
+        int loaded = catchUp();
+        log.info("Indexed {} stored transcript chunks in {} ms", loaded,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                wakeups.poll(pollIntervalNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            catchUp();
+        }
+    }
+
+    /**
+     * Indexes the rows committed since the last call. Only one thread may call this: the tailer,
+     * or a caller that never started it.
+     *
+     * @return the chunks indexed
+     */
+    public int catchUp() {
+        int indexed = 0;
+        try {
+            // Rows that were still uncommitted inside a gap the last time round
+            if (readUpTo > indexedUpTo) {
+                indexed += index(jdbcTemplate.query(SELECT + "and id <= ? order by id", this::row, indexedUpTo, readUpTo));
+            }
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(SELECT + "order by id limit " + TAIL_BATCH, this::row, readUpTo);
+                indexed += index(rows);
+            } while (rows.size() == TAIL_BATCH);
+            advance();
+        } catch (Exception e) {
+            log.warn("Transcript index stopped at id {} after {} chunks: {}", readUpTo, indexed, e.getMessage());
+        }
+        return indexed;
+    }
+
+    // Skips rows already indexed, then files the rest under their tenants
+    private int index(List<Row> rows) {
+        Map<String, List<Transcript>> byTenant = new HashMap<>();
+        int indexed = 0;
+        for (Row row : rows) {
+            if (row.id() <= indexedUpTo || readAbove.containsKey(row.id())) continue;
+            readAbove.put(row.id(), row.transcript().getCreatedAt().toEpochMilli());
+            readUpTo = Math.max(readUpTo, row.id());
+            Transcript transcript = row.transcript();
+            if (transcript.getCallId() == null) continue;
+            byTenant.computeIfAbsent(tenantKey(transcript.getTenant()), t -> new ArrayList<>()).add(transcript);
+            indexed++;
+        }
+        byTenant.forEach((tenant, chunks) -> partition(tenant).addAll(chunks));
+        return indexed;
+    }
+
+    // Moves indexedUpTo over consecutive ids, and over gaps too old to still be filled
+    private void advance() {
+        long settled = System.currentTimeMillis() - commitLagMillis;
+        while (!readAbove.isEmpty()) {
+            Map.Entry<Long, Long> first = readAbove.firstEntry();
+            if (first.getKey() != indexedUpTo + 1 && first.getValue() > settled) break;
+            indexedUpTo = first.getKey();
+            readAbove.pollFirstEntry();
+        }
+    }
+
+    private Row row(ResultSet rs, int rowNum) throws SQLException {
+        Long callId = rs.getObject(2, Long.class);
+        return new Row(rs.getLong(1), new Transcript(callId, rs.getString(3),
+                rs.getString(4), rs.getString(5), rs.getTimestamp(6).toInstant()));
+    }
+
+    private TenantIndex partition(String tenant) {
+        return tenants.computeIfAbsent(tenant, t -> new TenantIndex());
+    }
+
+    private static String tenantKey(String tenant) {
+        return tenant == null ? NO_TENANT : tenant;
+    }
+}
@@ -14,46 +14,55 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.webrtc.service.AppUserDetailsService;
 import com.webrtc.service.JwtService;
+import com.webrtc.service.VerifiedToken;
 
 import java.io.IOException;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // Request attribute carrying the caller's tenant claim, for per-tenant scheduling downstream
+    public static final String TENANT_ATTR = "com.webrtc.tenant";
+
     @Autowired private JwtService jwtService;
     @Autowired private AppUserDetailsService userDetailsService;
+    @Autowired private PrincipalCache principalCache;
 
     // logger definition here
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        VerifiedToken verified = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7); 
+            String token = authHeader.substring(7); 
             try {
-                username = jwtService.extractUsername(token);
+                // One parse covers signature, expiry and subject
+                verified = jwtService.verify(token);
             } catch (Exception e) {
                 // If the token is invalid, the request continues without authentication
                 logger.warn("Invalid JWT token: " + e.getMessage()); 
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtService.validateToken(token, userDetails)) {
-                
-            	UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // CRITICAL FIX: Sets the authenticated user in the Spring Security Context.
-                SecurityContextHolder.getContext().setAuthentication(authentication); 
+            // Cached per user so chunk uploads don't query users/tenants every time
+            final String subject = verified.subject();
+            UserDetails userDetails = principalCache.get(subject, verified::expiration,
+                    () -> userDetailsService.loadUserByUsername(subject));
+
+            // Loaded by the token's subject, so it is that user; the signature and expiry were checked by verify
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            // CRITICAL FIX: Sets the authenticated user in the Spring Security Context.
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (verified.tenant() != null) {
+                request.setAttribute(TENANT_ATTR, verified.tenant());
             }
         }
 
@@ -0,0 +1,83 @@
+package com.webrtc.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of loaded principals, keyed by username.
+ *
+ * Saves JwtAuthFilter a users+tenants query on every request. An entry lives for the
+ * configured TTL or until the token it was loaded for expires, whichever is sooner,
+ * and is dropped as soon as the underlying User row changes (see UserCacheListener).
+ * Hit/miss/eviction counts are published as cache.* meters with cache=principals.
+ */
+@Component
+public class PrincipalCache {
+
+    private record Entry(UserDetails userDetails, long expiresAtNanos) {}
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return Math.max(0, Math.min(ttl.toNanos(), entry.expiresAtNanos() - currentTime));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    /**
+     * Returns the cached principal or loads it; a fresh load is cached until tokenExpiry at the latest.
+     * tokenExpiry is only evaluated on a miss.
+     */
+    public UserDetails get(String username, Supplier<Date> tokenExpiry, Supplier<UserDetails> loader) {
+        if (!enabled) return loader.get();
+
+        Entry entry = cache.getIfPresent(username);
+        if (entry != null) return entry.userDetails();
+
+        UserDetails loaded = loader.get();
+        long ttlNanos = Duration.ofMillis(tokenExpiry.get().getTime() - System.currentTimeMillis()).toNanos();
+        cache.put(username, new Entry(loaded, System.nanoTime() + ttlNanos));
+        return loaded;
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
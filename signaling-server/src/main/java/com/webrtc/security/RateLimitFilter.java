@@ -0,0 +1,57 @@
+package com.webrtc.security;
+
+import com.webrtc.ratelimit.Admission;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits authenticated API calls per user and per tenant (see Admission), answering
+ * 429 with Retry-After before the request reaches a controller.
+ *
+ * Runs right after JwtAuthFilter in the security chain. Deliberately not a @Component:
+ * Spring Boot would also register it as a plain servlet filter, which runs before
+ * authentication and would mark the request as already filtered.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final Admission admission;
+
+    public RateLimitFilter(Admission admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Admission.Scope scope = scopeOf(request.getRequestURI());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Unauthenticated requests are refused by the chain anyway
+        if (scope != null && authentication != null && authentication.isAuthenticated()) {
+            Admission.Decision decision = admission.admit(scope,
+                    (String) request.getAttribute(JwtAuthFilter.TENANT_ATTR), authentication.getName());
+            if (!decision.admitted()) {
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999));
+                response.setStatus(429);
+                response.setHeader("Retry-After", Long.toString(seconds));
+                response.setContentType("text/plain");
+                response.getWriter().write("Rate limit exceeded (" + decision.limitedBy() + "), retry in " + seconds + "s.");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static Admission.Scope scopeOf(String path) {
+        if (path.startsWith("/api/audio/")) return Admission.Scope.TRANSCRIBE;
+        if (path.startsWith("/call/")) return Admission.Scope.CALL;
+        if (path.startsWith("/api/")) return Admission.Scope.API;
+        return null;
+    }
+}
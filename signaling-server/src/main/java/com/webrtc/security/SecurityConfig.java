@@ -19,6 +19,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.webrtc.ratelimit.Admission;
 import com.webrtc.service.AppUserDetailsService;
 import java.util.Arrays;
 
@@ -32,6 +33,9 @@ public class SecurityConfig {
     @Autowired
     private AppUserDetailsService appUserDetailsService;
 
+    @Autowired
+    private Admission admission;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -55,7 +59,9 @@ public class SecurityConfig {
                         // 1. IMPORTANT: Allow OPTIONS for all endpoints (fixes some 403s)
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // 2. Public Endpoints
-                        .requestMatchers("/auth/**", "/h2-console/**", "/websocket-signaling/**").permitAll() 
+                        .requestMatchers("/auth/**", "/h2-console/**", "/websocket-signaling/**", "/websocket-audio/**").permitAll() 
+                        // Scraped by Prometheus / probed by the orchestrator, which carry no JWT
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         // 3. Secured Endpoints
                         .anyRequest().authenticated()
                 )
@@ -63,6 +69,8 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Needs the authenticated user, so after the JWT filter
+                .addFilterAfter(new RateLimitFilter(admission), JwtAuthFilter.class)
                 .headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()))
                 .build();
     }
@@ -78,8 +86,7 @@ public class SecurityConfig {
         AppUserDetailsService userDetailsService,
         PasswordEncoder passwordEncoder) throws Exception {
         
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(userDetailsService); 
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
         
         return new ProviderManager(provider);
@@ -1,116 +1,161 @@
 package com.webrtc.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.audio.AudioWindow;
+import com.webrtc.audio.VoiceActivityDetector;
+import com.webrtc.audio.WavHeader;
+import com.webrtc.service.stt.TranscriptionEngine;
+import com.webrtc.service.stt.TranscriptFilter;
+import com.webrtc.service.stt.TranscriptionEngines;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import java.util.Arrays;
-import java.util.List;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transcription for both audio paths: runs the tenant's {@link TranscriptionEngine} and
+ * filters the usual hallucinations out of whatever it returns (see TranscriptFilter).
+ *
+ * PCM (streamed windows and WAV uploads) goes through voice activity detection first:
+ * silent audio never reaches the engine, and leading/trailing silence is trimmed off.
+ * Browser webm/opus chunks can't be inspected without decoding them and go straight through.
+ */
 @Service
 public class AiTranscriptionService {
 
-    @Value("${openai.api.key}")
-    private String apiKey;
-
-    @Value("${openai.api.url}")
-    private String apiUrl;
-
-    @Value("${openai.model}")
-    private String model;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    // LIST OF BANNED PHRASES (Hallucinations)
-    private static final List<String> BANNED_PHRASES = Arrays.asList(
-        "thank you", "thanks", "bye", "peace", "shush", "okay", 
-        "silence", "you", "copyright", "mbc news", "subtitles", 
-        "watching", "amara.org", "closed captioning", "dick",
-        "transcribed by https://otter.ai"
-    );
+    private static final Logger log = LoggerFactory.getLogger(AiTranscriptionService.class);
+
+    @Autowired
+    private TranscriptionEngines engines;
+
+    @Autowired
+    private TranscriptFilter transcriptFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audio.vad.enabled:true}")
+    private boolean vadEnabled;
+
+    // RMS level below which a 20ms frame counts as silence
+    @Value("${audio.vad.threshold-dbfs:-45}")
+    private double vadThresholdDbfs;
+
+    @Value("${audio.vad.min-speech-ms:200}")
+    private int vadMinSpeechMs;
+
+    @Value("${audio.vad.padding-ms:200}")
+    private int vadPaddingMs;
+
+    private VoiceActivityDetector vad;
+    private Counter silentSkipped;
+    private Counter silenceTrimmed;
+    private Counter savedAudioSeconds;
+    // Per engine: [success, error]
+    private final Map<String, Timer[]> requestTimers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        vad = new VoiceActivityDetector(vadThresholdDbfs, vadMinSpeechMs, vadPaddingMs);
+        silentSkipped = Counter.builder("stt.vad.skipped")
+                .description("Audio chunks dropped as silence before any STT request")
+                .register(meterRegistry);
+        silenceTrimmed = Counter.builder("stt.vad.trimmed")
+                .description("Audio chunks sent with leading/trailing silence cut off")
+                .register(meterRegistry);
+        savedAudioSeconds = Counter.builder("stt.vad.saved.audio")
+                .description("Audio not sent upstream because it was silence")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
 
-    public String transcribeAudio(MultipartFile audioFile) {
+    public String transcribeAudio(String tenant, MultipartFile audioFile) {
+        TranscriptionEngine engine = engines.forTenant(tenant);
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-            headers.setBearerAuth(apiKey);
-
-            ByteArrayResource fileResource = new ByteArrayResource(audioFile.getBytes()) {
-                @Override
-                public String getFilename() { return "audio.webm"; }
-            };
-
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", fileResource);
-            body.add("model", model);
-            body.add("language", "en");
-            body.add("temperature", 0);
-            
-            // CHANGED PROMPT: "Silence" triggers hallucinations. 
-            // We give it a real context instead to keep it focused.
-            body.add("prompt", "This is a live technical meeting transcript."); 
-
-            HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(apiUrl, requestEntity, String.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                JsonNode root = objectMapper.readTree(response.getBody());
-                String text = root.path("text").asText();
-                
-                // CRITICAL FIX: Aggressive Filtering
-                if (shouldIgnore(text)) {
-                    return ""; 
-                }
-                
-                return text;
-            } else {
-                return "";
+            byte[] audio = audioFile.getBytes();
+            AudioWindow pcm = WavHeader.pcm16MonoData(audio);
+            if (pcm != null) {
+                return transcribeWindow(tenant, pcm);
             }
-
+            String filename = audioFile.getOriginalFilename();
+            long start = System.nanoTime();
+            String text;
+            try {
+                text = engine.transcribeClip(audio, filename != null && !filename.isEmpty() ? filename : "audio.webm");
+            } catch (Exception e) {
+                recordRequest(engine, start, false);
+                throw e;
+            }
+            recordRequest(engine, start, true);
+            return filter(tenant, text);
         } catch (Exception e) {
-            System.err.println("OpenAI Error: " + e.getMessage());
-            return ""; 
+            log.warn("STT error ({}): {}", engine.name(), e.getMessage());
+            return "";
         }
     }
 
-    // STRICT FILTER LOGIC
-    private boolean shouldIgnore(String text) {
-        if (text == null || text.trim().isEmpty()) return true;
-        
-        String clean = text.trim().toLowerCase();
-        
-        // 1. Remove trailing punctuation for checking
-        if (clean.endsWith(".")) clean = clean.substring(0, clean.length() - 1);
-        
-        // 2. IGNORE VERY SHORT GARBAGE (1-2 characters)
-        // This stops "." or ".." or "Oh"
-        if (clean.length() <= 2) return true;
-
-        // 3. CHECK AGAINST BANNED PHRASES
-        // If the *entire* text is just a banned phrase (e.g., "Thank you."), block it.
-        for (String banned : BANNED_PHRASES) {
-            if (clean.equals(banned) || clean.startsWith(banned + ".") || clean.equals(banned + ".")) {
-                return true;
-            }
+    // A window of streamed PCM (see AudioStreamHandler), read straight out of the ring buffer
+    public String transcribeWindow(String tenant, AudioWindow window) {
+        AudioWindow speech = vadEnabled ? vad.detect(window) : window;
+        if (speech == null) {
+            silentSkipped.increment();
+            savedAudioSeconds.increment(seconds(window.length(), window));
+            return "";
+        }
+        if (speech != window) {
+            silenceTrimmed.increment();
+            savedAudioSeconds.increment(seconds(window.length() - speech.length(), window));
         }
-        
-        // 4. CHECK FOR REPETITION LOOP ("Thank you. Thank you. Thank you.")
-        // If the text repeats the word "thank" more than once, it's a hallucination loop.
-        if (countOccurrences(clean, "thank") > 1) return true;
 
-        // Otherwise, it's real speech
-        return false;
+        TranscriptionEngine engine = engines.forTenant(tenant);
+        long start = System.nanoTime();
+        try {
+            String text = engine.transcribeWindow(speech);
+            recordRequest(engine, start, true);
+            return filter(tenant, text);
+        } catch (InterruptedException e) {
+            recordRequest(engine, start, false);
+            Thread.currentThread().interrupt();
+            return "";
+        } catch (Exception e) {
+            recordRequest(engine, start, false);
+            log.warn("STT error ({}): {}", engine.name(), e.getMessage());
+            return "";
+        }
     }
-    
-    private int countOccurrences(String str, String word) {
-        return str.split(word, -1).length - 1;
+
+    // Engine call latency by outcome; error rate = error count / all requests
+    private void recordRequest(TranscriptionEngine engine, long startNanos, boolean success) {
+        Timer[] timers = requestTimers.computeIfAbsent(engine.name(), name -> new Timer[] {
+                requestTimer(name, "success"), requestTimer(name, "error")
+        });
+        timers[success ? 0 : 1].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer requestTimer(String engine, String outcome) {
+        return Timer.builder("stt.requests")
+                .description("STT engine requests (after VAD), by engine and outcome")
+                .tag("engine", engine)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static double seconds(int pcmBytes, AudioWindow window) {
+        return pcmBytes / (window.sampleRate() * 2.0);
+    }
+
+    // Hallucinations ("Thank you.", "Thank you for watching", loops...) come back as ""
+    private String filter(String tenant, String text) {
+        return transcriptFilter.accept(tenant, text) ? text : "";
     }
-}
\ No newline at end of file
+}
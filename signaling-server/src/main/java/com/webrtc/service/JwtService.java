@@ -1,17 +1,27 @@
 package com.webrtc.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -20,57 +30,126 @@ public class JwtService {
     // IMPORTANT: Replace with a secure, long secret in a real application
     public static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655368546A576E5A7234";
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public static final String TENANT_CLAIM = "tenant";
+
+    // Decoded once; the parser is immutable and thread-safe so it is shared too
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final JwtParser parser = Jwts.parser().verifyWith(signingKey).build();
+
+    // Recently verified tokens, so a client re-sending the same token skips the HMAC check.
+    // Keyed by the whole compact token: a signature alone must never vouch for a different payload.
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .recordStats()
+            .build();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // verify() time by outcome: cached hit, full signature check, or rejected
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+
+    @PostConstruct
+    void bindMetrics() {
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+            cachedTimer = verifyTimer("cached");
+            verifiedTimer = verifyTimer("verified");
+            rejectedTimer = verifyTimer("rejected");
+        }
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Timer verifyTimer(String outcome) {
+        return Timer.builder("auth.jwt.validation")
+                .description("JWT validation time (REST filter and WebSocket handshake)")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                // Cache hits take well under a microsecond, a full HMAC check tens of microseconds
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies signature and expiry with a single parse.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                record(cachedTimer, start);
+                return cached;
+            }
+            verifiedTokens.invalidate(token);
+        }
+        VerifiedToken verified;
+        try {
+            verified = parseAndVerify(token);
+        } catch (RuntimeException e) {
+            record(rejectedTimer, start);
+            throw e;
+        }
+        verifiedTokens.put(token, verified);
+        record(verifiedTimer, start);
+        return verified;
     }
 
-    private Claims extractAllClaims(String token) {
-        // FIX: Replaced deprecated Jwts.parserBuilder() with Jwts.parser() 
-        // This is compatible with JJWT 0.12.3 and Spring Boot 3.x
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Always does the full signature check; verify() is the cached entry point
+    public VerifiedToken parseAndVerify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() == null) {
+            throw new ExpiredJwtException(null, claims, "Token has no expiration");
+        }
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims.get(TENANT_CLAIM, String.class));
+    }
+
+    public String extractUsername(String token) {
+        return verify(token).subject();
+    }
+
+    public Date extractExpiration(String token) {
+        return verify(token).expiration();
+    }
+
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(parser.parseSignedClaims(token).getPayload());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified.subject().equals(userDetails.getUsername()) && !verified.isExpired();
     }
 
     public String generateToken(String username) {
+        return generateToken(username, null);
+    }
+
+    public String generateToken(String username, String tenant) {
         Map<String, Object> claims = new HashMap<>();
+        if (tenant != null) {
+            claims.put(TENANT_CLAIM, tenant);
+        }
         return createToken(claims, username);
     }
 
     private String createToken(Map<String, Object> claims, String username) {
 
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .claims(claims)
+                .subject(username)
+                .issuedAt(new Date(System.currentTimeMillis()))
                 // Token valid for 24 hours
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
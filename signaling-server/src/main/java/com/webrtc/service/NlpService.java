@@ -1,55 +1,117 @@
 package com.webrtc.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webrtc.call.Call;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.codec.ServerEvent;
+import com.webrtc.codec.ServerEventWriter;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.service.nlp.IntentDictionary;
+import com.webrtc.service.nlp.IntentMatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Simulates a complex Natural Language Processing (NLP) microservice.
- * This service handles intent detection and confidence scoring.
+ * Streaming intent detection over live transcripts.
+ *
+ * Each transcript stream (one speaker in one call, or a speaker outside any call) keeps an
+ * {@link IntentMatcher.Cursor}, so a phrase split across caption chunks still matches. The
+ * first time an intent shows up in a stream, an INTENT frame goes to everyone in the call (or
+ * just the speaker); later mentions are only counted. Idle streams are dropped after
+ * nlp.stream-idle.
  */
 @Service
 public class NlpService {
 
-    /**
-     * EPIC E2: Analyzes text for greetings and intent detection.
-     * @param text The transcription chunk to analyze.
-     * @return true if a greeting is detected.
-     */
-    public boolean detectGreetingAndIntent(String text) {
-        // --- MOCK LOGIC ---
-        String lowerText = text.toLowerCase();
-        
-        // Simple heuristic to mock detection (EPIC E6.1)
-        if (lowerText.contains("hello") || lowerText.contains("hi there") || lowerText.contains("good morning")) {
-            return true;
-        }
-        
-        // Mock intent: "I need help" or "Can you assist"
-        if (lowerText.contains("need help") || lowerText.contains("assist")) {
-            System.out.println("NLP: DETECTED PRIMARY INTENT: ASSISTANCE REQUESTED");
-        }
-        
-        return false;
+    private static final Logger log = LoggerFactory.getLogger(NlpService.class);
+
+    public record IntentMatch(String intent, String phrase) {
     }
 
-    /**
-     * EPIC E3: Simulates confidence scoring for AI outputs.
-     * @return A random confidence score between 0.0 and 1.0.
-     */
-    public double getConfidenceScore() {
-        // --- MOCK LOGIC ---
-        // Simulates the LLM or STT engine providing a metric (EPIC E7.1)
-        return ThreadLocalRandom.current().nextDouble(0.4, 1.0);
+    private static final class Stream {
+        final IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+        final Set<String> announced = new HashSet<>();
+    }
+
+    private final IntentDictionary dictionary;
+    private final CallRegistry callRegistry;
+    private final SignalingHandler signalingHandler;
+    private final ServerEventWriter eventWriter;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Stream> streams;
+    private final Map<String, Counter> mentions = new ConcurrentHashMap<>();
+
+    public NlpService(IntentDictionary dictionary,
+                      CallRegistry callRegistry,
+                      SignalingHandler signalingHandler,
+                      ServerEventWriter eventWriter,
+                      MeterRegistry meterRegistry,
+                      @Value("${nlp.stream-idle:10m}") Duration streamIdle,
+                      @Value("${nlp.max-streams:100000}") long maxStreams) {
+        this.dictionary = dictionary;
+        this.callRegistry = callRegistry;
+        this.signalingHandler = signalingHandler;
+        this.eventWriter = eventWriter;
+        this.meterRegistry = meterRegistry;
+        this.streams = Caffeine.newBuilder()
+                .expireAfterAccess(streamIdle)
+                .maximumSize(maxStreams)
+                .build();
     }
-    
+
     /**
-     * Determines if a confidence score is low enough to be flagged as a hallucination risk.
-     * @param score The confidence score.
-     * @return true if confidence is below a low threshold.
+     * Feeds one transcript chunk to its stream and pushes any intent seen there for the first time.
+     *
+     * @return the newly detected intents (already pushed)
      */
-    public boolean isHallucinationRisk(double score) {
-        // MOCK THRESHOLD (EPIC E7.2)
-        return score < 0.65;
+    public List<IntentMatch> analyze(String tenant, Long callId, String speaker, String text) {
+        if (speaker == null || text == null) return List.of();
+        IntentMatcher matcher = dictionary.matcherFor(tenant);
+        Stream stream = streams.get((callId == null ? "-" : callId.toString()) + '/' + speaker, key -> new Stream());
+
+        List<IntentMatch> detected = new ArrayList<>(0);
+        // Chunks of one stream come in order; the lock only guards against a late one overlapping the next
+        synchronized (stream) {
+            matcher.feed(stream.cursor, text, (intent, phrase) -> {
+                mentions.computeIfAbsent(intent, i -> Counter.builder("nlp.intents")
+                        .description("Intent phrases heard in transcripts")
+                        .tag("intent", i)
+                        .register(meterRegistry)).increment();
+                if (stream.announced.add(intent)) detected.add(new IntentMatch(intent, phrase));
+            });
+        }
+        if (!detected.isEmpty()) push(callId, speaker, detected);
+        return detected;
+    }
+
+    // To both participants of the call, or only to the speaker when the chunk belongs to no call (or to one they aren't in)
+    private void push(Long callId, String speaker, List<IntentMatch> detected) {
+        Call call = callId != null ? callRegistry.find(callId) : null;
+        String[] recipients = call != null && call.isParticipant(speaker)
+                ? new String[] { call.getCaller(), call.getCallee() } : new String[] { speaker };
+        for (IntentMatch match : detected) {
+            try {
+                TextMessage frame = eventWriter.frame(new ServerEvent.Intent(callId, speaker, match.intent(), match.phrase()));
+                for (String recipient : recipients) {
+                    signalingHandler.sendMessageToUser(recipient, frame, false, callId);
+                }
+            } catch (Exception e) {
+                log.warn("Could not send intent {} to call {}: {}", match.intent(), callId, e.getMessage());
+            }
+        }
     }
-}
\ No newline at end of file
+}
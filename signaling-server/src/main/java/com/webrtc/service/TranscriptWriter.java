@@ -0,0 +1,193 @@
+package com.webrtc.service;
+
+import com.webrtc.entity.Transcript;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for transcript chunks.
+ *
+ * Callers only enqueue into a bounded buffer; one writer thread drains it and inserts with a
+ * JDBC batch whenever batch-size chunks are waiting or flush-interval has passed, grouped by
+ * call so each call's rows land together. When the buffer is full, submit waits up to
+ * offer-timeout and then refuses the chunk, so a slow database pushes back on callers
+ * instead of growing memory. Shutdown stops intake and flushes everything still buffered.
+ */
+@Service
+public class TranscriptWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptWriter.class);
+
+    private static final String INSERT =
+            "insert into transcripts (call_id, tenant, speaker, content, created_at) values (?, ?, ?, ?, ?)";
+    private static final Comparator<Transcript> BY_CALL =
+            Comparator.comparing(Transcript::getCallId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // Told about every batch once it is committed (e.g. to index it)
+    public interface Listener {
+        void written(List<Transcript> batch);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Transcript> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Thread writer;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean accepting = true;
+
+    private final Counter persisted;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer flushTime;
+    private final DistributionSummary batchSizes;
+
+    public TranscriptWriter(JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${transcripts.buffer.capacity:10000}") int capacity,
+                            @Value("${transcripts.batch-size:200}") int batchSize,
+                            @Value("${transcripts.flush-interval:500ms}") Duration flushInterval,
+                            @Value("${transcripts.buffer.offer-timeout:50ms}") Duration offerTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+
+        this.persisted = Counter.builder("transcripts.persisted")
+                .description("Transcript chunks written to the database")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transcripts.rejected")
+                .description("Transcript chunks refused because the write buffer stayed full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("transcripts.failed")
+                .description("Transcript chunks lost to a failed batch insert")
+                .register(meterRegistry);
+        this.flushTime = Timer.builder("transcripts.flush")
+                .description("Time to insert one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("transcripts.batch.size")
+                .description("Chunks per batch insert")
+                .register(meterRegistry);
+        Gauge.builder("transcripts.buffered", buffer, BlockingQueue::size)
+                .description("Transcript chunks waiting to be written")
+                .register(meterRegistry);
+
+        this.writer = Thread.ofPlatform().name("transcript-writer").daemon(true).start(this::run);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Queues a chunk for writing.
+     *
+     * @return false if it was refused: the buffer stayed full for offer-timeout, or the writer is shutting down
+     */
+    public boolean submit(Transcript transcript) {
+        if (!accepting) return false;
+        try {
+            if (buffer.offer(transcript, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                // Shutdown began meanwhile and the writer may have drained for the last time: take it back
+                // unless the writer already has it
+                return accepting || !buffer.remove(transcript);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void run() {
+        List<Transcript> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (accepting || !buffer.isEmpty()) {
+            try {
+                long wait = deadline - System.nanoTime();
+                Transcript next = wait > 0 ? buffer.poll(wait, TimeUnit.NANOSECONDS) : buffer.poll();
+                if (next != null) {
+                    batch.add(next);
+                    buffer.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0 || !accepting) {
+                flush(batch);
+                batch.clear();
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        // Intake stopped between the flush check and the loop condition: whatever is left goes out now
+        buffer.drainTo(batch);
+        flush(batch);
+    }
+
+    private void flush(List<Transcript> batch) {
+        if (batch.isEmpty()) return;
+        batch.sort(BY_CALL);
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, transcript) -> {
+                if (transcript.getCallId() != null) statement.setLong(1, transcript.getCallId());
+                else statement.setNull(1, Types.BIGINT);
+                statement.setString(2, transcript.getTenant());
+                statement.setString(3, transcript.getSpeaker());
+                statement.setString(4, transcript.getContent());
+                statement.setTimestamp(5, Timestamp.from(transcript.getCreatedAt()));
+            });
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.warn("Could not write {} transcript chunks: {}", batch.size(), e.getMessage());
+            return;
+        }
+        flushTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        persisted.increment(batch.size());
+
+        List<Transcript> written = List.copyOf(batch);
+        for (Listener listener : listeners) {
+            try {
+                listener.written(written);
+            } catch (Exception e) {
+                log.warn("Transcript listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Stops intake and blocks until every buffered chunk has been written
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Not interrupted: the writer notices within one flush-interval and an in-flight batch completes
+        accepting = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (writer.isAlive()) {
+            log.warn("Transcript writer did not finish within 30s, {} chunks unwritten", buffer.size());
+        }
+    }
+}
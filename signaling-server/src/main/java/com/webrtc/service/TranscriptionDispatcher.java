@@ -0,0 +1,189 @@
+package com.webrtc.service;
+
+import com.webrtc.config.IoExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission stage in front of the STT backend.
+ *
+ * - at most max-concurrent upstream calls in flight, whatever the load
+ * - at most max-queued jobs waiting; beyond that submit fails fast instead of piling up
+ * - tenants with queued work are served round-robin, so one busy tenant can't starve the rest
+ * - a job submitted with a coalesce key that is already queued (not yet started) joins the
+ *   queued job; streamed audio uses this to send everything buffered for a speaker in one request
+ */
+@Service
+public class TranscriptionDispatcher {
+
+    private static final String DEFAULT_TENANT = "";
+
+    private final class Job {
+        final String tenant;
+        final String coalesceKey;
+        final Callable<String> work;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+
+        Job(String tenant, String coalesceKey, Callable<String> work) {
+            this.tenant = tenant;
+            this.coalesceKey = coalesceKey;
+            this.work = work;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ArrayDeque<Job>> tenantQueues = new HashMap<>();
+    // Tenants that currently have queued jobs, in service order
+    private final ArrayDeque<String> tenantRotation = new ArrayDeque<>();
+    private final Map<String, Job> queuedByKey = new HashMap<>();
+    // Written under the lock; volatile so the gauges can read them without it
+    private volatile int queued;
+    private volatile int inFlight;
+
+    @Autowired
+    private IoExecutors ioExecutors;
+
+    private final Timer queueWait;
+    private final Timer serviceTime;
+    private final Counter rejected;
+    private final Counter coalesced;
+
+    public TranscriptionDispatcher(MeterRegistry meterRegistry,
+                                   @Value("${stt.dispatch.max-concurrent:32}") int maxConcurrent,
+                                   @Value("${stt.dispatch.max-queued:1000}") int maxQueued) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueWait = Timer.builder("stt.dispatch.queue.wait")
+                .description("Time a transcription waited for an upstream slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.serviceTime = Timer.builder("stt.dispatch.service")
+                .description("Time spent in the upstream STT call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("stt.dispatch.rejected").register(meterRegistry);
+        this.coalesced = Counter.builder("stt.dispatch.coalesced").register(meterRegistry);
+        Gauge.builder("stt.dispatch.queued", this, d -> d.queued).register(meterRegistry);
+        Gauge.builder("stt.dispatch.in_flight", this, d -> d.inFlight).register(meterRegistry);
+    }
+
+    /**
+     * Queues a transcription.
+     *
+     * @param tenant      fairness bucket; null shares a default bucket
+     * @param coalesceKey if non-null and a job with the same key is still queued, that job's
+     *                    result is returned and this work is dropped
+     * @return the transcript, or a future failed with RejectedExecutionException when the queue is full
+     */
+    public CompletableFuture<String> submit(String tenant, String coalesceKey, Callable<String> work) {
+        String bucket = tenant != null ? tenant : DEFAULT_TENANT;
+        Job job;
+        lock.lock();
+        try {
+            if (coalesceKey != null) {
+                Job pending = queuedByKey.get(coalesceKey);
+                if (pending != null) {
+                    coalesced.increment();
+                    return pending.result;
+                }
+            }
+            if (queued >= maxQueued) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Transcription queue is full"));
+            }
+
+            job = new Job(bucket, coalesceKey, work);
+            ArrayDeque<Job> queue = tenantQueues.computeIfAbsent(bucket, t -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                tenantRotation.addLast(bucket);
+            }
+            queue.addLast(job);
+            if (coalesceKey != null) {
+                queuedByKey.put(coalesceKey, job);
+            }
+            queued++;
+        } finally {
+            lock.unlock();
+        }
+        pump();
+        return job.result;
+    }
+
+    // Starts queued jobs while there are free upstream slots
+    private void pump() {
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                if (inFlight >= maxConcurrent || tenantRotation.isEmpty()) return;
+
+                String tenant = tenantRotation.pollFirst();
+                ArrayDeque<Job> queue = tenantQueues.get(tenant);
+                job = queue.pollFirst();
+                if (queue.isEmpty()) {
+                    tenantQueues.remove(tenant);
+                } else {
+                    tenantRotation.addLast(tenant);
+                }
+                if (job.coalesceKey != null) {
+                    queuedByKey.remove(job.coalesceKey, job);
+                }
+                queued--;
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+            start(job);
+        }
+    }
+
+    private void start(Job job) {
+        try {
+            ioExecutors.blockingIo().execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            finish();
+            job.result.completeExceptionally(e);
+        }
+    }
+
+    private void run(Job job) {
+        long started = System.nanoTime();
+        queueWait.record(started - job.enqueuedNanos, TimeUnit.NANOSECONDS);
+        try {
+            job.result.complete(job.work.call());
+        } catch (Throwable t) {
+            job.result.completeExceptionally(t);
+        } finally {
+            serviceTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            finish();
+            pump();
+        }
+    }
+
+    private void finish() {
+        lock.lock();
+        try {
+            inFlight--;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.webrtc.service;
+
+import java.util.Date;
+
+/**
+ * Result of a single signature + expiry check on a JWT.
+ *
+ * @param subject    username the token was issued to
+ * @param expiration when the token stops being valid
+ * @param tenant     tenant name claim, null for tokens issued before it was added
+ */
+public record VerifiedToken(String subject, Date expiration, String tenant) {
+
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+}
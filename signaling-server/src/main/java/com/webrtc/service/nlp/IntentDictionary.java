@@ -0,0 +1,106 @@
+package com.webrtc.service.nlp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intent phrases per tenant, each set compiled into one {@link IntentMatcher}.
+ *
+ * Phrases come from nlp.intents-file when set, and are re-read whenever the file changes;
+ * otherwise the built-in intents below apply. File format:
+ *
+ *   {
+ *     "default": { "REFUND": ["refund", "money back"], "GREETING": ["hello"] },
+ *     "tenants": { "acme": { "CANCEL": ["cancel my plan"] } }
+ *   }
+ *
+ * "default" replaces the built-in intents; a tenant's phrases are added to the defaults.
+ */
+@Component
+public class IntentDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(IntentDictionary.class);
+
+    private static final Map<String, List<String>> BUILT_IN = Map.of(
+        "GREETING", List.of("hello", "hi there", "good morning", "good afternoon", "good evening"),
+        "ASSISTANCE", List.of("need help", "can you help", "can you assist", "assist me", "assistance"),
+        "REFUND", List.of("refund", "money back", "reimburse"),
+        "CANCELLATION", List.of("cancel my subscription", "cancel my account", "cancel my plan", "close my account"),
+        "ESCALATION", List.of("speak to a manager", "talk to your manager", "supervisor", "escalate", "file a complaint")
+    );
+
+    private record Matchers(IntentMatcher defaults, Map<String, IntentMatcher> byTenant) {
+    }
+
+    @Value("${nlp.intents-file:}")
+    private String intentsFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Matchers matchers;
+    private long loadedModified = -1;
+
+    @PostConstruct
+    public void init() {
+        matchers = new Matchers(IntentMatcher.compile(BUILT_IN), Map.of());
+        reloadIfChanged();
+    }
+
+    public IntentMatcher matcherFor(String tenant) {
+        Matchers current = matchers;
+        return tenant != null ? current.byTenant.getOrDefault(tenant, current.defaults) : current.defaults;
+    }
+
+    @Scheduled(fixedDelayString = "${nlp.reload-interval-ms:10000}")
+    public synchronized void reloadIfChanged() {
+        if (intentsFile.isBlank()) return;
+        try {
+            Path path = Path.of(intentsFile);
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == loadedModified) return;
+            matchers = load(objectMapper.readTree(path.toFile()));
+            loadedModified = modified;
+            log.info("Intent dictionary loaded from {} (tenants: {})", intentsFile, matchers.byTenant.keySet());
+        } catch (Exception e) {
+            // Keep matching with the last good dictionary
+            log.warn("Could not load intent dictionary from {}: {}", intentsFile, e.getMessage());
+        }
+    }
+
+    private Matchers load(JsonNode root) {
+        Map<String, List<String>> defaults = root.has("default") ? intents(root.get("default")) : BUILT_IN;
+        Map<String, IntentMatcher> byTenant = new HashMap<>();
+        for (Map.Entry<String, JsonNode> tenant : root.path("tenants").properties()) {
+            Map<String, List<String>> merged = new LinkedHashMap<>();
+            defaults.forEach((intent, phrases) -> merged.put(intent, new ArrayList<>(phrases)));
+            intents(tenant.getValue()).forEach((intent, phrases) ->
+                    merged.computeIfAbsent(intent, i -> new ArrayList<>()).addAll(phrases));
+            byTenant.put(tenant.getKey(), IntentMatcher.compile(merged));
+        }
+        return new Matchers(IntentMatcher.compile(defaults), byTenant);
+    }
+
+    private static Map<String, List<String>> intents(JsonNode node) {
+        Map<String, List<String>> intents = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> intent : node.properties()) {
+            if (!intent.getValue().isArray()) continue;
+            List<String> phrases = new ArrayList<>();
+            intent.getValue().forEach(phrase -> phrases.add(phrase.asText()));
+            intents.put(intent.getKey(), phrases);
+        }
+        return intents;
+    }
+}
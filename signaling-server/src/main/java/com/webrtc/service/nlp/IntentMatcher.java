@@ -0,0 +1,236 @@
+package com.webrtc.service.nlp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One tenant's intent phrases compiled into a single Aho-Corasick automaton that is fed a
+ * transcript stream chunk by chunk.
+ *
+ * Text is normalised on the fly: letters and digits are lowercased, apostrophes dropped
+ * ("can't" = "cant"), and every other run of characters is one word boundary. Phrases are
+ * compiled as " word word ", so they only match whole words. The automaton state lives in a
+ * {@link Cursor} owned by the caller, so a phrase that straddles two chunks ("I need" |
+ * "help with my bill") still matches. A chunk end counts as a word boundary.
+ *
+ * Instances are immutable and safe to share; IntentDictionary swaps in new ones on reload.
+ */
+public final class IntentMatcher {
+
+    // Told about every phrase occurrence
+    public interface Hits {
+        void hit(String intent, String phrase);
+    }
+
+    /**
+     * Position in one transcript stream. Not thread safe; one per stream. A cursor used with
+     * a different matcher than last time (the dictionary was reloaded) starts over.
+     */
+    public static final class Cursor {
+        private IntentMatcher matcher;
+        private int state;
+        private boolean boundary;
+    }
+
+    private static final char BOUNDARY = ' ';
+    private static final int[] NO_PHRASES = new int[0];
+    // asciiCodes entries that aren't symbols
+    private static final int CODE_BOUNDARY = -1;
+    private static final int CODE_SKIP = -2;
+
+    // Dense DFA: next state = transitions[state * alphabetSize + symbol(c)]
+    private final int[] transitions;
+    private final int alphabetSize;
+    private final int[] asciiSymbols;
+    // Per ASCII char, already classified and lowercased: its symbol, CODE_BOUNDARY or CODE_SKIP
+    private final int[] asciiCodes;
+    private final Map<Character, Integer> otherSymbols;
+    // Phrases that end in (or are a suffix of) each state
+    private final int[][] outputs;
+    private final String[] phraseIntents;
+    private final String[] phrases;
+    private final int startState;
+
+    private IntentMatcher(int[] transitions, int alphabetSize, int[] asciiSymbols, Map<Character, Integer> otherSymbols,
+                          int[][] outputs, String[] phraseIntents, String[] phrases) {
+        this.transitions = transitions;
+        this.alphabetSize = alphabetSize;
+        this.asciiSymbols = asciiSymbols;
+        this.otherSymbols = otherSymbols;
+        this.outputs = outputs;
+        this.phraseIntents = phraseIntents;
+        this.phrases = phrases;
+        this.startState = transitions[symbol(BOUNDARY)];
+        this.asciiCodes = new int[128];
+        for (char c = 0; c < 128; c++) {
+            asciiCodes[c] = c == '\'' ? CODE_SKIP
+                    : Character.isLetterOrDigit(c) ? asciiSymbols[Character.toLowerCase(c)] : CODE_BOUNDARY;
+        }
+    }
+
+    /**
+     * Advances the cursor over one chunk and reports each phrase that ends in it.
+     *
+     * @return the number of phrase occurrences reported
+     */
+    public int feed(Cursor cursor, CharSequence chunk, Hits hits) {
+        if (cursor.matcher != this) {
+            cursor.matcher = this;
+            cursor.state = startState;
+            cursor.boundary = true;
+        }
+        int state = cursor.state;
+        boolean boundary = cursor.boundary;
+        int boundarySymbol = asciiSymbols[BOUNDARY];
+        int found = 0;
+        int length = chunk.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? chunk.charAt(i) : BOUNDARY;
+            int code;
+            if (c < 128) {
+                code = asciiCodes[c];
+            } else if (c == '’') {
+                code = CODE_SKIP;
+            } else {
+                code = Character.isLetterOrDigit(c) ? symbol(Character.toLowerCase(c)) : CODE_BOUNDARY;
+            }
+            if (code == CODE_SKIP) continue;
+            if (code == CODE_BOUNDARY) {
+                if (boundary) continue;
+                code = boundarySymbol;
+                boundary = true;
+            } else {
+                boundary = false;
+            }
+            state = transitions[state * alphabetSize + code];
+            for (int phrase : outputs[state]) {
+                hits.hit(phraseIntents[phrase], phrases[phrase]);
+                found++;
+            }
+        }
+        cursor.state = state;
+        cursor.boundary = boundary;
+        return found;
+    }
+
+    private int symbol(char c) {
+        if (c < 128) return asciiSymbols[c];
+        return otherSymbols.getOrDefault(c, 0);
+    }
+
+    /**
+     * Compiles intent name -> phrases. Phrases are normalised like the text; blank ones are ignored.
+     */
+    public static IntentMatcher compile(Map<String, ? extends Collection<String>> intents) {
+        Map<String, String> patterns = new LinkedHashMap<>(); // normalised pattern -> intent
+        Map<String, String> display = new HashMap<>();         // normalised pattern -> phrase as configured
+        intents.forEach((intent, phrases) -> {
+            for (String phrase : phrases) {
+                String pattern = normalise(phrase);
+                if (pattern == null) continue;
+                patterns.putIfAbsent(pattern, intent);
+                display.putIfAbsent(pattern, phrase.trim());
+            }
+        });
+
+        // Alphabet: every char used by a pattern (always includes the boundary); symbol 0 is "anything else"
+        Map<Character, Integer> symbols = new HashMap<>();
+        symbols.put(BOUNDARY, 1);
+        for (String pattern : patterns.keySet()) {
+            for (char c : pattern.toCharArray()) {
+                symbols.putIfAbsent(c, symbols.size() + 1);
+            }
+        }
+        int alphabetSize = symbols.size() + 1;
+
+        // Trie
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(new int[alphabetSize]);
+        ends.add(new ArrayList<>());
+        String[] phraseIntents = new String[patterns.size()];
+        String[] phrases = new String[patterns.size()];
+        int index = 0;
+        for (Map.Entry<String, String> pattern : patterns.entrySet()) {
+            int state = 0;
+            for (char c : pattern.getKey().toCharArray()) {
+                int symbol = symbols.get(c);
+                if (children.get(state)[symbol] == 0) {
+                    children.get(state)[symbol] = children.size();
+                    children.add(new int[alphabetSize]);
+                    ends.add(new ArrayList<>());
+                }
+                state = children.get(state)[symbol];
+            }
+            ends.get(state).add(index);
+            phraseIntents[index] = pattern.getValue();
+            phrases[index] = display.get(pattern.getKey());
+            index++;
+        }
+
+        // Failure links folded into a full transition table (breadth first); outputs inherit along them
+        int states = children.size();
+        int[] transitions = new int[states * alphabetSize];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int s = 0; s < alphabetSize; s++) {
+            int next = children.get(0)[s];
+            transitions[s] = next;
+            if (next != 0) queue.add(next);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (fail[state] != 0) ends.get(state).addAll(ends.get(fail[state]));
+            for (int s = 0; s < alphabetSize; s++) {
+                int next = children.get(state)[s];
+                if (next != 0) {
+                    fail[next] = transitions[fail[state] * alphabetSize + s];
+                    transitions[state * alphabetSize + s] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * alphabetSize + s] = transitions[fail[state] * alphabetSize + s];
+                }
+            }
+        }
+
+        int[][] outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = ends.get(state).isEmpty() ? NO_PHRASES
+                    : ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+        int[] asciiSymbols = new int[128];
+        Map<Character, Integer> otherSymbols = new HashMap<>();
+        symbols.forEach((c, symbol) -> {
+            if (c < 128) asciiSymbols[c] = symbol;
+            else otherSymbols.put(c, symbol);
+        });
+        return new IntentMatcher(transitions, alphabetSize, asciiSymbols, Map.copyOf(otherSymbols),
+                outputs, phraseIntents, phrases);
+    }
+
+    // " word word " as the stream would contain it, or null if the phrase has no words
+    private static String normalise(String phrase) {
+        if (phrase == null) return null;
+        StringBuilder pattern = new StringBuilder().append(BOUNDARY);
+        boolean boundary = true;
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            if (c == '\'' || c == '’') continue;
+            if (Character.isLetterOrDigit(c)) {
+                pattern.append(Character.toLowerCase(c));
+                boundary = false;
+            } else if (!boundary) {
+                pattern.append(BOUNDARY);
+                boundary = true;
+            }
+        }
+        if (pattern.length() == 1) return null;
+        if (!boundary) pattern.append(BOUNDARY);
+        return pattern.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.webrtc.service.stt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.audio.AudioWindow;
+import com.webrtc.audio.WavHeader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.vosk.LibVosk;
+import org.vosk.LogLevel;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process recognition with Vosk (Kaldi) on the CPU, for boxes without a GPU or without
+ * access to the remote API. Needs a model directory in stt.engine.local.model-path, e.g. one
+ * of the vosk-model-*-en-us downloads; without one the engine reports itself unavailable.
+ *
+ * Decoding is CPU-bound native code, so it runs on a small platform pool sized to the cores
+ * rather than on the caller's (virtual) thread: a native call pins its carrier, and a handful
+ * of those would stall every other virtual thread on the box. Callers just park on the result.
+ *
+ * Only PCM is accepted: streamed windows, or 16-bit mono WAV uploads. The browser's webm/opus
+ * chunks need the remote engine.
+ */
+@Component
+public class LocalTranscriptionEngine implements TranscriptionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTranscriptionEngine.class);
+
+    public static final String NAME = "local";
+
+    // Bytes handed to the recognizer per call
+    private static final int FEED_BYTES = 8 * 1024;
+
+    private final String modelPath;
+    private final int threads;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadLocal<byte[]> feedBuffer = ThreadLocal.withInitial(() -> new byte[FEED_BYTES]);
+    private Model model;
+    private ExecutorService decoders;
+
+    public LocalTranscriptionEngine(@Value("${stt.engine.local.model-path:}") String modelPath,
+                                    @Value("${stt.engine.local.threads:0}") int threads) {
+        this.modelPath = modelPath;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @PostConstruct
+    public void loadModel() throws IOException {
+        if (modelPath.isBlank()) return;
+        LibVosk.setLogLevel(LogLevel.WARNINGS);
+        model = new Model(modelPath);
+        decoders = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("stt-local-", 0).daemon(true).factory());
+        log.info("Local STT model loaded from {} ({} decoder threads)", modelPath, threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (decoders != null) decoders.shutdownNow();
+        if (model != null) model.close();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return model != null;
+    }
+
+    @Override
+    public String transcribeClip(byte[] audio, String filename) throws Exception {
+        AudioWindow pcm = WavHeader.pcm16MonoData(audio);
+        if (pcm == null) {
+            throw new IllegalArgumentException("local engine needs 16-bit mono PCM WAV, got " + filename);
+        }
+        return transcribeWindow(pcm);
+    }
+
+    @Override
+    public String transcribeWindow(AudioWindow window) throws Exception {
+        return decode(window.sampleRate(), window.buffer(), window.firstOffset(), window.firstLength(), window.secondLength());
+    }
+
+    // Decodes [offset, offset + length) followed by [0, wrapLength) of the same array
+    private String decode(int sampleRate, byte[] pcm, int offset, int length, int wrapLength) throws Exception {
+        if (model == null) {
+            throw new IllegalStateException("stt.engine.local.model-path is not set");
+        }
+        try {
+            return decoders.submit(() -> {
+                try (Recognizer recognizer = new Recognizer(model, sampleRate)) {
+                    feed(recognizer, pcm, offset, length);
+                    feed(recognizer, pcm, 0, wrapLength);
+                    return objectMapper.readTree(recognizer.getFinalResult()).path("text").asText();
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    // acceptWaveForm only reads from the start of an array, so ring segments go through a scratch buffer
+    private void feed(Recognizer recognizer, byte[] pcm, int offset, int length) {
+        byte[] scratch = feedBuffer.get();
+        for (int end = offset + length; offset < end; ) {
+            int n = Math.min(scratch.length, end - offset);
+            System.arraycopy(pcm, offset, scratch, 0, n);
+            recognizer.acceptWaveForm(scratch, n);
+            offset += n;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.webrtc.service.stt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One tenant's hallucination phrases compiled into a single Aho-Corasick automaton.
+ *
+ * {@link #check(String)} makes one case-insensitive pass over the transcript without copying,
+ * lowercasing or splitting it, and reports why it should be dropped, if at all:
+ * - BANNED:   the whole transcript is a banned phrase ("Thank you."), or starts with one
+ *             followed by a full stop
+ * - CONTAINS: a contains-phrase appears anywhere ("... thank you for watching")
+ * - REPEATED: a repeat-phrase appears more than once ("thank ... thank")
+ * - LOOP:     the same sentence, of at least MIN_LOOP_SENTENCE letters and digits, repeated
+ *             maxSentenceRepeats times in a row
+ *
+ * Instances are immutable and safe to share; TranscriptFilter swaps in new ones on reload.
+ */
+public final class PhraseMatcher {
+
+    public enum Verdict { PASS, EMPTY, TOO_SHORT, BANNED, CONTAINS, REPEATED, LOOP }
+
+    private static final int KIND_BANNED = 1;
+    private static final int KIND_CONTAINS = 2;
+    private static final int KIND_REPEAT = 4;
+
+    // Hash of an empty sentence; see check()
+    private static final int NO_SENTENCE = 0;
+    // Shorter sentences ("No. No. No.") are real speech often enough not to count as a loop
+    static final int MIN_LOOP_SENTENCE = 8;
+
+    // ASCII fast paths for Character.toLowerCase / isLetterOrDigit
+    private static final char[] ASCII_LOWER = new char[128];
+    private static final boolean[] ASCII_WORD = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_LOWER[c] = Character.toLowerCase(c);
+            ASCII_WORD[c] = Character.isLetterOrDigit(c);
+        }
+    }
+
+    // Dense DFA: next state = transitions[state * alphabetSize + symbol(c)]
+    private final int[] transitions;
+    private final int alphabetSize;
+    // Symbols for chars 0..127 inline; anything else in a small sorted table
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int[] otherSymbols;
+    // Union of the kinds of every pattern that ends in (or is a suffix of) the state
+    private final int[] outputKinds;
+    // Lengths of the banned patterns ending in the state, for the start-of-text check
+    private final int[][] bannedLengths;
+    private final int maxSentenceRepeats;
+
+    private PhraseMatcher(int[] transitions, int alphabetSize, int[] asciiSymbols, char[] otherChars, int[] otherSymbols,
+                          int[] outputKinds, int[][] bannedLengths, int maxSentenceRepeats) {
+        this.transitions = transitions;
+        this.alphabetSize = alphabetSize;
+        this.asciiSymbols = asciiSymbols;
+        this.otherChars = otherChars;
+        this.otherSymbols = otherSymbols;
+        this.outputKinds = outputKinds;
+        this.bannedLengths = bannedLengths;
+        this.maxSentenceRepeats = maxSentenceRepeats;
+    }
+
+    public Verdict check(String text) {
+        if (text == null) return Verdict.EMPTY;
+
+        // Significant range: trimmed, minus one trailing full stop (as the old filter did)
+        int begin = 0;
+        int end = text.length();
+        while (begin < end && Character.isWhitespace(text.charAt(begin))) begin++;
+        while (end > begin && Character.isWhitespace(text.charAt(end - 1))) end--;
+        if (begin == end) return Verdict.EMPTY;
+        if (text.charAt(end - 1) == '.') end--;
+        if (end - begin <= 2) return Verdict.TOO_SHORT;
+
+        int state = 0;
+        int repeatHits = 0;
+        int sentenceHash = NO_SENTENCE;
+        int sentenceStart = begin;
+        int sentenceLength = 0;
+        int previousSentence = NO_SENTENCE;
+        int previousStart = begin;
+        int previousEnd = begin;
+        int sentenceRun = 0;
+
+        for (int i = begin; i < end; i++) {
+            char c = text.charAt(i);
+            boolean ascii = c < 128;
+            c = ascii ? ASCII_LOWER[c] : Character.toLowerCase(c);
+            state = transitions[state * alphabetSize + symbol(c)];
+
+            int kinds = outputKinds[state];
+            if (kinds != 0) {
+                if ((kinds & KIND_CONTAINS) != 0) return Verdict.CONTAINS;
+                if ((kinds & KIND_REPEAT) != 0 && ++repeatHits > 1) return Verdict.REPEATED;
+                if ((kinds & KIND_BANNED) != 0 && isBannedAt(state, i, begin, end, text)) return Verdict.BANNED;
+            }
+
+            // Sentence loop detection: hash letters and digits of each sentence; when the hash matches
+            // the last sentence's, the text is compared too, so a collision can't drop a transcript
+            if (c == '.' || c == '!' || c == '?') {
+                if (sentenceHash != NO_SENTENCE) {
+                    boolean repeated = sentenceHash == previousSentence && sentenceLength >= MIN_LOOP_SENTENCE
+                            && sameSentence(text, sentenceStart, i, previousStart, previousEnd);
+                    sentenceRun = repeated ? sentenceRun + 1 : 1;
+                    if (sentenceRun >= maxSentenceRepeats) return Verdict.LOOP;
+                    previousSentence = sentenceHash;
+                    previousStart = sentenceStart;
+                    previousEnd = i;
+                }
+                sentenceHash = NO_SENTENCE;
+                sentenceStart = i + 1;
+                sentenceLength = 0;
+            } else if (ascii ? ASCII_WORD[c] : Character.isLetterOrDigit(c)) {
+                sentenceHash = sentenceHash * 31 + c;
+                if (sentenceHash == NO_SENTENCE) sentenceHash = 1;
+                sentenceLength++;
+            }
+        }
+        // The last sentence has no terminator (it was trimmed off above)
+        if (sentenceHash != NO_SENTENCE && sentenceHash == previousSentence && sentenceRun + 1 >= maxSentenceRepeats
+                && sentenceLength >= MIN_LOOP_SENTENCE && sameSentence(text, sentenceStart, end, previousStart, previousEnd)) {
+            return Verdict.LOOP;
+        }
+        return Verdict.PASS;
+    }
+
+    // Same letters and digits, case-insensitively; what the sentence hash is computed over
+    private static boolean sameSentence(String text, int a, int aEnd, int b, int bEnd) {
+        while (true) {
+            while (a < aEnd && !isWord(text.charAt(a))) a++;
+            while (b < bEnd && !isWord(text.charAt(b))) b++;
+            if (a == aEnd || b == bEnd) return a == aEnd && b == bEnd;
+            if (lower(text.charAt(a++)) != lower(text.charAt(b++))) return false;
+        }
+    }
+
+    private static char lower(char c) {
+        return c < 128 ? ASCII_LOWER[c] : Character.toLowerCase(c);
+    }
+
+    private static boolean isWord(char c) {
+        return c < 128 ? ASCII_WORD[c] : Character.isLetterOrDigit(c);
+    }
+
+    // A banned phrase counts only if it spans the whole text, or opens it followed by a full stop
+    private boolean isBannedAt(int state, int last, int begin, int end, String text) {
+        boolean atEnd = last + 1 == end;
+        boolean beforeStop = !atEnd && text.charAt(last + 1) == '.';
+        if (!atEnd && !beforeStop) return false;
+        for (int length : bannedLengths[state]) {
+            if (last + 1 - length == begin) return true;
+        }
+        return false;
+    }
+
+    private int symbol(char c) {
+        if (c < 128) return asciiSymbols[c];
+        int lo = 0;
+        int hi = otherChars.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (otherChars[mid] < c) lo = mid + 1;
+            else if (otherChars[mid] > c) hi = mid - 1;
+            else return otherSymbols[mid];
+        }
+        return 0;
+    }
+
+    /**
+     * Compiles the three phrase lists. Phrases are matched case-insensitively; blank ones are ignored.
+     */
+    public static PhraseMatcher compile(Collection<String> banned, Collection<String> contains,
+                                        Collection<String> repeat, int maxSentenceRepeats) {
+        Map<String, Integer> patterns = new HashMap<>();
+        addAll(patterns, banned, KIND_BANNED);
+        addAll(patterns, contains, KIND_CONTAINS);
+        addAll(patterns, repeat, KIND_REPEAT);
+
+        // Alphabet: every char used by a pattern; symbol 0 is "anything else"
+        Map<Character, Integer> symbols = new HashMap<>();
+        for (String pattern : patterns.keySet()) {
+            for (char c : pattern.toCharArray()) {
+                symbols.putIfAbsent(c, symbols.size() + 1);
+            }
+        }
+        int alphabetSize = symbols.size() + 1;
+
+        // Trie
+        List<int[]> children = new ArrayList<>();
+        List<Integer> kinds = new ArrayList<>();
+        List<List<Integer>> lengths = new ArrayList<>();
+        children.add(new int[alphabetSize]);
+        kinds.add(0);
+        lengths.add(new ArrayList<>());
+        for (Map.Entry<String, Integer> pattern : patterns.entrySet()) {
+            int state = 0;
+            for (char c : pattern.getKey().toCharArray()) {
+                int symbol = symbols.get(c);
+                if (children.get(state)[symbol] == 0) {
+                    children.get(state)[symbol] = children.size();
+                    children.add(new int[alphabetSize]);
+                    kinds.add(0);
+                    lengths.add(new ArrayList<>());
+                }
+                state = children.get(state)[symbol];
+            }
+            kinds.set(state, kinds.get(state) | pattern.getValue());
+            if ((pattern.getValue() & KIND_BANNED) != 0) {
+                lengths.get(state).add(pattern.getKey().length());
+            }
+        }
+
+        // Failure links, folded into a full transition table (breadth first)
+        int states = children.size();
+        int[] transitions = new int[states * alphabetSize];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int s = 0; s < alphabetSize; s++) {
+            int next = children.get(0)[s];
+            transitions[s] = next;
+            if (next != 0) queue.add(next);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int inheritedKinds = kinds.get(fail[state]);
+            kinds.set(state, kinds.get(state) | inheritedKinds);
+            lengths.get(state).addAll(lengths.get(fail[state]));
+            for (int s = 0; s < alphabetSize; s++) {
+                int next = children.get(state)[s];
+                if (next != 0) {
+                    fail[next] = transitions[fail[state] * alphabetSize + s];
+                    transitions[state * alphabetSize + s] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * alphabetSize + s] = transitions[fail[state] * alphabetSize + s];
+                }
+            }
+        }
+
+        int[] outputKinds = new int[states];
+        int[][] bannedLengths = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputKinds[state] = kinds.get(state);
+            bannedLengths[state] = lengths.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] asciiSymbols = new int[128];
+        symbols.forEach((c, symbol) -> {
+            if (c < 128) asciiSymbols[c] = symbol;
+        });
+        List<Map.Entry<Character, Integer>> other = symbols.entrySet().stream()
+                .filter(e -> e.getKey() >= 128)
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        char[] otherChars = new char[other.size()];
+        int[] otherSymbols = new int[other.size()];
+        for (int i = 0; i < other.size(); i++) {
+            otherChars[i] = other.get(i).getKey();
+            otherSymbols[i] = other.get(i).getValue();
+        }
+
+        return new PhraseMatcher(transitions, alphabetSize, asciiSymbols, otherChars, otherSymbols,
+                outputKinds, bannedLengths, maxSentenceRepeats);
+    }
+
+    private static void addAll(Map<String, Integer> patterns, Collection<String> phrases, int kind) {
+        for (String phrase : phrases) {
+            if (phrase == null || phrase.isBlank()) continue;
+            patterns.merge(phrase.trim().toLowerCase(Locale.ROOT), kind, (a, b) -> a | b);
+        }
+    }
+}
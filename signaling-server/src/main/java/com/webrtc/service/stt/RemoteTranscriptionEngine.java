@@ -0,0 +1,147 @@
+package com.webrtc.service.stt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.audio.AudioWindow;
+import com.webrtc.audio.WavHeader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OpenAI-compatible transcription endpoint at openai.api.url.
+ */
+@Component
+public class RemoteTranscriptionEngine implements TranscriptionEngine {
+
+    public static final String NAME = "remote";
+
+    @Value("${openai.api.key}")
+    private String apiKey;
+
+    @Value("${openai.api.url}")
+    private String apiUrl;
+
+    @Value("${openai.model}")
+    private String model;
+
+    // JDK HttpClient-backed, see ThreadingConfig
+    @Autowired
+    private RestTemplate sttRestTemplate;
+
+    // Used directly for streamed windows, where the body is assembled from ring-buffer slices
+    @Autowired
+    private HttpClient sttHttpClient;
+
+    private static final String BOUNDARY = "----webrtc-stt-window";
+    private static final byte[] FORM_SUFFIX = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    private volatile byte[] formPrefix;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String transcribeClip(byte[] audio, String filename) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.setBearerAuth(apiKey);
+
+        ByteArrayResource fileResource = new ByteArrayResource(audio) {
+            @Override
+            public String getFilename() { return filename; }
+        };
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", fileResource);
+        body.add("model", model);
+        body.add("language", "en");
+        body.add("temperature", 0);
+
+        // CHANGED PROMPT: "Silence" triggers hallucinations.
+        // We give it a real context instead to keep it focused.
+        body.add("prompt", "This is a live technical meeting transcript.");
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response = sttRestTemplate.postForEntity(apiUrl, requestEntity, String.class);
+
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            return extractText(response.getBody());
+        }
+        return "";
+    }
+
+    /**
+     * The multipart body is stitched together from the precomputed form fields, a WAV header
+     * and the window's ring-buffer segments, so the audio itself is never copied.
+     */
+    @Override
+    public String transcribeWindow(AudioWindow window) throws IOException, InterruptedException {
+        List<HttpRequest.BodyPublisher> parts = new ArrayList<>(5);
+        parts.add(HttpRequest.BodyPublishers.ofByteArray(formPrefix()));
+        parts.add(HttpRequest.BodyPublishers.ofByteArray(WavHeader.pcm16Mono(window.sampleRate(), window.length())));
+        parts.add(HttpRequest.BodyPublishers.ofByteArray(window.buffer(), window.firstOffset(), window.firstLength()));
+        if (window.secondLength() > 0) {
+            parts.add(HttpRequest.BodyPublishers.ofByteArray(window.buffer(), 0, window.secondLength()));
+        }
+        parts.add(HttpRequest.BodyPublishers.ofByteArray(FORM_SUFFIX));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new)))
+                .build();
+
+        HttpResponse<String> response = sttHttpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        return extractText(response.body());
+    }
+
+    private String extractText(String responseBody) throws IOException {
+        return objectMapper.readTree(responseBody).path("text").asText();
+    }
+
+    // Every form field except the file, built once; same fields as transcribeClip sends
+    private byte[] formPrefix() {
+        byte[] prefix = formPrefix;
+        if (prefix == null) {
+            StringBuilder form = new StringBuilder();
+            appendField(form, "model", model);
+            appendField(form, "language", "en");
+            appendField(form, "temperature", "0");
+            appendField(form, "prompt", "This is a live technical meeting transcript.");
+            form.append("--").append(BOUNDARY).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"audio.wav\"\r\n")
+                .append("Content-Type: audio/wav\r\n\r\n");
+            prefix = form.toString().getBytes(StandardCharsets.UTF_8);
+            formPrefix = prefix;
+        }
+        return prefix;
+    }
+
+    private static void appendField(StringBuilder form, String name, String value) {
+        form.append("--").append(BOUNDARY).append("\r\n")
+            .append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+            .append(value).append("\r\n");
+    }
+}
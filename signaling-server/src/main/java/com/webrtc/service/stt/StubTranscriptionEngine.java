@@ -0,0 +1,63 @@
+package com.webrtc.service.stt;
+
+import com.webrtc.audio.AudioWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Offline stand-in for load tests and benchmarks: waits a configurable latency, then returns
+ * a sentence picked by a checksum of the audio, so the same input always gives the same text.
+ */
+@Component
+public class StubTranscriptionEngine implements TranscriptionEngine {
+
+    public static final String NAME = "stub";
+
+    private static final List<String> SENTENCES = List.of(
+        "Let's go over the renewal terms.",
+        "The quarterly numbers look good.",
+        "Can you share your screen for a second?",
+        "I think the latency issue is on the TURN server.",
+        "We should ship the fix before the next release.",
+        "Who owns the follow up with the customer?",
+        "The migration finished without any errors.",
+        "Let's circle back on pricing next week."
+    );
+
+    private final Duration latency;
+
+    public StubTranscriptionEngine(@Value("${stt.engine.stub.latency:200ms}") Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String transcribeClip(byte[] audio, String filename) throws InterruptedException {
+        CRC32 crc = new CRC32();
+        crc.update(audio);
+        return reply(crc);
+    }
+
+    @Override
+    public String transcribeWindow(AudioWindow window) throws InterruptedException {
+        CRC32 crc = new CRC32();
+        crc.update(window.buffer(), window.firstOffset(), window.firstLength());
+        crc.update(window.buffer(), 0, window.secondLength());
+        return reply(crc);
+    }
+
+    private String reply(CRC32 crc) throws InterruptedException {
+        if (!latency.isZero()) {
+            Thread.sleep(latency);
+        }
+        return SENTENCES.get((int) (crc.getValue() % SENTENCES.size()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.webrtc.service.stt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drops hallucinated transcripts (what STT returns for silence, music or noise), with a
+ * {@link PhraseMatcher} compiled per tenant.
+ *
+ * Phrases come from stt.filter.phrases-file when set, and are re-read whenever the file
+ * changes; otherwise the built-in lists below apply. File format:
+ *
+ *   {
+ *     "default": { "banned": [...], "contains": [...], "repeat": [...] },
+ *     "tenants": { "acme": { "contains": ["acme radio"] } }
+ *   }
+ *
+ * Lists under "default" replace the built-in ones; a tenant's lists are added to the defaults.
+ */
+@Component
+public class TranscriptFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptFilter.class);
+
+    // LIST OF BANNED PHRASES (Hallucinations): dropped when they are the whole transcript
+    private static final List<String> BANNED_PHRASES = List.of(
+        "thank you", "thanks", "bye", "peace", "shush", "okay",
+        "silence", "you", "copyright", "mbc news", "subtitles",
+        "watching", "amara.org", "closed captioning", "dick",
+        "transcribed by https://otter.ai"
+    );
+    // Dropped wherever they appear (YouTube outros, Whisper's favourite Ukrainian sign-off)
+    private static final List<String> CONTAINS_PHRASES = List.of("thank you for watching", "thanks for watching", "дякую");
+    // Dropped when they appear more than once ("Thank you. Thank you. Thank you.")
+    private static final List<String> REPEAT_PHRASES = List.of("thank");
+
+    private record Matchers(PhraseMatcher defaults, Map<String, PhraseMatcher> byTenant) {
+    }
+
+    @Value("${stt.filter.phrases-file:}")
+    private String phrasesFile;
+
+    @Value("${stt.filter.max-sentence-repeats:3}")
+    private int maxSentenceRepeats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<PhraseMatcher.Verdict, Counter> verdicts = new EnumMap<>(PhraseMatcher.Verdict.class);
+    private volatile Matchers matchers;
+    private long loadedModified = -1;
+
+    @PostConstruct
+    public void init() {
+        for (PhraseMatcher.Verdict verdict : PhraseMatcher.Verdict.values()) {
+            verdicts.put(verdict, Counter.builder("stt.filter.transcripts")
+                    .description("Transcripts checked by the hallucination filter, by outcome")
+                    .tag("verdict", verdict.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        matchers = new Matchers(PhraseMatcher.compile(BANNED_PHRASES, CONTAINS_PHRASES, REPEAT_PHRASES, maxSentenceRepeats), Map.of());
+        reloadIfChanged();
+    }
+
+    // True if the transcript should be shown
+    public boolean accept(String tenant, String text) {
+        return check(tenant, text) == PhraseMatcher.Verdict.PASS;
+    }
+
+    public PhraseMatcher.Verdict check(String tenant, String text) {
+        Matchers current = matchers;
+        PhraseMatcher matcher = tenant != null ? current.byTenant.getOrDefault(tenant, current.defaults) : current.defaults;
+        PhraseMatcher.Verdict verdict = matcher.check(text);
+        verdicts.get(verdict).increment();
+        return verdict;
+    }
+
+    @Scheduled(fixedDelayString = "${stt.filter.reload-interval-ms:10000}")
+    public synchronized void reloadIfChanged() {
+        if (phrasesFile.isBlank()) return;
+        try {
+            Path path = Path.of(phrasesFile);
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == loadedModified) return;
+            matchers = load(objectMapper.readTree(path.toFile()));
+            loadedModified = modified;
+            log.info("Transcript filter loaded from {} (tenants: {})", phrasesFile, matchers.byTenant.keySet());
+        } catch (Exception e) {
+            // Keep filtering with the last good lists
+            log.warn("Could not load transcript filter from {}: {}", phrasesFile, e.getMessage());
+        }
+    }
+
+    private Matchers load(JsonNode root) {
+        JsonNode defaults = root.path("default");
+        List<String> banned = list(defaults, "banned", BANNED_PHRASES);
+        List<String> contains = list(defaults, "contains", CONTAINS_PHRASES);
+        List<String> repeat = list(defaults, "repeat", REPEAT_PHRASES);
+
+        Map<String, PhraseMatcher> byTenant = new HashMap<>();
+        for (Map.Entry<String, JsonNode> tenant : root.path("tenants").properties()) {
+            byTenant.put(tenant.getKey(), PhraseMatcher.compile(
+                    concat(banned, list(tenant.getValue(), "banned", List.of())),
+                    concat(contains, list(tenant.getValue(), "contains", List.of())),
+                    concat(repeat, list(tenant.getValue(), "repeat", List.of())),
+                    maxSentenceRepeats));
+        }
+        return new Matchers(PhraseMatcher.compile(banned, contains, repeat, maxSentenceRepeats), byTenant);
+    }
+
+    private static List<String> list(JsonNode node, String field, List<String> fallback) {
+        JsonNode array = node.get(field);
+        if (array == null || !array.isArray()) return fallback;
+        List<String> phrases = new ArrayList<>();
+        array.forEach(phrase -> phrases.add(phrase.asText()));
+        return phrases;
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+}
@@ -0,0 +1,27 @@
+package com.webrtc.service.stt;
+
+import com.webrtc.audio.AudioWindow;
+
+/**
+ * A speech-to-text backend. Implementations are Spring beans, picked per tenant by
+ * {@link TranscriptionEngines} using the name they report.
+ *
+ * Engines return the raw transcript; hallucination filtering is done once, in
+ * AiTranscriptionService, whichever engine produced the text.
+ */
+public interface TranscriptionEngine {
+
+    // Name used in the stt.engine.* properties
+    String name();
+
+    // False when the engine is present but not configured (e.g. no local model)
+    default boolean isAvailable() {
+        return true;
+    }
+
+    // An encoded clip as uploaded by the browser (webm/opus from MediaRecorder, or wav)
+    String transcribeClip(byte[] audio, String filename) throws Exception;
+
+    // A window of 16-bit little-endian mono PCM from the streaming path
+    String transcribeWindow(AudioWindow window) throws Exception;
+}
@@ -0,0 +1,74 @@
+package com.webrtc.service.stt;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the {@link TranscriptionEngine} for a tenant.
+ *
+ * stt.engine.default names the engine for everyone; stt.engine.tenants overrides it per
+ * tenant as a comma-separated list of tenant=engine pairs, e.g. "acme=local,loadtest=stub".
+ * Unknown or unconfigured engines fail startup rather than the first call.
+ */
+@Component
+public class TranscriptionEngines {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptionEngines.class);
+
+    private final Map<String, TranscriptionEngine> byName = new HashMap<>();
+    private final Map<String, TranscriptionEngine> byTenant = new HashMap<>();
+    private final String defaultName;
+    private final String tenantOverrides;
+    private TranscriptionEngine defaultEngine;
+
+    public TranscriptionEngines(List<TranscriptionEngine> engines,
+                                @Value("${stt.engine.default:remote}") String defaultName,
+                                @Value("${stt.engine.tenants:}") String tenantOverrides) {
+        for (TranscriptionEngine engine : engines) {
+            byName.put(engine.name(), engine);
+        }
+        this.defaultName = defaultName.trim();
+        this.tenantOverrides = tenantOverrides;
+    }
+
+    @PostConstruct
+    public void resolve() {
+        defaultEngine = lookup(defaultName);
+        for (String pair : tenantOverrides.split(",")) {
+            if (pair.isBlank()) continue;
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalStateException("stt.engine.tenants: expected tenant=engine, got '" + pair.trim() + "'");
+            }
+            byTenant.put(pair.substring(0, eq).trim(), lookup(pair.substring(eq + 1).trim()));
+        }
+        log.info("STT engine {} (tenant overrides: {})", defaultEngine.name(), byTenant.keySet());
+    }
+
+    // Tenant may be null (tokens issued before tenants were added)
+    public TranscriptionEngine forTenant(String tenant) {
+        if (tenant != null) {
+            TranscriptionEngine engine = byTenant.get(tenant);
+            if (engine != null) return engine;
+        }
+        return defaultEngine;
+    }
+
+    private TranscriptionEngine lookup(String name) {
+        TranscriptionEngine engine = byName.get(name);
+        if (engine == null) {
+            throw new IllegalStateException("Unknown STT engine '" + name + "', expected one of " + byName.keySet());
+        }
+        if (!engine.isAvailable()) {
+            throw new IllegalStateException("STT engine '" + name + "' is not configured");
+        }
+        return engine;
+    }
+}
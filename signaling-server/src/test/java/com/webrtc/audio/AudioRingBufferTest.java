@@ -0,0 +1,151 @@
+package com.webrtc.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioRingBufferTest {
+
+    // 8 kHz, 1 s: 16000 bytes
+    private final AudioRingBuffer ring = new AudioRingBuffer(8000, 1);
+    private long streamed;
+
+    // The next length bytes of the stream; byte n of the stream is n % 251, so any stretch is recognisable
+    private ByteBuffer next(int length) {
+        byte[] frame = new byte[length];
+        for (int i = 0; i < length; i++) frame[i] = (byte) ((streamed + i) % 251);
+        streamed += length;
+        return ByteBuffer.wrap(frame);
+    }
+
+    private static byte[] stream(long from, long to) {
+        byte[] expected = new byte[(int) (to - from)];
+        for (int i = 0; i < expected.length; i++) expected[i] = (byte) ((from + i) % 251);
+        return expected;
+    }
+
+    static byte[] bytes(AudioWindow window) {
+        byte[] out = new byte[window.length()];
+        System.arraycopy(window.buffer(), window.firstOffset(), out, 0, window.firstLength());
+        System.arraycopy(window.buffer(), 0, out, window.firstLength(), window.secondLength());
+        return out;
+    }
+
+    @Test
+    void windowsReadAcrossTheWrapWithoutCopying() {
+        assertThat(ring.write(next(12000))).isZero();
+        AudioWindow first = ring.takeWindow(20000);
+        assertThat(first.secondLength()).isZero();
+        assertThat(bytes(first)).isEqualTo(stream(0, 12000));
+        ring.release(first);
+
+        assertThat(ring.write(next(8000))).isZero();
+        assertThat(ring.available()).isEqualTo(8000);
+        AudioWindow wrapped = ring.takeWindow(20000);
+
+        assertThat(wrapped.firstOffset()).isEqualTo(12000);
+        assertThat(wrapped.firstLength()).isEqualTo(4000);
+        assertThat(wrapped.secondLength()).isEqualTo(4000);
+        assertThat(bytes(wrapped)).isEqualTo(stream(12000, 20000));
+        assertThat(wrapped.durationMillis()).isEqualTo(500);
+    }
+
+    @Test
+    void aFullRingOverwritesTheOldestAudio() {
+        ring.write(next(16000));
+
+        assertThat(ring.write(next(4000))).isEqualTo(4000);
+
+        assertThat(ring.available()).isEqualTo(16000);
+        assertThat(bytes(ring.takeWindow(16000))).isEqualTo(stream(4000, 20000));
+        assertThat(ring.droppedBytes()).isEqualTo(4000);
+    }
+
+    @Test
+    void aWindowInFlightIsNeverOverwritten() {
+        ring.write(next(10000));
+        AudioWindow inFlight = ring.takeWindow(10000);
+
+        // Only 6000 bytes are free in front of the window: the rest of this frame is lost, and the next one
+        assertThat(ring.write(next(8000))).isEqualTo(2000);
+        assertThat(ring.write(next(2000))).isEqualTo(2000);
+
+        assertThat(bytes(inFlight)).isEqualTo(stream(0, 10000));
+        assertThat(ring.available()).isZero();
+        ring.release(inFlight);
+        assertThat(bytes(ring.takeWindow(16000))).isEqualTo(stream(10000, 16000));
+    }
+
+    @Test
+    void overwritingResumesOnceTheWindowIsReleased() {
+        ring.write(next(10000));
+        ring.release(ring.takeWindow(4000));
+
+        // 6000 unread, 10000 free: the frame fits after overwriting the oldest 2000 unread
+        assertThat(ring.write(next(12000))).isEqualTo(2000);
+
+        byte[] unread = bytes(ring.takeWindow(16000));
+        assertThat(unread).hasSize(16000);
+        assertThat(Arrays.copyOfRange(unread, 0, 4000)).isEqualTo(stream(6000, 10000));
+        assertThat(Arrays.copyOfRange(unread, 4000, 16000)).isEqualTo(stream(10000, 22000));
+    }
+
+    @Test
+    void aFrameLongerThanTheRingKeepsItsNewestPart() {
+        assertThat(ring.write(next(20000))).isEqualTo(4000);
+
+        assertThat(bytes(ring.takeWindow(16000))).isEqualTo(stream(4000, 20000));
+    }
+
+    @Test
+    void onlyWholeSamplesAreStored() {
+        assertThat(ring.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }))).isEqualTo(1);
+        assertThat(ring.available()).isEqualTo(2);
+
+        // An odd maxBytes is rounded down to a whole sample
+        ring.write(ByteBuffer.wrap(new byte[] { 4, 5 }));
+        assertThat(ring.takeWindow(3).length()).isEqualTo(2);
+    }
+
+    @Test
+    void oneWindowAtATime() {
+        assertThat(ring.takeWindow(100)).isNull();
+        ring.write(next(1000));
+
+        AudioWindow window = ring.takeWindow(600);
+        assertThat(window.length()).isEqualTo(600);
+        assertThat(ring.takeWindow(600)).isNull();
+        assertThat(ring.available()).isZero();
+
+        ring.release(window);
+        assertThat(ring.available()).isEqualTo(400);
+        assertThat(bytes(ring.takeWindow(600))).isEqualTo(stream(600, 1000));
+    }
+
+    @Test
+    void slicesStayInTheSameArrayAcrossTheWrap() {
+        ring.write(next(12000));
+        ring.release(ring.takeWindow(12000));
+        ring.write(next(8000));
+        AudioWindow window = ring.takeWindow(8000);
+
+        AudioWindow straddling = window.slice(1000, 6000);
+        assertThat(straddling.buffer()).isSameAs(window.buffer());
+        assertThat(straddling.firstOffset()).isEqualTo(13000);
+        assertThat(straddling.firstLength()).isEqualTo(3000);
+        assertThat(straddling.secondLength()).isEqualTo(2000);
+        assertThat(bytes(straddling)).isEqualTo(stream(13000, 18000));
+
+        AudioWindow head = window.slice(0, 1000);
+        assertThat(head.secondLength()).isZero();
+        assertThat(bytes(head)).isEqualTo(stream(12000, 13000));
+
+        AudioWindow tail = window.slice(5000, 7000);
+        assertThat(tail.firstOffset()).isEqualTo(1000);
+        assertThat(tail.secondLength()).isZero();
+        assertThat(bytes(tail)).isEqualTo(stream(17000, 19000));
+    }
+}
@@ -0,0 +1,110 @@
+package com.webrtc.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoiceActivityDetectorTest {
+
+    // 8 kHz: a 20 ms frame is 160 samples, 320 bytes
+    private static final int RATE = 8000;
+
+    // -40 dBFS threshold, at least 100 ms of speech, 100 ms of padding
+    private final VoiceActivityDetector vad = new VoiceActivityDetector(-40, 100, 100);
+
+    private final ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+
+    private VoiceActivityDetectorTest silence(int millis) {
+        return samples(millis, 0);
+    }
+
+    // A square wave around -10 dBFS
+    private VoiceActivityDetectorTest speech(int millis) {
+        return samples(millis, 10_000);
+    }
+
+    private VoiceActivityDetectorTest samples(int millis, int amplitude) {
+        for (int i = 0; i < RATE * millis / 1000; i++) {
+            int sample = i % 2 == 0 ? amplitude : -amplitude;
+            pcm.write(sample & 0xff);
+            pcm.write((sample >> 8) & 0xff);
+        }
+        return this;
+    }
+
+    private AudioWindow window() {
+        byte[] bytes = pcm.toByteArray();
+        return new AudioWindow(bytes, 0, bytes.length, 0, RATE);
+    }
+
+    @Test
+    void silenceIsDropped() {
+        assertThat(vad.detect(silence(1000).window())).isNull();
+        // Background noise well under the threshold
+        pcm.reset();
+        assertThat(vad.detect(samples(1000, 50).window())).isNull();
+    }
+
+    @Test
+    void aBlipShorterThanMinSpeechIsDropped() {
+        assertThat(vad.detect(silence(500).speech(60).silence(500).window())).isNull();
+    }
+
+    @Test
+    void speechThroughoutIsPassedOnAsIs() {
+        AudioWindow window = speech(1000).window();
+
+        assertThat(vad.detect(window)).isSameAs(window);
+    }
+
+    @Test
+    void silenceAroundSpeechIsTrimmedLeavingThePadding() {
+        AudioWindow window = silence(500).speech(400).silence(500).window();
+
+        AudioWindow trimmed = vad.detect(window);
+
+        // Speech is bytes 8000..14400; 100 ms (1600 bytes) kept either side
+        assertThat(trimmed.buffer()).isSameAs(window.buffer());
+        assertThat(trimmed.firstOffset()).isEqualTo(6400);
+        assertThat(trimmed.length()).isEqualTo(9600);
+        assertThat(trimmed.durationMillis()).isEqualTo(600);
+    }
+
+    @Test
+    void paddingStopsAtTheWindowEdges() {
+        AudioWindow window = silence(40).speech(400).silence(500).window();
+
+        AudioWindow trimmed = vad.detect(window);
+
+        assertThat(trimmed.firstOffset()).isZero();
+        assertThat(trimmed.length()).isEqualTo(640 + 6400 + 1600);
+    }
+
+    @Test
+    void speechSplitByTheRingWrapIsFound() {
+        // 4000 bytes of silence at the end of the array, then 4000 of speech at its start
+        byte[] ring = new byte[16000];
+        byte[] voiced = speech(250).window().buffer();
+        System.arraycopy(voiced, 0, ring, 0, voiced.length);
+        AudioWindow window = new AudioWindow(ring, 12000, 4000, 4000, RATE);
+
+        AudioWindow trimmed = new VoiceActivityDetector(-40, 100, 0).detect(window);
+
+        // Frame 12 straddles the wrap and is half speech, so it counts
+        assertThat(trimmed.firstOffset()).isEqualTo(12000 + 12 * 320);
+        assertThat(trimmed.firstLength()).isEqualTo(160);
+        assertThat(trimmed.secondLength()).isEqualTo(4000);
+    }
+
+    @Test
+    void aTrailingPartialFrameIsJudgedOnItsOwnSamples() {
+        AudioWindow window = silence(100).speech(10).window();
+
+        AudioWindow trimmed = new VoiceActivityDetector(-40, 20, 0).detect(window);
+
+        assertThat(trimmed.firstOffset()).isEqualTo(1600);
+        assertThat(trimmed.length()).isEqualTo(160);
+    }
+}
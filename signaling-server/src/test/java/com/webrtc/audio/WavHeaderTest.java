@@ -0,0 +1,118 @@
+package com.webrtc.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavHeaderTest {
+
+    private static byte[] wav(int sampleRate, byte[] data) {
+        byte[] file = Arrays.copyOf(WavHeader.pcm16Mono(sampleRate, data.length), WavHeader.LENGTH + data.length);
+        System.arraycopy(data, 0, file, WavHeader.LENGTH, data.length);
+        return file;
+    }
+
+    private static ByteBuffer edit(byte[] file) {
+        return ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    void readsBackWhatItWrote() {
+        byte[] file = wav(16000, new byte[] { 1, 2, 3, 4, 5, 6 });
+
+        AudioWindow pcm = WavHeader.pcm16MonoData(file);
+
+        assertThat(pcm.buffer()).isSameAs(file);
+        assertThat(pcm.firstOffset()).isEqualTo(WavHeader.LENGTH);
+        assertThat(pcm.length()).isEqualTo(6);
+        assertThat(pcm.sampleRate()).isEqualTo(16000);
+        assertThat(edit(file).getInt(4)).isEqualTo(36 + 6);
+        assertThat(edit(file).getInt(28)).isEqualTo(32000);
+    }
+
+    @Test
+    void refusesWhatIsNotAWavFile() {
+        assertThat(WavHeader.pcm16MonoData(new byte[0])).isNull();
+        assertThat(WavHeader.pcm16MonoData("RIFF".getBytes())).isNull();
+        // webm/opus from MediaRecorder starts with an EBML header
+        assertThat(WavHeader.pcm16MonoData(new byte[] { 0x1a, 0x45, (byte) 0xdf, (byte) 0xa3, 0, 0, 0, 0, 0, 0, 0, 0, 0 })).isNull();
+
+        byte[] notWave = wav(16000, new byte[4]);
+        notWave[8] = 'A';
+        assertThat(WavHeader.pcm16MonoData(notWave)).isNull();
+    }
+
+    @Test
+    void refusesAnythingButSixteenBitMonoPcm() {
+        byte[] stereo = wav(16000, new byte[4]);
+        edit(stereo).putShort(22, (short) 2);
+        assertThat(WavHeader.pcm16MonoData(stereo)).isNull();
+
+        byte[] floats = wav(16000, new byte[4]);
+        edit(floats).putShort(20, (short) 3);
+        assertThat(WavHeader.pcm16MonoData(floats)).isNull();
+
+        byte[] eightBit = wav(16000, new byte[4]);
+        edit(eightBit).putShort(34, (short) 8);
+        assertThat(WavHeader.pcm16MonoData(eightBit)).isNull();
+    }
+
+    @Test
+    void refusesTruncatedOrInconsistentHeaders() {
+        byte[] file = wav(16000, new byte[4]);
+
+        // Cut inside the fmt chunk
+        assertThat(WavHeader.pcm16MonoData(Arrays.copyOf(file, 30))).isNull();
+        // Cut before the data chunk
+        assertThat(WavHeader.pcm16MonoData(Arrays.copyOf(file, 36))).isNull();
+
+        byte[] shortFmt = file.clone();
+        edit(shortFmt).putInt(16, 12);
+        assertThat(WavHeader.pcm16MonoData(shortFmt)).isNull();
+
+        byte[] negative = file.clone();
+        edit(negative).putInt(16, -8);
+        assertThat(WavHeader.pcm16MonoData(negative)).isNull();
+
+        byte[] oversizedFmt = file.clone();
+        edit(oversizedFmt).putInt(16, 1_000_000);
+        assertThat(WavHeader.pcm16MonoData(oversizedFmt)).isNull();
+
+        // data before fmt: no sample rate to go by
+        byte[] dataFirst = new byte[12 + 8 + 4];
+        System.arraycopy(file, 0, dataFirst, 0, 12);
+        System.arraycopy(file, 36, dataFirst, 12, 12);
+        assertThat(WavHeader.pcm16MonoData(dataFirst)).isNull();
+    }
+
+    @Test
+    void aDataChunkLongerThanTheFileIsReadToTheLastWholeSample() {
+        byte[] file = wav(8000, new byte[] { 1, 2, 3, 4, 5 });
+        edit(file).putInt(40, 1_000);
+
+        AudioWindow pcm = WavHeader.pcm16MonoData(file);
+
+        assertThat(pcm.length()).isEqualTo(4);
+    }
+
+    @Test
+    void skipsOtherChunksIncludingTheirPadByte() {
+        byte[] plain = wav(8000, new byte[] { 9, 9 });
+        // A 3-byte LIST chunk (plus its pad byte) between fmt and data
+        byte[] list = { 'L', 'I', 'S', 'T', 3, 0, 0, 0, 'a', 'b', 'c', 0 };
+        byte[] file = new byte[plain.length + list.length];
+        System.arraycopy(plain, 0, file, 0, 36);
+        System.arraycopy(list, 0, file, 36, list.length);
+        System.arraycopy(plain, 36, file, 36 + list.length, plain.length - 36);
+
+        AudioWindow pcm = WavHeader.pcm16MonoData(file);
+
+        assertThat(pcm.firstOffset()).isEqualTo(WavHeader.LENGTH + list.length);
+        assertThat(pcm.length()).isEqualTo(2);
+        assertThat(pcm.sampleRate()).isEqualTo(8000);
+    }
+}
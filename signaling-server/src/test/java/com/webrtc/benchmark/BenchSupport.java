@@ -0,0 +1,87 @@
+package com.webrtc.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared plumbing for the benchmarks that boot the whole application: a stub STT endpoint
+ * and a registered, logged-in user.
+ */
+final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    /**
+     * An OpenAI-style transcription endpoint on a random local port that answers every request
+     * with the same transcript after latencyMs. Stop it with {@link HttpServer#stop(int)}.
+     */
+    static HttpServer startStubStt(String transcript, long latencyMs) throws IOException {
+        // Without this the JDK server's split header/body writes hit Nagle + delayed ACK (~40ms per reply)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        byte[] body = ("{\"text\":\"" + transcript + "\"}").getBytes(StandardCharsets.UTF_8);
+        // Platform threads: the JDK HTTP server reads under a monitor, which would pin virtual threads.
+        // Daemon, so a benchmark fork can exit without stopping it.
+        ScheduledExecutorService threads = Executors.newScheduledThreadPool(4, Thread.ofPlatform().daemon(true).factory());
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (latencyMs <= 0) {
+                reply(exchange, body);
+            } else {
+                // A scheduled reply rather than a sleeping handler, so the stub never runs out of threads
+                threads.schedule(() -> reply(exchange, body), latencyMs, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.setExecutor(threads);
+        server.start();
+        return server;
+    }
+
+    static String stubSttUrl(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1/audio/transcriptions";
+    }
+
+    // Registers username in tenant and returns a login token
+    static String registerAndLogin(HttpClient client, String base, String username, String tenant) throws Exception {
+        post(client, base + "/auth/register", "{\"username\":\"" + username + "\",\"password\":\"bench\",\"email\":\""
+                + username + "@example.com\",\"tenantName\":\"" + tenant + "\"}");
+        String login = post(client, base + "/auth/login", "{\"username\":\"" + username + "\",\"password\":\"bench\"}");
+        Matcher token = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(login);
+        if (!token.find()) throw new IllegalStateException("Login failed: " + login);
+        return token.group(1);
+    }
+
+    private static String post(HttpClient client, String url, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static void reply(HttpExchange exchange, byte[] body) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            out.write(body);
+        } catch (IOException e) {
+            System.err.println("Stub reply failed: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+}
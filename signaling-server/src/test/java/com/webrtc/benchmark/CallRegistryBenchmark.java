@@ -0,0 +1,104 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.call.Call;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.call.EndReason;
+import com.webrtc.cluster.ClusterNode;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.timer.HashedWheelTimer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Call registry operations with 100k calls already live: a full ring -> answer -> hangup
+ * lifecycle, lookups by call id and by participant, and the cost of arming and cancelling
+ * a call timeout on the timer wheel vs a ScheduledThreadPoolExecutor holding as many.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallRegistryBenchmark {
+
+    private static final int LIVE_CALLS = 100_000;
+
+    private HashedWheelTimer timer;
+    private IoExecutors ioExecutors;
+    private ScheduledThreadPoolExecutor executor;
+    private CallRegistry registry;
+    private long[] liveIds;
+    private String[] liveUsers;
+
+    @Setup(Level.Trial)
+    public void start() {
+        timer = new HashedWheelTimer("bench-timer", 100, TimeUnit.MILLISECONDS, 512);
+        ioExecutors = new IoExecutors(false, 1);
+        registry = new CallRegistry(timer, ioExecutors, new ClusterNode("bench"), Duration.ofSeconds(45), Duration.ofHours(2), 0);
+        liveIds = new long[LIVE_CALLS];
+        liveUsers = new String[LIVE_CALLS];
+        for (int i = 0; i < LIVE_CALLS; i++) {
+            Call call = registry.ring("caller-" + i, "callee-" + i, "bench");
+            registry.answer(call);
+            liveIds[i] = call.getId();
+            liveUsers[i] = "callee-" + i;
+        }
+
+        // The same number of pending timeouts on a JDK scheduler, cancelled ones removed eagerly
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < LIVE_CALLS; i++) {
+            executor.schedule(() -> { }, 2, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        timer.stop();
+        ioExecutors.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean lifecycle() {
+        Call call = registry.ring("alice", "bob", "bench");
+        registry.answer(call);
+        return registry.end(call, "alice", EndReason.HANGUP);
+    }
+
+    @Benchmark
+    public Call findById() {
+        return registry.find(liveIds[ThreadLocalRandom.current().nextInt(LIVE_CALLS)]);
+    }
+
+    @Benchmark
+    public Set<Call> callsOfUser() {
+        return registry.callsOf(liveUsers[ThreadLocalRandom.current().nextInt(LIVE_CALLS)]);
+    }
+
+    @Benchmark
+    public boolean wheelScheduleCancel() {
+        return timer.schedule(() -> { }, 45, TimeUnit.SECONDS).cancel();
+    }
+
+    @Benchmark
+    public boolean executorScheduleCancel() {
+        ScheduledFuture<?> future = executor.schedule(() -> { }, 45, TimeUnit.SECONDS);
+        return future.cancel(false);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CallRegistryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
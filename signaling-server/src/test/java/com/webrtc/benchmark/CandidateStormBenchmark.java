@@ -0,0 +1,145 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.SignalingServerApplication;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.security.JwtHandshakeInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Call setup as the signaling server sees it: the answerer trickles a burst of ICE candidates
+ * and then renegotiates, with and without candidate coalescing. Reports the time until the
+ * caller has everything and, as "frames", how many socket writes that took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateStormBenchmark {
+
+    private static final int CANDIDATES = 12;
+    private static final String OFFER = "{\"type\":\"CALL\",\"action\":\"OFFER\",\"sender\":\"bob\",\"receiver\":\"alice\","
+            + "\"sdp\":{\"type\":\"offer\",\"sdp\":\"v=0\\r\\n\"}}";
+
+    @Param({"0ms", "5ms"})
+    public String window;
+
+    private ConfigurableApplicationContext context;
+    private SignalingHandler handler;
+    private StubSession bob;
+    private TextMessage[] candidates;
+    private final AtomicLong written = new AtomicLong();
+    private volatile CountDownLatch offerSeen;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Frames {
+        public long frames;
+    }
+
+    // Alice's socket: counts writes and waits for the offer that ends the burst
+    private final class StubSession implements WebSocketSession {
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        StubSession(String id, String username) {
+            this.id = id;
+            // What JwtHandshakeInterceptor would have put there
+            attributes.put(JwtHandshakeInterceptor.USERNAME_ATTR, username);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            written.incrementAndGet();
+            CountDownLatch latch = offerSeen;
+            if (latch != null && ((TextMessage) message).getPayload().contains("\"OFFER\"")) latch.countDown();
+        }
+
+        @Override public String getId() { return id; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+        @Override public Map<String, Object> getAttributes() { return attributes; }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getTextMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getBinaryMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() { }
+        @Override public void close(CloseStatus status) { }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(SignalingServerApplication.class).run(
+                "--server.port=0",
+                "--signaling.candidates.coalesce-window=" + window,
+                "--cluster.in-memory.name=storm-bench-" + System.nanoTime(),
+                "--spring.datasource.url=jdbc:h2:mem:storm-bench",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN");
+        handler = context.getBean(SignalingHandler.class);
+
+        handler.handleMessage(new StubSession("a", "alice"), new TextMessage("{\"type\":\"REGISTER\",\"username\":\"alice\"}"));
+        bob = new StubSession("b", "bob");
+        handler.handleMessage(bob, new TextMessage("{\"type\":\"REGISTER\",\"username\":\"bob\"}"));
+
+        candidates = new TextMessage[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidates[i] = new TextMessage("{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"bob\",\"receiver\":\"alice\","
+                    + "\"candidate\":{\"candidate\":\"candidate:" + i + " 1 udp 2122260223 192.168.1." + i
+                    + " 5" + i + "123 typ host generation 0\",\"sdpMid\":\"0\",\"sdpMLineIndex\":0}}");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void setupBurst(Frames frames) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        offerSeen = latch;
+        long before = written.get();
+        for (TextMessage candidate : candidates) {
+            handler.handleMessage(bob, candidate);
+        }
+        handler.handleMessage(bob, new TextMessage(OFFER));
+        if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Offer not delivered within 10s");
+        frames.frames += written.get() - before;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CandidateStormBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.webrtc.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webrtc.SignalingServerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests/sec on POST /api/audio/transcribe with the principal cache off vs on.
+ *
+ * Boots the real application (H2, security chain, JwtAuthFilter) on a random port and
+ * points openai.api.url at an instant local stub, so authentication is the variable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ChunkUploadAuthBenchmark {
+
+    private static final String BOUNDARY = "----bench";
+
+    @Param({"false", "true"})
+    public boolean principalCache;
+
+    private ConfigurableApplicationContext context;
+    private HttpServer stubStt;
+    private HttpClient client;
+    private HttpRequest upload;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        stubStt = BenchSupport.startStubStt("Let's go over the renewal terms.", 0);
+
+        context = new SpringApplicationBuilder(SignalingServerApplication.class).run(
+                "--server.port=0",
+                "--security.principal-cache.enabled=" + principalCache,
+                "--openai.api.url=" + BenchSupport.stubSttUrl(stubStt),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN");
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port;
+        client = HttpClient.newHttpClient();
+
+        String token = BenchSupport.registerAndLogin(client, base, "bench", "acme");
+
+        upload = HttpRequest.newBuilder(URI.create(base + "/api/audio/transcribe"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipartChunk()))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        stubStt.stop(0);
+    }
+
+    @Benchmark
+    public int uploadChunk() throws Exception {
+        HttpResponse<Void> response = client.send(upload, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) throw new IllegalStateException("HTTP " + response.statusCode());
+        return response.statusCode();
+    }
+
+    private static byte[] multipartChunk() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"audio\"; filename=\"chunk.webm\"\r\n"
+                + "Content-Type: audio/webm\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(new byte[8 * 1024]);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ChunkUploadAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,157 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.SignalingServerApplication;
+import com.webrtc.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signaling round trip (alice -> bob -> alice) with both users on one node vs on two nodes.
+ *
+ * Two application contexts run in this JVM as separate nodes; alice always connects to the
+ * first, bob to the first (same-node) or the second (cross-node). Cross-node frames go
+ * through the session directory and the message bus: in-memory, or an embedded Kafka broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClusterRoutingBenchmark {
+
+    private static final String OFFER = "{\"type\":\"CALL\",\"action\":\"OFFER\",\"sender\":\"alice\",\"receiver\":\"bob\","
+            + "\"sdp\":{\"type\":\"offer\",\"sdp\":\"v=0\\r\\no=- 4611731400430051336 2 IN IP4 127.0.0.1\\r\\n\"}}";
+    private static final String ANSWER = "{\"type\":\"CALL\",\"action\":\"ANSWER\",\"sender\":\"bob\",\"receiver\":\"alice\","
+            + "\"sdp\":{\"type\":\"answer\",\"sdp\":\"v=0\\r\\no=- 4611731400430051337 2 IN IP4 127.0.0.1\\r\\n\"}}";
+
+    @Param({"same-node", "cross-node"})
+    public String topology;
+
+    @Param({"in-memory", "kafka"})
+    public String bus;
+
+    private EmbeddedKafkaKraftBroker kafka;
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private Client alice;
+    private Client bob;
+
+    // Collects text frames; bob answers every frame he gets
+    private static final class Client implements WebSocket.Listener {
+        final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        final StringBuilder partial = new StringBuilder();
+        final String autoReply;
+        WebSocket socket;
+
+        Client(String autoReply) {
+            this.autoReply = autoReply;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                if (autoReply != null) {
+                    webSocket.sendText(autoReply, true);
+                } else {
+                    frames.add(partial.toString());
+                }
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String cluster = "bench-" + System.nanoTime();
+        if (bus.equals("kafka")) {
+            kafka = new EmbeddedKafkaKraftBroker(1, 1);
+            kafka.afterPropertiesSet();
+        }
+        ConfigurableApplicationContext nodeA = startNode("node-a", cluster);
+        ConfigurableApplicationContext nodeB = topology.equals("cross-node") ? startNode("node-b", cluster) : nodeA;
+
+        alice = connect(nodeA, "alice", new Client(null));
+        bob = connect(nodeB, "bob", new Client(ANSWER));
+
+        // The directory is eventually consistent over Kafka: wait until bob is reachable
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            alice.socket.sendText(OFFER, true).join();
+            if (alice.frames.poll(500, TimeUnit.MILLISECONDS) != null) break;
+            if (System.nanoTime() > deadline) throw new IllegalStateException("bob never became reachable");
+        }
+        // Let answers to any retried offers drain before measuring
+        Thread.sleep(1_000);
+        alice.frames.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+        if (kafka != null) kafka.destroy();
+    }
+
+    @Benchmark
+    public String roundTrip() throws Exception {
+        alice.socket.sendText(OFFER, true).join();
+        String answer = alice.frames.poll(10, TimeUnit.SECONDS);
+        if (answer == null) throw new IllegalStateException("No answer within 10s");
+        return answer;
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId, String cluster) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--cluster.node-id=" + nodeId,
+                "--cluster.bus=" + bus,
+                "--cluster.in-memory.name=" + cluster,
+                "--spring.datasource.url=jdbc:h2:mem:" + cluster + "-" + nodeId,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN"));
+        if (kafka != null) {
+            args.add("--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString());
+            args.add("--cluster.kafka.sessions-topic=" + cluster + ".sessions");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SignalingServerApplication.class)
+                .run(args.toArray(String[]::new));
+        nodes.add(context);
+        return context;
+    }
+
+    // The signaling socket is authenticated at the handshake; the node's own JwtService signs the token
+    private static Client connect(ConfigurableApplicationContext node, String username, Client client) {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        String token = node.getBean(JwtService.class).generateToken(username);
+        client.socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/websocket-signaling?token=" + token), client).join();
+        client.socket.sendText("{\"type\":\"REGISTER\",\"username\":\"" + username + "\"}", true).join();
+        return client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ClusterRoutingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
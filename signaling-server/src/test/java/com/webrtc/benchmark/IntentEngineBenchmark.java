@@ -0,0 +1,76 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.service.nlp.IntentMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intent detection per transcript chunk: the old NlpService.detectGreetingAndIntent
+ * (toLowerCase + one contains per phrase, chunk by chunk, so split phrases are missed)
+ * against the streaming IntentMatcher with its dictionary grown from the built-in
+ * intents to a few hundred phrases. Scores are per chunk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntentEngineBenchmark {
+
+    @Param({"5", "300"})
+    public int phrases;
+
+    private IntentMatcher matcher;
+    private IntentMatcher.Cursor cursor;
+    private List<String> dictionary;
+    private int next;
+
+    @Setup
+    public void compile() {
+        Map<String, List<String>> intents = new LinkedHashMap<>();
+        intents.put("GREETING", List.of("hello", "hi there", "good morning"));
+        intents.put("ASSISTANCE", List.of("need help", "assist"));
+        // Synthetic tenant vocabulary: product names, competitor names, compliance phrases
+        for (int i = 5; i < phrases; i++) {
+            intents.computeIfAbsent("TOPIC" + (i % 20), k -> new ArrayList<>()).add("keyword" + i + " phrase" + (i * 7));
+        }
+        matcher = IntentMatcher.compile(intents);
+        cursor = new IntentMatcher.Cursor();
+        dictionary = intents.values().stream().flatMap(List::stream).toList();
+    }
+
+    private String chunk() {
+        String[] corpus = TranscriptFilterBenchmark.CORPUS;
+        return corpus[next++ % corpus.length];
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        String lowerText = chunk().toLowerCase();
+        for (String phrase : dictionary) {
+            if (lowerText.contains(phrase)) {
+                bh.consume(phrase);
+            }
+        }
+    }
+
+    @Benchmark
+    public int streaming(Blackhole bh) {
+        return matcher.feed(cursor, chunk(), (intent, phrase) -> bh.consume(intent));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IntentEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Tokens verified per second on one core (@Threads(1)).
+ *
+ * legacyThreeParses reproduces the old JwtAuthFilter path: extractUsername, then validateToken
+ * re-extracting username and expiration, each rebuilding the parser and re-decoding the key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private final JwtService jwtService = new JwtService();
+    private String token;
+
+    @Setup
+    public void issue() {
+        token = jwtService.generateToken("jeff", "acme");
+        jwtService.verify(token);
+    }
+
+    @Benchmark
+    public boolean legacyThreeParses() {
+        String username = legacyClaim(token, Claims::getSubject);
+        return legacyClaim(token, Claims::getSubject).equals(username)
+                && !legacyClaim(token, Claims::getExpiration).before(new Date());
+    }
+
+    @Benchmark
+    public Object singleParse() {
+        return jwtService.parseAndVerify(token);
+    }
+
+    @Benchmark
+    public Object cachedVerify() {
+        return jwtService.verify(token);
+    }
+
+    private static <T> T legacyClaim(String token, Function<Claims, T> resolver) {
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return resolver.apply(claims);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.SignalingServerApplication;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.security.JwtHandshakeInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One signaling frame about a call routed to a user with several devices open, until every
+ * socket it was meant for has been written. "pinned": the call is pinned to one device, so
+ * the cost should not depend on how many devices the user has; "unpinned": fan-out to all
+ * (what a RING does), which grows with the device count.
+ *
+ * Sockets are in-process stubs, so this measures the server's own routing cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiDeviceRoutingBenchmark {
+
+    private static final long CALL_ID = 42L;
+
+    @Param({"1", "2", "4", "8"})
+    public int devices;
+
+    @Param({"pinned", "unpinned"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private SignalingHandler handler;
+    private TextMessage answer;
+    private int expected;
+    private volatile CountDownLatch delivered;
+
+    // Counts written frames against the current message's latch
+    private final class StubSession implements WebSocketSession {
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        StubSession(String id, String username) {
+            this.id = id;
+            // What JwtHandshakeInterceptor would have put there
+            attributes.put(JwtHandshakeInterceptor.USERNAME_ATTR, username);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            CountDownLatch latch = delivered;
+            if (latch != null) latch.countDown();
+        }
+
+        @Override public String getId() { return id; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+        @Override public Map<String, Object> getAttributes() { return attributes; }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getTextMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getBinaryMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() { }
+        @Override public void close(CloseStatus status) { }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(SignalingServerApplication.class).run(
+                "--server.port=0",
+                "--cluster.in-memory.name=device-bench-" + System.nanoTime(),
+                "--spring.datasource.url=jdbc:h2:mem:device-bench",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN");
+        handler = context.getBean(SignalingHandler.class);
+
+        for (int i = 0; i < devices; i++) {
+            handler.handleMessage(new StubSession("s" + i, "agent"),
+                    new TextMessage("{\"type\":\"REGISTER\",\"username\":\"agent\",\"device\":\"d" + i + "\"}"));
+        }
+        if (mode.equals("pinned")) handler.pin(CALL_ID, "agent", "d0", null);
+        expected = mode.equals("pinned") ? 1 : devices;
+
+        answer = new TextMessage("{\"type\":\"CALL\",\"action\":\"ANSWER\",\"sender\":\"caller\",\"receiver\":\"agent\",\"callId\":"
+                + CALL_ID + ",\"sdp\":{\"type\":\"answer\",\"sdp\":\"" + "v=0\\r\\no=- 4611731400430051336 2 IN IP4 127.0.0.1\\r\\n".repeat(40) + "\"}}");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void route() throws Exception {
+        CountDownLatch latch = new CountDownLatch(expected);
+        delivered = latch;
+        handler.sendMessageToUser("agent", answer, false, CALL_ID);
+        if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Frame not delivered within 10s");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MultiDeviceRoutingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
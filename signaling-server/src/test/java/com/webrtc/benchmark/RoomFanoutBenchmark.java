@@ -0,0 +1,158 @@
+package com.webrtc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.SignalingServerApplication;
+import com.webrtc.codec.SdpDictionary;
+import com.webrtc.codec.WireFormat;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.room.Room;
+import com.webrtc.room.RoomRegistry;
+import com.webrtc.security.JwtHandshakeInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One member's offer fanned out to the rest of a room, until every member's socket has been
+ * written: one shared frame per broadcast (SignalingHandler.broadcast) vs the 1:1 path
+ * repeated per member (serialize + sendMessageToUser each time).
+ *
+ * format is what the members' sockets take: plain JSON, JSON with dictionary SDP, or CBOR.
+ * Shared broadcasts compact / encode the offer once; the per-member path does it per member.
+ *
+ * Sockets are in-process stubs, so this measures the server's own fan-out cost; per-member
+ * cost should stay flat as the room grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomFanoutBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int members;
+
+    @Param({"shared", "per-member"})
+    public String mode;
+
+    @Param({"json", "compact-sdp", "cbor"})
+    public String format;
+
+    private ConfigurableApplicationContext context;
+    private SignalingHandler handler;
+    private ObjectMapper objectMapper;
+    private Room room;
+    private Map<String, Object> offer;
+    private volatile CountDownLatch delivered;
+
+    // Counts written frames against the current broadcast's latch
+    private final class StubSession implements WebSocketSession {
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        StubSession(String id, String username) {
+            this.id = id;
+            // What JwtHandshakeInterceptor would have put there
+            attributes.put(JwtHandshakeInterceptor.USERNAME_ATTR, username);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            CountDownLatch latch = delivered;
+            if (latch != null) latch.countDown();
+        }
+
+        @Override public String getId() { return id; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+        @Override public Map<String, Object> getAttributes() { return attributes; }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return format.equals("cbor") ? WireFormat.CBOR.subprotocol() : null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getTextMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+        @Override public int getBinaryMessageSizeLimit() { return Integer.MAX_VALUE; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() { }
+        @Override public void close(CloseStatus status) { }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(SignalingServerApplication.class).run(
+                "--server.port=0",
+                "--cluster.in-memory.name=room-bench-" + System.nanoTime(),
+                "--spring.datasource.url=jdbc:h2:mem:room-bench",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN");
+        handler = context.getBean(SignalingHandler.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        for (int i = 0; i < members; i++) {
+            StubSession session = new StubSession("s" + i, "m" + i);
+            String encoding = format.equals("compact-sdp") ? ",\"sdpEncoding\":\"" + SdpDictionary.VERSION + "\"" : "";
+            handler.handleMessage(session, new TextMessage("{\"type\":\"REGISTER\",\"username\":\"m" + i + "\"" + encoding + "}"));
+            handler.handleMessage(session, new TextMessage("{\"type\":\"ROOM\",\"action\":\"JOIN\",\"room\":\"bench\"}"));
+        }
+        room = context.getBean(RoomRegistry.class).find(null, "bench");
+        // Let the join rosters drain before measuring
+        Thread.sleep(1_000);
+
+        offer = new LinkedHashMap<>();
+        offer.put("type", "CALL");
+        offer.put("action", "OFFER");
+        offer.put("sender", "m0");
+        offer.put("room", "bench");
+        offer.put("sdp", Map.of("type", "offer", "sdp", "v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\n".repeat(40)));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void broadcast() throws Exception {
+        CountDownLatch latch = new CountDownLatch(members - 1);
+        delivered = latch;
+        if (mode.equals("shared")) {
+            handler.broadcast(room, new TextMessage(objectMapper.writeValueAsString(offer)), "m0", false);
+        } else {
+            for (String member : room.members()) {
+                if (!member.equals("m0")) handler.sendMessageToUser(member, objectMapper.writeValueAsString(offer));
+            }
+        }
+        if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Broadcast not delivered within 10s");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RoomFanoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,238 @@
+package com.webrtc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.codec.SdpDictionary;
+import com.webrtc.codec.SignalingMessageCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Bytes on the wire and server CPU per frame for the frames one side of a call setup receives
+ * (RING, a browser OFFER, ANSWERED, trickled candidates, the far side's ANSWER), per mode:
+ *
+ *   plain               frames as routed today
+ *   deflate             permessage-deflate with context takeover (one window per socket)
+ *   deflate-no-context  permessage-deflate, server_no_context_takeover (each frame alone)
+ *   dict                SDP in SdpDictionary form
+ *   dict+deflate        both
+ *
+ * Deflate is done here the way Tomcat's PerMessageDeflate does it (raw deflate, sync flush,
+ * trailing 00 00 ff ff dropped), so the byte counts match what the socket would carry without
+ * a browser in the loop. Bytes per call setup are printed once per trial; the score is per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SdpCompressionBenchmark {
+
+    private static final int CANDIDATES = 8;
+    private static final int FRAMES = 4 + CANDIDATES;
+
+    // Chrome-style offer: audio + video, bundle, the usual codec set
+    private static final String OFFER_SDP = """
+            v=0
+            o=- 4611731400430051336 2 IN IP4 127.0.0.1
+            s=-
+            t=0 0
+            a=group:BUNDLE 0 1
+            a=extmap-allow-mixed
+            a=msid-semantic: WMS 7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11
+            m=audio 9 UDP/TLS/RTP/SAVPF 111 63 9 0 8 13 110 126
+            c=IN IP4 0.0.0.0
+            a=rtcp:9 IN IP4 0.0.0.0
+            a=ice-ufrag:sXq3
+            a=ice-pwd:Zr8Vd9Fq1l0Yy2nUe8kQ3tJw
+            a=ice-options:trickle
+            a=fingerprint:sha-256 3B:7A:29:6E:41:C0:5F:2D:91:8B:0E:66:A4:13:77:D9:2C:58:BA:F1:04:E3:6D:9A:55:C8:1F:30:B2:47:8E:AD
+            a=setup:actpass
+            a=mid:0
+            a=extmap:1 urn:ietf:params:rtp-hdrext:ssrc-audio-level
+            a=extmap:2 http://www.webrtc.org/experiments/rtp-hdrext/abs-send-time
+            a=extmap:3 http://www.ietf.org/id/draft-holmer-rmcat-transport-wide-cc-extensions-01
+            a=extmap:4 urn:ietf:params:rtp-hdrext:sdes:mid
+            a=sendrecv
+            a=msid:7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11 0f4b6a57-3c2e-4f8e-b0a4-6a2d9c7e1b35
+            a=rtcp-mux
+            a=rtcp-rsize
+            a=rtpmap:111 opus/48000/2
+            a=rtcp-fb:111 transport-cc
+            a=fmtp:111 minptime=10;useinbandfec=1
+            a=rtpmap:63 red/48000/2
+            a=fmtp:63 111/111
+            a=rtpmap:9 G722/8000
+            a=rtpmap:0 PCMU/8000
+            a=rtpmap:8 PCMA/8000
+            a=rtpmap:13 CN/8000
+            a=rtpmap:110 telephone-event/48000
+            a=rtpmap:126 telephone-event/8000
+            a=ssrc:1629389143 cname:Yq3w0bZ2kT8mVn4p
+            a=ssrc:1629389143 msid:7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11 0f4b6a57-3c2e-4f8e-b0a4-6a2d9c7e1b35
+            m=video 9 UDP/TLS/RTP/SAVPF 96 97 98 99 102 103 45 127 125
+            c=IN IP4 0.0.0.0
+            a=rtcp:9 IN IP4 0.0.0.0
+            a=ice-ufrag:sXq3
+            a=ice-pwd:Zr8Vd9Fq1l0Yy2nUe8kQ3tJw
+            a=ice-options:trickle
+            a=fingerprint:sha-256 3B:7A:29:6E:41:C0:5F:2D:91:8B:0E:66:A4:13:77:D9:2C:58:BA:F1:04:E3:6D:9A:55:C8:1F:30:B2:47:8E:AD
+            a=setup:actpass
+            a=mid:1
+            a=extmap:14 urn:ietf:params:rtp-hdrext:toffset
+            a=extmap:2 http://www.webrtc.org/experiments/rtp-hdrext/abs-send-time
+            a=extmap:13 urn:3gpp:video-orientation
+            a=extmap:3 http://www.ietf.org/id/draft-holmer-rmcat-transport-wide-cc-extensions-01
+            a=extmap:5 http://www.webrtc.org/experiments/rtp-hdrext/playout-delay
+            a=extmap:6 http://www.webrtc.org/experiments/rtp-hdrext/video-content-type
+            a=extmap:7 http://www.webrtc.org/experiments/rtp-hdrext/video-timing
+            a=extmap:8 http://www.webrtc.org/experiments/rtp-hdrext/color-space
+            a=extmap:4 urn:ietf:params:rtp-hdrext:sdes:mid
+            a=extmap:9 urn:ietf:params:rtp-hdrext:sdes:rtp-stream-id
+            a=extmap:10 urn:ietf:params:rtp-hdrext:sdes:repaired-rtp-stream-id
+            a=sendrecv
+            a=msid:7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11 9b2e4d1a-6c8f-4a07-8e35-1d0f7c2b9a64
+            a=rtcp-mux
+            a=rtcp-rsize
+            a=rtpmap:96 VP8/90000
+            a=rtcp-fb:96 goog-remb
+            a=rtcp-fb:96 transport-cc
+            a=rtcp-fb:96 ccm fir
+            a=rtcp-fb:96 nack
+            a=rtcp-fb:96 nack pli
+            a=rtpmap:97 rtx/90000
+            a=fmtp:97 apt=96
+            a=rtpmap:98 VP9/90000
+            a=rtcp-fb:98 goog-remb
+            a=rtcp-fb:98 transport-cc
+            a=rtcp-fb:98 ccm fir
+            a=rtcp-fb:98 nack
+            a=rtcp-fb:98 nack pli
+            a=fmtp:98 profile-id=0
+            a=rtpmap:99 rtx/90000
+            a=fmtp:99 apt=98
+            a=rtpmap:102 H264/90000
+            a=rtcp-fb:102 goog-remb
+            a=rtcp-fb:102 transport-cc
+            a=rtcp-fb:102 ccm fir
+            a=rtcp-fb:102 nack
+            a=rtcp-fb:102 nack pli
+            a=fmtp:102 level-asymmetry-allowed=1;packetization-mode=1;profile-level-id=42e01f
+            a=rtpmap:103 rtx/90000
+            a=fmtp:103 apt=102
+            a=rtpmap:45 AV1/90000
+            a=rtcp-fb:45 goog-remb
+            a=rtcp-fb:45 transport-cc
+            a=rtcp-fb:45 ccm fir
+            a=rtcp-fb:45 nack
+            a=rtcp-fb:45 nack pli
+            a=rtpmap:127 red/90000
+            a=rtpmap:125 ulpfec/90000
+            a=ssrc-group:FID 2231627014 632943048
+            a=ssrc:2231627014 cname:Yq3w0bZ2kT8mVn4p
+            a=ssrc:2231627014 msid:7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11 9b2e4d1a-6c8f-4a07-8e35-1d0f7c2b9a64
+            a=ssrc:632943048 cname:Yq3w0bZ2kT8mVn4p
+            a=ssrc:632943048 msid:7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11 9b2e4d1a-6c8f-4a07-8e35-1d0f7c2b9a64
+            """.replace("\n", "\r\n");
+
+    // The answer mirrors the offer's media sections from the other side
+    private static final String ANSWER_SDP = OFFER_SDP
+            .replace("o=- 4611731400430051336", "o=- 8302219451184503128")
+            .replace("a=setup:actpass", "a=setup:active")
+            .replace("a=ice-ufrag:sXq3", "a=ice-ufrag:Kp7T")
+            .replace("a=ice-pwd:Zr8Vd9Fq1l0Yy2nUe8kQ3tJw", "a=ice-pwd:Mb4Xc1Hs6Wq0Lg9Pz3Rn7Ty2")
+            .replace("Yq3w0bZ2kT8mVn4p", "Hd6Nf2Qe9Ux1Sa5j");
+
+    @Param({"plain", "deflate", "deflate-no-context", "dict", "dict+deflate"})
+    public String mode;
+
+    private final SignalingMessageCodec codec = new SignalingMessageCodec();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] out = new byte[64 * 1024];
+    private String[] frames;
+    private boolean dict;
+    private boolean deflate;
+    private boolean contextTakeover;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dict = mode.startsWith("dict");
+        deflate = mode.contains("deflate");
+        contextTakeover = !mode.equals("deflate-no-context");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> setup = new ArrayList<>();
+        setup.add("{\"callId\":464026715479040,\"receiver\":\"agent\",\"sender\":\"caller\",\"action\":\"RING\",\"type\":\"CALL\"}");
+        setup.add(objectMapper.writeValueAsString(sdpFrame("OFFER", "offer", OFFER_SDP)));
+        setup.add("{\"callId\":464026715479040,\"action\":\"ANSWERED\",\"responder\":\"agent\",\"type\":\"CALL\"}");
+        for (int i = 0; i < CANDIDATES; i++) {
+            setup.add("{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"caller\",\"receiver\":\"agent\",\"callId\":464026715479040,"
+                    + "\"candidate\":{\"candidate\":\"candidate:84216304" + i + " 1 udp 1677729535 203.0.113." + (7 + i) + " 5231" + i
+                    + " typ srflx raddr 192.168.1.20 rport 5231" + i + " generation 0 ufrag sXq3 network-cost 999\","
+                    + "\"sdpMid\":\"" + (i % 2) + "\",\"sdpMLineIndex\":" + (i % 2) + ",\"usernameFragment\":\"sXq3\"}}");
+        }
+        setup.add(objectMapper.writeValueAsString(sdpFrame("ANSWER", "answer", ANSWER_SDP)));
+        frames = setup.toArray(String[]::new);
+        for (String sdp : new String[] { OFFER_SDP, ANSWER_SDP }) {
+            if (!SdpDictionary.decode(SdpDictionary.encode(sdp)).equals(sdp)) throw new IllegalStateException("SDP does not round-trip");
+        }
+
+        long bytes = 0;
+        for (int i = 0; i < frames.length; i++) {
+            bytes += encode(i);
+        }
+        System.out.printf("%n%-18s bytes per call setup: %d%n", mode, bytes);
+    }
+
+    private static Map<String, Object> sdpFrame(String action, String type, String sdp) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "CALL");
+        frame.put("action", action);
+        frame.put("sender", "caller");
+        frame.put("receiver", "agent");
+        frame.put("callId", 464026715479040L);
+        frame.put("sdp", Map.of("type", type, "sdp", sdp));
+        return frame;
+    }
+
+    // Bytes the frame takes on the wire (payload only; WebSocket headers are the same in every mode)
+    private int encode(int frame) throws Exception {
+        if (frame == 0) deflater.reset();
+        String payload = frames[frame];
+        if (dict) {
+            String compact = codec.compactSdp(payload);
+            if (compact != null) payload = compact;
+        }
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        if (!deflate) return bytes.length;
+        if (!contextTakeover) deflater.reset();
+        deflater.setInput(bytes);
+        int length = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+        // The empty stored block that ends a sync flush isn't sent
+        return length - 4;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void callSetup(Blackhole bh) throws Exception {
+        for (int i = 0; i < FRAMES; i++) {
+            bh.consume(encode(i));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SdpCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.webrtc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.codec.ServerEvent;
+import com.webrtc.codec.ServerEventWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frames the server sends itself (RING, ANSWERED, HANGUP, TRANSCRIPT, INTENT), per event type:
+ * "map" is how they used to be built (a HashMap through ObjectMapper), "template" is
+ * ServerEventWriter. Setup checks both give the same JSON object.
+ *
+ * Run with -prof gc to see the allocation per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerEventBenchmark {
+
+    private static final long CALL_ID = 464034070980352L;
+    private static final String TEXT = "i would like to cancel my subscription and get a refund for last month";
+
+    @Param({"ring", "answered", "hangup", "transcript", "intent"})
+    public String event;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerEventWriter writer = new ServerEventWriter();
+
+    private ServerEvent typed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        typed = switch (event) {
+            case "ring" -> new ServerEvent.Ring(CALL_ID, "jeff", "bob");
+            case "answered" -> new ServerEvent.Answered(CALL_ID, "bob");
+            case "hangup" -> new ServerEvent.Hangup(CALL_ID, "HANGUP");
+            case "transcript" -> new ServerEvent.Transcript(TEXT, "jeff");
+            case "intent" -> new ServerEvent.Intent(CALL_ID, "jeff", "CANCELLATION", "cancel my subscription");
+            default -> throw new IllegalArgumentException(event);
+        };
+        if (!objectMapper.readTree(map()).equals(objectMapper.readTree(template()))) {
+            throw new IllegalStateException("Template and map differ for " + event + ": " + template());
+        }
+    }
+
+    @Benchmark
+    public String map() throws Exception {
+        Map<String, Object> message = new HashMap<>();
+        switch (event) {
+            case "ring" -> {
+                message.put("type", "CALL");
+                message.put("action", "RING");
+                message.put("callId", CALL_ID);
+                message.put("sender", "jeff");
+                message.put("receiver", "bob");
+            }
+            case "answered" -> {
+                message.put("type", "CALL");
+                message.put("action", "ANSWERED");
+                message.put("callId", CALL_ID);
+                message.put("responder", "bob");
+            }
+            case "hangup" -> {
+                message.put("type", "CALL");
+                message.put("action", "HANGUP");
+                message.put("callId", CALL_ID);
+                message.put("reason", "HANGUP");
+            }
+            case "transcript" -> {
+                message.put("type", "TRANSCRIPT");
+                message.put("text", TEXT);
+                message.put("sender", "AI");
+                message.put("speaker", "jeff");
+            }
+            default -> {
+                message.put("type", "INTENT");
+                message.put("callId", CALL_ID);
+                message.put("speaker", "jeff");
+                message.put("intent", "CANCELLATION");
+                message.put("phrase", "cancel my subscription");
+            }
+        }
+        return objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public String template() {
+        return writer.json(typed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ServerEventBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.webrtc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.dto.SignalingMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old Map-based frame parsing in SignalingHandler against the streaming codec.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.webrtc.benchmark.SignalingCodecBenchmark
+ * (add -prof gc via the JMH options to see allocation per frame).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalingCodecBenchmark {
+
+    private static final String CANDIDATE_FRAME = "{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"jeff\",\"receiver\":\"bob\",\"callId\":1001,"
+            + "\"candidate\":{\"candidate\":\"candidate:842163049 1 udp 1677729535 203.0.113.7 52311 typ srflx raddr 192.168.1.20 rport 52311 generation 0 ufrag sXq3 network-cost 999\","
+            + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0,\"usernameFragment\":\"sXq3\"}}";
+
+    private static final String REGISTER_FRAME = "{\"type\":\"REGISTER\",\"username\":\"jeff\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SignalingMessageCodec codec = new SignalingMessageCodec();
+    private final SignalingMessage pooled = new SignalingMessage();
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void mapCandidate(Blackhole bh) throws Exception {
+        Map<String, Object> messageMap = objectMapper.readValue(CANDIDATE_FRAME, Map.class);
+        bh.consume(messageMap.get("type"));
+        bh.consume(messageMap.get("receiver"));
+        bh.consume(messageMap.get("action"));
+    }
+
+    @Benchmark
+    public void codecCandidateRouting(Blackhole bh) throws Exception {
+        SignalingMessage signal = codec.decode(CANDIDATE_FRAME, pooled, false);
+        bh.consume(signal.getType());
+        bh.consume(signal.getReceiver());
+        bh.consume(signal.getAction());
+    }
+
+    @Benchmark
+    public void codecCandidateFull(Blackhole bh) throws Exception {
+        SignalingMessage signal = codec.decode(CANDIDATE_FRAME, pooled, true);
+        bh.consume(signal.getCandidate());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void mapRegister(Blackhole bh) throws Exception {
+        Map<String, Object> messageMap = objectMapper.readValue(REGISTER_FRAME, Map.class);
+        bh.consume(messageMap.get("username"));
+    }
+
+    @Benchmark
+    public void codecRegister(Blackhole bh) throws Exception {
+        bh.consume(codec.decode(REGISTER_FRAME, pooled, false).getUsername());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SignalingCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.service.stt.PhraseMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hallucination filtering per transcript: the old linear scan (shouldIgnore + countOccurrences
+ * in AiTranscriptionService, then AudioController's contains checks) against the compiled
+ * PhraseMatcher, over a corpus of meeting speech mixed with typical Whisper hallucinations.
+ *
+ * Run with -prof gc to see the old path's allocations (toLowerCase, substring, split).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscriptFilterBenchmark {
+
+    private static final List<String> BANNED_PHRASES = Arrays.asList(
+        "thank you", "thanks", "bye", "peace", "shush", "okay",
+        "silence", "you", "copyright", "mbc news", "subtitles",
+        "watching", "amara.org", "closed captioning", "dick",
+        "transcribed by https://otter.ai"
+    );
+
+    // Roughly the mix a live call produces: mostly speech, some silence-induced garbage
+    static final String[] CORPUS = {
+        "Let's go over the renewal terms before we talk about pricing.",
+        "The quarterly numbers look good, but churn in the mid-market segment is still too high.",
+        "Can you share your screen for a second?",
+        "I think the latency issue is on the TURN server, not the signaling side.",
+        "We should ship the fix before the next release and keep an eye on the error rate.",
+        "Who owns the follow up with the customer?",
+        "The migration finished without any errors, so we can decommission the old cluster on Friday.",
+        "Sorry, you cut out there. Could you repeat the last part?",
+        "Yeah, that makes sense to me.",
+        "Okay, so the plan is to roll it out to ten percent of tenants first and then widen it.",
+        "I'll send the notes after the call, thanks everyone for joining.",
+        "Thank you.",
+        "Thank you. Thank you. Thank you.",
+        "Thanks for watching!",
+        "Thank you for watching.",
+        "Subtitles by the Amara.org community",
+        "you",
+        "Bye.",
+        " . ",
+        "Okay.",
+        "Transcribed by https://otter.ai",
+        "Дякую за перегляд!",
+        "Let's circle back on pricing next week. Let's circle back on pricing next week. Let's circle back on pricing next week.",
+        "So the main question is whether we can hit the deadline with the current team size, and if not, what we drop.",
+        "",
+        "MBC News",
+        "I'm going to mute for a minute, there's some construction noise here.",
+        "The dashboard shows p99 around four hundred milliseconds during the peak.",
+    };
+
+    private PhraseMatcher matcher;
+
+    @Setup
+    public void compile() {
+        matcher = PhraseMatcher.compile(BANNED_PHRASES, List.of("thank you for watching", "thanks for watching", "дякую"), List.of("thank"), 3);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String text : CORPUS) {
+            bh.consume(legacyIgnore(text));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        for (String text : CORPUS) {
+            bh.consume(matcher.check(text) != PhraseMatcher.Verdict.PASS);
+        }
+    }
+
+    // The old filter: AiTranscriptionService.shouldIgnore, then AudioController's checks on what passed
+    static boolean legacyIgnore(String text) {
+        return shouldIgnore(text) || text.contains("Thank you for watching") || text.contains("Дякую");
+    }
+
+    private static boolean shouldIgnore(String text) {
+        if (text == null || text.trim().isEmpty()) return true;
+        String clean = text.trim().toLowerCase();
+        if (clean.endsWith(".")) clean = clean.substring(0, clean.length() - 1);
+        if (clean.length() <= 2) return true;
+        for (String banned : BANNED_PHRASES) {
+            if (clean.equals(banned) || clean.startsWith(banned + ".") || clean.equals(banned + ".")) {
+                return true;
+            }
+        }
+        return countOccurrences(clean, "thank") > 1;
+    }
+
+    private static int countOccurrences(String str, String word) {
+        return str.split(word, -1).length - 1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TranscriptFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
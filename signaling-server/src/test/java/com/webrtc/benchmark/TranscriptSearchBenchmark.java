@@ -0,0 +1,103 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.entity.Transcript;
+import com.webrtc.search.SearchQuery;
+import com.webrtc.search.TranscriptIndex;
+import com.webrtc.service.TranscriptWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding calls by what was said in one tenant's transcripts: the in-memory TranscriptIndex
+ * against the LIKE query the database would otherwise run, both over the same chunks built
+ * from the TranscriptFilterBenchmark corpus plus a few rare words.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TranscriptSearchBenchmark {
+
+    private static final String[] RARE = {
+        "The customer asked for a refund request to be escalated.",
+        "Please escalate this to the billing manager.",
+    };
+
+    @Param({"100000"})
+    public int chunks;
+
+    @Param({"refund", "\"refund request\" escalated"})
+    public String query;
+
+    private JdbcTemplate jdbcTemplate;
+    private TranscriptWriter writer;
+    private TranscriptIndex index;
+    private SearchQuery parsed;
+    private String likePattern;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:search-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table transcripts (id bigint generated by default as identity primary key, "
+                + "call_id bigint, tenant varchar(255), speaker varchar(255), content varchar(4000), created_at timestamp)");
+        jdbcTemplate.execute("create index idx_transcripts_tenant on transcripts (tenant, created_at)");
+        writer = new TranscriptWriter(jdbcTemplate, new SimpleMeterRegistry(), 10_000, 500, Duration.ofMillis(100), Duration.ofSeconds(5));
+        index = new TranscriptIndex(writer, jdbcTemplate, new SimpleMeterRegistry(), true, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        index.init();
+
+        // Roughly one chunk in 500 mentions a refund; calls have 50 chunks each
+        Random random = new Random(42);
+        Instant start = Instant.parse("2025-06-01T00:00:00Z");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            String content = random.nextInt(500) == 0 ? RARE[random.nextInt(RARE.length)]
+                    : TranscriptFilterBenchmark.CORPUS[random.nextInt(TranscriptFilterBenchmark.CORPUS.length)];
+            if (content.isBlank()) content = "Hello?";
+            Instant at = start.plusSeconds(i);
+            rows.add(new Object[] { (long) (i / 50), "acme", "agent" + (i % 7), content, Timestamp.from(at) });
+            writer.submit(new Transcript((long) (i / 50), "acme", "agent" + (i % 7), content, at));
+        }
+        writer.shutdown();
+        index.catchUp();
+        parsed = SearchQuery.parse(query);
+        // LIKE only gets the first clause (the phrase); the index checks every clause
+        likePattern = "%" + (query.startsWith("\"") ? query.substring(1, query.indexOf('"', 1)) : query) + "%";
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Benchmark
+    public Object index() {
+        return index.search("acme", parsed, null, null, 20, 3);
+    }
+
+    // What a LIKE-based search would run: substring scan of the tenant's rows, grouped by call
+    @Benchmark
+    public Object like() {
+        return jdbcTemplate.queryForList("select call_id, count(*) from transcripts where tenant = ? "
+                + "and lower(content) like ? group by call_id order by count(*) desc limit 20", "acme", likePattern);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TranscriptSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.webrtc.benchmark;
+
+import com.webrtc.entity.Transcript;
+import com.webrtc.service.TranscriptWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost on the request thread of storing one transcript chunk: an insert per chunk (what a
+ * repository.save in the controller would do) against handing it to the write-behind
+ * TranscriptWriter, both on in-memory H2. The writer's own inserts still happen, in batches,
+ * on its thread; the buffer is sized so the benchmark measures the enqueue, not backpressure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranscriptWriteBenchmark {
+
+    private static final String TEXT = "I think the latency issue is on the TURN server, not the signaling side.";
+
+    private JdbcTemplate jdbcTemplate;
+    private TranscriptWriter writer;
+    private long callId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:transcripts-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table transcripts (id bigint generated by default as identity primary key, "
+                + "call_id bigint, tenant varchar(255), speaker varchar(255), content varchar(4000), created_at timestamp)");
+        writer = new TranscriptWriter(jdbcTemplate, new SimpleMeterRegistry(), 1_000_000, 200,
+                Duration.ofMillis(500), Duration.ofMillis(50));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        writer.shutdown();
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Benchmark
+    public int insertPerChunk() {
+        return jdbcTemplate.update(
+                "insert into transcripts (call_id, tenant, speaker, content, created_at) values (?, ?, ?, ?, ?)",
+                ++callId & 63, "acme", "alice", TEXT, Timestamp.from(Instant.now()));
+    }
+
+    @Benchmark
+    public boolean writeBehind() {
+        return writer.submit(new Transcript(++callId & 63, "acme", "alice", TEXT, Instant.now()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TranscriptWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
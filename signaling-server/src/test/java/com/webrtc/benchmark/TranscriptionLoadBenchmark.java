@@ -0,0 +1,117 @@
+package com.webrtc.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.config.ThreadingConfig;
+import com.webrtc.service.stt.RemoteTranscriptionEngine;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for the transcription path against a local stub STT server.
+ *
+ * Fires N concurrent remote-engine calls the way Tomcat would dispatch them: from a
+ * 200-thread platform pool (the default) or from one virtual thread per request, and
+ * reports the peak number of requests the stub saw in flight.
+ *
+ * Usage: TranscriptionLoadBenchmark [requests=20000] [sttLatencyMs=2000]
+ */
+public class TranscriptionLoadBenchmark {
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static final ScheduledExecutorService stubThreads = Executors.newScheduledThreadPool(4);
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long sttLatencyMs = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        HttpServer stub = startStubStt(sttLatencyMs, requests);
+        String url = "http://localhost:" + stub.getAddress().getPort() + "/v1/audio/transcriptions";
+        try {
+            run("platform", false, requests, url);
+            run("virtual", true, requests, url);
+        } finally {
+            stub.stop(0);
+            stubThreads.shutdownNow();
+        }
+    }
+
+    private static void run(String label, boolean virtual, int requests, String url) throws Exception {
+        IoExecutors ioExecutors = new IoExecutors(virtual, 200);
+        RemoteTranscriptionEngine engine = new RemoteTranscriptionEngine();
+        ReflectionTestUtils.setField(engine, "sttRestTemplate", ThreadingConfig.newSttRestTemplate(ThreadingConfig.newSttHttpClient(ioExecutors, false)));
+        ReflectionTestUtils.setField(engine, "apiUrl", url);
+        ReflectionTestUtils.setField(engine, "apiKey", "stub");
+        ReflectionTestUtils.setField(engine, "model", "whisper-1");
+
+        // Stand-in for Tomcat's request threads in each mode
+        ExecutorService requestThreads = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+
+        byte[] chunk = new byte[16 * 1024];
+        AtomicInteger empty = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        peakInFlight.set(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            requestThreads.execute(() -> {
+                try {
+                    if (engine.transcribeClip(chunk, "chunk.webm").isEmpty()) empty.incrementAndGet();
+                } catch (Exception e) {
+                    empty.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        requestThreads.shutdownNow();
+        ioExecutors.shutdown();
+        System.out.printf("%-8s requests=%d elapsed=%dms throughput=%.0f/s peakInFlight=%d failed=%d%n",
+                label, requests, elapsedMs, requests * 1000.0 / elapsedMs, peakInFlight.get(), empty.get());
+    }
+
+    // Replies with a fixed transcript after a fixed delay, counting concurrent requests.
+    // The delay is a scheduled reply rather than a sleeping handler, so the stub itself never runs out of threads.
+    private static HttpServer startStubStt(long latencyMs, int backlog) throws Exception {
+        // Without this the JDK server's split header/body writes hit Nagle + delayed ACK (~40ms per reply)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), backlog);
+        byte[] body = "{\"text\":\"The quarterly numbers look good.\"}".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/", exchange -> {
+            int now = inFlight.incrementAndGet();
+            peakInFlight.accumulateAndGet(now, Math::max);
+            exchange.getRequestBody().readAllBytes();
+            stubThreads.schedule(() -> {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    out.write(body);
+                } catch (Exception e) {
+                    System.err.println("Stub reply failed: " + e.getMessage());
+                } finally {
+                    inFlight.decrementAndGet();
+                    exchange.close();
+                }
+            }, latencyMs, TimeUnit.MILLISECONDS);
+        });
+        // Platform threads: the JDK HTTP server reads under a monitor, which would pin virtual threads
+        server.setExecutor(stubThreads);
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,149 @@
+package com.webrtc.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webrtc.SignalingServerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utterances/sec through the whole streaming path, per STT engine: PCM frames over
+ * /websocket-audio, ring buffer, dispatcher, engine, filter, and the TRANSCRIPT frame back.
+ *
+ * The engine is chosen through the tenant override (stt.engine.tenants=bench=<engine>), the
+ * same way production picks one. remote talks to a local stub endpoint and stub sleeps in
+ * process, both for sttLatencyMs, so the difference between them is the HTTP round trip.
+ *
+ * local needs a Vosk model and real speech, otherwise there is nothing to transcribe:
+ *   -jvmArgsAppend "-Dstt.engine.local.model-path=/models/vosk-model-small-en-us-0.15 -Dbench.audio=/path/to/16k-mono.wav"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+public class TranscriptionPipelineBenchmark {
+
+    private static final int SAMPLE_RATE = 16_000;
+
+    @Param({"stub", "remote", "local"})
+    public String engine;
+
+    @Param({"200"})
+    public long sttLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpServer stubStt;
+    private String audioUrl;
+    private byte[] utterance;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String modelPath = System.getProperty("stt.engine.local.model-path", "");
+        if (engine.equals("local") && modelPath.isEmpty()) {
+            throw new IllegalStateException("local engine: pass -Dstt.engine.local.model-path=<vosk model dir>");
+        }
+        String audio = System.getProperty("bench.audio");
+        utterance = audio != null ? wavData(Files.readAllBytes(Path.of(audio))) : tone(1_000);
+
+        stubStt = BenchSupport.startStubStt("Let's go over the renewal terms.", sttLatencyMs);
+        context = new SpringApplicationBuilder(SignalingServerApplication.class).run(
+                "--server.port=0",
+                "--openai.api.url=" + BenchSupport.stubSttUrl(stubStt),
+                "--stt.engine.default=stub",
+                "--stt.engine.tenants=bench=" + engine,
+                "--stt.engine.stub.latency=" + sttLatencyMs + "ms",
+                "--stt.engine.local.model-path=" + modelPath,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--ratelimit.enabled=false",
+                "--logging.level.org.springframework.security=WARN");
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+        String token = BenchSupport.registerAndLogin(HttpClient.newHttpClient(), "http://localhost:" + port, "bench", "bench");
+        audioUrl = "ws://localhost:" + port + "/websocket-audio?sampleRate=" + SAMPLE_RATE + "&token=" + token;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        stubStt.stop(0);
+    }
+
+    // One audio socket per benchmark thread, like one speaker per call
+    @State(Scope.Thread)
+    public static class Speaker implements WebSocket.Listener {
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        private final StringBuilder partial = new StringBuilder();
+        private WebSocket socket;
+
+        @Setup(Level.Trial)
+        public void connect(TranscriptionPipelineBenchmark bench) {
+            socket = HttpClient.newHttpClient().newWebSocketBuilder().buildAsync(URI.create(bench.audioUrl), this).join();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                frames.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String utterance(Speaker speaker) throws Exception {
+        speaker.socket.sendBinary(ByteBuffer.wrap(utterance), true).join();
+        speaker.socket.sendText("{\"type\":\"FLUSH\"}", true).join();
+        String frame = speaker.frames.poll(30, TimeUnit.SECONDS);
+        if (frame == null) throw new IllegalStateException("No TRANSCRIPT within 30s (" + engine + ")");
+        return frame;
+    }
+
+    // A 440 Hz tone; enough for the stub and remote engines, which don't look at the audio
+    private static byte[] tone(int millis) {
+        ByteBuffer pcm = ByteBuffer.allocate(SAMPLE_RATE * millis / 1000 * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; pcm.hasRemaining(); i++) {
+            pcm.putShort((short) (8_000 * Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE)));
+        }
+        return pcm.array();
+    }
+
+    // The data chunk of a canonical 44-byte-header WAV (16 kHz, 16-bit mono expected)
+    private static byte[] wavData(byte[] wav) {
+        byte[] data = new byte[wav.length - 44];
+        System.arraycopy(wav, 44, data, 0, data.length);
+        return data;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TranscriptionPipelineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.webrtc.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.webrtc.codec.ByteBufferPool;
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.dto.SignalingMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON text frames vs CBOR binary frames (WireFormat), per frame kind.
+ *
+ *   jsonEncode     server-built frame to wire bytes: writeValueAsString, then UTF-8 as the socket does
+ *   cborEncode     the same object written as CBOR straight into a pooled buffer
+ *   cborTranscode  a routed JSON frame to CBOR in a pooled buffer, what a CBOR session's sender does
+ *   jsonDecode     routing header from a JSON frame
+ *   cborDecode     routing header from a CBOR frame
+ *   cborToJson     a CBOR CALL frame to the JSON it is routed as
+ *
+ * Payload sizes (JSON UTF-8 vs CBOR) are printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String SDP = """
+            v=0
+            o=- 4611731400430051336 2 IN IP4 127.0.0.1
+            s=-
+            t=0 0
+            a=group:BUNDLE 0 1
+            a=msid-semantic: WMS 7d1c2a8e-3f0b-4c39-9a51-2b6f8f0c9d11
+            m=audio 9 UDP/TLS/RTP/SAVPF 111 63 9 0 8 13 110 126
+            c=IN IP4 0.0.0.0
+            a=rtcp:9 IN IP4 0.0.0.0
+            a=ice-ufrag:sXq3
+            a=ice-pwd:Zr8Vd9Fq1l0Yy2nUe8kQ3tJw
+            a=ice-options:trickle
+            a=fingerprint:sha-256 3B:7A:29:6E:41:C0:5F:2D:91:8B:0E:66:A4:13:77:D9:2C:58:BA:F1:04:E3:6D:9A:55:C8:1F:30:B2:47:8E:AD
+            a=setup:actpass
+            a=mid:0
+            a=sendrecv
+            a=rtcp-mux
+            a=rtpmap:111 opus/48000/2
+            a=fmtp:111 minptime=10;useinbandfec=1
+            m=video 9 UDP/TLS/RTP/SAVPF 96 97 98 99
+            c=IN IP4 0.0.0.0
+            a=mid:1
+            a=sendrecv
+            a=rtcp-mux
+            a=rtpmap:96 VP8/90000
+            a=rtcp-fb:96 nack pli
+            a=rtpmap:97 rtx/90000
+            a=fmtp:97 apt=96
+            a=ssrc-group:FID 2954738121 1406373522
+            a=ssrc:2954738121 cname:Yk3pWlQ8m2Lr1cVt
+            """.replace("\n", "\r\n");
+
+    private static final Map<String, String> FRAMES = Map.of(
+            "register", "{\"type\":\"REGISTER\",\"username\":\"jeff\",\"device\":\"desk-3f9a\"}",
+            "candidate", "{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"jeff\",\"receiver\":\"bob\",\"callId\":464034070980352,"
+                    + "\"candidate\":{\"candidate\":\"candidate:842163049 1 udp 1677729535 203.0.113.7 52311 typ srflx raddr 192.168.1.20 rport 52311 generation 0 ufrag sXq3 network-cost 999\","
+                    + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0,\"usernameFragment\":\"sXq3\"}}",
+            "offer", "{\"type\":\"CALL\",\"action\":\"OFFER\",\"sender\":\"jeff\",\"receiver\":\"bob\",\"callId\":464034070980352,"
+                    + "\"sdp\":{\"type\":\"offer\",\"sdp\":\"" + SDP.replace("\r\n", "\\r\\n") + "\"}}",
+            "transcript", "{\"type\":\"TRANSCRIPT\",\"text\":\"i would like to cancel my subscription and get a refund for last month\","
+                    + "\"sender\":\"AI\",\"speaker\":\"jeff\"}");
+
+    @Param({"register", "candidate", "offer", "transcript"})
+    public String frame;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SignalingMessageCodec codec = new SignalingMessageCodec();
+    private final ByteBufferPool buffers = new ByteBufferPool(16384, 4);
+    private final SignalingMessage scratch = new SignalingMessage();
+
+    private String json;
+    private Map<String, Object> object;
+    private ByteBuffer cbor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        json = FRAMES.get(frame);
+        object = objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        cbor = codec.toCbor(json, ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(json)));
+        if (!objectMapper.readTree(json).equals(objectMapper.readTree(codec.toJson(cbor)))) {
+            throw new IllegalStateException("CBOR round trip changed the " + frame + " frame");
+        }
+        System.out.printf("%n%-10s json bytes: %d, cbor bytes: %d%n", frame, json.getBytes(StandardCharsets.UTF_8).length, cbor.remaining());
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return objectMapper.writeValueAsString(object).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int cborEncode() throws Exception {
+        ByteBuffer buffer = buffers.acquire();
+        cborMapper.writeValue(new ByteBufferBackedOutputStream(buffer), object);
+        int length = buffer.position();
+        buffers.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public int cborTranscode() throws Exception {
+        ByteBuffer buffer = buffers.acquire();
+        int length = codec.toCbor(json, buffer).remaining();
+        buffers.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public void jsonDecode(Blackhole bh) throws Exception {
+        SignalingMessage signal = codec.decode(json, scratch, false);
+        bh.consume(signal.getType());
+        bh.consume(signal.getReceiver());
+    }
+
+    @Benchmark
+    public void cborDecode(Blackhole bh) throws Exception {
+        SignalingMessage signal = codec.decode(cbor, scratch);
+        bh.consume(signal.getType());
+        bh.consume(signal.getReceiver());
+    }
+
+    @Benchmark
+    public String cborToJson() throws Exception {
+        return codec.toJson(cbor);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
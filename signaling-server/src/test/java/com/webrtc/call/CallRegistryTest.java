@@ -0,0 +1,214 @@
+package com.webrtc.call;
+
+import com.webrtc.cluster.ClusterNode;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.timer.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CallRegistryTest {
+
+    // A timer whose tasks only run when the test fires them
+    private static final class ManualTimer {
+        final HashedWheelTimer timer = mock(HashedWheelTimer.class);
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Boolean> cancelled = new ArrayList<>();
+
+        ManualTimer() {
+            when(timer.schedule(any(), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+                int index = tasks.size();
+                tasks.add(invocation.getArgument(0));
+                cancelled.add(false);
+                HashedWheelTimer.Timeout timeout = mock(HashedWheelTimer.Timeout.class);
+                when(timeout.cancel()).thenAnswer(cancel -> !cancelled.set(index, true));
+                return timeout;
+            });
+        }
+
+        // Runs the task as the wheel would, i.e. unless it was cancelled
+        void fire(int index) {
+            if (!cancelled.get(index)) tasks.get(index).run();
+        }
+
+        // Runs it even if cancelled: the worker had already picked it up when cancel() was called
+        void fireAnyway(int index) {
+            tasks.get(index).run();
+        }
+
+        int last() {
+            return tasks.size() - 1;
+        }
+    }
+
+    // Stands in for IoExecutors.blockingIo(): timeout clean-up waits here until the test runs it
+    private static final class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.remove(0).run();
+        }
+
+        @Override public void execute(Runnable command) { tasks.add(command); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return List.of(); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+
+    private record Ended(Call call, String endedBy, EndReason reason) {}
+
+    private final ManualTimer timer = new ManualTimer();
+    private final ManualExecutor io = new ManualExecutor();
+    private final List<Ended> ended = new ArrayList<>();
+    private final CallRegistry registry = registry(3);
+
+    private CallRegistry registry(int worker) {
+        IoExecutors executors = mock(IoExecutors.class);
+        when(executors.blockingIo()).thenReturn(io);
+        CallRegistry registry = new CallRegistry(timer.timer, executors, new ClusterNode("node-a"),
+                Duration.ofSeconds(45), Duration.ofMillis(100), worker);
+        registry.setListener((call, endedBy, reason) -> ended.add(new Ended(call, endedBy, reason)));
+        return registry;
+    }
+
+    @Test
+    void ringAnswerAndHangup() {
+        Call call = registry.ring("alice", "bob", "acme");
+
+        assertThat(registry.find(call.getId())).isSameAs(call);
+        assertThat(registry.callsOf("alice")).containsExactly(call);
+        assertThat(registry.callsOf("bob")).containsExactly(call);
+        assertThat(call.getState()).isEqualTo(CallState.RINGING);
+        assertThat(registry.activeCallId("bob")).isNull();
+
+        assertThat(registry.answer(call)).isTrue();
+        assertThat(call.getState()).isEqualTo(CallState.ACTIVE);
+        assertThat(registry.activeCallId("bob")).isEqualTo(call.getId());
+        assertThat(timer.cancelled.get(0)).isTrue();
+        assertThat(registry.answer(call)).isFalse();
+
+        assertThat(registry.end(call, "bob", EndReason.HANGUP)).isTrue();
+        assertThat(registry.end(call, "alice", EndReason.HANGUP)).isFalse();
+        assertThat(ended).containsExactly(new Ended(call, "bob", EndReason.HANGUP));
+        assertThat(registry.find(call.getId())).isNull();
+        assertThat(registry.callsOf("alice")).isEmpty();
+        assertThat(registry.size()).isZero();
+        // The idle check goes with the call
+        assertThat(timer.cancelled.get(timer.last())).isTrue();
+    }
+
+    @Test
+    void unansweredCallEndsAsNoAnswer() {
+        Call call = registry.ring("alice", "bob", "acme");
+
+        timer.fire(0);
+
+        // The wheel task only claims the call; notifying is left to the I/O executor
+        assertThat(call.getState()).isEqualTo(CallState.ENDED);
+        assertThat(ended).isEmpty();
+        io.runAll();
+        assertThat(ended).containsExactly(new Ended(call, null, EndReason.NO_ANSWER));
+        assertThat(registry.answer(call)).isFalse();
+        assertThat(registry.callsOf("bob")).isEmpty();
+    }
+
+    @Test
+    void ringTimeoutThatLosesToAnswerLeavesTheCallActive() {
+        Call call = registry.ring("alice", "bob", "acme");
+        assertThat(registry.answer(call)).isTrue();
+
+        timer.fireAnyway(0);
+        io.runAll();
+
+        assertThat(call.getState()).isEqualTo(CallState.ACTIVE);
+        assertThat(ended).isEmpty();
+        assertThat(registry.find(call.getId())).isSameAs(call);
+    }
+
+    @Test
+    void idleCheckRearmsWhileThereIsActivityThenEndsTheCall() throws Exception {
+        Call call = registry.ring("alice", "bob", "acme");
+        registry.answer(call);
+        int idleCheck = timer.last();
+
+        // Fired early (activity since it was armed): re-armed for the remainder
+        assertThat(registry.touch(call.getId(), "bob")).isTrue();
+        timer.fire(idleCheck);
+        assertThat(call.getState()).isEqualTo(CallState.ACTIVE);
+        assertThat(timer.last()).isEqualTo(idleCheck + 1);
+
+        Thread.sleep(150);
+        timer.fire(timer.last());
+        assertThat(call.getState()).isEqualTo(CallState.ENDED);
+        io.runAll();
+        assertThat(ended).containsExactly(new Ended(call, null, EndReason.IDLE));
+    }
+
+    @Test
+    void onlyParticipantsKeepACallAlive() throws Exception {
+        Call call = registry.ring("alice", "bob", "acme");
+        registry.answer(call);
+
+        Thread.sleep(150);
+        assertThat(registry.touch(call.getId(), "mallory")).isFalse();
+        assertThat(registry.touch(call.getId(), null)).isFalse();
+        assertThat(registry.touch(call.getId() + 1, "alice")).isFalse();
+        timer.fire(timer.last());
+        io.runAll();
+
+        assertThat(ended).containsExactly(new Ended(call, null, EndReason.IDLE));
+    }
+
+    @Test
+    void idleCheckForAnEndedCallDoesNothing() throws Exception {
+        Call call = registry.ring("alice", "bob", "acme");
+        registry.answer(call);
+        registry.end(call, "alice", EndReason.HANGUP);
+
+        Thread.sleep(150);
+        timer.fireAnyway(timer.last());
+        io.runAll();
+
+        assertThat(ended).containsExactly(new Ended(call, "alice", EndReason.HANGUP));
+    }
+
+    @Test
+    void endAllForEndsEveryCallOfTheUserOnly() {
+        Call withBob = registry.ring("alice", "bob", "acme");
+        Call withCarol = registry.ring("carol", "alice", "acme");
+        Call unrelated = registry.ring("dave", "erin", "acme");
+        registry.answer(withBob);
+
+        registry.endAllFor("alice", EndReason.DISCONNECTED);
+
+        assertThat(ended).containsExactlyInAnyOrder(
+                new Ended(withBob, "alice", EndReason.DISCONNECTED),
+                new Ended(withCarol, "alice", EndReason.DISCONNECTED));
+        assertThat(registry.callsOf("alice")).isEmpty();
+        assertThat(registry.callsOf("bob")).isEmpty();
+        assertThat(registry.callsOf("dave")).containsExactly(unrelated);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void callIdsSayWhichNodeIssuedThem() {
+        Call call = registry.ring("alice", "bob", "acme");
+        CallRegistry other = registry(4);
+
+        assertThat(registry.isLocal(call.getId())).isTrue();
+        assertThat(other.isLocal(call.getId())).isFalse();
+        assertThat(registry.ring("alice", "carol", "acme").getId()).isGreaterThan(call.getId());
+    }
+}
@@ -0,0 +1,79 @@
+package com.webrtc.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SdpDictionaryTest {
+
+    private static final String OFFER = String.join("\r\n",
+            "v=0",
+            "o=- 4611731400430051336 2 IN IP4 127.0.0.1",
+            "s=-",
+            "t=0 0",
+            "a=group:BUNDLE 0 1",
+            "a=extmap-allow-mixed",
+            "a=msid-semantic: WMS stream",
+            "m=audio 9 UDP/TLS/RTP/SAVPF 111 63 9 0 8 13 110 126",
+            "c=IN IP4 0.0.0.0",
+            "a=rtcp:9 IN IP4 0.0.0.0",
+            "a=ice-ufrag:Xk3f",
+            "a=ice-pwd:8zHq0P1nF3xY5vJtQe2RkLmA",
+            "a=ice-options:trickle",
+            "a=fingerprint:sha-256 7B:8B:F0:65:5F:78:E2:51:3B:AC:6F:F3:3F:46:1B:35",
+            "a=setup:actpass",
+            "a=mid:0",
+            "a=sendrecv",
+            "a=rtcp-mux",
+            "a=rtpmap:111 opus/48000/2",
+            "a=fmtp:111 minptime=10;useinbandfec=1",
+            "a=fmtp:102 level-asymmetry-allowed=1;packetization-mode=1;profile-level-id=42e01f",
+            "a=ssrc:1001 cname:4TOk42mSjXCkVIa6",
+            "");
+
+    @Test
+    void roundTripsBrowserSdp() {
+        String compact = SdpDictionary.encode(OFFER);
+
+        assertThat(compact).isNotNull().doesNotContain("\r");
+        assertThat(compact.length()).isLessThan(OFFER.length() * 2 / 3);
+        assertThat(SdpDictionary.decode(compact)).isEqualTo(OFFER);
+    }
+
+    @Test
+    void usesTheLongestMatchingPrefix() {
+        String line = "a=fmtp:102 level-asymmetry-allowed=1;packetization-mode=1;profile-level-id=42e01f\r\n";
+
+        assertThat(SdpDictionary.encode(line)).startsWith("^").endsWith("42e01f").hasSize(8);
+        assertThat(SdpDictionary.decode(SdpDictionary.encode(line))).isEqualTo(line);
+    }
+
+    @Test
+    void escapesLinesThatLookLikeCodes() {
+        String sdp = "v=0\r\n~0\r\n^1rest\r\n!bang\r\n\r\n";
+
+        String compact = SdpDictionary.encode(sdp);
+        assertThat(compact).isEqualTo("~0\n!~0\n!^1rest\n!!bang\n");
+        assertThat(SdpDictionary.decode(compact)).isEqualTo(sdp);
+    }
+
+    @Test
+    void leavesNonCrlfSdpAlone() {
+        assertThat(SdpDictionary.encode("")).isNull();
+        assertThat(SdpDictionary.encode("v=0\ns=-\n")).isNull();
+        assertThat(SdpDictionary.encode("v=0\r\ns=-")).isNull();
+        assertThat(SdpDictionary.encode("v=0\ns=-\r\n")).isNull();
+    }
+
+    @Test
+    void everyEntryRoundTrips() {
+        for (String line : SdpDictionary.lines()) {
+            assertThat(SdpDictionary.encode(line + "\r\n")).hasSize(2);
+            assertThat(SdpDictionary.decode(SdpDictionary.encode(line + "\r\n"))).isEqualTo(line + "\r\n");
+        }
+        for (String prefix : SdpDictionary.prefixes()) {
+            String line = prefix + "x\r\n";
+            assertThat(SdpDictionary.decode(SdpDictionary.encode(line))).isEqualTo(line);
+        }
+    }
+}
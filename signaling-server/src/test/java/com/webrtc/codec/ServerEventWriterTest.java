@@ -0,0 +1,58 @@
+package com.webrtc.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerEventWriterTest {
+
+    private final ServerEventWriter writer = new ServerEventWriter();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode written(ServerEvent event) throws Exception {
+        return mapper.readTree(writer.frame(event).getPayload());
+    }
+
+    @Test
+    void writesCallEventsInTheirFixedShape() {
+        assertThat(writer.json(new ServerEvent.Ring(7, "alice", "bob")))
+                .isEqualTo("{\"type\":\"CALL\",\"action\":\"RING\",\"callId\":7,\"sender\":\"alice\",\"receiver\":\"bob\"}");
+        assertThat(writer.json(new ServerEvent.Answered(7, "bob")))
+                .isEqualTo("{\"type\":\"CALL\",\"action\":\"ANSWERED\",\"callId\":7,\"responder\":\"bob\"}");
+        assertThat(writer.json(new ServerEvent.Hangup(7, "ANSWERED_ELSEWHERE")))
+                .isEqualTo("{\"type\":\"CALL\",\"action\":\"HANGUP\",\"callId\":7,\"reason\":\"ANSWERED_ELSEWHERE\"}");
+    }
+
+    @Test
+    void escapesTextThatNeedsIt() throws Exception {
+        String caption = "He said \"hi\"\n\tthen left \\ \u0001 done €";
+        JsonNode frame = written(new ServerEvent.Transcript(caption, "alice"));
+
+        assertThat(frame.get("type").asText()).isEqualTo("TRANSCRIPT");
+        assertThat(frame.get("sender").asText()).isEqualTo("AI");
+        assertThat(frame.get("text").asText()).isEqualTo(caption);
+        assertThat(frame.get("speaker").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void leavesOutOrNullsMissingFields() throws Exception {
+        JsonNode transcript = written(new ServerEvent.Transcript("hello", null));
+        assertThat(transcript.has("speaker")).isFalse();
+
+        JsonNode intent = written(new ServerEvent.Intent(null, "bob", "CANCEL", null));
+        assertThat(intent.get("callId").isNull()).isTrue();
+        assertThat(intent.get("speaker").asText()).isEqualTo("bob");
+        assertThat(intent.get("intent").asText()).isEqualTo("CANCEL");
+        assertThat(intent.get("phrase").isNull()).isTrue();
+    }
+
+    @Test
+    void longTextIsWrittenWhole() throws Exception {
+        String caption = "word \"quoted\" ".repeat(2_000);
+
+        assertThat(written(new ServerEvent.Transcript(caption, null)).get("text").asText()).isEqualTo(caption);
+        assertThat(written(new ServerEvent.Intent(9L, "bob", "BILLING", caption)).get("phrase").asText()).isEqualTo(caption);
+    }
+}
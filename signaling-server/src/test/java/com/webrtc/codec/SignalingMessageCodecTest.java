@@ -0,0 +1,140 @@
+package com.webrtc.codec;
+
+import com.webrtc.dto.SignalingMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignalingMessageCodecTest {
+
+    private static final String OFFER = "{\"type\":\"CALL\",\"action\":\"offer\",\"sender\":\"alice\",\"receiver\":\"bob\",\"callId\":42,"
+            + "\"sdp\":{\"type\":\"offer\",\"sdp\":\"v=0\\r\\ns=-\\r\\n\"},\"extra\":[1,2.5,true,null]}";
+
+    private final SignalingMessageCodec codec = new SignalingMessageCodec();
+
+    private ByteBuffer cbor(String json) throws IOException {
+        return codec.toCbor(json, ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(json)));
+    }
+
+    @Test
+    void decodesTheRoutingHeaderToSharedConstants() throws Exception {
+        SignalingMessage message = codec.decode(OFFER);
+
+        assertThat(message.getType()).isSameAs("CALL");
+        assertThat(message.getAction()).isSameAs("OFFER");
+        assertThat(message.getSender()).isEqualTo("alice");
+        assertThat(message.getReceiver()).isEqualTo("bob");
+        assertThat(message.getCallId()).isEqualTo(42L);
+        // Bodies are sliced from the frame, not re-serialized
+        assertThat(message.getSdp()).isEqualTo("{\"type\":\"offer\",\"sdp\":\"v=0\\r\\ns=-\\r\\n\"}");
+    }
+
+    @Test
+    void scalarBodiesComeBackAsJson() throws Exception {
+        SignalingMessage message = codec.decode("{\"type\":\"CALL\",\"candidate\":\"candidate:1 \\\"x\\\"\",\"sdp\":12}");
+
+        assertThat(message.getCandidate()).isEqualTo("\"candidate:1 \\\"x\\\"\"");
+        assertThat(message.getSdp()).isEqualTo("12");
+    }
+
+    @Test
+    void routingDecodeSkipsBodiesAndClearsTheScratch() throws Exception {
+        SignalingMessage scratch = codec.decode(OFFER);
+
+        codec.decode("{\"type\":\"REGISTER\",\"username\":\"bob\",\"device\":\"tab-1\"}", scratch, false);
+        assertThat(scratch.getType()).isEqualTo("REGISTER");
+        assertThat(scratch.getUsername()).isEqualTo("bob");
+        assertThat(scratch.getDevice()).isEqualTo("tab-1");
+        assertThat(scratch.getSdp()).isNull();
+        assertThat(scratch.getCallId()).isNull();
+
+        codec.decode(OFFER, scratch, false);
+        assertThat(scratch.getSdp()).isNull();
+        assertThat(scratch.getCallId()).isEqualTo(42L);
+    }
+
+    @Test
+    void cborFramesRoundTripToTheSameJson() throws Exception {
+        ByteBuffer frame = cbor(OFFER);
+
+        assertThat(frame.remaining()).isLessThan(OFFER.length());
+        assertThat(codec.toJson(frame)).isEqualTo(OFFER);
+        // toJson leaves the frame as it was, so it can be read again
+        assertThat(codec.toJson(frame)).isEqualTo(OFFER);
+    }
+
+    @Test
+    void decodesTheHeaderOfACborFrame() throws Exception {
+        SignalingMessage message = codec.decode(cbor(OFFER), new SignalingMessage());
+
+        assertThat(message.getType()).isSameAs("CALL");
+        assertThat(message.getAction()).isSameAs("OFFER");
+        assertThat(message.getReceiver()).isEqualTo("bob");
+        assertThat(message.getCallId()).isEqualTo(42L);
+        assertThat(message.getSdp()).isNull();
+    }
+
+    @Test
+    void decodesCborFramesAtAnOffsetIntoTheirArray() throws Exception {
+        ByteBuffer encoded = cbor(OFFER);
+        ByteBuffer shifted = ByteBuffer.allocate(encoded.remaining() + 8);
+        shifted.position(8);
+        shifted.put(encoded).flip().position(8);
+
+        assertThat(codec.toJson(shifted.slice())).isEqualTo(OFFER);
+        assertThat(codec.toJson(shifted)).isEqualTo(OFFER);
+    }
+
+    @Test
+    void rejectsFramesThatAreNotObjects() throws Exception {
+        assertThatThrownBy(() -> codec.decode("[1,2]")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.toJson(cbor("[1,2]"))).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void framesTooBigForTheBufferOverflow() {
+        assertThatThrownBy(() -> codec.toCbor(OFFER, ByteBuffer.allocate(16)))
+                .isInstanceOf(BufferOverflowException.class);
+    }
+
+    @Test
+    void maxCborLengthFitsFloatsAndMultiByteText() throws Exception {
+        for (String json : new String[] { "{\"a\":[1.5,2.5,3.5]}", "{\"text\":\"€€€\"}", "{}" }) {
+            ByteBuffer exact = ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(json));
+            assertThat(codec.toJson(codec.toCbor(json, exact))).isEqualTo(json);
+        }
+    }
+
+    @Test
+    void bufferPoolReusesItsOwnBuffersOnly() {
+        ByteBufferPool pool = new ByteBufferPool(64, 1);
+
+        ByteBuffer first = pool.acquire();
+        first.put((byte) 1);
+        pool.release(first);
+        assertThat(pool.available()).isEqualTo(1);
+
+        ByteBuffer again = pool.acquire();
+        assertThat(again).isSameAs(first);
+        assertThat(again.position()).isZero();
+
+        pool.release(ByteBuffer.allocate(128));
+        assertThat(pool.available()).isZero();
+        pool.release(again);
+        pool.release(ByteBuffer.allocate(64));
+        assertThat(pool.available()).isEqualTo(1);
+        assertThat(pool.allocated()).isEqualTo(1);
+    }
+
+    @Test
+    void wireFormatFollowsTheAcceptedSubprotocol() {
+        assertThat(WireFormat.of("signaling.cbor")).isEqualTo(WireFormat.CBOR);
+        assertThat(WireFormat.of("signaling.json")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.of(null)).isEqualTo(WireFormat.JSON);
+    }
+}
@@ -0,0 +1,36 @@
+package com.webrtc.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketCompressionFilterTest {
+
+    private static final String CHROME = "permessage-deflate; client_max_window_bits";
+
+    @Test
+    void dropsDeflateWhenItIsOff() {
+        WebSocketCompressionFilter filter = new WebSocketCompressionFilter(false, true);
+
+        assertThat(filter.rewrite(CHROME)).isNull();
+        assertThat(filter.rewrite(CHROME + ", x-webkit-test")).isEqualTo("x-webkit-test");
+        assertThat(filter.rewrite("Permessage-Deflate")).isNull();
+    }
+
+    @Test
+    void asksForNoServerContextTakeoverOnce() {
+        WebSocketCompressionFilter filter = new WebSocketCompressionFilter(true, false);
+
+        assertThat(filter.rewrite(CHROME)).isEqualTo(CHROME + "; server_no_context_takeover");
+        assertThat(filter.rewrite("permessage-deflate; server_no_context_takeover"))
+                .isEqualTo("permessage-deflate; server_no_context_takeover");
+    }
+
+    @Test
+    void leavesOtherExtensionsAsOffered() {
+        WebSocketCompressionFilter filter = new WebSocketCompressionFilter(true, false);
+
+        assertThat(filter.rewrite(" x-foo; a=1 ,permessage-deflate"))
+                .isEqualTo("x-foo; a=1, permessage-deflate; server_no_context_takeover");
+    }
+}
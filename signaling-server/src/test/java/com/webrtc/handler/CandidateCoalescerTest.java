@@ -0,0 +1,145 @@
+package com.webrtc.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.dto.SignalingMessage;
+import com.webrtc.logging.SignalingEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateCoalescerTest {
+
+    private record Sent(String receiver, String payload, boolean candidate, Long callId) {}
+
+    private static final String OBJECT_CANDIDATE = "{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"alice\",\"receiver\":\"bob\",\"callId\":7,"
+            + "\"candidate\":{\"candidate\":\"candidate:1 1 udp 2122260223 10.0.0.1 54400 typ host\",\"sdpMid\":\"0\",\"sdpMLineIndex\":0}}";
+    // A bare string candidate, crafted to break out of the string if it were written unquoted
+    private static final String STRING_CANDIDATE = "{\"type\":\"CALL\",\"action\":\"CANDIDATE\",\"sender\":\"alice\",\"receiver\":\"bob\",\"callId\":7,"
+            + "\"candidate\":\"candidate:2 1 udp 1 10.0.0.2 9 typ host\\\"],\\\"receiver\\\":\\\"mallory\"}";
+
+    private final SignalingMessageCodec codec = new SignalingMessageCodec();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Sent> sent = new CopyOnWriteArrayList<>();
+    private CandidateCoalescer coalescer;
+
+    private CandidateCoalescer coalescer(Duration window) {
+        coalescer = new CandidateCoalescer(new SimpleMeterRegistry(), new SignalingEvents(""), window);
+        coalescer.setSink((receiver, message, candidate, callId) -> sent.add(new Sent(receiver, message.getPayload(), candidate, callId)));
+        return coalescer;
+    }
+
+    // What SignalingHandler does with a candidate frame from alice's socket
+    private void add(String frame) throws Exception {
+        SignalingMessage signal = codec.decode(frame);
+        coalescer.add("alice", signal.getReceiver(), signal.getCallId(), signal.getCandidate(), new TextMessage(frame));
+    }
+
+    @AfterEach
+    void stop() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void batchesObjectAndStringCandidatesIntoValidJson() throws Exception {
+        coalescer(Duration.ofSeconds(10));
+        add(OBJECT_CANDIDATE);
+        add(STRING_CANDIDATE);
+
+        coalescer.flush("alice", "bob", 7L);
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).candidate()).isTrue();
+        assertThat(sent.get(0).callId()).isEqualTo(7L);
+        JsonNode frame = mapper.readTree(sent.get(0).payload());
+        assertThat(frame.get("action").asText()).isEqualTo("CANDIDATES");
+        assertThat(frame.get("receiver").asText()).isEqualTo("bob");
+        assertThat(frame.get("callId").asLong()).isEqualTo(7L);
+        JsonNode candidates = frame.get("candidates");
+        assertThat(candidates).hasSize(2);
+        assertThat(candidates.get(0)).isEqualTo(mapper.readTree(OBJECT_CANDIDATE).get("candidate"));
+        assertThat(candidates.get(1).asText()).isEqualTo(mapper.readTree(STRING_CANDIDATE).get("candidate").asText());
+    }
+
+    @Test
+    void aLoneCandidateIsForwardedAsItsOriginalFrame() throws Exception {
+        coalescer(Duration.ofSeconds(10));
+        add(STRING_CANDIDATE);
+
+        coalescer.flush("alice", "bob", 7L);
+
+        assertThat(sent).containsExactly(new Sent("bob", STRING_CANDIDATE, true, 7L));
+    }
+
+    @Test
+    void aNonCandidateFrameFlushesTheBatchBeforeItIsRouted() throws Exception {
+        coalescer(Duration.ofSeconds(10));
+        add(OBJECT_CANDIDATE);
+        add(OBJECT_CANDIDATE);
+
+        // SignalingHandler: flush, then route the frame itself
+        coalescer.flush("alice", "bob", 7L);
+        sent.add(new Sent("bob", "answer", false, 7L));
+
+        assertThat(sent).extracting(Sent::payload).hasSize(2).last().isEqualTo("answer");
+        assertThat(mapper.readTree(sent.get(0).payload()).get("candidates")).hasSize(2);
+        // Nothing left for the window to send later
+        coalescer.flush("alice", "bob", 7L);
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void theBatchNamesTheRegisteredSenderNotTheClaimedOne() throws Exception {
+        coalescer(Duration.ofSeconds(10));
+        add(OBJECT_CANDIDATE.replace("\"sender\":\"alice\"", "\"sender\":\"carol\""));
+        add(OBJECT_CANDIDATE.replace("\"sender\":\"alice\"", "\"sender\":\"carol\""));
+
+        coalescer.flush("alice", "bob", 7L);
+
+        assertThat(sent).hasSize(1);
+        assertThat(mapper.readTree(sent.get(0).payload()).get("sender").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void candidatesOfDifferentCallsAreNotMixed() throws Exception {
+        coalescer(Duration.ofSeconds(10));
+        add(OBJECT_CANDIDATE);
+        add(OBJECT_CANDIDATE.replace("\"callId\":7", "\"callId\":8"));
+
+        coalescer.flush("alice", "bob", 8L);
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).callId()).isEqualTo(8L);
+        assertThat(mapper.readTree(sent.get(0).payload()).get("callId").asLong()).isEqualTo(8L);
+
+        coalescer.flush("alice", "bob", 7L);
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).callId()).isEqualTo(7L);
+    }
+
+    @Test
+    void theWindowFlushesOnItsOwn() throws Exception {
+        CountDownLatch flushed = new CountDownLatch(1);
+        coalescer(Duration.ofMillis(20));
+        coalescer.setSink((receiver, message, candidate, callId) -> {
+            sent.add(new Sent(receiver, message.getPayload(), candidate, callId));
+            flushed.countDown();
+        });
+        add(OBJECT_CANDIDATE);
+        add(OBJECT_CANDIDATE);
+        add(OBJECT_CANDIDATE);
+
+        assertThat(flushed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(sent).hasSize(1);
+        assertThat(mapper.readTree(sent.get(0).payload()).get("candidates")).hasSize(3);
+    }
+}
@@ -0,0 +1,108 @@
+package com.webrtc.handler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceSetTest {
+
+    private static OutboundSession socket() {
+        OutboundSession outbound = mock(OutboundSession.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(outbound.getSession()).thenReturn(session);
+        when(outbound.isOpen()).thenReturn(true);
+        return outbound;
+    }
+
+    @Test
+    void reconnectingDeviceReplacesItsSocketAndKeepsItsPins() {
+        OutboundSession first = socket();
+        OutboundSession second = socket();
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", first).pin(1, "desk");
+
+        assertThat(devices.session("desk")).isSameAs(first);
+        DeviceSet reconnected = devices.with("desk", second);
+
+        assertThat(reconnected.size()).isEqualTo(1);
+        assertThat(reconnected.session("desk")).isSameAs(second);
+        assertThat(reconnected.pinned(1)).isEqualTo("desk");
+        // The replaced socket is no longer in the set, so its close leaves the set alone
+        assertThat(reconnected.find(first.getSession())).isNull();
+        assertThat(reconnected.without(first.getSession())).isSameAs(reconnected);
+    }
+
+    @Test
+    void withoutRemovesOnlyThatSocket() {
+        OutboundSession desk = socket();
+        OutboundSession phone = socket();
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", desk).with("phone", phone);
+
+        DeviceSet remaining = devices.without(desk.getSession());
+        assertThat(remaining.size()).isEqualTo(1);
+        assertThat(remaining.session("phone")).isSameAs(phone);
+        assertThat(remaining.session("desk")).isNull();
+        assertThat(remaining.without(phone.getSession()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void pinnedCallGoesToItsDeviceOnlyAndEverythingElseToAll() {
+        OutboundSession desk = socket();
+        OutboundSession phone = socket();
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", desk).with("phone", phone).pin(7, "phone");
+        OutboundFrame frame = new OutboundFrame(new TextMessage("{}"), null);
+
+        assertThat(devices.deliver(7L, frame, false, null)).isEqualTo(1);
+        verify(phone).enqueue(frame, false);
+        verify(desk, never()).enqueue(any(OutboundFrame.class), anyBoolean());
+
+        assertThat(devices.deliver(8L, frame, false, null)).isEqualTo(2);
+        assertThat(devices.deliver(null, frame, false, null)).isEqualTo(2);
+        verify(desk, times(2)).enqueue(frame, false);
+    }
+
+    @Test
+    void pinToAClosedDeviceFallsBackToAllOpenOnes() {
+        OutboundSession desk = socket();
+        OutboundSession phone = socket();
+        when(phone.isOpen()).thenReturn(false);
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", desk).with("phone", phone).pin(7, "phone");
+
+        assertThat(devices.deliver(7L, new OutboundFrame(new TextMessage("{}"), null), false, null)).isEqualTo(1);
+        verify(desk).enqueue(any(OutboundFrame.class), anyBoolean());
+    }
+
+    @Test
+    void oldestPinsAreDroppedPastTheCap() {
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", socket());
+        for (long call = 1; call <= DeviceSet.MAX_PINS + 2; call++) {
+            devices = devices.pin(call, "desk");
+        }
+
+        assertThat(devices.pinned(1)).isNull();
+        assertThat(devices.pinned(2)).isNull();
+        assertThat(devices.pinned(3)).isEqualTo("desk");
+        assertThat(devices.pinned(DeviceSet.MAX_PINS + 2)).isEqualTo("desk");
+        assertThat(devices.unpin(3).pinned(3)).isNull();
+    }
+
+    @Test
+    void deliverToOthersSkipsTheNamedDevice() {
+        OutboundSession desk = socket();
+        OutboundSession phone = socket();
+        DeviceSet devices = DeviceSet.EMPTY.with("desk", desk).with("phone", phone);
+        TextMessage hangup = new TextMessage("{}");
+
+        assertThat(devices.deliverToOthers("desk", hangup)).isEqualTo(1);
+        verify(phone).enqueue(hangup, false);
+        verify(desk, never()).enqueue(hangup, false);
+    }
+}
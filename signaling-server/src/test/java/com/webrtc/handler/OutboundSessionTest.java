@@ -0,0 +1,207 @@
+package com.webrtc.handler;
+
+import com.webrtc.codec.SignalingMessageCodec;
+import com.webrtc.codec.WireFormat;
+import com.webrtc.config.IoExecutors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundSessionTest {
+
+    // Drain tasks wait here until the test runs them, so what is queued at each point is known
+    private static final class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.remove(0).run();
+        }
+
+        @Override public void execute(Runnable command) { tasks.add(command); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return List.of(); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+
+    private final ManualExecutor senders = new ManualExecutor();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final List<WebSocketMessage<?>> sent = new ArrayList<>();
+    private final WebSocketSession socket = mock(WebSocketSession.class);
+    private boolean open = true;
+    private OutboundDispatcher dispatcher;
+
+    OutboundSessionTest() throws Exception {
+        when(socket.getId()).thenReturn("s1");
+        when(socket.isOpen()).thenAnswer(invocation -> open);
+        doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(socket).sendMessage(any());
+        doAnswer(invocation -> open = false).when(socket).close(any(CloseStatus.class));
+    }
+
+    private OutboundSession session(int capacity, int candidateLag, String policy) {
+        IoExecutors executors = mock(IoExecutors.class);
+        when(executors.senders()).thenReturn(senders);
+        dispatcher = new OutboundDispatcher(meters, executors, new SignalingMessageCodec(),
+                capacity, candidateLag, policy, 1024, 4);
+        return dispatcher.open(socket);
+    }
+
+    private List<String> sentText() {
+        return sent.stream().map(message -> message instanceof TextMessage text ? text.getPayload() : "ping").toList();
+    }
+
+    private double counter(String name, String reason) {
+        return meters.get(name).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void deliversInOrderFromASingleDrain() {
+        OutboundSession session = session(8, 8, "DROP_OLDEST");
+
+        session.send(new TextMessage("a"));
+        session.enqueue(new TextMessage("b"), true);
+        session.send(new TextMessage("c"));
+        assertThat(senders.tasks).hasSize(1);
+
+        senders.runAll();
+        assertThat(sentText()).containsExactly("a", "b", "c");
+
+        // Idle again: the next frame schedules a new drain
+        session.send(new TextMessage("d"));
+        assertThat(senders.tasks).hasSize(1);
+        senders.runAll();
+        assertThat(sentText()).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    void dropsCandidatesOnceThePeerLags() {
+        OutboundSession session = session(8, 2, "DROP_OLDEST");
+
+        assertThat(session.enqueue(new TextMessage("offer"), false)).isTrue();
+        assertThat(session.enqueue(new TextMessage("c1"), true)).isTrue();
+        assertThat(session.enqueue(new TextMessage("c2"), true)).isFalse();
+        // Only candidates are refused at the lag threshold
+        assertThat(session.enqueue(new TextMessage("answer"), false)).isTrue();
+
+        senders.runAll();
+        assertThat(sentText()).containsExactly("offer", "c1", "answer");
+        assertThat(counter("signaling.outbound.dropped", "stale_candidate")).isEqualTo(1);
+    }
+
+    @Test
+    void dropOldestEvictsOnlyCandidatesAndPingsThenDisconnects() throws Exception {
+        OutboundSession session = session(3, 3, "DROP_OLDEST");
+
+        session.enqueue(new TextMessage("c1"), true);
+        session.enqueue(new PingMessage(), false);
+        session.send(new TextMessage("offer"));
+        // Full: the candidate goes first, then the ping
+        assertThat(session.enqueue(new TextMessage("answer"), false)).isTrue();
+        assertThat(session.enqueue(new TextMessage("hangup"), false)).isTrue();
+        assertThat(counter("signaling.outbound.dropped", "stale_candidate")).isEqualTo(1);
+        assertThat(counter("signaling.outbound.dropped", "overflow")).isEqualTo(1);
+
+        // Nothing left that can be dropped: the slow peer is cut off rather than losing a frame
+        assertThat(session.enqueue(new TextMessage("ring"), false)).isFalse();
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(session.isOpen()).isFalse();
+        assertThat(meters.counter("signaling.outbound.disconnects").count()).isEqualTo(1);
+        assertThat(session.enqueue(new TextMessage("late"), false)).isFalse();
+
+        senders.runAll();
+        assertThat(sent).isEmpty();
+        assertThat(meters.get("signaling.outbound.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void disconnectPolicyClosesAsSoonAsTheQueueIsFull() throws Exception {
+        OutboundSession session = session(2, 2, "disconnect");
+
+        session.enqueue(new TextMessage("c1"), true);
+        session.send(new TextMessage("offer"));
+        assertThat(session.enqueue(new TextMessage("answer"), false)).isFalse();
+
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(counter("signaling.outbound.dropped", "stale_candidate")).isZero();
+    }
+
+    @Test
+    void discardQueuedKeepsTheSessionUsable() {
+        OutboundSession session = session(8, 8, "DROP_OLDEST");
+
+        session.send(new TextMessage("old"));
+        session.discardQueued();
+        session.send(new TextMessage("new"));
+        senders.runAll();
+
+        assertThat(sentText()).containsExactly("new");
+        assertThat(meters.get("signaling.outbound.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void cborSessionsGetBinaryFramesAndBuffersGoBackToThePool() throws Exception {
+        OutboundSession session = session(8, 8, "DROP_OLDEST");
+        session.setFormat(WireFormat.CBOR);
+
+        session.send(new TextMessage("{\"type\":\"CALL\",\"action\":\"RING\"}"));
+        // Malformed JSON fails to encode: counted, and its buffer still returned
+        session.send(new TextMessage("{\"type\":"));
+        session.send(new TextMessage("{\"type\":\"CALL\",\"action\":\"HANGUP\"}"));
+        senders.runAll();
+
+        assertThat(sent).hasSize(2).allMatch(message -> message instanceof BinaryMessage);
+        assertThat(meters.counter("signaling.outbound.failures").count()).isEqualTo(1);
+        assertThat(meters.get("signaling.outbound.buffers.allocated").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void aFrameThatCameAsCborIsRelayedAsItsOwnBytes() throws Exception {
+        OutboundSession session = session(8, 8, "DROP_OLDEST");
+        session.setFormat(WireFormat.CBOR);
+        SignalingMessageCodec codec = new SignalingMessageCodec();
+        String json = "{\"type\":\"CALL\",\"action\":\"OFFER\",\"sdp\":\"v=0\"}";
+        ByteBuffer cbor = codec.toCbor(json, ByteBuffer.allocate(SignalingMessageCodec.maxCborLength(json)));
+        OutboundFrame frame = dispatcher.frame(cbor);
+
+        session.enqueue(frame, false);
+        senders.runAll();
+
+        assertThat(sent).hasSize(1);
+        assertThat(((BinaryMessage) sent.get(0)).getPayload()).isEqualTo(cbor);
+        // Nothing was encoded, and the JSON is still there for anyone who needs it
+        assertThat(meters.get("signaling.outbound.buffers.allocated").gauge().value()).isZero();
+        assertThat(frame.text().getPayload()).isEqualTo(json);
+    }
+
+    @Test
+    void framesForAClosedSocketAreNotWritten() throws Exception {
+        OutboundSession session = session(8, 8, "DROP_OLDEST");
+
+        session.send(new TextMessage("a"));
+        open = false;
+        senders.runAll();
+
+        verify(socket, never()).sendMessage(any());
+        assertThat(session.isOpen()).isFalse();
+    }
+}
@@ -0,0 +1,175 @@
+package com.webrtc.presence;
+
+import com.webrtc.cluster.InMemorySessionDirectory;
+import com.webrtc.config.IoExecutors;
+import com.webrtc.timer.HashedWheelTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresenceServiceTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-presence", 10, TimeUnit.MILLISECONDS, 64);
+    private final InMemorySessionDirectory directory = new InMemorySessionDirectory("presence-test-" + System.nanoTime());
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final IoExecutors executors = new IoExecutors(false, 4);
+
+    // 50ms beats, dead after 150ms of silence, 200ms to come back, 2 frames kept
+    private final PresenceService presence = new PresenceService(timer, executors, directory, meters,
+            Duration.ofMillis(50), Duration.ofMillis(150), Duration.ofMillis(200), 2);
+
+    @AfterEach
+    void stop() {
+        timer.stop();
+        executors.shutdown();
+    }
+
+    @Test
+    void unknownUsersAreOnlineOnlyIfAnotherNodeHasThem() {
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.OFFLINE);
+
+        directory.register("alice", "node-b");
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.ONLINE);
+    }
+
+    @Test
+    void replaysWhatWasKeptWhenTheUserComesBack() {
+        presence.online("alice", frame -> { }, () -> { });
+        assertThat(presence.away("alice", () -> true, () -> { })).isTrue();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.AWAY);
+
+        assertThat(presence.buffer("alice", new TextMessage("1"))).isTrue();
+        assertThat(presence.buffer("alice", new TextMessage("2"))).isTrue();
+        assertThat(presence.buffer("alice", new TextMessage("3"))).isTrue();
+
+        List<String> replayed = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        int count = presence.online("alice", frame -> {
+            replayed.add(frame.getPayload());
+            order.add("replay");
+        }, () -> order.add("attach"));
+
+        // Oldest frame dropped at capacity; replay happens before the new socket is routable
+        assertThat(count).isEqualTo(2);
+        assertThat(replayed).containsExactly("2", "3");
+        assertThat(order).containsExactly("replay", "replay", "attach");
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.ONLINE);
+        assertThat(presence.buffer("alice", new TextMessage("4"))).isFalse();
+        assertThat(meters.counter("presence.resumed").count()).isEqualTo(1);
+        assertThat(meters.counter("presence.replay.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void signsOffOnceTheResumeWindowPasses() throws Exception {
+        CountDownLatch signedOff = new CountDownLatch(1);
+        presence.online("alice", frame -> { }, () -> { });
+        presence.away("alice", () -> true, signedOff::countDown);
+        assertThat(meters.get("presence.away").gauge().value()).isEqualTo(1);
+
+        assertThat(signedOff.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.OFFLINE);
+        assertThat(presence.buffer("alice", new TextMessage("late"))).isFalse();
+        assertThat(meters.counter("presence.expired").count()).isEqualTo(1);
+        assertThat(meters.get("presence.away").gauge().value()).isZero();
+    }
+
+    @Test
+    void signOffRunsOffTheTimerThreadAndARegistrationWaitsForIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> signOffThread = new AtomicReference<>();
+        presence.online("alice", frame -> { }, () -> { });
+        presence.away("alice", () -> true, () -> {
+            signOffThread.set(Thread.currentThread().getName());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(signOffThread.get()).startsWith("io-");
+
+        // A slow sign-off holds neither the wheel nor the entry lock
+        CountDownLatch ticked = new CountDownLatch(1);
+        timer.schedule(ticked::countDown, 10, TimeUnit.MILLISECONDS);
+        assertThat(ticked.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(presence.buffer("alice", new TextMessage("late"))).isFalse();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.OFFLINE);
+
+        // Registering again waits for the sign-off, then starts afresh
+        AtomicBoolean attached = new AtomicBoolean();
+        Thread register = Thread.ofPlatform().start(() -> presence.online("alice", frame -> { }, () -> attached.set(true)));
+        Thread.sleep(100);
+        assertThat(attached).isFalse();
+        release.countDown();
+        register.join(2000);
+        assertThat(attached).isTrue();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.ONLINE);
+    }
+
+    @Test
+    void comingBackInTimeCancelsTheSignOff() throws Exception {
+        AtomicInteger signOffs = new AtomicInteger();
+        presence.online("alice", frame -> { }, () -> { });
+        presence.away("alice", () -> true, signOffs::incrementAndGet);
+        presence.online("alice", frame -> { }, () -> { });
+
+        Thread.sleep(400);
+        assertThat(signOffs).hasValue(0);
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.ONLINE);
+    }
+
+    @Test
+    void staysOnlineWhileAnotherDeviceIsConnected() {
+        presence.online("alice", frame -> { }, () -> { });
+
+        assertThat(presence.away("alice", () -> false, () -> { })).isFalse();
+        assertThat(presence.offline("alice", () -> false)).isFalse();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.ONLINE);
+
+        assertThat(presence.offline("alice", () -> true)).isTrue();
+        assertThat(presence.status("alice")).isEqualTo(PresenceService.Status.OFFLINE);
+    }
+
+    @Test
+    void pingsLiveSocketsAndReapsSilentOnes() throws Exception {
+        AtomicInteger pings = new AtomicInteger();
+        CountDownLatch dead = new CountDownLatch(1);
+        PresenceService.Heartbeat heartbeat = presence.track(pings::incrementAndGet, dead::countDown);
+
+        // Touched more often than the timeout: pinged, never reaped
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(50);
+            heartbeat.touch();
+        }
+        assertThat(pings.get()).isPositive();
+        assertThat(dead.getCount()).isEqualTo(1);
+
+        assertThat(dead.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(meters.counter("presence.reaped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void stoppedHeartbeatNeitherPingsNorReaps() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        PresenceService.Heartbeat heartbeat = presence.track(calls::incrementAndGet, calls::incrementAndGet);
+        heartbeat.stop();
+
+        Thread.sleep(300);
+        assertThat(calls).hasValue(0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.webrtc.presence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserTenantsTest {
+
+    private final UserTenants tenants = new UserTenants(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    private final List<Set<String>> loads = new ArrayList<>();
+
+    private Map<String, String> load(Set<String> usernames) {
+        loads.add(usernames);
+        return usernames.contains("bob") ? Map.of("bob", "acme") : Map.of();
+    }
+
+    @Test
+    void registeredUsersAreNeverLoaded() {
+        tenants.remember("alice", "acme");
+
+        assertThat(tenants.tenantsOf(List.of("alice"), this::load)).containsExactly(Map.entry("alice", "acme"));
+        assertThat(loads).isEmpty();
+    }
+
+    @Test
+    void missesAreLoadedInOneBatchAndUnknownUsersAreCachedAsSuch() {
+        tenants.remember("alice", "acme");
+
+        assertThat(tenants.tenantsOf(List.of("alice", "bob", "mallory"), this::load))
+                .containsOnly(Map.entry("alice", "acme"), Map.entry("bob", "acme"));
+        assertThat(loads).containsExactly(Set.of("bob", "mallory"));
+
+        assertThat(tenants.tenantsOf(List.of("bob", "mallory"), this::load)).containsOnly(Map.entry("bob", "acme"));
+        assertThat(loads).hasSize(1);
+    }
+
+    @Test
+    void invalidatedUsersAreLoadedAgain() {
+        tenants.tenantsOf(List.of("bob"), this::load);
+        tenants.invalidate("bob");
+        tenants.tenantsOf(List.of("bob"), this::load);
+
+        assertThat(loads).containsExactly(Set.of("bob"), Set.of("bob"));
+    }
+
+    @Test
+    void aTokenWithoutATenantIsNotCached() {
+        tenants.remember("bob", null);
+        tenants.tenantsOf(List.of("bob"), this::load);
+
+        assertThat(loads).containsExactly(Set.of("bob"));
+    }
+}
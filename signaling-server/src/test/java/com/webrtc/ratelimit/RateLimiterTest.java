@@ -0,0 +1,97 @@
+package com.webrtc.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    @Test
+    void admitsABurstThenAsksToWaitAboutOneInterval() {
+        RateLimiter limiter = RateLimiter.parse("1/s:3", 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+        long wait = limiter.tryAcquire("alice");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void refusedRequestsDoNotUseUpTokens() {
+        RateLimiter limiter = RateLimiter.parse("1/s:1", 100);
+
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        long first = limiter.tryAcquire("alice");
+        long second = limiter.tryAcquire("alice");
+        // Still waiting for the same token, not one further out
+        assertThat(second).isPositive().isLessThanOrEqualTo(first);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() throws Exception {
+        RateLimiter limiter = RateLimiter.parse("50/s:1", 100);
+
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        long wait = limiter.tryAcquire("alice");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+
+    @Test
+    void keysHaveBucketsOfTheirOwn() {
+        RateLimiter limiter = RateLimiter.parse("1/m", 100);
+
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+        assertThat(limiter.tryAcquire("bob")).isZero();
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void burstDefaultsToTheRate() {
+        RateLimiter limiter = RateLimiter.parse("5/h", 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+
+    @Test
+    void offAndBlankAdmitEverything() {
+        for (String spec : new String[] { "off", " OFF ", "" }) {
+            RateLimiter limiter = RateLimiter.parse(spec, 100);
+            assertThat(limiter.isEnabled()).isFalse();
+            assertThat(limiter.tryAcquire("alice")).isZero();
+            assertThat(limiter.trackedKeys()).isZero();
+            assertThat(limiter).hasToString("off");
+        }
+    }
+
+    @Test
+    void parsesFractionalRatesAndSpaces() {
+        RateLimiter limiter = RateLimiter.parse(" 0.5/s:2 ", 100);
+
+        assertThat(limiter.isEnabled()).isTrue();
+        assertThat(limiter).hasToString("0.5/s:2");
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void rejectsMalformedSpecs() {
+        for (String spec : new String[] { "10", "10/d", "abc/s", "0/s", "-1/s", "10/s:0", "10/s:x" }) {
+            assertThatThrownBy(() -> RateLimiter.parse(spec, 100))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(spec);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.webrtc.room;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomRegistryTest {
+
+    private final RoomRegistry registry = new RoomRegistry(3);
+
+    @Test
+    void joinCreatesTheRoomAndIndexesTheMember() {
+        Room room = registry.join("acme", "standup", "alice");
+
+        assertThat(room.getId()).isEqualTo("standup");
+        assertThat(room.getTenant()).isEqualTo("acme");
+        assertThat(registry.find("acme", "standup")).isSameAs(room);
+        assertThat(registry.join("acme", "standup", "bob")).isSameAs(room);
+        assertThat(room.members()).containsExactly("alice", "bob");
+        assertThat(registry.roomsOf("alice")).containsExactly(room);
+    }
+
+    @Test
+    void joiningTwiceIsHarmless() {
+        Room room = registry.join("acme", "standup", "alice");
+
+        assertThat(registry.join("acme", "standup", "alice")).isSameAs(room);
+        assertThat(room.members()).containsExactly("alice");
+    }
+
+    @Test
+    void aFullRoomRefusesNewMembersOnly() {
+        registry.join("acme", "standup", "alice");
+        registry.join("acme", "standup", "bob");
+        Room room = registry.join("acme", "standup", "carol");
+
+        assertThat(registry.join("acme", "standup", "dave")).isNull();
+        assertThat(registry.roomsOf("dave")).isEmpty();
+        assertThat(registry.join("acme", "standup", "carol")).isSameAs(room);
+        assertThat(room.members()).hasSize(3);
+    }
+
+    @Test
+    void leaveRemovesTheMemberAndTheLastOneClosesTheRoom() {
+        Room room = registry.join("acme", "standup", "alice");
+        registry.join("acme", "standup", "bob");
+
+        assertThat(registry.leave("acme", "standup", "carol")).isNull();
+        assertThat(registry.leave("acme", "standup", "alice")).isSameAs(room);
+        assertThat(room.members()).containsExactly("bob");
+        assertThat(registry.roomsOf("alice")).isEmpty();
+
+        assertThat(registry.leave("acme", "standup", "bob")).isSameAs(room);
+        assertThat(room.isClosed()).isTrue();
+        assertThat(registry.find("acme", "standup")).isNull();
+    }
+
+    @Test
+    void aClosedRoomIsNeverReopened() {
+        Room first = registry.join("acme", "standup", "alice");
+        registry.leave("acme", "standup", "alice");
+
+        Room second = registry.join("acme", "standup", "bob");
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.members()).containsExactly("bob");
+        assertThat(first.join("carol", 3)).isEqualTo(Room.JoinResult.CLOSED);
+        assertThat(registry.find("acme", "standup")).isSameAs(second);
+    }
+
+    @Test
+    void tenantsWithTheSameRoomIdGetSeparateRooms() {
+        Room acme = registry.join("acme", "standup", "alice");
+        Room globex = registry.join("globex", "standup", "mallory");
+        Room noTenant = registry.join(null, "standup", "eve");
+
+        assertThat(globex).isNotSameAs(acme);
+        assertThat(noTenant).isNotSameAs(acme).isNotSameAs(globex);
+        assertThat(acme.members()).containsExactly("alice");
+        assertThat(registry.find("globex", "standup").contains("alice")).isFalse();
+        // Leaving is per tenant too
+        assertThat(registry.leave("globex", "standup", "alice")).isNull();
+        assertThat(acme.contains("alice")).isTrue();
+    }
+
+    @Test
+    void leaveAllLeavesEveryRoomOfTheUser() {
+        Room standup = registry.join("acme", "standup", "alice");
+        Room retro = registry.join("acme", "retro", "alice");
+        registry.join("acme", "retro", "bob");
+
+        assertThat(registry.leaveAll("alice")).containsExactlyInAnyOrder(standup, retro);
+        assertThat(registry.roomsOf("alice")).isEmpty();
+        assertThat(registry.find("acme", "standup")).isNull();
+        assertThat(retro.members()).containsExactly("bob");
+    }
+}
@@ -0,0 +1,44 @@
+package com.webrtc.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchQueryTest {
+
+    @Test
+    void eachWordOutsideQuotesIsItsOwnClause() {
+        SearchQuery query = SearchQuery.parse("Refund  escalate");
+
+        assertThat(query.clauses()).containsExactly(new String[] { "refund" }, new String[] { "escalate" });
+    }
+
+    @Test
+    void quotedWordsFormOnePhrase() {
+        SearchQuery query = SearchQuery.parse("\"Refund request\" manager");
+
+        assertThat(query.clauses()).containsExactly(new String[] { "refund", "request" }, new String[] { "manager" });
+        assertThat(query.terms()).containsExactly("refund", "request", "manager");
+    }
+
+    @Test
+    void unclosedQuoteRunsToTheEnd() {
+        SearchQuery query = SearchQuery.parse("billing \"cancel my subscription");
+
+        assertThat(query.clauses()).containsExactly(new String[] { "billing" },
+                new String[] { "cancel", "my", "subscription" });
+    }
+
+    @Test
+    void punctuationAndEmptyQuotesAreNoQuery() {
+        assertThat(SearchQuery.parse("").isEmpty()).isTrue();
+        assertThat(SearchQuery.parse(" \"\" ?! ").isEmpty()).isTrue();
+    }
+
+    @Test
+    void keepsApostrophesInsideWords() {
+        SearchQuery query = SearchQuery.parse("don't 'quoted'");
+
+        assertThat(query.terms()).containsExactly("don't", "quoted");
+    }
+}
@@ -0,0 +1,114 @@
+package com.webrtc.search;
+
+import com.webrtc.entity.Transcript;
+import com.webrtc.search.SearchResult.CallHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantIndexTest {
+
+    private static final Instant T0 = Instant.parse("2025-06-01T10:00:00Z");
+
+    private final TenantIndex index = new TenantIndex();
+
+    @BeforeEach
+    void load() {
+        index.addAll(List.of(
+                chunk(1, 0, "I would like a refund please."),
+                chunk(1, 10, "The refund request was escalated to the manager."),
+                chunk(2, 20, "Request a refund? No, I asked for a new request form."),
+                chunk(2, 30, "Thanks, that is all."),
+                chunk(3, 40, "Refund request, refund request!")));
+    }
+
+    @Test
+    void everyWordMustOccur() {
+        SearchResult result = search("refund manager");
+
+        assertThat(result.totalHits()).isEqualTo(1);
+        assertThat(result.calls()).extracting(CallHits::callId).containsExactly(1L);
+    }
+
+    @Test
+    void phraseNeedsItsWordsAdjacentAndInOrder() {
+        SearchResult result = search("\"refund request\"");
+
+        // Call 2 has both words, but never "refund request"
+        assertThat(result.calls()).extracting(CallHits::callId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(search("\"refund manager\"").totalHits()).isZero();
+    }
+
+    @Test
+    void unknownWordMatchesNothing() {
+        assertThat(search("refund chargeback").calls()).isEmpty();
+    }
+
+    @Test
+    void ranksCallsByMatchingChunksThenLatestMatch() {
+        SearchResult result = search("refund");
+
+        assertThat(result.totalCalls()).isEqualTo(3);
+        assertThat(result.totalHits()).isEqualTo(4);
+        // Call 1 has two hits; 3 and 2 one each, 3 more recently
+        assertThat(result.calls()).extracting(CallHits::callId).containsExactly(1L, 3L, 2L);
+        CallHits first = result.calls().get(0);
+        assertThat(first.hits()).isEqualTo(2);
+        assertThat(first.firstHitAt()).isEqualTo(T0);
+        assertThat(first.lastHitAt()).isEqualTo(T0.plusSeconds(10));
+    }
+
+    @Test
+    void limitsCallsAndSnippetsButCountsAll() {
+        SearchResult result = index.search(SearchQuery.parse("refund"), Long.MIN_VALUE, Long.MAX_VALUE, 1, 1);
+
+        assertThat(result.totalCalls()).isEqualTo(3);
+        assertThat(result.calls()).hasSize(1);
+        assertThat(result.calls().get(0).hits()).isEqualTo(2);
+        assertThat(result.calls().get(0).snippets()).extracting(SearchResult.Snippet::at).containsExactly(T0);
+    }
+
+    @Test
+    void timeRangeIncludesFromAndExcludesTo() {
+        long from = T0.plusSeconds(10).toEpochMilli();
+        long to = T0.plusSeconds(40).toEpochMilli();
+        SearchResult result = index.search(SearchQuery.parse("refund"), from, to, 10, 10);
+
+        assertThat(result.totalHits()).isEqualTo(2);
+        // One hit each: the later one first
+        assertThat(result.calls()).extracting(CallHits::callId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void highlightsEachWordAndWholePhrases() {
+        String content = "Refund request, then another refund request";
+
+        assertThat(TenantIndex.highlight(content, SearchQuery.parse("\"refund request\"")))
+                .containsExactly(new int[] { 0, 14 }, new int[] { 29, 43 });
+        assertThat(TenantIndex.highlight("I would like a refund please.", SearchQuery.parse("refund please")))
+                .containsExactly(new int[] { 15, 28 });
+        assertThat(TenantIndex.highlight("The refund request was escalated.", SearchQuery.parse("refund escalated")))
+                .containsExactly(new int[] { 4, 10 }, new int[] { 23, 32 });
+    }
+
+    @Test
+    void snippetsCarryTheirHighlights() {
+        SearchResult.Snippet snippet = search("manager").calls().get(0).snippets().get(0);
+
+        assertThat(snippet.speaker()).isEqualTo("agent");
+        assertThat(snippet.matches()).containsExactly(new int[] { 40, 47 });
+        assertThat(snippet.content().substring(40, 47)).isEqualTo("manager");
+    }
+
+    private SearchResult search(String query) {
+        return index.search(SearchQuery.parse(query), Long.MIN_VALUE, Long.MAX_VALUE, 10, 10);
+    }
+
+    private static Transcript chunk(long callId, int second, String content) {
+        return new Transcript(callId, "acme", "agent", content, T0.plusSeconds(second));
+    }
+}
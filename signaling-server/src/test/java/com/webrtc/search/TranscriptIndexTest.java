@@ -0,0 +1,106 @@
+package com.webrtc.search;
+
+import com.webrtc.service.TranscriptWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TranscriptWriter writer;
+    private TranscriptIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:index-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table transcripts (id bigint generated by default as identity primary key, "
+                + "call_id bigint, tenant varchar(255), speaker varchar(255), content varchar(4000), created_at timestamp)");
+        writer = new TranscriptWriter(jdbcTemplate, new SimpleMeterRegistry(), 100, 10, Duration.ofMillis(100), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.shutdown();
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Test
+    void indexesRowsWrittenByAnyNodePerTenant() {
+        insert(1, 10L, "acme", "refund please", Instant.now());
+        insert(2, 11L, "globex", "refund again", Instant.now());
+        insert(3, null, "acme", "refund without a call", Instant.now());
+        index = open(true);
+
+        assertThat(index.catchUp()).isEqualTo(2);
+        assertThat(hits("acme", "refund")).isEqualTo(1);
+        assertThat(hits("globex", "refund")).isEqualTo(1);
+        // Nothing new, nothing indexed twice
+        assertThat(index.catchUp()).isZero();
+        assertThat(hits("acme", "refund")).isEqualTo(1);
+    }
+
+    @Test
+    void skipsStoredRowsUnlessRebuildingOnStart() {
+        insert(1, 10L, "acme", "refund please", Instant.now());
+        index = open(false);
+        insert(2, 11L, "acme", "refund again", Instant.now());
+
+        assertThat(index.catchUp()).isEqualTo(1);
+        assertThat(hits("acme", "refund")).isEqualTo(1);
+    }
+
+    @Test
+    void picksUpRowsCommittedBelowOnesAlreadyRead() {
+        index = open(true);
+        insert(1, 10L, "acme", "refund one", Instant.now());
+        insert(3, 12L, "acme", "refund three", Instant.now());
+        assertThat(index.catchUp()).isEqualTo(2);
+
+        // Id 2 was taken by a transaction that commits after 3 was read
+        insert(2, 11L, "acme", "refund two", Instant.now());
+        insert(4, 13L, "acme", "refund four", Instant.now());
+
+        assertThat(index.catchUp()).isEqualTo(2);
+        assertThat(hits("acme", "refund")).isEqualTo(4);
+        assertThat(index.catchUp()).isZero();
+    }
+
+    @Test
+    void givesUpOnGapsOlderThanCommitLag() {
+        index = open(true);
+        insert(1, 10L, "acme", "refund one", Instant.now());
+        insert(3, 12L, "acme", "refund three", Instant.now().minusSeconds(60));
+        index.catchUp();
+
+        // Past commit-lag the gap is taken as a rollback: a late row with that id is no longer looked for
+        insert(2, 11L, "acme", "refund two", Instant.now());
+        assertThat(index.catchUp()).isZero();
+        assertThat(hits("acme", "refund")).isEqualTo(2);
+    }
+
+    private TranscriptIndex open(boolean rebuildOnStart) {
+        TranscriptIndex opened = new TranscriptIndex(writer, jdbcTemplate, new SimpleMeterRegistry(),
+                rebuildOnStart, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        opened.init();
+        return opened;
+    }
+
+    private int hits(String tenant, String query) {
+        return index.search(tenant, SearchQuery.parse(query), null, null, 10, 10).totalHits();
+    }
+
+    private void insert(long id, Long callId, String tenant, String content, Instant at) {
+        jdbcTemplate.update("insert into transcripts (id, call_id, tenant, speaker, content, created_at) values (?, ?, ?, ?, ?, ?)",
+                id, callId, tenant, "agent", content, Timestamp.from(at));
+    }
+}
@@ -0,0 +1,102 @@
+package com.webrtc.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webrtc.call.Call;
+import com.webrtc.call.CallRegistry;
+import com.webrtc.codec.ServerEventWriter;
+import com.webrtc.handler.SignalingHandler;
+import com.webrtc.service.NlpService.IntentMatch;
+import com.webrtc.service.nlp.IntentDictionary;
+import com.webrtc.service.nlp.IntentMatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NlpServiceTest {
+
+    private final IntentDictionary dictionary = mock(IntentDictionary.class);
+    private final CallRegistry callRegistry = mock(CallRegistry.class);
+    private final SignalingHandler signalingHandler = mock(SignalingHandler.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final NlpService nlp = new NlpService(dictionary, callRegistry, signalingHandler, new ServerEventWriter(),
+            meters, Duration.ofMinutes(10), 1000);
+
+    NlpServiceTest() {
+        when(dictionary.matcherFor(any())).thenReturn(IntentMatcher.compile(Map.of(
+                "REFUND", List.of("money back"),
+                "ESCALATION", List.of("speak to a manager"))));
+        Call call = mock(Call.class);
+        when(call.getCaller()).thenReturn("alice");
+        when(call.getCallee()).thenReturn("bob");
+        when(call.isParticipant(anyString())).thenAnswer(invocation -> List.of("alice", "bob").contains(invocation.<String>getArgument(0)));
+        when(callRegistry.find(7L)).thenReturn(call);
+    }
+
+    private double mentions(String intent) {
+        return meters.counter("nlp.intents", "intent", intent).count();
+    }
+
+    @Test
+    void announcesOnlyTheFirstMentionInAStream() {
+        assertThat(nlp.analyze("acme", 7L, "alice", "I want my money back")).containsExactly(new IntentMatch("REFUND", "money back"));
+        assertThat(nlp.analyze("acme", 7L, "alice", "yes, my money back")).isEmpty();
+        assertThat(nlp.analyze("acme", 7L, "alice", "or let me speak to a manager")).containsExactly(new IntentMatch("ESCALATION", "speak to a manager"));
+
+        // Later mentions are still counted
+        assertThat(mentions("REFUND")).isEqualTo(2);
+        verify(signalingHandler, times(2)).sendMessageToUser(eq("bob"), any(TextMessage.class), anyBoolean(), eq(7L));
+    }
+
+    @Test
+    void eachSpeakerAndCallIsItsOwnStream() {
+        nlp.analyze("acme", 7L, "alice", "money back");
+
+        assertThat(nlp.analyze("acme", 7L, "bob", "money back")).hasSize(1);
+        assertThat(nlp.analyze("acme", 8L, "alice", "money back")).hasSize(1);
+    }
+
+    @Test
+    void aPhraseSplitAcrossChunksIsAnnouncedOnce() {
+        assertThat(nlp.analyze("acme", 7L, "alice", "could I speak to")).isEmpty();
+        assertThat(nlp.analyze("acme", 7L, "alice", "a manager")).hasSize(1);
+    }
+
+    @Test
+    void intentsGoToBothParticipants() throws Exception {
+        nlp.analyze("acme", 7L, "alice", "money back");
+
+        ArgumentCaptor<TextMessage> frame = ArgumentCaptor.forClass(TextMessage.class);
+        verify(signalingHandler).sendMessageToUser(eq("alice"), frame.capture(), eq(false), eq(7L));
+        verify(signalingHandler).sendMessageToUser(eq("bob"), any(TextMessage.class), eq(false), eq(7L));
+        JsonNode event = new ObjectMapper().readTree(frame.getValue().getPayload());
+        assertThat(event.toString()).contains("\"REFUND\"", "\"money back\"", "\"alice\"");
+    }
+
+    @Test
+    void aSpeakerOutsideTheCallOnlyHearsThemselves() {
+        nlp.analyze("acme", 7L, "mallory", "money back");
+        nlp.analyze("acme", null, "carol", "money back");
+
+        verify(signalingHandler).sendMessageToUser(eq("mallory"), any(TextMessage.class), eq(false), eq(7L));
+        verify(signalingHandler).sendMessageToUser(eq("carol"), any(TextMessage.class), eq(false), eq(null));
+        verify(signalingHandler, never()).sendMessageToUser(eq("alice"), any(TextMessage.class), anyBoolean(), any());
+        verify(signalingHandler, never()).sendMessageToUser(eq("bob"), any(TextMessage.class), anyBoolean(), any());
+    }
+}
@@ -0,0 +1,133 @@
+package com.webrtc.service;
+
+import com.webrtc.entity.Transcript;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TranscriptWriterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final List<List<Transcript>> batches = new CopyOnWriteArrayList<>();
+    private TranscriptWriter writer;
+
+    private TranscriptWriter writer(int capacity, int batchSize, Duration flushInterval) {
+        writer = new TranscriptWriter(jdbc, meters, capacity, batchSize, flushInterval, Duration.ofMillis(20));
+        writer.addListener(batches::add);
+        return writer;
+    }
+
+    private static Transcript chunk(Long callId, String text) {
+        return new Transcript(callId, "acme", "alice", text, Instant.now());
+    }
+
+    private int written() {
+        return batches.stream().mapToInt(List::size).sum();
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (written() < count && System.nanoTime() < deadline) Thread.sleep(5);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        writer.shutdown();
+    }
+
+    @Test
+    void aFullBatchIsWrittenWithoutWaitingForTheInterval() throws Exception {
+        writer(100, 3, Duration.ofSeconds(30));
+
+        assertThat(writer.submit(chunk(2L, "a"))).isTrue();
+        assertThat(writer.submit(chunk(1L, "b"))).isTrue();
+        assertThat(writer.submit(chunk(null, "c"))).isTrue();
+        awaitWritten(3);
+
+        assertThat(batches).hasSize(1);
+        // Grouped by call, chunks outside a call last
+        assertThat(batches.get(0)).extracting(Transcript::getContent).containsExactly("b", "a", "c");
+        assertThat(meters.counter("transcripts.persisted").count()).isEqualTo(3);
+    }
+
+    @Test
+    void aPartialBatchIsWrittenOnceTheIntervalPasses() throws Exception {
+        writer(100, 50, Duration.ofMillis(50));
+
+        writer.submit(chunk(1L, "a"));
+        awaitWritten(1);
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(Transcript::getContent).containsExactly("a");
+    }
+
+    @Test
+    void refusesChunksWhileTheBufferStaysFull() throws Exception {
+        CountDownLatch inInsert = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inInsert.countDown();
+            release.await();
+            return null;
+        }).when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        writer(1, 1, Duration.ofSeconds(30));
+
+        // The writer holds the first chunk in a stuck insert, the second fills the buffer
+        assertThat(writer.submit(chunk(1L, "a"))).isTrue();
+        assertThat(inInsert.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer.submit(chunk(1L, "b"))).isTrue();
+        assertThat(writer.submit(chunk(1L, "c"))).isFalse();
+        assertThat(meters.counter("transcripts.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        awaitWritten(2);
+        assertThat(written()).isEqualTo(2);
+    }
+
+    @Test
+    void shutdownWritesEverythingStillBufferedAndStopsIntake() throws Exception {
+        writer(100, 50, Duration.ofSeconds(30));
+        for (int i = 0; i < 5; i++) {
+            assertThat(writer.submit(chunk(1L, "chunk " + i))).isTrue();
+        }
+
+        writer.shutdown();
+
+        assertThat(written()).isEqualTo(5);
+        assertThat(writer.submit(chunk(1L, "late"))).isFalse();
+        assertThat(meters.get("transcripts.buffered").gauge().value()).isZero();
+    }
+
+    @Test
+    void aFailedInsertIsCountedAndTheWriterCarriesOn() throws Exception {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database down");
+        }).when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        writer(100, 2, Duration.ofSeconds(30));
+
+        writer.submit(chunk(1L, "a"));
+        writer.submit(chunk(1L, "b"));
+        writer.shutdown();
+
+        assertThat(batches).isEmpty();
+        assertThat(meters.counter("transcripts.failed").count()).isEqualTo(2);
+    }
+}
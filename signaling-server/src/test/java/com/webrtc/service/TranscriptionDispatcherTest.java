@@ -0,0 +1,160 @@
+package com.webrtc.service;
+
+import com.webrtc.config.IoExecutors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TranscriptionDispatcherTest {
+
+    // Upstream calls wait here until the test runs them, so what is in flight at each point is known
+    private static final class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        void runNext() {
+            tasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) runNext();
+        }
+
+        @Override public void execute(Runnable command) { tasks.add(command); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return List.of(); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final List<String> ran = new ArrayList<>();
+
+    private TranscriptionDispatcher dispatcher(int maxConcurrent, int maxQueued, ExecutorService blockingIo) {
+        TranscriptionDispatcher dispatcher = new TranscriptionDispatcher(meters, maxConcurrent, maxQueued);
+        IoExecutors executors = mock(IoExecutors.class);
+        when(executors.blockingIo()).thenReturn(blockingIo);
+        ReflectionTestUtils.setField(dispatcher, "ioExecutors", executors);
+        return dispatcher;
+    }
+
+    private CompletableFuture<String> submit(TranscriptionDispatcher dispatcher, String tenant, String key, String name) {
+        return dispatcher.submit(tenant, key, () -> {
+            ran.add(name);
+            return name;
+        });
+    }
+
+    private double gauge(String name) {
+        return meters.get(name).gauge().value();
+    }
+
+    @Test
+    void tenantsWithQueuedWorkAreServedInTurn() {
+        TranscriptionDispatcher dispatcher = dispatcher(1, 100, executor);
+        submit(dispatcher, "acme", null, "acme-1");
+        submit(dispatcher, "acme", null, "acme-2");
+        submit(dispatcher, "acme", null, "acme-3");
+        submit(dispatcher, "acme", null, "acme-4");
+        submit(dispatcher, "globex", null, "globex-1");
+        submit(dispatcher, null, null, "none-1");
+
+        executor.runAll();
+
+        // acme-1 started at once; after that one job per tenant in turn, however many acme queued
+        assertThat(ran).containsExactly("acme-1", "acme-2", "globex-1", "none-1", "acme-3", "acme-4");
+    }
+
+    @Test
+    void neverRunsMoreThanMaxConcurrentAtOnce() {
+        TranscriptionDispatcher dispatcher = dispatcher(2, 100, executor);
+        for (int i = 0; i < 5; i++) {
+            submit(dispatcher, "acme", null, "job-" + i);
+        }
+
+        assertThat(executor.tasks).hasSize(2);
+        assertThat(gauge("stt.dispatch.in_flight")).isEqualTo(2);
+        assertThat(gauge("stt.dispatch.queued")).isEqualTo(3);
+
+        // A finished call frees its slot for the next one, never two
+        executor.runNext();
+        assertThat(executor.tasks).hasSize(2);
+        executor.runAll();
+        assertThat(ran).hasSize(5);
+        assertThat(gauge("stt.dispatch.in_flight")).isZero();
+        assertThat(gauge("stt.dispatch.queued")).isZero();
+    }
+
+    @Test
+    void aQueuedJobAbsorbsLaterOnesWithTheSameKey() throws Exception {
+        TranscriptionDispatcher dispatcher = dispatcher(1, 100, executor);
+        submit(dispatcher, "acme", null, "busy");
+        CompletableFuture<String> first = submit(dispatcher, "acme", "stream-1", "window-1");
+        CompletableFuture<String> second = submit(dispatcher, "acme", "stream-1", "window-2");
+        CompletableFuture<String> other = submit(dispatcher, "acme", "stream-2", "other");
+
+        assertThat(second).isSameAs(first);
+        assertThat(meters.counter("stt.dispatch.coalesced").count()).isEqualTo(1);
+
+        executor.runNext();
+        // Started jobs are no longer joined: the next window for the stream queues anew
+        CompletableFuture<String> third = submit(dispatcher, "acme", "stream-1", "window-3");
+        assertThat(third).isNotSameAs(first);
+
+        executor.runAll();
+        assertThat(ran).containsExactly("busy", "window-1", "other", "window-3");
+        assertThat(first.get()).isEqualTo("window-1");
+        assertThat(other.get()).isEqualTo("other");
+    }
+
+    @Test
+    void refusesWorkBeyondMaxQueued() {
+        TranscriptionDispatcher dispatcher = dispatcher(1, 2, executor);
+        submit(dispatcher, "acme", null, "running");
+        submit(dispatcher, "acme", null, "queued-1");
+        submit(dispatcher, "globex", null, "queued-2");
+
+        CompletableFuture<String> refused = submit(dispatcher, "globex", null, "refused");
+
+        assertThat(refused).isCompletedExceptionally();
+        assertThatThrownBy(refused::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(meters.counter("stt.dispatch.rejected").count()).isEqualTo(1);
+        executor.runAll();
+        assertThat(ran).containsExactly("running", "queued-1", "queued-2");
+    }
+
+    @Test
+    void aSlotIsReleasedWhenTheExecutorRefusesTheCall() {
+        ExecutorService refusing = mock(ExecutorService.class);
+        doThrow(new RejectedExecutionException("shut down")).when(refusing).execute(any());
+        TranscriptionDispatcher dispatcher = dispatcher(1, 100, refusing);
+
+        CompletableFuture<String> first = submit(dispatcher, "acme", null, "first");
+        CompletableFuture<String> second = submit(dispatcher, "acme", null, "second");
+
+        // Had the slot leaked, the second job would still be waiting for it
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(gauge("stt.dispatch.in_flight")).isZero();
+        assertThat(gauge("stt.dispatch.queued")).isZero();
+        assertThat(ran).isEmpty();
+    }
+}
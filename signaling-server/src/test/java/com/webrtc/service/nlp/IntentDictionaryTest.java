@@ -0,0 +1,70 @@
+package com.webrtc.service.nlp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentDictionaryTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<String> intents(IntentMatcher matcher, String text) {
+        List<String> intents = new ArrayList<>();
+        matcher.feed(new IntentMatcher.Cursor(), text, (intent, phrase) -> intents.add(intent));
+        return intents;
+    }
+
+    private IntentDictionary dictionary(String file) {
+        IntentDictionary dictionary = new IntentDictionary();
+        ReflectionTestUtils.setField(dictionary, "intentsFile", file);
+        dictionary.init();
+        return dictionary;
+    }
+
+    @Test
+    void builtInIntentsWithoutAFile() {
+        IntentDictionary dictionary = dictionary("");
+
+        assertThat(intents(dictionary.matcherFor(null), "Hello, I'd like a refund")).containsExactly("GREETING", "REFUND");
+        assertThat(dictionary.matcherFor("acme")).isSameAs(dictionary.matcherFor(null));
+    }
+
+    @Test
+    void tenantPhrasesAreAddedToTheFileDefaults() throws Exception {
+        Path file = dir.resolve("intents.json");
+        Files.writeString(file, """
+                { "default": { "REFUND": ["money back"] },
+                  "tenants": { "acme": { "REFUND": ["chargeback"], "UPGRADE": ["premium plan"] } } }
+                """);
+        IntentDictionary dictionary = dictionary(file.toString());
+
+        // "default" replaces the built-ins
+        assertThat(intents(dictionary.matcherFor(null), "hello, money back")).containsExactly("REFUND");
+        assertThat(intents(dictionary.matcherFor("other"), "a chargeback")).isEmpty();
+        assertThat(intents(dictionary.matcherFor("acme"), "money back or a chargeback on the premium plan"))
+                .containsExactly("REFUND", "REFUND", "UPGRADE");
+    }
+
+    @Test
+    void aBrokenFileKeepsTheLastGoodDictionary() throws Exception {
+        Path file = dir.resolve("intents.json");
+        Files.writeString(file, "{ \"default\": { \"REFUND\": [\"money back\"] } }");
+        IntentDictionary dictionary = dictionary(file.toString());
+        IntentMatcher loaded = dictionary.matcherFor(null);
+
+        Files.writeString(file, "{ not json");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        dictionary.reloadIfChanged();
+
+        assertThat(dictionary.matcherFor(null)).isSameAs(loaded);
+    }
+}
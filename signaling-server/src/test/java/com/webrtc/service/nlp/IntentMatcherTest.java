@@ -0,0 +1,90 @@
+package com.webrtc.service.nlp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentMatcherTest {
+
+    private final IntentMatcher matcher = IntentMatcher.compile(Map.of(
+            "ASSISTANCE", List.of("need help", "help with my bill"),
+            "REFUND", List.of("refund", "money back"),
+            "CANCELLATION", List.of("can't renew", "Cancel my plan!")));
+
+    private final List<String> hits = new ArrayList<>();
+
+    private int feed(IntentMatcher.Cursor cursor, String chunk) {
+        return matcher.feed(cursor, chunk, (intent, phrase) -> hits.add(intent + ":" + phrase));
+    }
+
+    @Test
+    void matchesWholeWordsIgnoringCaseAndPunctuation() {
+        IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+
+        assertThat(feed(cursor, "I want a REFUND... and my money-back, please")).isEqualTo(2);
+        assertThat(feed(cursor, "Refunds and refunded don't count")).isZero();
+        assertThat(feed(cursor, "so CANCEL my plan")).isEqualTo(1);
+        assertThat(hits).containsExactly("REFUND:refund", "REFUND:money back", "CANCELLATION:Cancel my plan!");
+    }
+
+    @Test
+    void apostrophesAreDropped() {
+        IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+
+        feed(cursor, "I cant renew");
+        feed(cursor, "I can’t renew");
+        assertThat(hits).containsExactly("CANCELLATION:can't renew", "CANCELLATION:can't renew");
+    }
+
+    @Test
+    void phrasesSplitAcrossChunksStillMatch() {
+        IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+
+        assertThat(feed(cursor, "I need")).isZero();
+        assertThat(feed(cursor, "help with my bill")).isEqualTo(2);
+        assertThat(hits).containsExactly("ASSISTANCE:need help", "ASSISTANCE:help with my bill");
+    }
+
+    @Test
+    void aChunkEndIsAWordBoundary() {
+        IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+
+        // "ref" | "und" are two words, not "refund"
+        feed(cursor, "ref");
+        feed(cursor, "und");
+        assertThat(hits).isEmpty();
+    }
+
+    @Test
+    void cursorsKeepStreamsApart() {
+        IntentMatcher.Cursor alice = new IntentMatcher.Cursor();
+        IntentMatcher.Cursor bob = new IntentMatcher.Cursor();
+
+        feed(alice, "money");
+        feed(bob, "back to you");
+        assertThat(hits).isEmpty();
+        feed(alice, "back");
+        assertThat(hits).containsExactly("REFUND:money back");
+    }
+
+    @Test
+    void aCursorStartsOverWithANewMatcher() {
+        IntentMatcher.Cursor cursor = new IntentMatcher.Cursor();
+        feed(cursor, "money");
+
+        IntentMatcher reloaded = IntentMatcher.compile(Map.of("REFUND", List.of("money back")));
+        assertThat(reloaded.feed(cursor, "back", (intent, phrase) -> hits.add(intent))).isZero();
+        assertThat(reloaded.feed(cursor, "money back", (intent, phrase) -> hits.add(intent))).isEqualTo(1);
+    }
+
+    @Test
+    void blankPhrasesAreIgnored() {
+        IntentMatcher blank = IntentMatcher.compile(Map.of("NOISE", List.of("", " ... ")));
+
+        assertThat(blank.feed(new IntentMatcher.Cursor(), "anything at all ...", (intent, phrase) -> hits.add(intent))).isZero();
+    }
+}
@@ -0,0 +1,75 @@
+package com.webrtc.service.stt;
+
+import com.webrtc.service.stt.PhraseMatcher.Verdict;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhraseMatcherTest {
+
+    private final PhraseMatcher matcher = PhraseMatcher.compile(
+            List.of("thank you", "bye"), List.of("thanks for watching", "дякую"), List.of("thank"), 3);
+
+    @Test
+    void emptyAndShortTranscripts() {
+        assertThat(matcher.check(null)).isEqualTo(Verdict.EMPTY);
+        assertThat(matcher.check("   ")).isEqualTo(Verdict.EMPTY);
+        assertThat(matcher.check(" ok. ")).isEqualTo(Verdict.TOO_SHORT);
+    }
+
+    @Test
+    void bannedOnlyAsTheWholeTranscriptOrItsFirstSentence() {
+        assertThat(matcher.check("Thank you.")).isEqualTo(Verdict.BANNED);
+        assertThat(matcher.check("  BYE ")).isEqualTo(Verdict.BANNED);
+        assertThat(matcher.check("Bye. See you on Monday")).isEqualTo(Verdict.BANNED);
+        assertThat(matcher.check("Thank you for the update")).isEqualTo(Verdict.PASS);
+        assertThat(matcher.check("We said bye")).isEqualTo(Verdict.PASS);
+    }
+
+    @Test
+    void containsAnywhereIgnoringCase() {
+        assertThat(matcher.check("Great session, THANKS FOR WATCHING everyone")).isEqualTo(Verdict.CONTAINS);
+        assertThat(matcher.check("Дякую за перегляд")).isEqualTo(Verdict.CONTAINS);
+    }
+
+    @Test
+    void repeatPhraseMoreThanOnce() {
+        assertThat(matcher.check("Thank the team, and thank the client")).isEqualTo(Verdict.REPEATED);
+        assertThat(matcher.check("Thank the team for the release")).isEqualTo(Verdict.PASS);
+    }
+
+    @Test
+    void overlappingPatternsFollowFailureLinks() {
+        // "she" is a prefix dead end inside "ushers"; matching has to fall back to "he" to find "hers"
+        PhraseMatcher overlapping = PhraseMatcher.compile(List.of("she"), List.of("hers"), List.of(), 3);
+        assertThat(overlapping.check("the ushers left")).isEqualTo(Verdict.CONTAINS);
+        assertThat(overlapping.check("she left early")).isEqualTo(Verdict.PASS);
+    }
+
+    @Test
+    void sentenceLoop() {
+        assertThat(matcher.check("We will be right back. We will be right back. We will be right back."))
+                .isEqualTo(Verdict.LOOP);
+        // The last sentence has no terminator after trimming
+        assertThat(matcher.check("We will be right back! we will be right back? WE WILL BE RIGHT BACK"))
+                .isEqualTo(Verdict.LOOP);
+        assertThat(matcher.check("We will be right back. We will be right back. Now, the numbers."))
+                .isEqualTo(Verdict.PASS);
+    }
+
+    @Test
+    void shortSentencesDoNotLoop() {
+        assertThat(matcher.check("No way. No way. No way. No way.")).isEqualTo(Verdict.PASS);
+    }
+
+    @Test
+    void hashCollisionIsNotALoop() {
+        // "an" and "c0" hash alike (97 * 31 + 110 == 99 * 31 + 48), and so do these sentences
+        assertThat(matcher.check("An apple a day keeps. C0 apple a day keeps. An apple a day keeps."))
+                .isEqualTo(Verdict.PASS);
+        assertThat(matcher.check("An apple a day keeps. An apple a day keeps. An apple a day keeps."))
+                .isEqualTo(Verdict.LOOP);
+    }
+}
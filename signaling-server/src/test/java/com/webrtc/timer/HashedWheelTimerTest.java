@@ -0,0 +1,107 @@
+package com.webrtc.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedWheelTimerTest {
+
+    // 10ms ticks on a 4-slot wheel: anything past 40ms needs more than one revolution
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 4);
+
+    @AfterEach
+    void stop() {
+        timer.stop();
+    }
+
+    @Test
+    void runsTaskNoEarlierThanItsDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong firedAfter = new AtomicLong();
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> {
+            firedAfter.set(System.nanoTime() - start);
+            fired.countDown();
+        }, 30, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAfter.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timer.pending()).isZero();
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        assertThat(timer.pending()).isEqualTo(1);
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timer.pending()).isZero();
+
+        Thread.sleep(80);
+        assertThat(runs).hasValue(0);
+        assertThat(timeout.isExpired()).isFalse();
+    }
+
+    @Test
+    void timeoutsBeyondOneRevolutionWaitOutTheirRounds() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        long start = System.nanoTime();
+        AtomicLong longFiredAfter = new AtomicLong();
+        // 25ms and 125ms share a slot on the 40ms wheel; the longer one must skip three passes
+        timer.schedule(() -> { order.add("long"); longFiredAfter.set(System.nanoTime() - start); fired.countDown(); },
+                125, TimeUnit.MILLISECONDS);
+        timer.schedule(() -> { order.add("short"); fired.countDown(); }, 25, TimeUnit.MILLISECONDS);
+        timer.schedule(() -> { order.add("middle"); fired.countDown(); }, 65, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("short", "middle", "long");
+        assertThat(longFiredAfter.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(125));
+    }
+
+    @Test
+    void taskCanRescheduleItself() throws Exception {
+        CountDownLatch rounds = new CountDownLatch(3);
+        Runnable[] task = new Runnable[1];
+        task[0] = () -> {
+            rounds.countDown();
+            if (rounds.getCount() > 0) timer.schedule(task[0], 15, TimeUnit.MILLISECONDS);
+        };
+        timer.schedule(task[0], 15, TimeUnit.MILLISECONDS);
+
+        assertThat(rounds.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheTimer() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        timer.schedule(() -> { throw new IllegalStateException("boom"); }, 10, TimeUnit.MILLISECONDS);
+        timer.schedule(fired::countDown, 30, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void rejectsBadWheelSizeAndSchedulingAfterStop() {
+        assertThatThrownBy(() -> new HashedWheelTimer("bad", 10, TimeUnit.MILLISECONDS, 6))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        timer.stop();
+        assertThatThrownBy(() -> timer.schedule(() -> { }, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}